@@ -6,10 +6,39 @@ set -euo pipefail
 : ${CORE_PEER_TLS_ENABLED:="false"}
 : ${DEBUG:="false"}
 
+# Sizing of the shim's transaction thread pool. Transactions beyond the queue size are rejected rather than queued
+# without bound; the shim reads these from a config.props found on the classpath.
+: ${CHAINCODE_MAX_THREADS:="5"}
+: ${CHAINCODE_CORE_THREADS:="${CHAINCODE_MAX_THREADS}"}
+: ${CHAINCODE_QUEUE_SIZE:="5000"}
+: ${CHAINCODE_THREAD_KEEP_ALIVE_MS:="5000"}
+
+if [ -x /chaincode ]; then
+   # Native executable: the thread pool settings are fixed when the image is built, and contract discovery scans the
+   # jar next to it.
+   exec /chaincode -Djava.class.path=/chaincode.jar
+fi
+
+CONFIG_DIR="${TMPDIR:-/tmp}/chaincode-config"
+mkdir -p "${CONFIG_DIR}"
+cat > "${CONFIG_DIR}/config.props" <<PROPS
+TP_CORE_POOL_SIZE=${CHAINCODE_CORE_THREADS}
+TP_MAX_POOL_SIZE=${CHAINCODE_MAX_THREADS}
+TP_QUEUE_SIZE=${CHAINCODE_QUEUE_SIZE}
+TP_KEEP_ALIVE_MS=${CHAINCODE_THREAD_KEEP_ALIVE_MS}
+PROPS
+
+# The jar comes first on the classpath so the class-data-sharing archive dumped from it at build time still matches.
+# Before accepting connections the server warms up for CHAINCODE_WARMUP_ITERATIONS synthetic iterations.
+CHAINCODE=(-cp "/chaincode.jar:${CONFIG_DIR}" org.hyperledger.fabric.samples.assettransfer.ChaincodeMain)
+if [ -f /chaincode.jsa ]; then
+   CHAINCODE=(-XX:SharedArchiveFile=/chaincode.jsa "${CHAINCODE[@]}")
+fi
+
 if [ "${DEBUG,,}" = "true" ]; then
-   exec java -agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=0.0.0.0:8000 -jar /chaincode.jar
+   exec java -agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=0.0.0.0:8000 "${CHAINCODE[@]}"
 elif [ "${CORE_PEER_TLS_ENABLED,,}" = "true" ]; then
-   exec java -jar /chaincode.jar # todo
+   exec java "${CHAINCODE[@]}" # todo
 else
-   exec java -jar /chaincode.jar
+   exec java "${CHAINCODE[@]}"
 fi
@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractRouter;
+import org.hyperledger.fabric.shim.Chaincode;
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-invoke cost of the contract API's routing compared with {@link DirectChaincode}, for a small read and a small
+ * write, against an {@link InMemoryLedger}. The {@code contractCall} benchmarks call the contract method directly and
+ * show the cost of the business logic alone; the difference to either dispatch mode is its overhead.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    /**
+     * The contract router as the shim starts it, with the contracts found on the classpath.
+     */
+    private static final class Router extends ContractRouter {
+
+        Router() {
+            super(new String[] {"--id", "dispatch-benchmark"});
+            findAllContracts();
+        }
+    }
+
+    private InMemoryLedger ledger;
+    private Chaincode router;
+    private DirectChaincode direct;
+    private AssetTransfer contract;
+    private long transactions;
+
+    @Setup
+    public void setUp() {
+        ledger = new InMemoryLedger(Duration.ZERO, Warmup.identity());
+        router = new Router();
+        direct = new DirectChaincode();
+        contract = new AssetTransfer();
+        direct.invoke(ledger.stub("setup", "CreateAsset", "asset1", "blue", "5", "Tomoko", "300"));
+    }
+
+    private String txId() {
+        return "tx" + transactions++;
+    }
+
+    @Benchmark
+    public Asset contractCallRead() {
+        return contract.ReadAsset(new Context(ledger.stub(txId())), "asset1");
+    }
+
+    @Benchmark
+    public Response contractApiRead() {
+        return router.invoke(ledger.stub(txId(), "ReadAsset", "asset1"));
+    }
+
+    @Benchmark
+    public Response directRead() {
+        return direct.invoke(ledger.stub(txId(), "ReadAsset", "asset1"));
+    }
+
+    @Benchmark
+    public Asset contractCallWrite() {
+        return contract.UpdateAsset(new Context(ledger.stub(txId())), "asset1", "red", 6, "Tomoko", 350);
+    }
+
+    @Benchmark
+    public Response contractApiWrite() {
+        return router.invoke(ledger.stub(txId(), "UpdateAsset", "asset1", "red", "6", "Tomoko", "350"));
+    }
+
+    @Benchmark
+    public Response directWrite() {
+        return direct.invoke(ledger.stub(txId(), "UpdateAsset", "asset1", "red", "6", "Tomoko", "350"));
+    }
+}
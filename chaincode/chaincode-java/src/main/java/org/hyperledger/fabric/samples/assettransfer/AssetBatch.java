@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class AssetBatch {
+
+    @Property()
+    private final List<Asset> assets;
+
+    @Property()
+    private final List<String> missingIDs;
+
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    public List<String> getMissingIDs() {
+        return missingIDs;
+    }
+
+    public AssetBatch(@JsonProperty("assets") final List<Asset> assets,
+            @JsonProperty("missingIDs") final List<String> missingIDs) {
+        this.assets = assets;
+        this.missingIDs = missingIDs;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        AssetBatch other = (AssetBatch) obj;
+
+        return Objects.equals(getAssets(), other.getAssets())
+                && Objects.equals(getMissingIDs(), other.getMissingIDs());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssets(), getMissingIDs());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [assets=" + assets
+                + ", missingIDs=" + missingIDs + "]";
+    }
+}
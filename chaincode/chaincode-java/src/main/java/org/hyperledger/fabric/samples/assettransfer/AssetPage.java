@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class AssetPage {
+
+    @Property()
+    private final List<Asset> assets;
+
+    @Property()
+    private final String bookmark;
+
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    /**
+     * @return the bookmark to pass for the next page, or empty if there are no more pages
+     */
+    public String getBookmark() {
+        return bookmark;
+    }
+
+    public AssetPage(@JsonProperty("assets") final List<Asset> assets,
+            @JsonProperty("bookmark") final String bookmark) {
+        this.assets = assets;
+        this.bookmark = bookmark;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        AssetPage other = (AssetPage) obj;
+
+        return Objects.equals(getAssets(), other.getAssets())
+                && Objects.equals(getBookmark(), other.getBookmark());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssets(), getBookmark());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [assets=" + assets
+                + ", bookmark=" + bookmark + "]";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * Order-preserving composite key indexes over the numeric properties of assets.
+ *
+ * <p>Each asset has one {@code type~value~assetID} entry per index, where the value is encoded by
+ * {@link OrderedKeys#ascending(long)} so that lexical key order is numeric order. A range query starts paging at the
+ * key of its lower bound and stops at the first entry past its upper bound, so it reads only the entries in range
+ * and works on LevelDB as well as CouchDB peers.</p>
+ */
+enum AssetRangeIndex {
+    SIZE("assetsize", Asset::getSize),
+    APPRAISED_VALUE("assetvalue", Asset::getAppraisedValue);
+
+    private static final String MARKER = "\u0000";
+
+    private final String objectType;
+    private final ToIntFunction<Asset> property;
+
+    AssetRangeIndex(final String objectType, final ToIntFunction<Asset> property) {
+        this.objectType = objectType;
+        this.property = property;
+    }
+
+    String keyOf(final int value, final String assetID) {
+        return new CompositeKey(objectType, OrderedKeys.ascending(value), assetID).toString();
+    }
+
+    /**
+     * Moves the entries of an asset in every index whose property changed.
+     *
+     * @param ctx the transaction context
+     * @param previous the asset as it was before this write, or null if it is new
+     * @param asset the asset being written, or null if it is being deleted
+     */
+    static void updateAll(final Context ctx, final Asset previous, final Asset asset) {
+        for (AssetRangeIndex index : values()) {
+            index.update(ctx, previous, asset);
+        }
+    }
+
+    private void update(final Context ctx, final Asset previous, final Asset asset) {
+        ChaincodeStub stub = ctx.getStub();
+
+        if (previous != null && asset != null && property.applyAsInt(previous) == property.applyAsInt(asset)) {
+            return;
+        }
+        if (previous != null) {
+            stub.delState(keyOf(property.applyAsInt(previous), previous.getAssetID()));
+        }
+        if (asset != null) {
+            stub.putStringState(keyOf(property.applyAsInt(asset), asset.getAssetID()), MARKER);
+        }
+    }
+
+    /**
+     * Reads one page of the IDs of assets whose property lies in a range, in ascending order of the property.
+     *
+     * @param ctx the transaction context
+     * @param min the inclusive lower bound
+     * @param max the inclusive upper bound
+     * @param pageSize the maximum number of IDs to read
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @param assetIDs receives the IDs in range
+     * @return the bookmark for the next page, or empty if the range is exhausted
+     */
+    String range(final Context ctx, final int min, final int max, final int pageSize, final String bookmark,
+            final List<String> assetIDs) {
+        CompositeKey partialKey = new CompositeKey(objectType);
+        String start = LedgerQueries.bookmarkWithin(partialKey, bookmark);
+        if (start.isEmpty()) {
+            start = LedgerQueries.bookmarkAt(new CompositeKey(objectType, OrderedKeys.ascending(min)));
+        }
+        String upper = OrderedKeys.ascending(max);
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = ctx.getStub()
+                .getStateByPartialCompositeKeyWithPagination(partialKey, pageSize, start);
+        try {
+            for (KeyValue result : results) {
+                List<String> attributes = CompositeKey.parseCompositeKey(result.getKey()).getAttributes();
+                if (attributes.get(0).compareTo(upper) > 0) {
+                    return "";
+                }
+                assetIDs.add(attributes.get(1));
+            }
+
+            return results.getMetadata() == null ? "" : results.getMetadata().getBookmark();
+        } finally {
+            LedgerQueries.close(results);
+        }
+    }
+
+    /**
+     * Reads one page of assets whose property lies in a range.
+     *
+     * @param ctx the transaction context
+     * @param reader reads an asset by ID
+     * @param min the inclusive lower bound
+     * @param max the inclusive upper bound
+     * @param pageSize the maximum number of assets to read
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return the page of assets
+     */
+    AssetPage page(final Context ctx, final Function<String, Asset> reader, final int min,
+            final int max, final int pageSize, final String bookmark) {
+        List<String> assetIDs = new ArrayList<>(pageSize);
+        String next = range(ctx, min, max, pageSize, bookmark, assetIDs);
+
+        List<Asset> assets = new ArrayList<>(assetIDs.size());
+        for (String assetID : assetIDs) {
+            Asset asset = reader.apply(assetID);
+            if (asset != null) {
+                assets.add(asset);
+            }
+        }
+
+        return new AssetPage(assets, next);
+    }
+}
@@ -5,8 +5,15 @@
 package org.hyperledger.fabric.samples.assettransfer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
@@ -18,6 +25,7 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 
@@ -41,9 +49,44 @@ public final class AssetTransfer implements ContractInterface {
 
     private final Genson genson = new Genson();
 
+    /**
+     * World state format of assets. Register an upgrader with {@link StoredSchema#then} whenever {@link Asset}
+     * changes, so assets written in older versions keep reading correctly.
+     */
+    static final StoredSchema<Asset> SCHEMA = StoredSchema.of(Asset.class, "assetID");
+
+    /**
+     * Upper bound on the number of IDs accepted by a single batch read.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Set to {@code true} to only allow assets to be created for, or transferred to, owners whose ID is that of a
+     * verified KYC record.
+     */
+    static final String REQUIRE_VERIFIED_OWNERS_ENV = "CHAINCODE_REQUIRE_VERIFIED_OWNERS";
+
+    private final boolean requireVerifiedOwners;
+
     private enum AssetTransferErrors {
         ASSET_NOT_FOUND,
-        ASSET_ALREADY_EXISTS
+        ASSET_ALREADY_EXISTS,
+        BATCH_TOO_LARGE,
+        INVALID_RECORD,
+        INVALID_ARGUMENT,
+        UNVERIFIED_OWNER
+    }
+
+    /**
+     * Creates the contract, requiring verified owners if {@value #REQUIRE_VERIFIED_OWNERS_ENV} is {@code true}. Every
+     * peer endorsing for the chaincode must be started with the same setting.
+     */
+    public AssetTransfer() {
+        this(Boolean.parseBoolean(System.getenv(REQUIRE_VERIFIED_OWNERS_ENV)));
+    }
+
+    AssetTransfer(final boolean requireVerifiedOwners) {
+        this.requireVerifiedOwners = requireVerifiedOwners;
     }
 
     /**
@@ -53,18 +96,26 @@ public final class AssetTransfer implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void InitLedger(final Context ctx) {
-        putAsset(ctx, new Asset("asset1", "blue", 5, "Tomoko", 300));
-        putAsset(ctx, new Asset("asset2", "red", 5, "Brad", 400));
-        putAsset(ctx, new Asset("asset3", "green", 10, "Jin Soo", 500));
-        putAsset(ctx, new Asset("asset4", "yellow", 10, "Max", 600));
-        putAsset(ctx, new Asset("asset5", "black", 15, "Adrian", 700));
-        putAsset(ctx, new Asset("asset6", "white", 15, "Michel", 700));
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+
+        for (Asset asset : List.of(
+                new Asset("asset1", "blue", 5, "Tomoko", 300),
+                new Asset("asset2", "red", 5, "Brad", 400),
+                new Asset("asset3", "green", 10, "Jin Soo", 500),
+                new Asset("asset4", "yellow", 10, "Max", 600),
+                new Asset("asset5", "black", 15, "Adrian", 700),
+                new Asset("asset6", "white", 15, "Michel", 700))) {
+            putAsset(ctx, findAsset(ctx, asset.getAssetID()), asset, portfolios);
+        }
 
+        portfolios.apply(ctx);
     }
 
     /**
      * Creates a new asset on the ledger.
      *
+     * <p>When {@value #REQUIRE_VERIFIED_OWNERS_ENV} is set, the owner must be the ID of a verified KYC record.</p>
+     *
      * @param ctx the transaction context
      * @param assetID the ID of the new asset
      * @param color the color of the new asset
@@ -82,18 +133,131 @@ public final class AssetTransfer implements ContractInterface {
             System.out.println(errorMessage);
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_ALREADY_EXISTS.toString());
         }
+        requireVerifiedOwner(ctx, owner);
+
+        return putAsset(ctx, null, new Asset(assetID, color, size, owner, appraisedValue));
+    }
+
+    /**
+     * Loads one chunk of a bulk load of assets, for bootstrapping or migrating a ledger.
+     *
+     * <p>When verified owners are required, every owner in the chunk must have a verified KYC record, as for
+     * {@link #CreateAsset}.</p>
+     *
+     * @param ctx the transaction context
+     * @param loadId the client-chosen ID of the load
+     * @param chunkIndex the zero-based index of this chunk within the load
+     * @param chunk base64 encoded gzip of newline-delimited asset JSON
+     * @return the checkpoint of the load after this chunk
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public BulkLoadCheckpoint BulkLoad(final Context ctx, final String loadId, final int chunkIndex, final String chunk) {
+        BulkLoadCheckpoint checkpoint = BulkLoader.readCheckpoint(ctx, "asset", loadId);
+        if (!BulkLoader.isNextChunk(checkpoint, chunkIndex)) {
+            return checkpoint;
+        }
 
-        return putAsset(ctx, new Asset(assetID, color, size, owner, appraisedValue));
+        List<String> lines = BulkLoader.decodeChunk(chunk);
+        List<Asset> assets = new ArrayList<>(lines.size());
+        Set<String> chunkIDs = new HashSet<>();
+        Set<String> owners = new HashSet<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            Asset asset = parseBulkAsset(lines.get(i), i + 1);
+
+            if (!chunkIDs.add(asset.getAssetID()) || AssetExists(ctx, asset.getAssetID())) {
+                String errorMessage = String.format("Asset %s already exists", asset.getAssetID());
+                System.out.println(errorMessage);
+                throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_ALREADY_EXISTS.toString());
+            }
+            if (owners.add(asset.getOwner())) {
+                requireVerifiedOwner(ctx, asset.getOwner());
+            }
+            assets.add(asset);
+        }
+
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        for (Asset asset : assets) {
+            putAsset(ctx, null, asset, portfolios);
+        }
+        portfolios.apply(ctx);
+
+        return BulkLoader.advance(ctx, "asset", checkpoint, assets.size());
     }
 
-    private Asset putAsset(final Context ctx, final Asset asset) {
+    private Asset parseBulkAsset(final String line, final int lineNumber) {
+        Asset asset;
+        try {
+            asset = genson.deserialize(line, Asset.class);
+        } catch (RuntimeException e) {
+            asset = null;
+        }
+
+        if (asset == null || asset.getAssetID() == null || asset.getAssetID().isEmpty()
+                || asset.getAssetID().startsWith(CompositeKey.NAMESPACE)
+                || asset.getSize() < 0 || asset.getAppraisedValue() < 0) {
+            String errorMessage = String.format("Invalid asset on line %d of chunk", lineNumber);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_RECORD.toString());
+        }
+
+        return asset;
+    }
+
+    private Asset putAsset(final Context ctx, final Asset previous, final Asset asset) {
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        putAsset(ctx, previous, asset, portfolios);
+        portfolios.apply(ctx);
+
+        return asset;
+    }
+
+    private Asset putAsset(final Context ctx, final Asset previous, final Asset asset, final OwnerPortfolios portfolios) {
         // Use Genson to convert the Asset into string, sort it alphabetically and serialize it into a json string
-        String sortedJson = genson.serialize(asset);
+        // tagged with the current schema version
+        String sortedJson = SCHEMA.write(asset);
         ctx.getStub().putStringState(asset.getAssetID(), sortedJson);
 
+        portfolios.put(asset);
+        AssetRangeIndex.updateAll(ctx, previous, asset);
+
         return asset;
     }
 
+    private Asset findAsset(final Context ctx, final String assetID) {
+        String assetJSON = ctx.getStub().getStringState(assetID);
+
+        if (assetJSON == null || assetJSON.isEmpty()) {
+            return null;
+        }
+
+        return SCHEMA.read(assetJSON);
+    }
+
+    private Asset requireAsset(final Context ctx, final String assetID) {
+        Asset asset = findAsset(ctx, assetID);
+
+        if (asset == null) {
+            String errorMessage = String.format("Asset %s does not exist", assetID);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
+        }
+
+        return asset;
+    }
+
+    private boolean isAllowedOwner(final Context ctx, final String owner) {
+        return !requireVerifiedOwners || KYCVerifiedParties.isVerified(ctx, owner);
+    }
+
+    private void requireVerifiedOwner(final Context ctx, final String owner) {
+        if (!isAllowedOwner(ctx, owner)) {
+            String errorMessage = String.format("Owner %s does not have a verified KYC record", owner);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.UNVERIFIED_OWNER.toString());
+        }
+    }
+
     /**
      * Retrieves an asset with the specified ID from the ledger.
      *
@@ -111,7 +275,48 @@ public final class AssetTransfer implements ContractInterface {
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
         }
 
-        return genson.deserialize(assetJSON, Asset.class);
+        return SCHEMA.read(assetJSON);
+    }
+
+    /**
+     * Retrieves several assets from the ledger in a single evaluation.
+     *
+     * @param ctx the transaction context
+     * @param assetIDs the IDs of the assets; duplicates are read once
+     * @return JSON of the assets found, in request order, and the IDs that were not found
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String ReadAssets(final Context ctx, final String[] assetIDs) {
+        if (assetIDs.length > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch of %d IDs exceeds the limit of %d", assetIDs.length, MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.BATCH_TOO_LARGE.toString());
+        }
+
+        List<String> idList = Arrays.asList(assetIDs);
+        if (idList.contains(null)) {
+            String errorMessage = "Batch IDs must not be null";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        Set<String> uniqueIDs = new LinkedHashSet<>(idList);
+
+        List<Asset> assets = new ArrayList<>(uniqueIDs.size());
+        List<String> missingIDs = new ArrayList<>();
+
+        for (String assetID : uniqueIDs) {
+            String assetJSON = stub.getStringState(assetID);
+
+            if (assetJSON == null || assetJSON.isEmpty()) {
+                missingIDs.add(assetID);
+            } else {
+                assets.add(SCHEMA.read(assetJSON));
+            }
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(new AssetBatch(assets, missingIDs)));
     }
 
     /**
@@ -129,13 +334,12 @@ public final class AssetTransfer implements ContractInterface {
     public Asset UpdateAsset(final Context ctx, final String assetID, final String color, final int size,
         final String owner, final int appraisedValue) {
 
-        if (!AssetExists(ctx, assetID)) {
-            String errorMessage = String.format("Asset %s does not exist", assetID);
-            System.out.println(errorMessage);
-            throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
+        Asset previous = requireAsset(ctx, assetID);
+        if (!Objects.equals(previous.getOwner(), owner)) {
+            requireVerifiedOwner(ctx, owner);
         }
 
-        return putAsset(ctx, new Asset(assetID, color, size, owner, appraisedValue));
+        return putAsset(ctx, previous, new Asset(assetID, color, size, owner, appraisedValue));
     }
 
     /**
@@ -146,13 +350,14 @@ public final class AssetTransfer implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void DeleteAsset(final Context ctx, final String assetID) {
-        if (!AssetExists(ctx, assetID)) {
-            String errorMessage = String.format("Asset %s does not exist", assetID);
-            System.out.println(errorMessage);
-            throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
-        }
+        Asset previous = requireAsset(ctx, assetID);
 
         ctx.getStub().delState(assetID);
+        AssetRangeIndex.updateAll(ctx, previous, null);
+
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        portfolios.delete(assetID);
+        portfolios.apply(ctx);
     }
 
     /**
@@ -172,6 +377,8 @@ public final class AssetTransfer implements ContractInterface {
     /**
      * Changes the owner of a asset on the ledger.
      *
+     * <p>When {@value #REQUIRE_VERIFIED_OWNERS_ENV} is set, the new owner must be the ID of a verified KYC record.</p>
+     *
      * @param ctx the transaction context
      * @param assetID the ID of the asset being transferred
      * @param newOwner the new owner
@@ -187,37 +394,273 @@ public final class AssetTransfer implements ContractInterface {
             throw new ChaincodeException(errorMessage, AssetTransferErrors.ASSET_NOT_FOUND.toString());
         }
 
-        Asset asset = genson.deserialize(assetJSON, Asset.class);
+        Asset asset = SCHEMA.read(assetJSON);
+        requireVerifiedOwner(ctx, newOwner);
 
-        putAsset(ctx, new Asset(asset.getAssetID(), asset.getColor(), asset.getSize(), newOwner, asset.getAppraisedValue()));
+        putAsset(ctx, asset, new Asset(asset.getAssetID(), asset.getColor(), asset.getSize(), newOwner, asset.getAppraisedValue()));
 
         return asset.getOwner();
     }
 
+    /**
+     * Settles an ordered batch of transfers in one transaction, writing each asset once with its net final owner.
+     *
+     * <p>Intents are applied in order, each against the owner left by the earlier intents of the batch, so an asset
+     * can change hands several times without a transaction per hop conflicting with the next. An intent whose asset
+     * does not exist, is not owned by its {@code from} at that point, or would go to an owner without a verified KYC
+     * record when {@value #REQUIRE_VERIFIED_OWNERS_ENV} is set, is not settled and leaves the asset where it was; the
+     * rest of the batch still settles. Assets that end with their original owner are not written.</p>
+     *
+     * @param ctx the transaction context
+     * @param intents JSON array of transfer intents, each with an {@code assetID}, {@code from} and {@code to}
+     * @return the result of each intent and the assets written
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Settlement SettleTransfers(final Context ctx, final String intents) {
+        List<TransferIntent> batch = parseIntents(intents);
+
+        Map<String, Asset> originals = new LinkedHashMap<>();
+        Map<String, String> owners = new HashMap<>();
+        List<TransferResult> results = new ArrayList<>(batch.size());
+
+        for (TransferIntent intent : batch) {
+            String assetID = intent.getAssetID();
+            if (!originals.containsKey(assetID)) {
+                Asset asset = findAsset(ctx, assetID);
+                originals.put(assetID, asset);
+                if (asset != null) {
+                    owners.put(assetID, asset.getOwner());
+                }
+            }
+
+            String reason = "";
+            if (originals.get(assetID) == null) {
+                reason = String.format("Asset %s does not exist", assetID);
+            } else if (!intent.getFrom().equals(owners.get(assetID))) {
+                reason = String.format("Asset %s is owned by %s, not %s", assetID, owners.get(assetID), intent.getFrom());
+            } else if (!isAllowedOwner(ctx, intent.getTo())) {
+                reason = String.format("Owner %s does not have a verified KYC record", intent.getTo());
+            } else {
+                owners.put(assetID, intent.getTo());
+            }
+            results.add(new TransferResult(intent, reason.isEmpty(), reason));
+        }
+
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        List<Asset> settled = new ArrayList<>();
+        for (Asset previous : originals.values()) {
+            if (previous == null || Objects.equals(previous.getOwner(), owners.get(previous.getAssetID()))) {
+                continue;
+            }
+            settled.add(putAsset(ctx, previous, new Asset(previous.getAssetID(), previous.getColor(),
+                    previous.getSize(), owners.get(previous.getAssetID()), previous.getAppraisedValue()), portfolios));
+        }
+        portfolios.apply(ctx);
+
+        Settlement settlement = new Settlement(results, settled);
+        ctx.getStub().setEvent("AssetsSettled", genson.serialize(settlement).getBytes());
+
+        return settlement;
+    }
+
+    private List<TransferIntent> parseIntents(final String intents) {
+        TransferIntent[] batch;
+        try {
+            batch = genson.deserialize(intents, TransferIntent[].class);
+        } catch (RuntimeException e) {
+            batch = null;
+        }
+
+        if (batch == null) {
+            String errorMessage = "Transfer intents must be a JSON array";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        if (batch.length > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch of %d intents exceeds the limit of %d", batch.length,
+                    MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.BATCH_TOO_LARGE.toString());
+        }
+
+        for (int i = 0; i < batch.length; i++) {
+            TransferIntent intent = batch[i];
+            if (intent == null || intent.getAssetID() == null || intent.getAssetID().isEmpty()
+                    || intent.getAssetID().startsWith(CompositeKey.NAMESPACE)
+                    || intent.getFrom() == null || intent.getTo() == null || intent.getTo().isEmpty()) {
+                String errorMessage = String.format("Invalid transfer intent %d of batch", i + 1);
+                System.out.println(errorMessage);
+                throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_RECORD.toString());
+            }
+        }
+
+        return List.of(batch);
+    }
+
+    /**
+     * Retrieves the number and total appraised value of the assets held by an owner.
+     *
+     * @param ctx the transaction context
+     * @param owner the owner
+     * @return the owner's portfolio summary, with zero counts if the owner holds no assets
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public OwnerSummary GetOwnerSummary(final Context ctx, final String owner) {
+        return OwnerPortfolios.read(ctx, owner);
+    }
+
+    /**
+     * Retrieves the owners with the highest total appraised value.
+     *
+     * @param ctx the transaction context
+     * @param n the number of owners to return
+     * @return JSON array of owner summaries, most valuable portfolio first
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetTopOwners(final Context ctx, final int n) {
+        if (n <= 0 || n > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Owner count must be between 1 and %d", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return genson.serialize(OwnerPortfolios.top(ctx, n));
+    }
+
+    /**
+     * Retrieves one page of the assets whose size lies in a range, smallest first.
+     *
+     * @param ctx the transaction context
+     * @param minSize the inclusive lower bound
+     * @param maxSize the inclusive upper bound
+     * @param pageSize the maximum number of assets to return
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return the page of assets and the bookmark of the next page, in the {@link ResponseEncoding} requested by the client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAssetsBySizeRange(final Context ctx, final int minSize, final int maxSize, final int pageSize,
+        final String bookmark) {
+        return queryRange(ctx, AssetRangeIndex.SIZE, minSize, maxSize, pageSize, bookmark);
+    }
+
+    /**
+     * Retrieves one page of the assets whose appraised value lies in a range, least valuable first.
+     *
+     * @param ctx the transaction context
+     * @param minValue the inclusive lower bound
+     * @param maxValue the inclusive upper bound
+     * @param pageSize the maximum number of assets to return
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return the page of assets and the bookmark of the next page, in the {@link ResponseEncoding} requested by the client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAssetsByValueRange(final Context ctx, final int minValue, final int maxValue, final int pageSize,
+        final String bookmark) {
+        return queryRange(ctx, AssetRangeIndex.APPRAISED_VALUE, minValue, maxValue, pageSize, bookmark);
+    }
+
+    private String queryRange(final Context ctx, final AssetRangeIndex index, final int min, final int max,
+        final int pageSize, final String bookmark) {
+        if (min > max || pageSize <= 0 || pageSize > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Range must not be empty and page size must be between 1 and %d",
+                    MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        AssetPage page = index.page(ctx, assetID -> findAsset(ctx, assetID), min, max, pageSize, bookmark);
+
+        return ResponseEncoding.encode(ctx, genson.serialize(page));
+    }
+
+    /**
+     * Rewrites the assets not yet in the current {@link #SCHEMA} version in one bounded slice of the key space.
+     *
+     * <p>Assets are upgraded as they are read and rewritten whenever a submit transaction updates them, so the
+     * migration is optional. Only values whose upgrade changes them are rewritten, through the same write path as
+     * any other update, so the range index and owner summaries follow. Start with an empty cursor and pass the
+     * returned cursor to the next call until it is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine, from 1 to {@link #MAX_BATCH_SIZE}
+     * @return the progress of the migration
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public MigrationProgress MigrateAssets(final Context ctx, final String cursor, final int limit) {
+        if (limit <= 0 || limit > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        MigrationProgress progress = SCHEMA.migrate(ctx, cursor, limit,
+                (previous, asset) -> putAsset(ctx, previous, asset, portfolios));
+        portfolios.apply(ctx);
+
+        return progress;
+    }
+
+    /**
+     * Brings the owner portfolio summaries up to date with the assets in one bounded slice of the key space.
+     *
+     * <p>Assets written before the summaries existed are only counted once they are written again. This sweep counts
+     * them without changing them, and leaves assets that are already counted alone, so it can be run at any time.
+     * Start with an empty cursor and pass the returned cursor to the next call until it is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine, from 1 to {@link #MAX_BATCH_SIZE}
+     * @return the progress of the sweep, with the number of assets visited as migrated
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public MigrationProgress ReindexAssets(final Context ctx, final String cursor, final int limit) {
+        if (limit <= 0 || limit > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, AssetTransferErrors.INVALID_ARGUMENT.toString());
+        }
+
+        OwnerPortfolios portfolios = new OwnerPortfolios();
+        MigrationProgress progress = SCHEMA.sweep(ctx, cursor, limit, (key, json) -> {
+            portfolios.put(SCHEMA.read(json));
+            return true;
+        });
+        portfolios.apply(ctx);
+
+        return progress;
+    }
+
     /**
      * Retrieves all assets from the ledger.
      *
      * @param ctx the transaction context
-     * @return array of assets found on the ledger
+     * @return array of assets found on the ledger, in the {@link ResponseEncoding} requested by the client
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String GetAllAssets(final Context ctx) {
         ChaincodeStub stub = ctx.getStub();
 
-        List<Asset> queryResults = new ArrayList<>();
-
         // To retrieve all assets from the ledger use getStateByRange with empty startKey & endKey.
         // Giving empty startKey & endKey is interpreted as all the keys from beginning to end.
         // As another example, if you use startKey = 'asset0', endKey = 'asset9' ,
         // then getStateByRange will retrieve asset with keys between asset0 (inclusive) and asset9 (exclusive) in lexical order.
         QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "");
 
-        for (KeyValue result: results) {
-            Asset asset = genson.deserialize(result.getStringValue(), Asset.class);
-            System.out.println(asset);
-            queryResults.add(asset);
+        // Results are decoded on a worker pool while the next ones are fetched; the pipeline keeps key order.
+        List<Asset> queryResults;
+        try {
+            queryResults = ScanPipeline.decode(results, result -> {
+                Asset asset = SCHEMA.read(result.getStringValue());
+                System.out.println(asset);
+                return asset;
+            });
+        } finally {
+            LedgerQueries.close(results);
         }
 
-        return genson.serialize(queryResults);
+        return ResponseEncoding.encode(ctx, genson.serialize(queryResults));
     }
 }
@@ -0,0 +1,72 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class BulkLoadCheckpoint {
+
+    @Property()
+    private final String loadId;
+
+    @Property()
+    private final int nextChunk;
+
+    @Property()
+    private final long recordsLoaded;
+
+    public String getLoadId() {
+        return loadId;
+    }
+
+    public int getNextChunk() {
+        return nextChunk;
+    }
+
+    public long getRecordsLoaded() {
+        return recordsLoaded;
+    }
+
+    public BulkLoadCheckpoint(@JsonProperty("loadId") final String loadId, @JsonProperty("nextChunk") final int nextChunk,
+            @JsonProperty("recordsLoaded") final long recordsLoaded) {
+        this.loadId = loadId;
+        this.nextChunk = nextChunk;
+        this.recordsLoaded = recordsLoaded;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        BulkLoadCheckpoint other = (BulkLoadCheckpoint) obj;
+
+        return Objects.equals(getLoadId(), other.getLoadId())
+                && getNextChunk() == other.getNextChunk()
+                && getRecordsLoaded() == other.getRecordsLoaded();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getLoadId(), getNextChunk(), getRecordsLoaded());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [loadId=" + loadId
+                + ", nextChunk=" + nextChunk + ", recordsLoaded=" + recordsLoaded + "]";
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+import com.owlike.genson.Genson;
+
+/**
+ * Shared plumbing for the BulkLoad transactions.
+ *
+ * <p>A load is identified by a client-chosen load ID and is streamed as a sequence of numbered chunks, each a
+ * base64 encoded gzip of newline-delimited JSON records. The checkpoint for each load is kept on the ledger, so a
+ * driver that fails part way can read it back and resume from the next chunk; resubmitting a chunk that has already
+ * been applied is a no-op.</p>
+ */
+final class BulkLoader {
+
+    /**
+     * Upper bound on the records in one chunk, which keeps each transaction's write set bounded.
+     */
+    static final int MAX_CHUNK_RECORDS = 5000;
+
+    /**
+     * Upper bound on the decompressed size of one chunk.
+     */
+    static final int MAX_CHUNK_BYTES = 16 * 1024 * 1024;
+
+    private static final String CHECKPOINT_TYPE = "bulkload";
+
+    private static final Genson GENSON = new Genson();
+
+    private BulkLoader() {
+    }
+
+    /**
+     * Decodes a chunk into its non-blank lines.
+     *
+     * @param chunk base64 encoded gzip of newline-delimited records
+     * @return the records in the chunk, in order
+     */
+    static List<String> decodeChunk(final String chunk) {
+        byte[] compressed;
+        try {
+            compressed = Base64.getDecoder().decode(chunk);
+        } catch (IllegalArgumentException e) {
+            throw invalidChunk("Chunk is not valid base64");
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new BoundedInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (lines.size() == MAX_CHUNK_RECORDS) {
+                    throw invalidChunk(String.format("Chunk exceeds the limit of %d records", MAX_CHUNK_RECORDS));
+                }
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw invalidChunk("Chunk is not valid gzip: " + e.getMessage());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Reads the checkpoint of a load, or a fresh one if the load has not started.
+     *
+     * @param ctx the transaction context
+     * @param scope the contract the load belongs to
+     * @param loadId the ID of the load
+     * @return the current checkpoint
+     */
+    static BulkLoadCheckpoint readCheckpoint(final Context ctx, final String scope, final String loadId) {
+        String checkpointJSON = ctx.getStub().getStringState(checkpointKey(scope, loadId));
+
+        if (checkpointJSON == null || checkpointJSON.isEmpty()) {
+            return new BulkLoadCheckpoint(loadId, 0, 0);
+        }
+
+        return GENSON.deserialize(checkpointJSON, BulkLoadCheckpoint.class);
+    }
+
+    /**
+     * Checks that a chunk is the next one expected by the load.
+     *
+     * @param checkpoint the current checkpoint
+     * @param chunkIndex the index of the submitted chunk
+     * @return false if the chunk was already applied, true if it should be applied now
+     */
+    static boolean isNextChunk(final BulkLoadCheckpoint checkpoint, final int chunkIndex) {
+        if (chunkIndex < checkpoint.getNextChunk()) {
+            return false;
+        }
+
+        if (chunkIndex > checkpoint.getNextChunk()) {
+            String errorMessage = String.format("Load %s expects chunk %d but received chunk %d",
+                    checkpoint.getLoadId(), checkpoint.getNextChunk(), chunkIndex);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, "CHUNK_OUT_OF_ORDER");
+        }
+
+        return true;
+    }
+
+    /**
+     * Advances and stores the checkpoint of a load after a chunk has been applied.
+     *
+     * @param ctx the transaction context
+     * @param scope the contract the load belongs to
+     * @param checkpoint the checkpoint before the chunk was applied
+     * @param recordCount the number of records in the applied chunk
+     * @return the new checkpoint
+     */
+    static BulkLoadCheckpoint advance(final Context ctx, final String scope, final BulkLoadCheckpoint checkpoint,
+            final int recordCount) {
+        BulkLoadCheckpoint next = new BulkLoadCheckpoint(checkpoint.getLoadId(), checkpoint.getNextChunk() + 1,
+                checkpoint.getRecordsLoaded() + recordCount);
+        ctx.getStub().putStringState(checkpointKey(scope, checkpoint.getLoadId()), GENSON.serialize(next));
+
+        return next;
+    }
+
+    private static String checkpointKey(final String scope, final String loadId) {
+        return new CompositeKey(CHECKPOINT_TYPE, scope, loadId).toString();
+    }
+
+    private static ChaincodeException invalidChunk(final String errorMessage) {
+        System.out.println(errorMessage);
+        return new ChaincodeException(errorMessage, "INVALID_CHUNK");
+    }
+
+    /**
+     * Guards against chunks that decompress to far more than they claim.
+     */
+    private static final class BoundedInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining = MAX_CHUNK_BYTES;
+
+        BoundedInputStream(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void consume(final int n) {
+            remaining -= n;
+            if (remaining < 0) {
+                throw invalidChunk(String.format("Chunk exceeds the limit of %d bytes", MAX_CHUNK_BYTES));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Arrays;
+
+import org.hyperledger.fabric.contract.ContractRouter;
+
+/**
+ * Entry point of the chaincode server: warms up the contracts, then hands over to the contract router, which only
+ * starts accepting connections from the peer once the warm-up is done.
+ *
+ * <p>The number of warm-up iterations is read from {@code CHAINCODE_WARMUP_ITERATIONS}; zero skips the warm-up. With
+ * {@code --warmup-only} the process exits after the warm-up, which is how the Docker build records the classes loaded
+ * for the class-data-sharing archive and checks the native executable; a warm-up transaction that fails then fails the
+ * process instead of being logged.</p>
+ */
+public final class ChaincodeMain {
+
+    static final String WARMUP_ITERATIONS_ENV = "CHAINCODE_WARMUP_ITERATIONS";
+
+    static final String WARMUP_ONLY = "--warmup-only";
+
+    private ChaincodeMain() {
+    }
+
+    /**
+     * Starts the chaincode.
+     *
+     * @param args the chaincode arguments, passed on to the contract router
+     * @throws Exception if the contract router fails to start
+     */
+    public static void main(final String[] args) throws Exception {
+        String iterations = System.getenv(WARMUP_ITERATIONS_ENV);
+        int warmupIterations = iterations == null || iterations.isEmpty()
+                ? Warmup.DEFAULT_ITERATIONS
+                : Integer.parseInt(iterations);
+
+        if (Arrays.asList(args).contains(WARMUP_ONLY)) {
+            Warmup.verify(warmupIterations);
+            return;
+        }
+        Warmup.run(warmupIterations);
+        ContractRouter.main(args);
+    }
+}
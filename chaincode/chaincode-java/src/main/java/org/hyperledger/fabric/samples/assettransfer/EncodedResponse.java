@@ -0,0 +1,72 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class EncodedResponse {
+
+    @Property()
+    private final String encoding;
+
+    @Property()
+    private final int length;
+
+    @Property()
+    private final String payload;
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public EncodedResponse(@JsonProperty("encoding") final String encoding, @JsonProperty("length") final int length,
+            @JsonProperty("payload") final String payload) {
+        this.encoding = encoding;
+        this.length = length;
+        this.payload = payload;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        EncodedResponse other = (EncodedResponse) obj;
+
+        return Objects.equals(getEncoding(), other.getEncoding())
+                && getLength() == other.getLength()
+                && Objects.equals(getPayload(), other.getPayload());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getEncoding(), getLength(), getPayload());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [encoding=" + encoding
+                + ", length=" + length + "]";
+    }
+}
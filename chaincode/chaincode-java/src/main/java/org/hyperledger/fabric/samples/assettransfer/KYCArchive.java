@@ -0,0 +1,168 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+/**
+ * Cold storage for KYC records that reached a terminal status, outside the active key space.
+ *
+ * <p>Each archive sweep packs the records it moves into one {@code kycArchive~txId} entry, their stored JSON one per
+ * line, gzipped and base64 encoded like {@link BulkLoader} chunks, and leaves a {@code kycArchived~id} pointer to the
+ * pack for each record. The pointers are composite keys, so neither they nor the packs are visited by range scans over
+ * records, and an archived record is still found with two point reads.</p>
+ */
+final class KYCArchive {
+
+    static final String PACK_TYPE = "kycArchive";
+
+    static final String POINTER_TYPE = "kycArchived";
+
+    private KYCArchive() {
+    }
+
+    static String packKeyOf(final String packId) {
+        return new CompositeKey(PACK_TYPE, packId).toString();
+    }
+
+    static String pointerKeyOf(final String id) {
+        return new CompositeKey(POINTER_TYPE, id).toString();
+    }
+
+    /**
+     * @param ctx the transaction context
+     * @param id the ID of a KYC record
+     * @return whether the record is archived
+     */
+    static boolean contains(final Context ctx, final String id) {
+        String packId = ctx.getStub().getStringState(pointerKeyOf(id));
+        return packId != null && !packId.isEmpty();
+    }
+
+    /**
+     * Writes records into a new pack named after the transaction. The caller removes them from the active key space.
+     *
+     * @param ctx the transaction context
+     * @param records the records, which must not be archived already
+     */
+    static void pack(final Context ctx, final List<KYCRecord> records) {
+        ChaincodeStub stub = ctx.getStub();
+        String packId = stub.getTxId();
+
+        List<String> lines = new ArrayList<>(records.size());
+        for (KYCRecord record : records) {
+            lines.add(KYCContract.SCHEMA.write(record));
+            stub.putStringState(pointerKeyOf(record.getId()), packId);
+        }
+        stub.putStringState(packKeyOf(packId), compress(lines));
+    }
+
+    /**
+     * Reads an archived record.
+     *
+     * @param ctx the transaction context
+     * @param id the ID of the record
+     * @return the record, or null if it is not archived
+     */
+    static KYCRecord find(final Context ctx, final String id) {
+        String packId = ctx.getStub().getStringState(pointerKeyOf(id));
+        if (packId == null || packId.isEmpty()) {
+            return null;
+        }
+
+        for (String line : decompress(ctx.getStub().getStringState(packKeyOf(packId)))) {
+            KYCRecord record = KYCContract.SCHEMA.read(line);
+            if (id.equals(record.getId())) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a record out of the archive, rewriting its pack without it or deleting the pack if it was the last one.
+     * The caller writes it back to the active key space.
+     *
+     * @param ctx the transaction context
+     * @param id the ID of the record
+     * @return the record, or null if it is not archived
+     */
+    static KYCRecord unpack(final Context ctx, final String id) {
+        ChaincodeStub stub = ctx.getStub();
+        String packId = stub.getStringState(pointerKeyOf(id));
+        if (packId == null || packId.isEmpty()) {
+            return null;
+        }
+
+        KYCRecord found = null;
+        List<String> remaining = new ArrayList<>();
+        for (String line : decompress(stub.getStringState(packKeyOf(packId)))) {
+            KYCRecord record = KYCContract.SCHEMA.read(line);
+            if (found == null && id.equals(record.getId())) {
+                found = record;
+            } else {
+                remaining.add(line);
+            }
+        }
+
+        stub.delState(pointerKeyOf(id));
+        if (remaining.isEmpty()) {
+            stub.delState(packKeyOf(packId));
+        } else {
+            stub.putStringState(packKeyOf(packId), compress(remaining));
+        }
+        return found;
+    }
+
+    static String compress(final List<String> lines) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    static List<String> decompress(final String pack) {
+        List<String> lines = new ArrayList<>();
+        if (pack == null || pack.isEmpty()) {
+            return lines;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(pack))),
+                StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+}
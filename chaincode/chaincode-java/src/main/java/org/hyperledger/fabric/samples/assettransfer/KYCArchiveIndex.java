@@ -0,0 +1,121 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+/**
+ * Index of the KYC records that can be archived, ordered by when they were last updated.
+ *
+ * <p>Each {@code REJECTED} or {@code EXPIRED} record has one {@code archiveCandidate~status~updatedAt~id} entry,
+ * with the update time encoded by {@link OrderedKeys#ascending}. Walking one status from the start visits the least
+ * recently updated records first, so an archive sweep stops at the first entry at or after its cutoff, and the
+ * entries of the records it archives leave the index with them. Every sweep therefore reads only the entries it
+ * archives, and needs neither a cursor nor a paginated query, which the peer would not allow in a transaction that
+ * writes.</p>
+ */
+final class KYCArchiveIndex {
+
+    static final String INDEX_TYPE = "archiveCandidate";
+
+    private static final String MARKER = "\u0000";
+
+    private KYCArchiveIndex() {
+    }
+
+    /**
+     * @param record the record, or null
+     * @return the index key of the record, or null if it cannot be archived
+     */
+    static String keyOf(final KYCRecord record) {
+        if (record == null || (record.getStatus() != KYCStatus.REJECTED && record.getStatus() != KYCStatus.EXPIRED)) {
+            return null;
+        }
+        return new CompositeKey(INDEX_TYPE, record.getStatus().name(), OrderedKeys.ascending(record.getUpdatedAt()),
+                record.getId()).toString();
+    }
+
+    /**
+     * Adds, moves or removes the entry of a record when its status or update time changes.
+     *
+     * @param ctx the transaction context
+     * @param previous the record as it was before this write, or null if it is new
+     * @param record the record being written, or null if it is being removed
+     */
+    static void update(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        String previousKey = keyOf(previous);
+        String key = keyOf(record);
+        if (Objects.equals(previousKey, key)) {
+            return;
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        if (previousKey != null) {
+            stub.delState(previousKey);
+        }
+        if (key != null) {
+            stub.putStringState(key, MARKER);
+        }
+    }
+
+    /**
+     * Adds the entry of a record if it is missing, for records written before the index existed. An entry that is
+     * already there is not rewritten.
+     *
+     * @param ctx the transaction context
+     * @param record the record as it is stored
+     */
+    static void backfill(final Context ctx, final KYCRecord record) {
+        String key = keyOf(record);
+        if (key == null) {
+            return;
+        }
+
+        String entry = ctx.getStub().getStringState(key);
+        if (entry == null || entry.isEmpty()) {
+            ctx.getStub().putStringState(key, MARKER);
+        }
+    }
+
+    /**
+     * Collects the IDs of the records with a status that were last updated before the cutoff.
+     *
+     * <p>One more ID than the limit is collected so callers can tell whether anything remains.</p>
+     *
+     * @param ctx the transaction context
+     * @param status the status
+     * @param cutoff the epoch second before which records must have been last updated
+     * @param limit the maximum number of IDs the caller will process
+     * @return the IDs, least recently updated first
+     */
+    static List<String> due(final Context ctx, final KYCStatus status, final long cutoff, final int limit) {
+        String end = OrderedKeys.ascending(cutoff);
+        List<String> ids = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub()
+                .getStateByPartialCompositeKey(new CompositeKey(INDEX_TYPE, status.name()));
+        try {
+            for (KeyValue result : results) {
+                List<String> attributes = CompositeKey.parseCompositeKey(result.getKey()).getAttributes();
+                if (attributes.get(1).compareTo(end) >= 0 || ids.size() > limit) {
+                    break;
+                }
+                ids.add(attributes.get(2));
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class KYCBatch {
+
+    @Property()
+    private final List<KYCRecord> records;
+
+    @Property()
+    private final List<String> missingIds;
+
+    public List<KYCRecord> getRecords() {
+        return records;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public KYCBatch(@JsonProperty("records") final List<KYCRecord> records,
+            @JsonProperty("missingIds") final List<String> missingIds) {
+        this.records = records;
+        this.missingIds = missingIds;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        KYCBatch other = (KYCBatch) obj;
+
+        return Objects.equals(getRecords(), other.getRecords())
+                && Objects.equals(getMissingIds(), other.getMissingIds());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getRecords(), getMissingIds());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [records=" + records
+                + ", missingIds=" + missingIds + "]";
+    }
+}
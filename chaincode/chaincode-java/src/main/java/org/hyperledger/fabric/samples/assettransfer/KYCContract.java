@@ -4,8 +4,15 @@
 
 package org.hyperledger.fabric.samples.assettransfer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
@@ -16,7 +23,9 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 
 import com.owlike.genson.Genson;
@@ -38,16 +47,69 @@ public final class KYCContract implements ContractInterface {
 
     private final Genson genson = new Genson();
 
+    /**
+     * Upper bound on the number of IDs accepted by a single batch read.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Upper bound on the size budget of a single export call.
+     */
+    static final int MAX_EXPORT_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Upper bound on the keys examined by a single export call, so filtered exports stay bounded too.
+     */
+    static final int MAX_EXPORT_SCAN = 10000;
+
+    /**
+     * Upper bound on the records expired by a single sweep.
+     */
+    static final int MAX_SWEEP_SIZE = 500;
+
+    /**
+     * Validity of an approved KYC record when the client does not supply an expiry.
+     */
+    static final long DEFAULT_VALIDITY_SECONDS = 365L * 24 * 60 * 60;
+
+    /**
+     * Transient field through which a client supplies an explicit expiry, in epoch seconds.
+     */
+    static final String EXPIRES_AT_TRANSIENT_KEY = "expiresAt";
+
+    /**
+     * Transient field through which a client chooses what happens to a record whose document hash is already held by
+     * another record: {@code FLAG} (the default) creates it and flags it for review, {@code REJECT} fails the
+     * transaction.
+     */
+    static final String ON_DUPLICATE_TRANSIENT_KEY = "onDuplicate";
+
+    /**
+     * World state format of KYC records. Register an upgrader with {@link StoredSchema#then} whenever
+     * {@link KYCRecord} changes, so records written in older versions keep reading correctly.
+     */
+    static final StoredSchema<KYCRecord> SCHEMA = StoredSchema.of(KYCRecord.class, "documentHash");
+
     private enum KYCErrors {
         KYC_NOT_FOUND,
         KYC_ALREADY_EXISTS,
         INVALID_DECISION,
-        UNAUTHORIZED_OPERATION
+        UNAUTHORIZED_OPERATION,
+        BATCH_TOO_LARGE,
+        INVALID_RECORD,
+        INVALID_ARGUMENT,
+        DUPLICATE_DOCUMENT
     }
 
     /**
      * Creates a new KYC record on the ledger.
      *
+     * <p>The record does not expire unless the client supplies an expiry in the
+     * {@value #EXPIRES_AT_TRANSIENT_KEY} transient field.</p>
+     *
+     * <p>A record whose document hash is already held by another record is flagged as a duplicate, or rejected if the
+     * client sets the {@value #ON_DUPLICATE_TRANSIENT_KEY} transient field to {@code REJECT}.</p>
+     *
      * @param ctx the transaction context
      * @param id unique identifier for the KYC record
      * @param fullName legal name of the individual
@@ -68,6 +130,15 @@ public final class KYCContract implements ContractInterface {
             throw new ChaincodeException(errorMessage, KYCErrors.KYC_ALREADY_EXISTS.toString());
         }
 
+        boolean rejectDuplicates = rejectDuplicatesFromTransient(ctx);
+        List<String> sameDocument = isBlank(documentHash) ? List.of() : KYCDocumentIndex.ids(ctx, documentHash);
+        if (rejectDuplicates && !sameDocument.isEmpty()) {
+            String errorMessage = String.format("KYC record %s has the same document as %s", id,
+                    sameDocument.get(0));
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.DUPLICATE_DOCUMENT.toString());
+        }
+
         String mspId = ctx.getClientIdentity().getMSPID();
 
         long timestamp = ctx.getStub().getTxTimestamp().getEpochSecond();
@@ -81,20 +152,176 @@ public final class KYCContract implements ContractInterface {
                 documentHash,
                 KYCStatus.PENDING,
                 mspId,
-                timestamp
+                timestamp,
+                expiryFromTransient(ctx, 0L)
         );
 
-        String sortedJson = genson.serialize(record);
-        ctx.getStub().putStringState(id, sortedJson);
+        String sortedJson = putRecord(ctx, null, record);
+        if (!sameDocument.isEmpty()) {
+            KYCDocumentIndex.flagDuplicate(ctx, record);
+        }
 
         ctx.getStub().setEvent("KYCCreated", sortedJson.getBytes());
 
         return record;
     }
 
+    /**
+     * Loads one chunk of a bulk load of KYC records, for bootstrapping or migrating a ledger.
+     *
+     * <p>Every record is loaded as PENDING, without an expiry and attributed to the submitter's MSP, whatever the
+     * chunk says, so a load cannot verify records or speak for another organization; they are verified through
+     * {@link #VerifyKYC} as usual. Records without an update time take the transaction timestamp.</p>
+     *
+     * @param ctx the transaction context
+     * @param loadId the client-chosen ID of the load
+     * @param chunkIndex the zero-based index of this chunk within the load
+     * @param chunk base64 encoded gzip of newline-delimited KYC record JSON
+     * @return the checkpoint of the load after this chunk
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public BulkLoadCheckpoint BulkLoad(final Context ctx, final String loadId, final int chunkIndex, final String chunk) {
+        BulkLoadCheckpoint checkpoint = BulkLoader.readCheckpoint(ctx, "kyc", loadId);
+        if (!BulkLoader.isNextChunk(checkpoint, chunkIndex)) {
+            return checkpoint;
+        }
+
+        List<String> lines = BulkLoader.decodeChunk(chunk);
+        List<KYCRecord> records = new ArrayList<>(lines.size());
+        Set<String> chunkIds = new HashSet<>();
+
+        String mspId = ctx.getClientIdentity().getMSPID();
+        long timestamp = ctx.getStub().getTxTimestamp().getEpochSecond();
+
+        for (int i = 0; i < lines.size(); i++) {
+            KYCRecord record = parseBulkRecord(lines.get(i), i + 1, mspId, timestamp);
+
+            if (!chunkIds.add(record.getId()) || KYCExists(ctx, record.getId())) {
+                String errorMessage = String.format("KYC record %s already exists", record.getId());
+                System.out.println(errorMessage);
+                throw new ChaincodeException(errorMessage, KYCErrors.KYC_ALREADY_EXISTS.toString());
+            }
+            records.add(record);
+        }
+
+        for (KYCRecord record : records) {
+            putRecord(ctx, null, record);
+        }
+
+        BulkLoadCheckpoint next = BulkLoader.advance(ctx, "kyc", checkpoint, records.size());
+        ctx.getStub().setEvent("KYCBulkLoaded", genson.serialize(next).getBytes());
+
+        return next;
+    }
+
+    private KYCRecord parseBulkRecord(final String line, final int lineNumber, final String mspId, final long timestamp) {
+        KYCRecord record;
+        try {
+            record = genson.deserialize(line, KYCRecord.class);
+        } catch (RuntimeException e) {
+            record = null;
+        }
+
+        if (record == null || isBlank(record.getId()) || record.getId().startsWith(CompositeKey.NAMESPACE)
+                || isBlank(record.getFullName()) || isBlank(record.getDocumentHash())) {
+            String errorMessage = String.format("Invalid KYC record on line %d of chunk", lineNumber);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_RECORD.toString());
+        }
+
+        return new KYCRecord(
+                record.getId(),
+                record.getFullName(),
+                record.getDob(),
+                record.getNationality(),
+                record.getDocumentType(),
+                record.getDocumentHash(),
+                KYCStatus.PENDING,
+                mspId,
+                record.getUpdatedAt() == 0 ? timestamp : record.getUpdatedAt(),
+                0L
+        );
+    }
+
+    private static boolean isBlank(final String value) {
+        return value == null || value.isBlank();
+    }
+
+    private String putRecord(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        // Use Genson to convert the KYCRecord into string, sort it alphabetically and serialize it into a json string
+        // tagged with the current schema version
+        String sortedJson = SCHEMA.write(record);
+        ctx.getStub().putStringState(record.getId(), sortedJson);
+
+        KYCExpiryIndex.update(ctx, previous, record);
+        KYCStatusCounters.update(ctx, record);
+        KYCDocumentIndex.update(ctx, previous, record);
+        KYCSearchIndex.updateAll(ctx, previous, record);
+        KYCVerifiedParties.update(ctx, previous, record);
+        KYCArchiveIndex.update(ctx, previous, record);
+        KYCDigests.update(ctx, record);
+
+        return sortedJson;
+    }
+
+    /**
+     * Reads a KYC record from the active key space, or from the archive if it has been archived.
+     */
+    private KYCRecord findKYC(final Context ctx, final String id) {
+        String kycJSON = ctx.getStub().getStringState(id);
+
+        if (kycJSON == null || kycJSON.isEmpty()) {
+            return KYCArchive.find(ctx, id);
+        }
+
+        return SCHEMA.read(kycJSON);
+    }
+
+    private long expiryFromTransient(final Context ctx, final long defaultExpiry) {
+        Map<String, byte[]> transientData = ctx.getStub().getTransient();
+        if (transientData == null || !transientData.containsKey(EXPIRES_AT_TRANSIENT_KEY)) {
+            return defaultExpiry;
+        }
+
+        String value = new String(transientData.get(EXPIRES_AT_TRANSIENT_KEY), StandardCharsets.UTF_8).trim();
+        try {
+            long expiresAt = Long.parseLong(value);
+            if (expiresAt >= 0) {
+                return expiresAt;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+
+        String errorMessage = String.format("Invalid expiry: %s", value);
+        System.out.println(errorMessage);
+        throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+    }
+
+    private boolean rejectDuplicatesFromTransient(final Context ctx) {
+        Map<String, byte[]> transientData = ctx.getStub().getTransient();
+        if (transientData == null || !transientData.containsKey(ON_DUPLICATE_TRANSIENT_KEY)) {
+            return false;
+        }
+
+        String value = new String(transientData.get(ON_DUPLICATE_TRANSIENT_KEY), StandardCharsets.UTF_8).trim();
+        if ("REJECT".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("FLAG".equalsIgnoreCase(value)) {
+            return false;
+        }
+
+        String errorMessage = String.format("Invalid duplicate policy: %s. Must be FLAG or REJECT", value);
+        System.out.println(errorMessage);
+        throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+    }
+
     /**
      * Verifies or rejects a KYC record.
      *
+     * <p>An approved record expires after {@link #DEFAULT_VALIDITY_SECONDS}, or at the time supplied in the
+     * {@value #EXPIRES_AT_TRANSIENT_KEY} transient field. A rejected record does not expire.</p>
+     *
      * @param ctx the transaction context
      * @param id the ID of the KYC record
      * @param decision the verification decision (APPROVE or REJECT)
@@ -110,7 +337,7 @@ public final class KYCContract implements ContractInterface {
             throw new ChaincodeException(errorMessage, KYCErrors.KYC_NOT_FOUND.toString());
         }
 
-        KYCRecord existingRecord = genson.deserialize(kycJSON, KYCRecord.class);
+        KYCRecord existingRecord = SCHEMA.read(kycJSON);
 
         KYCStatus newStatus;
         if ("APPROVE".equalsIgnoreCase(decision)) {
@@ -125,21 +352,13 @@ public final class KYCContract implements ContractInterface {
 
         String mspId = ctx.getClientIdentity().getMSPID();
         long timestamp = ctx.getStub().getTxTimestamp().getEpochSecond();
+        long expiresAt = newStatus == KYCStatus.VERIFIED
+                ? expiryFromTransient(ctx, timestamp + DEFAULT_VALIDITY_SECONDS)
+                : 0L;
 
-        KYCRecord updatedRecord = new KYCRecord(
-                existingRecord.getId(),
-                existingRecord.getFullName(),
-                existingRecord.getDob(),
-                existingRecord.getNationality(),
-                existingRecord.getDocumentType(),
-                existingRecord.getDocumentHash(),
-                newStatus,
-                mspId,
-                timestamp
-        );
+        KYCRecord updatedRecord = existingRecord.withStatus(newStatus, mspId, timestamp, expiresAt);
 
-        String sortedJson = genson.serialize(updatedRecord);
-        ctx.getStub().putStringState(id, sortedJson);
+        String sortedJson = putRecord(ctx, existingRecord, updatedRecord);
 
         ctx.getStub().setEvent("KYCVerified", sortedJson.getBytes());
 
@@ -155,15 +374,57 @@ public final class KYCContract implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public KYCRecord GetKYC(final Context ctx, final String id) {
-        String kycJSON = ctx.getStub().getStringState(id);
+        KYCRecord record = findKYC(ctx, id);
 
-        if (kycJSON == null || kycJSON.isEmpty()) {
+        if (record == null) {
             String errorMessage = String.format("KYC record %s does not exist", id);
             System.out.println(errorMessage);
             throw new ChaincodeException(errorMessage, KYCErrors.KYC_NOT_FOUND.toString());
         }
 
-        return genson.deserialize(kycJSON, KYCRecord.class);
+        return record;
+    }
+
+    /**
+     * Retrieves several KYC records in a single evaluation.
+     *
+     * @param ctx the transaction context
+     * @param ids the IDs of the KYC records; duplicates are read once
+     * @return JSON of the records found, in request order, and the IDs that were not found
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetKYCBatch(final Context ctx, final String[] ids) {
+        if (ids.length > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Batch of %d IDs exceeds the limit of %d", ids.length, MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.BATCH_TOO_LARGE.toString());
+        }
+
+        List<String> idList = Arrays.asList(ids);
+        if (idList.contains(null)) {
+            String errorMessage = "Batch IDs must not be null";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        Set<String> uniqueIds = new LinkedHashSet<>(idList);
+
+        List<KYCRecord> records = new ArrayList<>(uniqueIds.size());
+        List<String> missingIds = new ArrayList<>();
+
+        for (String id : uniqueIds) {
+            String kycJSON = stub.getStringState(id);
+
+            KYCRecord record = kycJSON == null || kycJSON.isEmpty() ? KYCArchive.find(ctx, id) : SCHEMA.read(kycJSON);
+            if (record == null) {
+                missingIds.add(id);
+            } else {
+                records.add(record);
+            }
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(new KYCBatch(records, missingIds)));
     }
 
     /**
@@ -171,7 +432,7 @@ public final class KYCContract implements ContractInterface {
      *
      * @param ctx the transaction context
      * @param id the ID of the KYC record
-     * @return JSON array of historical states
+     * @return JSON array of historical states, in the {@link ResponseEncoding} requested by the client
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String GetKYCHistory(final Context ctx, final String id) {
@@ -183,25 +444,118 @@ public final class KYCContract implements ContractInterface {
             throw new ChaincodeException(errorMessage, KYCErrors.KYC_NOT_FOUND.toString());
         }
 
-        List<KYCHistoryEntry> historyList = new ArrayList<>();
         QueryResultsIterator<KeyModification> history = stub.getHistoryForKey(id);
 
-        for (KeyModification modification : history) {
-            KYCRecord record = null;
-            if (!modification.isDeleted()) {
-                record = genson.deserialize(modification.getStringValue(), KYCRecord.class);
+        List<KYCHistoryEntry> historyList;
+        try {
+            historyList = ScanPipeline.decode(history, modification -> {
+                KYCRecord record = null;
+                if (!modification.isDeleted()) {
+                    record = SCHEMA.read(modification.getStringValue());
+                }
+
+                return new KYCHistoryEntry(
+                        modification.getTxId(),
+                        modification.getTimestamp().getEpochSecond(),
+                        modification.isDeleted(),
+                        record
+                );
+            });
+        } finally {
+            LedgerQueries.close(history);
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(historyList));
+    }
+
+    /**
+     * Exports KYC records in key order as newline-delimited JSON, one bounded chunk per call.
+     *
+     * <p>Start with an empty cursor and pass the returned cursor to the next call until the chunk is done. At least
+     * one record is returned per call, even if it alone exceeds the size budget.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param maxBytes the size budget for the records in this chunk
+     * @param status only export records with this status, or empty for all
+     * @param issuerMSP only export records last updated by this MSP, or empty for all
+     * @return the export chunk, in the {@link ResponseEncoding} requested by the client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String ExportKYC(final Context ctx, final String cursor, final int maxBytes, final String status,
+                            final String issuerMSP) {
+        if (maxBytes <= 0 || maxBytes > MAX_EXPORT_BYTES) {
+            String errorMessage = String.format("Export budget must be between 1 and %d bytes", MAX_EXPORT_BYTES);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        KYCStatus statusFilter = isBlank(status) ? null : parseStatus(status);
+        String startKey = isBlank(cursor) ? "" : cursor + CompositeKey.NAMESPACE;
+
+        StringBuilder records = new StringBuilder();
+        int count = 0;
+        int scanned = 0;
+        String lastKey = cursor;
+        boolean done = true;
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByRange(startKey, "");
+        try {
+            for (KeyValue result : results) {
+                if (scanned == MAX_EXPORT_SCAN) {
+                    done = false;
+                    break;
+                }
+
+                String json = result.getStringValue();
+                KYCRecord record = decodeRecord(result.getKey(), json);
+                boolean matches = record != null
+                        && (statusFilter == null || statusFilter == record.getStatus())
+                        && (isBlank(issuerMSP) || issuerMSP.equals(record.getIssuerMSP()));
+
+                if (matches) {
+                    if (SCHEMA.needsUpgrade(json)) {
+                        json = SCHEMA.write(record);
+                    }
+                    if (count > 0 && records.length() + json.length() + 1 > maxBytes) {
+                        done = false;
+                        break;
+                    }
+                    records.append(json).append('\n');
+                    count++;
+                }
+
+                lastKey = result.getKey();
+                scanned++;
             }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(new KYCExportChunk(records.toString(), count, lastKey, done)));
+    }
+
+    private KYCStatus parseStatus(final String status) {
+        try {
+            return KYCStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            String errorMessage = String.format("Invalid status: %s", status);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+    }
 
-            KYCHistoryEntry entry = new KYCHistoryEntry(
-                    modification.getTxId(),
-                    modification.getTimestamp().getEpochSecond(),
-                    modification.isDeleted(),
-                    record
-            );
-            historyList.add(entry);
+    /**
+     * Decodes a world state value if it is a KYC record; assets share this chaincode's key space.
+     */
+    private KYCRecord decodeRecord(final String key, final String json) {
+        if (!SCHEMA.matches(json)) {
+            return null;
         }
 
-        return genson.serialize(historyList);
+        KYCRecord record = SCHEMA.read(json);
+
+        return key.equals(record.getId()) ? record : null;
     }
 
     /**
@@ -221,31 +575,408 @@ public final class KYCContract implements ContractInterface {
             throw new ChaincodeException(errorMessage, KYCErrors.KYC_NOT_FOUND.toString());
         }
 
-        KYCRecord existingRecord = genson.deserialize(kycJSON, KYCRecord.class);
+        KYCRecord existingRecord = SCHEMA.read(kycJSON);
 
         String mspId = ctx.getClientIdentity().getMSPID();
         long timestamp = ctx.getStub().getTxTimestamp().getEpochSecond();
 
-        KYCRecord updatedRecord = new KYCRecord(
-                existingRecord.getId(),
-                existingRecord.getFullName(),
-                existingRecord.getDob(),
-                existingRecord.getNationality(),
-                existingRecord.getDocumentType(),
-                existingRecord.getDocumentHash(),
-                KYCStatus.EXPIRED,
-                mspId,
-                timestamp
-        );
+        KYCRecord updatedRecord = existingRecord.withStatus(KYCStatus.EXPIRED, mspId, timestamp, 0L);
 
-        String sortedJson = genson.serialize(updatedRecord);
-        ctx.getStub().putStringState(id, sortedJson);
+        String sortedJson = putRecord(ctx, existingRecord, updatedRecord);
 
         ctx.getStub().setEvent("KYCExpired", sortedJson.getBytes());
 
         return updatedRecord;
     }
 
+    /**
+     * Expires KYC records whose expiry has passed, walking only the due buckets of the expiry index.
+     *
+     * <p>The cutoff is capped at the transaction timestamp so that no record is expired early. Call repeatedly
+     * while the result reports more due records.</p>
+     *
+     * @param ctx the transaction context
+     * @param cutoff the epoch second up to which records are expired
+     * @param limit the maximum number of records to expire in this transaction
+     * @return the IDs expired by this transaction
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public SweepResult ExpireDueKYC(final Context ctx, final long cutoff, final int limit) {
+        if (limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Sweep limit must be between 1 and %d", MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        String mspId = ctx.getClientIdentity().getMSPID();
+        long timestamp = stub.getTxTimestamp().getEpochSecond();
+
+        List<String> due = KYCExpiryIndex.due(ctx, Math.min(cutoff, timestamp), limit);
+        List<String> expired = new ArrayList<>(Math.min(due.size(), limit));
+
+        for (String id : due.subList(0, Math.min(due.size(), limit))) {
+            KYCRecord existingRecord = SCHEMA.read(stub.getStringState(id));
+            putRecord(ctx, existingRecord, existingRecord.withStatus(KYCStatus.EXPIRED, mspId, timestamp, 0L));
+            expired.add(id);
+        }
+
+        SweepResult result = new SweepResult(expired, due.size() > limit);
+        stub.setEvent("KYCExpiredBatch", genson.serialize(result).getBytes());
+
+        return result;
+    }
+
+    /**
+     * Moves REJECTED or EXPIRED KYC records last updated before a cutoff out of the active key space into a compressed
+     * archive pack, least recently updated first.
+     *
+     * <p>Archived records stay readable through {@link #GetKYC} and keep counting in {@link #GetKYCStats} and the
+     * document hash index, but leave the expiry, search and archive indexes and range scans over records. Repeat the
+     * call while the result reports more records to archive.</p>
+     *
+     * @param ctx the transaction context
+     * @param status the terminal status to archive, REJECTED or EXPIRED
+     * @param cutoff the epoch second before which records must have been last updated
+     * @param limit the maximum number of records to archive in this transaction
+     * @return the IDs archived by this transaction and whether more records are due
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public SweepResult ArchiveKYC(final Context ctx, final String status, final long cutoff, final int limit) {
+        KYCStatus terminal = parseStatus(status);
+        if (terminal != KYCStatus.REJECTED && terminal != KYCStatus.EXPIRED) {
+            String errorMessage = String.format("Only REJECTED or EXPIRED records can be archived, not %s", terminal);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+        if (limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Sweep limit must be between 1 and %d", MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        List<String> due = KYCArchiveIndex.due(ctx, terminal, cutoff, limit);
+
+        List<KYCRecord> archived = new ArrayList<>(Math.min(due.size(), limit));
+        for (String id : due.subList(0, Math.min(due.size(), limit))) {
+            archived.add(SCHEMA.read(stub.getStringState(id)));
+        }
+
+        List<String> ids = new ArrayList<>(archived.size());
+        if (!archived.isEmpty()) {
+            KYCArchive.pack(ctx, archived);
+            for (KYCRecord record : archived) {
+                stub.delState(record.getId());
+                KYCSearchIndex.updateAll(ctx, record, null);
+                KYCArchiveIndex.update(ctx, record, null);
+                if (record.getExpiresAt() != 0) {
+                    stub.delState(KYCExpiryIndex.keyOf(record.getExpiresAt(), record.getId()));
+                }
+                ids.add(record.getId());
+            }
+        }
+
+        SweepResult result = new SweepResult(ids, due.size() > limit);
+        stub.setEvent("KYCArchived", genson.serialize(result).getBytes());
+
+        return result;
+    }
+
+    /**
+     * Moves an archived KYC record back into the active key space.
+     *
+     * @param ctx the transaction context
+     * @param id the ID of the KYC record
+     * @return the restored KYC record
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public KYCRecord RestoreKYC(final Context ctx, final String id) {
+        ChaincodeStub stub = ctx.getStub();
+        String kycJSON = stub.getStringState(id);
+        if (kycJSON != null && !kycJSON.isEmpty()) {
+            String errorMessage = String.format("KYC record %s is not archived", id);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.KYC_ALREADY_EXISTS.toString());
+        }
+
+        KYCRecord record = KYCArchive.unpack(ctx, id);
+        if (record == null) {
+            String errorMessage = String.format("KYC record %s does not exist", id);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.KYC_NOT_FOUND.toString());
+        }
+
+        // The status counters and document hash index kept counting the record while it was archived.
+        String sortedJson = SCHEMA.write(record);
+        stub.putStringState(id, sortedJson);
+        KYCSearchIndex.updateAll(ctx, null, record);
+        KYCExpiryIndex.update(ctx, null, record);
+        KYCArchiveIndex.update(ctx, null, record);
+
+        stub.setEvent("KYCRestored", sortedJson.getBytes());
+
+        return record;
+    }
+
+    /**
+     * Retrieves the KYC records created from a document.
+     *
+     * @param ctx the transaction context
+     * @param documentHash the IPFS CID or SHA-256 hash of the document
+     * @return JSON array of the records with the document hash, in ID order, in the {@link ResponseEncoding} requested
+     *         by the client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String FindKYCByDocumentHash(final Context ctx, final String documentHash) {
+        if (isBlank(documentHash)) {
+            String errorMessage = "Document hash must not be empty";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        List<KYCRecord> records = new ArrayList<>();
+        for (String id : KYCDocumentIndex.ids(ctx, documentHash)) {
+            KYCRecord record = findKYC(ctx, id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(records));
+    }
+
+    /**
+     * Retrieves one page of the KYC records flagged at creation for sharing their document with an earlier record.
+     *
+     * @param ctx the transaction context
+     * @param pageSize the maximum number of records to return
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return the page of records and the bookmark of the next page, in the {@link ResponseEncoding} requested by the
+     *         client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetDuplicateKYC(final Context ctx, final int pageSize, final String bookmark) {
+        if (pageSize <= 0 || pageSize > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Page size must be between 1 and %d", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        List<String> ids = new ArrayList<>(pageSize);
+        String next = KYCDocumentIndex.duplicates(ctx, pageSize, bookmark, ids);
+
+        List<KYCRecord> records = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            KYCRecord record = findKYC(ctx, id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        return ResponseEncoding.encode(ctx, genson.serialize(new KYCPage(records, next)));
+    }
+
+    /**
+     * Retrieves one page of the KYC records matching every given filter, in ID order.
+     *
+     * <p>Empty filters match any value, but at least one filter must be set. A page examines at most
+     * {@link #MAX_EXPORT_SCAN} candidate records, so it can hold fewer records than the page size while the bookmark
+     * is not yet empty.</p>
+     *
+     * @param ctx the transaction context
+     * @param status the status, or empty for any
+     * @param issuerMSP the MSP that last updated the record, or empty for any
+     * @param nationality the country of citizenship, or empty for any
+     * @param documentType the type of document, or empty for any
+     * @param pageSize the maximum number of records to return
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @return the page of records and the bookmark of the next page, in the {@link ResponseEncoding} requested by the
+     *         client
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String SearchKYC(final Context ctx, final String status, final String issuerMSP, final String nationality,
+            final String documentType, final int pageSize, final String bookmark) {
+        if (pageSize <= 0 || pageSize > MAX_BATCH_SIZE) {
+            String errorMessage = String.format("Page size must be between 1 and %d", MAX_BATCH_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        Map<KYCSearchIndex, String> filters = new EnumMap<>(KYCSearchIndex.class);
+        if (!isBlank(status)) {
+            filters.put(KYCSearchIndex.STATUS, parseStatus(status).name());
+        }
+        if (!isBlank(issuerMSP)) {
+            filters.put(KYCSearchIndex.ISSUER, issuerMSP);
+        }
+        if (!isBlank(nationality)) {
+            filters.put(KYCSearchIndex.NATIONALITY, nationality);
+        }
+        if (!isBlank(documentType)) {
+            filters.put(KYCSearchIndex.DOCUMENT_TYPE, documentType);
+        }
+        if (filters.isEmpty()) {
+            String errorMessage = "At least one of status, issuer, nationality and document type must be set";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        KYCPage page = KYCSearchIndex.page(ctx, id -> findKYC(ctx, id), filters, pageSize, bookmark,
+                MAX_EXPORT_SCAN);
+
+        return ResponseEncoding.encode(ctx, genson.serialize(page));
+    }
+
+    /**
+     * Rewrites the KYC records not yet in the current {@link #SCHEMA} version in one bounded slice of the key space.
+     *
+     * <p>Records are upgraded as they are read and rewritten whenever a submit transaction updates them, so the
+     * migration is optional. Only values whose upgrade changes them are rewritten, through the same write path as
+     * any other update, so the indexes, counters and digests follow. Start with an empty cursor and pass the
+     * returned cursor to the next call until it is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine, from 1 to {@link #MAX_SWEEP_SIZE}
+     * @return the progress of the migration
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public MigrationProgress MigrateKYC(final Context ctx, final String cursor, final int limit) {
+        if (limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d", MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return SCHEMA.migrate(ctx, cursor, limit, (previous, record) -> putRecord(ctx, previous, record));
+    }
+
+    /**
+     * Brings the status counters, document hash index, search and archive indexes, verified party markers and digests
+     * up to date with the KYC records in one bounded slice of the key space.
+     *
+     * <p>Records written before the counters and indexes existed are only counted and indexed once they are written
+     * again, so until then they are missing from {@link #GetKYCStats}, {@link #FindKYCByDocumentHash},
+     * {@link #SearchKYC}, {@link #GetKYCDigest} and the candidates of {@link #ArchiveKYC}, and parties verified before
+     * the markers existed fail the owner check of {@link AssetTransfer}. This sweep adds them without changing the
+     * records, and leaves records that are already counted and indexed alone, so it can be run at any time. Start with
+     * an empty cursor and pass the returned cursor to the next call until it is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine, from 1 to {@link #MAX_SWEEP_SIZE}
+     * @return the progress of the sweep, with the number of records visited as migrated
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public MigrationProgress ReindexKYC(final Context ctx, final String cursor, final int limit) {
+        if (limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Limit must be between 1 and %d", MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return SCHEMA.sweep(ctx, cursor, limit, (key, json) -> {
+            KYCRecord record = SCHEMA.read(json);
+            KYCStatusCounters.update(ctx, record);
+            KYCDocumentIndex.backfill(ctx, record);
+            KYCSearchIndex.backfill(ctx, record);
+            KYCVerifiedParties.backfill(ctx, record);
+            KYCArchiveIndex.backfill(ctx, record);
+            KYCDigests.update(ctx, record);
+            return true;
+        });
+    }
+
+    /**
+     * Retrieves the number of KYC records per issuer MSP and status.
+     *
+     * @param ctx the transaction context
+     * @return JSON object of counts by issuer MSP and then by status
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetKYCStats(final Context ctx) {
+        return genson.serialize(KYCStatusCounters.read(ctx));
+    }
+
+    /**
+     * Folds pending status counter deltas of one shard into its base value.
+     *
+     * @param ctx the transaction context
+     * @param shard the shard to compact, from 0 to {@link KYCStatusCounters#SHARDS} - 1
+     * @param limit the maximum number of deltas to fold
+     * @return the number of deltas folded; fewer than the limit means the shard is fully compacted
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int CompactKYCStats(final Context ctx, final int shard, final int limit) {
+        if (shard < 0 || shard >= KYCStatusCounters.SHARDS || limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Shard must be between 0 and %d and limit between 1 and %d",
+                    KYCStatusCounters.SHARDS - 1, MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return KYCStatusCounters.compact(ctx, String.format("%02d", shard), limit);
+    }
+
+    /**
+     * Retrieves the digest of the KYC records in a range of buckets, for reconciling an off-chain copy by bisection.
+     *
+     * @param ctx the transaction context
+     * @param startBucket the first bucket of the range, two lowercase hex digits
+     * @param endBucket the last bucket of the range, two lowercase hex digits
+     * @return the count and digest of the records in the range
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public KYCDigest GetKYCDigest(final Context ctx, final String startBucket, final String endBucket) {
+        if (!KYCDigests.isBucket(startBucket) || !KYCDigests.isBucket(endBucket)
+                || startBucket.compareTo(endBucket) > 0) {
+            String errorMessage = "Buckets must be between 00 and ff and the start must not be after the end";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return KYCDigests.read(ctx, startBucket, endBucket);
+    }
+
+    /**
+     * Retrieves the digest of every KYC record in one bucket, to find the records of a bucket whose digest differs.
+     *
+     * @param ctx the transaction context
+     * @param bucket the bucket, two lowercase hex digits
+     * @return JSON object of record digests by ID
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetKYCDigestLeaves(final Context ctx, final String bucket) {
+        if (!KYCDigests.isBucket(bucket)) {
+            String errorMessage = "Buckets must be between 00 and ff";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return genson.serialize(KYCDigests.leaves(ctx, bucket));
+    }
+
+    /**
+     * Folds pending digest deltas of one bucket into its base value.
+     *
+     * @param ctx the transaction context
+     * @param bucket the bucket to compact, two lowercase hex digits
+     * @param limit the maximum number of deltas to fold
+     * @return the number of deltas folded; fewer than the limit means the bucket is fully compacted
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int CompactKYCDigest(final Context ctx, final String bucket, final int limit) {
+        if (!KYCDigests.isBucket(bucket) || limit <= 0 || limit > MAX_SWEEP_SIZE) {
+            String errorMessage = String.format("Bucket must be between 00 and ff and limit between 1 and %d",
+                    MAX_SWEEP_SIZE);
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, KYCErrors.INVALID_ARGUMENT.toString());
+        }
+
+        return KYCDigests.compact(ctx, bucket, limit);
+    }
+
     /**
      * Checks if a KYC record exists.
      *
@@ -256,7 +987,7 @@ public final class KYCContract implements ContractInterface {
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public boolean KYCExists(final Context ctx, final String id) {
         String kycJSON = ctx.getStub().getStringState(id);
-        return (kycJSON != null && !kycJSON.isEmpty());
+        return (kycJSON != null && !kycJSON.isEmpty()) || KYCArchive.contains(ctx, id);
     }
 
     /**
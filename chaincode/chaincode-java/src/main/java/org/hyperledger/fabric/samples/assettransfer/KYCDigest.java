@@ -0,0 +1,88 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class KYCDigest {
+
+    @Property()
+    private final String startBucket;
+
+    @Property()
+    private final String endBucket;
+
+    @Property()
+    private final long count;
+
+    @Property()
+    private final String digest;
+
+    public String getStartBucket() {
+        return startBucket;
+    }
+
+    public String getEndBucket() {
+        return endBucket;
+    }
+
+    /**
+     * @return the number of records in the range
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the digests of the records in the range modulo 2^256, as 64 hex digits
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    public KYCDigest(@JsonProperty("startBucket") final String startBucket,
+            @JsonProperty("endBucket") final String endBucket, @JsonProperty("count") final long count,
+            @JsonProperty("digest") final String digest) {
+        this.startBucket = startBucket;
+        this.endBucket = endBucket;
+        this.count = count;
+        this.digest = digest;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        KYCDigest other = (KYCDigest) obj;
+
+        return Objects.equals(getStartBucket(), other.getStartBucket())
+                && Objects.equals(getEndBucket(), other.getEndBucket())
+                && getCount() == other.getCount()
+                && Objects.equals(getDigest(), other.getDigest());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStartBucket(), getEndBucket(), getCount(), getDigest());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [startBucket="
+                + startBucket + ", endBucket=" + endBucket + ", count=" + count + ", digest=" + digest + "]";
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * Additive digests of KYC records per hash-prefix bucket, for reconciling off-chain copies with the ledger.
+ *
+ * <p>A record's digest is the SHA-256 of its Genson JSON, which is its stored value without the
+ * {@value StoredSchema#VERSION_FIELD} field, and it belongs to the bucket named by the first two hex digits of the
+ * SHA-256 of its ID. A bucket's digest is the count of its records and the sum of their digests modulo
+ * 2<sup>256</sup>, so the digest of a range of buckets is the sum of theirs and a copy can be compared range by range,
+ * halving the ranges that differ until only the divergent buckets are left. Those are compared record by record
+ * through their {@code kycdigestleaf~bucket~id} entries, which hold each record's digest.</p>
+ *
+ * <p>As with {@link KYCStatusCounters}, a write never reads a bucket's sum: it adds a
+ * {@code kycdigest~bucket~delta~txId~id} entry with the difference it makes, and compaction folds the deltas of one
+ * bucket into its {@code kycdigest~bucket~base} value. The difference is taken from the record's leaf rather than from
+ * the record it replaces, so a record written before the digests existed is counted the first time it is written
+ * again or reindexed. Archived records keep their digests.</p>
+ */
+final class KYCDigests {
+
+    static final String DIGEST_TYPE = "kycdigest";
+    static final String LEAF_TYPE = "kycdigestleaf";
+
+    private static final String BASE = "base";
+    private static final String DELTA = "delta";
+
+    private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(256);
+
+    private static final int FETCH_SIZE = 100;
+
+    private static final GenericType<Map<String, Object>> SUM_TYPE = new GenericType<Map<String, Object>>() { };
+
+    private static final Genson GENSON = new Genson();
+
+    private KYCDigests() {
+    }
+
+    static String bucketOf(final String id) {
+        return String.format("%02x", sha256(id)[0] & 0xff);
+    }
+
+    static boolean isBucket(final String bucket) {
+        return bucket != null && bucket.matches("[0-9a-f]{2}");
+    }
+
+    static BigInteger digestOf(final KYCRecord record) {
+        return new BigInteger(1, sha256(GENSON.serialize(record)));
+    }
+
+    static String hex(final BigInteger value) {
+        return String.format("%064x", value);
+    }
+
+    static String leafKeyOf(final String id) {
+        return new CompositeKey(LEAF_TYPE, bucketOf(id), id).toString();
+    }
+
+    /**
+     * Records the change in its bucket's digest caused by writing a record, against the digest its leaf holds. A
+     * record without a leaf is counted as new, and one whose leaf already holds its digest is left alone, so this
+     * also brings records written before the digests existed into them.
+     *
+     * @param ctx the transaction context
+     * @param record the record being written, or as it is stored
+     */
+    static void update(final Context ctx, final KYCRecord record) {
+        ChaincodeStub stub = ctx.getStub();
+        String bucket = bucketOf(record.getId());
+        String leafKey = new CompositeKey(LEAF_TYPE, bucket, record.getId()).toString();
+        String leaf = stub.getStringState(leafKey);
+        boolean counted = leaf != null && !leaf.isEmpty();
+
+        BigInteger digest = digestOf(record);
+        BigInteger previousDigest = counted ? new BigInteger(leaf, 16) : BigInteger.ZERO;
+        if (counted && digest.equals(previousDigest)) {
+            return;
+        }
+
+        String txId = stub.getTxId();
+        stub.putStringState(new CompositeKey(DIGEST_TYPE, bucket, DELTA, txId, record.getId()).toString(),
+                encode(counted ? 0 : 1, digest.subtract(previousDigest).mod(MODULUS)));
+        stub.putStringState(leafKey, hex(digest));
+    }
+
+    /**
+     * Sums the digests of a range of buckets.
+     *
+     * @param ctx the transaction context
+     * @param startBucket the first bucket of the range
+     * @param endBucket the last bucket of the range
+     * @return the digest of the range
+     */
+    static KYCDigest read(final Context ctx, final String startBucket, final String endBucket) {
+        long count = 0;
+        BigInteger sum = BigInteger.ZERO;
+
+        CompositeKey partialKey = new CompositeKey(DIGEST_TYPE);
+        String bookmark = LedgerQueries.bookmarkAt(new CompositeKey(DIGEST_TYPE, startBucket));
+        boolean more = true;
+        while (more) {
+            int fetched = 0;
+            QueryResultsIteratorWithMetadata<KeyValue> results = ctx.getStub()
+                    .getStateByPartialCompositeKeyWithPagination(partialKey, FETCH_SIZE,
+                            LedgerQueries.bookmarkWithin(partialKey, bookmark));
+            try {
+                for (KeyValue result : results) {
+                    String bucket = CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(0);
+                    if (bucket.compareTo(endBucket) > 0) {
+                        break;
+                    }
+                    Map<String, Object> value = GENSON.deserialize(result.getStringValue(), SUM_TYPE);
+                    count += ((Number) value.get("count")).longValue();
+                    sum = sum.add(new BigInteger((String) value.get("sum"), 16));
+                    fetched++;
+                }
+
+                bookmark = results.getMetadata() == null ? "" : results.getMetadata().getBookmark();
+                more = fetched == FETCH_SIZE && bookmark != null && !bookmark.isEmpty();
+            } finally {
+                LedgerQueries.close(results);
+            }
+        }
+
+        return new KYCDigest(startBucket, endBucket, count, hex(sum.mod(MODULUS)));
+    }
+
+    /**
+     * Reads the digest of every record in a bucket.
+     *
+     * @param ctx the transaction context
+     * @param bucket the bucket
+     * @return record digests by ID
+     */
+    static Map<String, String> leaves(final Context ctx, final String bucket) {
+        Map<String, String> leaves = new TreeMap<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub()
+                .getStateByPartialCompositeKey(new CompositeKey(LEAF_TYPE, bucket));
+        try {
+            for (KeyValue result : results) {
+                leaves.put(CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1),
+                        result.getStringValue());
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return leaves;
+    }
+
+    /**
+     * Folds up to {@code limit} pending deltas of one bucket into its base value.
+     *
+     * @param ctx the transaction context
+     * @param bucket the bucket to compact
+     * @param limit the maximum number of deltas to fold
+     * @return the number of deltas folded
+     */
+    static int compact(final Context ctx, final String bucket, final int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        String baseKey = new CompositeKey(DIGEST_TYPE, bucket, BASE).toString();
+
+        long count = 0;
+        BigInteger sum = BigInteger.ZERO;
+        String baseJSON = stub.getStringState(baseKey);
+        if (baseJSON != null && !baseJSON.isEmpty()) {
+            Map<String, Object> base = GENSON.deserialize(baseJSON, SUM_TYPE);
+            count = ((Number) base.get("count")).longValue();
+            sum = new BigInteger((String) base.get("sum"), 16);
+        }
+
+        List<String> folded = new ArrayList<>();
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(
+                new CompositeKey(DIGEST_TYPE, bucket, DELTA));
+        try {
+            for (KeyValue result : results) {
+                if (folded.size() == limit) {
+                    break;
+                }
+                Map<String, Object> delta = GENSON.deserialize(result.getStringValue(), SUM_TYPE);
+                count += ((Number) delta.get("count")).longValue();
+                sum = sum.add(new BigInteger((String) delta.get("sum"), 16));
+                folded.add(result.getKey());
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        if (!folded.isEmpty()) {
+            stub.putStringState(baseKey, encode(count, sum.mod(MODULUS)));
+            for (String key : folded) {
+                stub.delState(key);
+            }
+        }
+
+        return folded.size();
+    }
+
+    private static String encode(final long count, final BigInteger sum) {
+        Map<String, Object> value = new TreeMap<>();
+        value.put("count", count);
+        value.put("sum", hex(sum));
+        return GENSON.serialize(value);
+    }
+
+    private static byte[] sha256(final String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * Content-addressed index of KYC records by document hash, for finding records created from the same document.
+ *
+ * <p>Each record with a document hash has one {@code docHash~hash~id} entry, so the records sharing a document are
+ * found with one partial composite key query over that hash rather than a scan of every record. Records created
+ * while another record already held the same hash, and not rejected for it, get a {@code docHashDuplicate~id} flag
+ * whose value is the shared hash, so they can be listed for review.</p>
+ */
+final class KYCDocumentIndex {
+
+    static final String INDEX_TYPE = "docHash";
+
+    static final String DUPLICATE_TYPE = "docHashDuplicate";
+
+    private static final String MARKER = "\u0000";
+
+    private KYCDocumentIndex() {
+    }
+
+    static String keyOf(final String documentHash, final String id) {
+        return new CompositeKey(INDEX_TYPE, documentHash, id).toString();
+    }
+
+    static String duplicateKeyOf(final String id) {
+        return new CompositeKey(DUPLICATE_TYPE, id).toString();
+    }
+
+    private static boolean isIndexed(final KYCRecord record) {
+        return record != null && record.getDocumentHash() != null && !record.getDocumentHash().isEmpty();
+    }
+
+    /**
+     * Moves the index entry of a record when its document hash changes.
+     *
+     * @param ctx the transaction context
+     * @param previous the record as it was before this write, or null if it is new
+     * @param record the record being written
+     */
+    static void update(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        String previousHash = isIndexed(previous) ? previous.getDocumentHash() : null;
+        String hash = isIndexed(record) ? record.getDocumentHash() : null;
+        if (previousHash != null && previousHash.equals(hash)) {
+            return;
+        }
+
+        if (previousHash != null) {
+            ctx.getStub().delState(keyOf(previousHash, record.getId()));
+        }
+        if (hash != null) {
+            ctx.getStub().putStringState(keyOf(hash, record.getId()), MARKER);
+        }
+    }
+
+    /**
+     * Adds the entry of a record missing from the index, for records written before the index existed. An entry that
+     * is already there is not rewritten.
+     *
+     * @param ctx the transaction context
+     * @param record the record as it is stored
+     */
+    static void backfill(final Context ctx, final KYCRecord record) {
+        if (!isIndexed(record)) {
+            return;
+        }
+        String key = keyOf(record.getDocumentHash(), record.getId());
+        String entry = ctx.getStub().getStringState(key);
+        if (entry == null || entry.isEmpty()) {
+            ctx.getStub().putStringState(key, MARKER);
+        }
+    }
+
+    /**
+     * Collects the IDs of the records with a document hash.
+     *
+     * @param ctx the transaction context
+     * @param documentHash the document hash
+     * @return the IDs, in ID order
+     */
+    static List<String> ids(final Context ctx, final String documentHash) {
+        List<String> ids = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub()
+                .getStateByPartialCompositeKey(new CompositeKey(INDEX_TYPE, documentHash));
+        try {
+            for (KeyValue result : results) {
+                ids.add(CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1));
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Flags a record as sharing its document with an earlier record.
+     *
+     * @param ctx the transaction context
+     * @param record the record
+     */
+    static void flagDuplicate(final Context ctx, final KYCRecord record) {
+        ctx.getStub().putStringState(duplicateKeyOf(record.getId()), record.getDocumentHash());
+    }
+
+    /**
+     * Reads one page of the IDs of flagged records.
+     *
+     * @param ctx the transaction context
+     * @param pageSize the maximum number of IDs to read
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @param ids receives the IDs, in ID order
+     * @return the bookmark for the next page, or empty if there are no more flagged records
+     */
+    static String duplicates(final Context ctx, final int pageSize, final String bookmark, final List<String> ids) {
+        CompositeKey partialKey = new CompositeKey(DUPLICATE_TYPE);
+        QueryResultsIteratorWithMetadata<KeyValue> results = ctx.getStub()
+                .getStateByPartialCompositeKeyWithPagination(partialKey, pageSize,
+                        LedgerQueries.bookmarkWithin(partialKey, bookmark));
+        try {
+            for (KeyValue result : results) {
+                ids.add(CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(0));
+            }
+
+            return results.getMetadata() == null ? "" : results.getMetadata().getBookmark();
+        } finally {
+            LedgerQueries.close(results);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+/**
+ * Time-bucketed index of KYC records that are due to expire.
+ *
+ * <p>Each record with an expiry has one {@code expiry~bucket~id} entry, where the bucket is the UTC day of the
+ * expiry as a fixed-width number. Composite keys iterate in lexical order, so walking the index from the start
+ * visits the earliest buckets first and a sweep can stop at the first bucket after its cutoff. The entry value is
+ * the exact expiry, so records in the cutoff bucket that are not yet due are skipped without reading them.</p>
+ */
+final class KYCExpiryIndex {
+
+    static final String INDEX_TYPE = "expiry";
+
+    private static final long SECONDS_PER_BUCKET = 24L * 60 * 60;
+
+    private KYCExpiryIndex() {
+    }
+
+    static String bucketOf(final long expiresAt) {
+        return String.format("%010d", expiresAt / SECONDS_PER_BUCKET);
+    }
+
+    static String keyOf(final long expiresAt, final String id) {
+        return new CompositeKey(INDEX_TYPE, bucketOf(expiresAt), id).toString();
+    }
+
+    /**
+     * Moves the index entry of a record when its expiry changes.
+     *
+     * @param ctx the transaction context
+     * @param previous the record as it was before this write, or null if it is new
+     * @param record the record being written
+     */
+    static void update(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        long previousExpiry = previous == null ? 0 : previous.getExpiresAt();
+        if (previousExpiry == record.getExpiresAt()) {
+            return;
+        }
+
+        if (previousExpiry != 0) {
+            ctx.getStub().delState(keyOf(previousExpiry, record.getId()));
+        }
+        if (record.getExpiresAt() != 0) {
+            ctx.getStub().putStringState(keyOf(record.getExpiresAt(), record.getId()),
+                    Long.toString(record.getExpiresAt()));
+        }
+    }
+
+    /**
+     * Collects the IDs of records that expire at or before the cutoff.
+     *
+     * <p>One more ID than the limit is collected so callers can tell whether anything remains.</p>
+     *
+     * @param ctx the transaction context
+     * @param cutoff the epoch second up to which records are due
+     * @param limit the maximum number of IDs the caller will process
+     * @return the due IDs, earliest bucket first
+     */
+    static List<String> due(final Context ctx, final long cutoff, final int limit) {
+        String lastBucket = bucketOf(cutoff);
+        List<String> ids = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(new CompositeKey(INDEX_TYPE));
+        try {
+            for (KeyValue result : results) {
+                List<String> attributes = CompositeKey.parseCompositeKey(result.getKey()).getAttributes();
+                if (attributes.get(0).compareTo(lastBucket) > 0 || ids.size() > limit) {
+                    break;
+                }
+                if (Long.parseLong(result.getStringValue()) <= cutoff) {
+                    ids.add(attributes.get(1));
+                }
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class KYCExportChunk {
+
+    @Property()
+    private final String records;
+
+    @Property()
+    private final int count;
+
+    @Property()
+    private final String cursor;
+
+    @Property()
+    private final boolean done;
+
+    /**
+     * @return the exported records as newline-delimited JSON, in key order
+     */
+    public String getRecords() {
+        return records;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the cursor to pass to the next export call
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public KYCExportChunk(@JsonProperty("records") final String records, @JsonProperty("count") final int count,
+            @JsonProperty("cursor") final String cursor, @JsonProperty("done") final boolean done) {
+        this.records = records;
+        this.count = count;
+        this.cursor = cursor;
+        this.done = done;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        KYCExportChunk other = (KYCExportChunk) obj;
+
+        return Objects.equals(getRecords(), other.getRecords())
+                && getCount() == other.getCount()
+                && Objects.equals(getCursor(), other.getCursor())
+                && isDone() == other.isDone();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getRecords(), getCount(), getCursor(), isDone());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [count=" + count
+                + ", cursor=" + cursor + ", done=" + done + "]";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class KYCPage {
+
+    @Property()
+    private final List<KYCRecord> records;
+
+    @Property()
+    private final String bookmark;
+
+    public List<KYCRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * @return the bookmark to pass for the next page, or empty if there are no more pages
+     */
+    public String getBookmark() {
+        return bookmark;
+    }
+
+    public KYCPage(@JsonProperty("records") final List<KYCRecord> records,
+            @JsonProperty("bookmark") final String bookmark) {
+        this.records = records;
+        this.bookmark = bookmark;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        KYCPage other = (KYCPage) obj;
+
+        return Objects.equals(getRecords(), other.getRecords())
+                && Objects.equals(getBookmark(), other.getBookmark());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getRecords(), getBookmark());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [records=" + records
+                + ", bookmark=" + bookmark + "]";
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Objects;
 import org.hyperledger.fabric.contract.annotation.DataType;
 import org.hyperledger.fabric.contract.annotation.Property;
 
+import com.owlike.genson.annotation.JsonCreator;
 import com.owlike.genson.annotation.JsonProperty;
 
 @DataType()
@@ -41,6 +42,9 @@ public final class KYCRecord {
     @Property()
     private final long updatedAt;
 
+    @Property()
+    private final long expiresAt;
+
     public String getId() {
         return id;
     }
@@ -77,6 +81,20 @@ public final class KYCRecord {
         return updatedAt;
     }
 
+    /**
+     * @return the epoch second at which the record falls due for expiry, or 0 if it never expires
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public KYCRecord(final String id, final String fullName, final String dob, final String nationality,
+                     final String documentType, final String documentHash, final KYCStatus status,
+                     final String issuerMSP, final long updatedAt) {
+        this(id, fullName, dob, nationality, documentType, documentHash, status, issuerMSP, updatedAt, 0L);
+    }
+
+    @JsonCreator
     public KYCRecord(@JsonProperty("id") final String id,
                      @JsonProperty("fullName") final String fullName,
                      @JsonProperty("dob") final String dob,
@@ -85,7 +103,8 @@ public final class KYCRecord {
                      @JsonProperty("documentHash") final String documentHash,
                      @JsonProperty("status") final KYCStatus status,
                      @JsonProperty("issuerMSP") final String issuerMSP,
-                     @JsonProperty("updatedAt") final long updatedAt) {
+                     @JsonProperty("updatedAt") final long updatedAt,
+                     @JsonProperty("expiresAt") final long expiresAt) {
         this.id = id;
         this.fullName = fullName;
         this.dob = dob;
@@ -95,6 +114,22 @@ public final class KYCRecord {
         this.status = status;
         this.issuerMSP = issuerMSP;
         this.updatedAt = updatedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Copies this record with a new status, issuer, update time and expiry.
+     *
+     * @param newStatus the new status
+     * @param newIssuerMSP the MSP making the change
+     * @param newUpdatedAt the time of the change
+     * @param newExpiresAt the new expiry, or 0 if the record no longer expires
+     * @return the updated copy
+     */
+    public KYCRecord withStatus(final KYCStatus newStatus, final String newIssuerMSP, final long newUpdatedAt,
+                                final long newExpiresAt) {
+        return new KYCRecord(id, fullName, dob, nationality, documentType, documentHash, newStatus, newIssuerMSP,
+                newUpdatedAt, newExpiresAt);
     }
 
     @Override
@@ -115,13 +150,14 @@ public final class KYCRecord {
                 new String[] {other.getId(), other.getFullName(), other.getDob(), other.getNationality(),
                         other.getDocumentType(), other.getDocumentHash(), other.getIssuerMSP()})
                 && Objects.equals(getStatus(), other.getStatus())
-                && getUpdatedAt() == other.getUpdatedAt();
+                && getUpdatedAt() == other.getUpdatedAt()
+                && getExpiresAt() == other.getExpiresAt();
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(getId(), getFullName(), getDob(), getNationality(),
-                getDocumentType(), getDocumentHash(), getStatus(), getIssuerMSP(), getUpdatedAt());
+                getDocumentType(), getDocumentHash(), getStatus(), getIssuerMSP(), getUpdatedAt(), getExpiresAt());
     }
 
     @Override
@@ -135,6 +171,7 @@ public final class KYCRecord {
                 + ", documentHash=" + documentHash
                 + ", status=" + status
                 + ", issuerMSP=" + issuerMSP
-                + ", updatedAt=" + updatedAt + "]";
+                + ", updatedAt=" + updatedAt
+                + ", expiresAt=" + expiresAt + "]";
     }
 }
@@ -0,0 +1,289 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * Composite key indexes over the KYC record attributes compliance searches filter on.
+ *
+ * <p>Each record has one {@code type~value~id} entry per index, so the IDs of the records with one attribute value
+ * are read in ID order from a single partial composite key. A search over several attributes walks the index with the
+ * fewest candidates and intersects it with the others by a sorted merge: every other index is paged from the key of
+ * the current candidate, using {@link LedgerQueries#bookmarkAt} as the bookmark, and a candidate missing from any of
+ * them is skipped to the next ID that index holds. A search therefore reads entries in proportion to its smallest
+ * candidate set rather than to the number of records.</p>
+ */
+enum KYCSearchIndex {
+    STATUS("kycStatus", record -> record.getStatus() == null ? null : record.getStatus().name()),
+    ISSUER("kycIssuer", KYCRecord::getIssuerMSP),
+    NATIONALITY("kycNationality", KYCRecord::getNationality),
+    DOCUMENT_TYPE("kycDocumentType", KYCRecord::getDocumentType);
+
+    /**
+     * Number of index entries read per page while walking or seeking an index.
+     */
+    static final int FETCH_SIZE = 100;
+
+    private static final String MARKER = "\u0000";
+
+    private final String objectType;
+    private final Function<KYCRecord, String> attribute;
+
+    KYCSearchIndex(final String objectType, final Function<KYCRecord, String> attribute) {
+        this.objectType = objectType;
+        this.attribute = attribute;
+    }
+
+    String keyOf(final String value, final String id) {
+        return new CompositeKey(objectType, value, id).toString();
+    }
+
+    private String valueOf(final KYCRecord record) {
+        String value = record == null ? null : attribute.apply(record);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Moves the entries of a record in every index whose attribute changed.
+     *
+     * @param ctx the transaction context
+     * @param previous the record as it was before this write, or null if it is new
+     * @param record the record being written
+     */
+    static void updateAll(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        for (KYCSearchIndex index : values()) {
+            index.update(ctx, previous, record);
+        }
+    }
+
+    /**
+     * Adds the entries of a record that are missing from any index, for records written before the indexes existed.
+     * Entries that are already there are not rewritten.
+     *
+     * @param ctx the transaction context
+     * @param record the record as it is stored
+     */
+    static void backfill(final Context ctx, final KYCRecord record) {
+        ChaincodeStub stub = ctx.getStub();
+        for (KYCSearchIndex index : values()) {
+            String value = index.valueOf(record);
+            if (value == null) {
+                continue;
+            }
+            String key = index.keyOf(value, record.getId());
+            String entry = stub.getStringState(key);
+            if (entry == null || entry.isEmpty()) {
+                stub.putStringState(key, MARKER);
+            }
+        }
+    }
+
+    private void update(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        ChaincodeStub stub = ctx.getStub();
+        String previousValue = valueOf(previous);
+        String value = valueOf(record);
+
+        if (previousValue != null && previousValue.equals(value)) {
+            return;
+        }
+        if (previousValue != null) {
+            stub.delState(keyOf(previousValue, previous.getId()));
+        }
+        if (value != null) {
+            stub.putStringState(keyOf(value, record.getId()), MARKER);
+        }
+    }
+
+    /**
+     * A position in the IDs of one index value, read a page at a time.
+     */
+    private static final class Cursor {
+
+        private final KYCSearchIndex index;
+        private final String value;
+        private final List<String> ids = new ArrayList<>(FETCH_SIZE);
+        private int position;
+        private String resume = "";
+        private boolean fetched;
+
+        Cursor(final KYCSearchIndex index, final String value) {
+            this.index = index;
+            this.value = value;
+        }
+
+        /**
+         * @return whether every ID from the current position on is buffered
+         */
+        boolean isExhausted() {
+            return fetched && resume.isEmpty();
+        }
+
+        /**
+         * @return the number of IDs buffered from the current position on
+         */
+        int buffered() {
+            return ids.size() - position;
+        }
+
+        /**
+         * Moves to the first ID at or after an ID.
+         *
+         * @param ctx the transaction context
+         * @param id the ID, or empty for the first ID of the index value
+         * @return the ID moved to, or null if there is none
+         */
+        String seek(final Context ctx, final String id) {
+            while (position < ids.size() && ids.get(position).compareTo(id) < 0) {
+                position++;
+            }
+            if (position < ids.size() || isExhausted()) {
+                return current();
+            }
+
+            fetch(ctx, id.isEmpty() ? "" : LedgerQueries.bookmarkAt(new CompositeKey(index.objectType, value,
+                    id)));
+            return current();
+        }
+
+        /**
+         * Moves to the ID after the current one.
+         *
+         * @param ctx the transaction context
+         * @return the ID moved to, or null if there is none
+         */
+        String next(final Context ctx) {
+            position++;
+            if (position < ids.size() || resume.isEmpty()) {
+                return current();
+            }
+
+            fetch(ctx, resume);
+            return current();
+        }
+
+        private String current() {
+            return position < ids.size() ? ids.get(position) : null;
+        }
+
+        private void fetch(final Context ctx, final String start) {
+            ids.clear();
+            position = 0;
+
+            CompositeKey partialKey = new CompositeKey(index.objectType, value);
+            QueryResultsIteratorWithMetadata<KeyValue> results = ctx.getStub()
+                    .getStateByPartialCompositeKeyWithPagination(partialKey, FETCH_SIZE,
+                            LedgerQueries.bookmarkWithin(partialKey, start));
+            try {
+                for (KeyValue result : results) {
+                    ids.add(CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1));
+                }
+
+                resume = results.getMetadata() == null ? "" : results.getMetadata().getBookmark();
+                fetched = true;
+            } finally {
+                LedgerQueries.close(results);
+            }
+        }
+    }
+
+    /**
+     * Reads one page of the IDs of records matching every filter, in ID order.
+     *
+     * @param ctx the transaction context
+     * @param filters the attribute value required by each filtered index; must not be empty
+     * @param pageSize the maximum number of IDs to read
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @param maxCandidates the maximum number of candidate IDs to examine, so a page over sparse matches stays bounded
+     * @param ids receives the matching IDs
+     * @return the bookmark for the next page, or empty if there are no more matches
+     */
+    static String search(final Context ctx, final Map<KYCSearchIndex, String> filters, final int pageSize,
+            final String bookmark, final int maxCandidates, final List<String> ids) {
+        // The bookmark is the ID to resume at; each index is paged from the key it makes under the filtered value.
+        String from = LedgerQueries.attributeBookmark(bookmark);
+
+        // The first page of each index doubles as its selectivity estimate: an index read to the end within one
+        // page has exactly that many candidates, any other at least a page.
+        List<Cursor> cursors = new ArrayList<>(filters.size());
+        for (Map.Entry<KYCSearchIndex, String> filter : filters.entrySet()) {
+            Cursor cursor = new Cursor(filter.getKey(), filter.getValue());
+            if (cursor.seek(ctx, from) == null) {
+                return "";
+            }
+            cursors.add(cursor);
+        }
+        cursors.sort(Comparator.comparingInt(cursor -> cursor.isExhausted() ? cursor.buffered() : Integer.MAX_VALUE));
+
+        Cursor driver = cursors.get(0);
+        String candidate = driver.seek(ctx, from);
+        int examined = 0;
+        while (candidate != null) {
+            if (ids.size() == pageSize || examined == maxCandidates) {
+                return candidate;
+            }
+            examined++;
+
+            String skipTo = null;
+            for (Cursor cursor : cursors.subList(1, cursors.size())) {
+                String found = cursor.seek(ctx, candidate);
+                if (found == null) {
+                    return "";
+                }
+                if (!found.equals(candidate)) {
+                    skipTo = found;
+                    break;
+                }
+            }
+
+            if (skipTo == null) {
+                ids.add(candidate);
+                candidate = driver.next(ctx);
+            } else {
+                candidate = driver.seek(ctx, skipTo);
+            }
+        }
+
+        return "";
+    }
+
+    /**
+     * Reads one page of the records matching every filter.
+     *
+     * @param ctx the transaction context
+     * @param reader reads a record by ID
+     * @param filters the attribute value required by each filtered index; must not be empty
+     * @param pageSize the maximum number of records to read
+     * @param bookmark the bookmark returned with the previous page, or empty for the first page
+     * @param maxCandidates the maximum number of candidate IDs to examine
+     * @return the page of records, which holds fewer than the page size when the candidate limit is reached first
+     */
+    static KYCPage page(final Context ctx, final Function<String, KYCRecord> reader,
+            final Map<KYCSearchIndex, String> filters, final int pageSize, final String bookmark,
+            final int maxCandidates) {
+        List<String> ids = new ArrayList<>(pageSize);
+        String next = search(ctx, filters, pageSize, bookmark, maxCandidates, ids);
+
+        List<KYCRecord> records = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            KYCRecord record = reader.apply(id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        return new KYCPage(records, next);
+    }
+}
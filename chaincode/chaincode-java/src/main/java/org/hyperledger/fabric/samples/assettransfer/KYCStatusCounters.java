@@ -0,0 +1,181 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * Counts of KYC records per issuer MSP and status, kept as sharded delta entries.
+ *
+ * <p>A write that changes a record's issuer or status never reads a counter. It adds a
+ * {@code kycstats~delta~shard~txId~id} entry holding its -1/+1 changes, so concurrent writers never touch the same
+ * key and cannot conflict with each other. Reads sum the {@code kycstats~base~shard} values and the pending deltas,
+ * and compaction folds the deltas of one shard into its base value. Sharding keeps each compaction's range read
+ * small, so a compaction is unlikely to be invalidated by writers adding deltas to the same range.</p>
+ *
+ * <p>Each counted record has a {@code kycstatscounted~id} entry holding the issuer and status it is counted under, and
+ * a write only takes back what that entry says was counted. A record written before the counters existed has no entry,
+ * so its first write counts it without taking anything back, and {@link KYCContract#ReindexKYC} counts the records
+ * that are never written again.</p>
+ */
+final class KYCStatusCounters {
+
+    static final int SHARDS = 16;
+
+    private static final String INDEX_TYPE = "kycstats";
+    private static final String COUNTED_TYPE = "kycstatscounted";
+    private static final String BASE = "base";
+    private static final String DELTA = "delta";
+
+    private static final GenericType<Map<String, Map<String, Long>>> COUNTS_TYPE =
+            new GenericType<Map<String, Map<String, Long>>>() { };
+
+    private static final Genson GENSON = new Genson();
+
+    private KYCStatusCounters() {
+    }
+
+    static String shardOf(final String txId) {
+        return String.format("%02d", Math.floorMod(txId.hashCode(), SHARDS));
+    }
+
+    static String countedKeyOf(final String id) {
+        return new CompositeKey(COUNTED_TYPE, id).toString();
+    }
+
+    /**
+     * Records the change in counts caused by writing a record. Writing a record again with the same issuer and status
+     * changes nothing, so this can be applied to a record any number of times.
+     *
+     * @param ctx the transaction context
+     * @param record the record being written
+     */
+    static void update(final Context ctx, final KYCRecord record) {
+        ChaincodeStub stub = ctx.getStub();
+        String countedKey = countedKeyOf(record.getId());
+
+        Map<String, Map<String, Long>> counted = new TreeMap<>();
+        add(counted, record.getIssuerMSP(), String.valueOf(record.getStatus()), 1);
+        String countedJSON = GENSON.serialize(counted);
+        String previousJSON = stub.getStringState(countedKey);
+        if (countedJSON.equals(previousJSON)) {
+            return;
+        }
+
+        Map<String, Map<String, Long>> delta = new TreeMap<>();
+        if (previousJSON != null && !previousJSON.isEmpty()) {
+            for (Map.Entry<String, Map<String, Long>> issuer : GENSON.deserialize(previousJSON, COUNTS_TYPE)
+                    .entrySet()) {
+                for (Map.Entry<String, Long> status : issuer.getValue().entrySet()) {
+                    add(delta, issuer.getKey(), status.getKey(), -status.getValue());
+                }
+            }
+        }
+        merge(delta, counted);
+
+        String txId = stub.getTxId();
+        String key = new CompositeKey(INDEX_TYPE, DELTA, shardOf(txId), txId, record.getId()).toString();
+        stub.putStringState(key, GENSON.serialize(delta));
+        stub.putStringState(countedKey, countedJSON);
+    }
+
+    /**
+     * Sums the base values and pending deltas of every shard.
+     *
+     * @param ctx the transaction context
+     * @return counts by issuer MSP and then by status
+     */
+    static Map<String, Map<String, Long>> read(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(new CompositeKey(INDEX_TYPE));
+        try {
+            for (KeyValue result : results) {
+                merge(counts, GENSON.deserialize(result.getStringValue(), COUNTS_TYPE));
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        prune(counts);
+        return counts;
+    }
+
+    /**
+     * Folds up to {@code limit} pending deltas of one shard into its base value.
+     *
+     * @param ctx the transaction context
+     * @param shard the shard to compact
+     * @param limit the maximum number of deltas to fold
+     * @return the number of deltas folded
+     */
+    static int compact(final Context ctx, final String shard, final int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        String baseKey = new CompositeKey(INDEX_TYPE, BASE, shard).toString();
+
+        Map<String, Map<String, Long>> counts = new TreeMap<>();
+        String baseJSON = stub.getStringState(baseKey);
+        if (baseJSON != null && !baseJSON.isEmpty()) {
+            merge(counts, GENSON.deserialize(baseJSON, COUNTS_TYPE));
+        }
+
+        List<String> folded = new ArrayList<>();
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(
+                new CompositeKey(INDEX_TYPE, DELTA, shard));
+        try {
+            for (KeyValue result : results) {
+                if (folded.size() == limit) {
+                    break;
+                }
+                merge(counts, GENSON.deserialize(result.getStringValue(), COUNTS_TYPE));
+                folded.add(result.getKey());
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        if (!folded.isEmpty()) {
+            prune(counts);
+            stub.putStringState(baseKey, GENSON.serialize(counts));
+            for (String key : folded) {
+                stub.delState(key);
+            }
+        }
+
+        return folded.size();
+    }
+
+    private static void add(final Map<String, Map<String, Long>> counts, final String issuerMSP,
+            final String status, final long amount) {
+        counts.computeIfAbsent(String.valueOf(issuerMSP), k -> new TreeMap<>()).merge(status, amount, Long::sum);
+    }
+
+    private static void merge(final Map<String, Map<String, Long>> counts, final Map<String, Map<String, Long>> other) {
+        for (Map.Entry<String, Map<String, Long>> issuer : other.entrySet()) {
+            Map<String, Long> target = counts.computeIfAbsent(issuer.getKey(), k -> new TreeMap<>());
+            for (Map.Entry<String, Long> status : issuer.getValue().entrySet()) {
+                target.merge(status.getKey(), status.getValue(), Long::sum);
+            }
+        }
+    }
+
+    private static void prune(final Map<String, Map<String, Long>> counts) {
+        counts.values().forEach(statuses -> statuses.values().removeIf(count -> count == 0));
+        counts.values().removeIf(Map::isEmpty);
+    }
+}
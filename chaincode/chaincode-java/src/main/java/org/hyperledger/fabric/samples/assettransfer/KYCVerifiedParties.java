@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+/**
+ * The set of parties whose KYC record is verified, kept in the chaincode namespace so other contracts of this
+ * chaincode can check a party with one point read instead of a call into the KYC contract.
+ *
+ * <p>Each {@code VERIFIED} record has one {@code verifiedParty~id} marker whose value is the record's expiry, or 0 if
+ * it does not expire. The marker is removed when the record leaves {@code VERIFIED}; until an expiry sweep reaches a
+ * record that is past its expiry, {@link #isVerified} compares the expiry with the transaction time instead.</p>
+ */
+final class KYCVerifiedParties {
+
+    static final String MARKER_TYPE = "verifiedParty";
+
+    private KYCVerifiedParties() {
+    }
+
+    static String keyOf(final String id) {
+        return new CompositeKey(MARKER_TYPE, id).toString();
+    }
+
+    /**
+     * Adds, moves or removes the marker of a record when its status or expiry changes.
+     *
+     * @param ctx the transaction context
+     * @param previous the record as it was before this write, or null if it is new
+     * @param record the record being written
+     */
+    static void update(final Context ctx, final KYCRecord previous, final KYCRecord record) {
+        boolean wasVerified = previous != null && previous.getStatus() == KYCStatus.VERIFIED;
+        boolean isVerified = record.getStatus() == KYCStatus.VERIFIED;
+
+        if (isVerified && (!wasVerified || previous.getExpiresAt() != record.getExpiresAt())) {
+            ctx.getStub().putStringState(keyOf(record.getId()), Long.toString(record.getExpiresAt()));
+        } else if (wasVerified && !isVerified) {
+            ctx.getStub().delState(keyOf(record.getId()));
+        }
+    }
+
+    /**
+     * Adds the marker of a verified record if it is missing, for records verified before the markers existed. A
+     * marker that is already there is not rewritten.
+     *
+     * @param ctx the transaction context
+     * @param record the record as it is stored
+     */
+    static void backfill(final Context ctx, final KYCRecord record) {
+        if (record.getStatus() != KYCStatus.VERIFIED) {
+            return;
+        }
+
+        String key = keyOf(record.getId());
+        String marker = ctx.getStub().getStringState(key);
+        if (marker == null || marker.isEmpty()) {
+            ctx.getStub().putStringState(key, Long.toString(record.getExpiresAt()));
+        }
+    }
+
+    /**
+     * @param ctx the transaction context
+     * @param id the ID of the party's KYC record
+     * @return whether the party has a verified KYC record that has not expired at the transaction time
+     */
+    static boolean isVerified(final Context ctx, final String id) {
+        String marker = ctx.getStub().getStringState(keyOf(id));
+        if (marker == null || marker.isEmpty()) {
+            return false;
+        }
+
+        long expiresAt = Long.parseLong(marker);
+        return expiresAt == 0 || expiresAt > ctx.getStub().getTxTimestamp().getEpochSecond();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+/**
+ * Helpers shared by transactions that iterate over ledger query results.
+ */
+final class LedgerQueries {
+
+    private static final String KEY_DELIMITER = "\u0000";
+
+    private static final String MAX_UNICODE_RUNE = "\uDBFF\uDFFF";
+
+    private LedgerQueries() {
+    }
+
+    /**
+     * Closes a query iterator, releasing the peer-side query early when a scan stops before the end.
+     *
+     * @param results the iterator to close
+     */
+    static void close(final QueryResultsIterator<?> results) {
+        try {
+            results.close();
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to close query results", e);
+        }
+    }
+
+    /**
+     * Returns the bookmark that starts a paginated partial composite key query at a given key.
+     *
+     * <p>The bookmark a peer returns with a page of a partial composite key query is the key of the first entry of
+     * the next page, and the peer starts a page at the key a non-empty bookmark names, whether or not an entry with
+     * that key exists. The shim does not document this, and range queries with an explicit start key cannot be used
+     * instead because they reject composite keys, so every index that seeks to a key builds its bookmark here.</p>
+     *
+     * @param key the composite key to start at
+     * @return the bookmark
+     */
+    static String bookmarkAt(final CompositeKey key) {
+        return key.toString();
+    }
+
+    /**
+     * Checks that a bookmark passed with a paginated partial composite key query names a key under that partial key.
+     *
+     * <p>The peer starts a page at whatever key a non-empty bookmark names, so a bookmark supplied by a client could
+     * otherwise start a page in another index and return its entries as if they belonged to this one.</p>
+     *
+     * @param partialKey the partial composite key of the query
+     * @param bookmark the bookmark, or null or empty for the first page
+     * @return the bookmark, or empty for the first page
+     * @throws ChaincodeException if the bookmark names a key outside the partial key
+     */
+    static String bookmarkWithin(final CompositeKey partialKey, final String bookmark) {
+        if (bookmark == null || bookmark.isEmpty()) {
+            return "";
+        }
+        if (!bookmark.startsWith(partialKey.toString())) {
+            String errorMessage = "Bookmark does not belong to this query";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, "INVALID_ARGUMENT");
+        }
+
+        return bookmark;
+    }
+
+    /**
+     * Checks that a bookmark holding one composite key attribute, such as the ID to resume a search at, is a single
+     * attribute that can be placed in a composite key.
+     *
+     * @param bookmark the bookmark, or null or empty for the first page
+     * @return the bookmark, or empty for the first page
+     * @throws ChaincodeException if the bookmark holds the composite key delimiter or the maximum code point
+     */
+    static String attributeBookmark(final String bookmark) {
+        if (bookmark == null || bookmark.isEmpty()) {
+            return "";
+        }
+        if (bookmark.contains(KEY_DELIMITER) || bookmark.contains(MAX_UNICODE_RUNE)) {
+            String errorMessage = "Bookmark does not belong to this query";
+            System.out.println(errorMessage);
+            throw new ChaincodeException(errorMessage, "INVALID_ARGUMENT");
+        }
+
+        return bookmark;
+    }
+}
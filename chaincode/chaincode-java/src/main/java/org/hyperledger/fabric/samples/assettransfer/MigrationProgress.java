@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class MigrationProgress {
+
+    @Property()
+    private final String cursor;
+
+    @Property()
+    private final int scanned;
+
+    @Property()
+    private final int migrated;
+
+    @Property()
+    private final boolean done;
+
+    /**
+     * @return the cursor to pass to the next migration call
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return the number of keys examined by this call
+     */
+    public int getScanned() {
+        return scanned;
+    }
+
+    /**
+     * @return the number of records rewritten in the current schema version, or reindexed, by this call
+     */
+    public int getMigrated() {
+        return migrated;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public MigrationProgress(@JsonProperty("cursor") final String cursor, @JsonProperty("scanned") final int scanned,
+            @JsonProperty("migrated") final int migrated, @JsonProperty("done") final boolean done) {
+        this.cursor = cursor;
+        this.scanned = scanned;
+        this.migrated = migrated;
+        this.done = done;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        MigrationProgress other = (MigrationProgress) obj;
+
+        return Objects.equals(getCursor(), other.getCursor())
+                && getScanned() == other.getScanned()
+                && getMigrated() == other.getMigrated()
+                && isDone() == other.isDone();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getCursor(), getScanned(), getMigrated(), isDone());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [cursor=" + cursor
+                + ", scanned=" + scanned + ", migrated=" + migrated + ", done=" + done + "]";
+    }
+}
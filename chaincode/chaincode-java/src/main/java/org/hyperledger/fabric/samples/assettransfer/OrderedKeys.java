@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+/**
+ * Fixed-width encodings of numbers whose lexical order matches their numeric order, for use as composite key
+ * attributes.
+ */
+final class OrderedKeys {
+
+    private OrderedKeys() {
+    }
+
+    /**
+     * Encodes a number so that keys sort in ascending numeric order, negative numbers first.
+     *
+     * @param value the number to encode
+     * @return sixteen lowercase hex digits
+     */
+    static String ascending(final long value) {
+        return String.format("%016x", value ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Encodes a number so that keys sort in descending numeric order.
+     *
+     * @param value the number to encode
+     * @return sixteen lowercase hex digits
+     */
+    static String descending(final long value) {
+        return String.format("%016x", value ^ Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import com.owlike.genson.Genson;
+
+/**
+ * Per-owner portfolio summaries and a leaderboard ordered by portfolio value.
+ *
+ * <p>Each owner with assets has a {@code portfolio~owner} summary and a {@code portfoliorank~value~owner} entry
+ * whose value encoding sorts the largest portfolios first; the rank entry carries a copy of the summary so the
+ * leaderboard is read without further lookups.</p>
+ *
+ * <p>A transaction collects its asset changes in one instance and applies them once at the end, because a
+ * transaction cannot read its own writes and would otherwise lose updates when it touches one owner twice.</p>
+ *
+ * <p>Each counted asset has a {@code portfolioasset~assetID} entry holding the one-asset summary it is counted under,
+ * and a change only takes back what that entry says was counted. An asset written before the summaries existed has no
+ * entry, so its first change counts it without taking anything from its old owner, and
+ * {@link AssetTransfer#ReindexAssets} counts the assets that are never written again.</p>
+ */
+final class OwnerPortfolios {
+
+    private static final String SUMMARY_TYPE = "portfolio";
+    private static final String RANK_TYPE = "portfoliorank";
+    private static final String COUNTED_TYPE = "portfolioasset";
+
+    private static final Genson GENSON = new Genson();
+
+    private final Map<String, Asset> assets = new TreeMap<>();
+
+    /**
+     * Records an asset as it is after this transaction, replacing any earlier change to it.
+     *
+     * @param asset the asset
+     */
+    void put(final Asset asset) {
+        assets.put(asset.getAssetID(), asset);
+    }
+
+    /**
+     * Records that an asset was deleted.
+     *
+     * @param assetID the ID of the asset
+     */
+    void delete(final String assetID) {
+        assets.put(assetID, null);
+    }
+
+    /**
+     * Writes the summaries and leaderboard entries of every owner whose portfolio changed. Recording an asset that is
+     * already counted as it is changes nothing, so this can be applied to an asset any number of times.
+     *
+     * @param ctx the transaction context
+     */
+    void apply(final Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+
+        Map<String, long[]> deltas = new TreeMap<>();
+        for (Map.Entry<String, Asset> entry : assets.entrySet()) {
+            Asset asset = entry.getValue();
+            String countedKey = countedKey(entry.getKey());
+            String countedJSON = asset == null ? ""
+                    : GENSON.serialize(new OwnerSummary(asset.getOwner(), 1, asset.getAppraisedValue()));
+            String previousJSON = stub.getStringState(countedKey);
+            if (countedJSON.equals(previousJSON == null ? "" : previousJSON)) {
+                continue;
+            }
+
+            if (previousJSON != null && !previousJSON.isEmpty()) {
+                OwnerSummary counted = GENSON.deserialize(previousJSON, OwnerSummary.class);
+                change(deltas, counted.getOwner(), -counted.getAssetCount(), -counted.getTotalValue());
+            }
+            if (asset == null) {
+                stub.delState(countedKey);
+            } else {
+                change(deltas, asset.getOwner(), 1, asset.getAppraisedValue());
+                stub.putStringState(countedKey, countedJSON);
+            }
+        }
+
+        for (Map.Entry<String, long[]> entry : deltas.entrySet()) {
+            long[] delta = entry.getValue();
+            if (delta[0] == 0 && delta[1] == 0) {
+                continue;
+            }
+
+            String owner = entry.getKey();
+            String summaryKey = summaryKey(owner);
+            OwnerSummary previous = read(ctx, owner);
+            OwnerSummary next = new OwnerSummary(owner, previous.getAssetCount() + delta[0],
+                    previous.getTotalValue() + delta[1]);
+
+            if (previous.getAssetCount() != 0) {
+                stub.delState(rankKey(previous));
+            }
+
+            // Only what was counted is ever taken back, so the count reaches zero exactly when the owner has no
+            // counted assets left.
+            if (next.getAssetCount() == 0) {
+                stub.delState(summaryKey);
+            } else {
+                String summaryJSON = GENSON.serialize(next);
+                stub.putStringState(summaryKey, summaryJSON);
+                stub.putStringState(rankKey(next), summaryJSON);
+            }
+        }
+
+        assets.clear();
+    }
+
+    private static void change(final Map<String, long[]> deltas, final String owner, final long count,
+            final long value) {
+        long[] delta = deltas.computeIfAbsent(String.valueOf(owner), k -> new long[2]);
+        delta[0] += count;
+        delta[1] += value;
+    }
+
+    /**
+     * Reads the summary of one owner.
+     *
+     * @param ctx the transaction context
+     * @param owner the owner
+     * @return the summary, with zero counts if the owner has no assets
+     */
+    static OwnerSummary read(final Context ctx, final String owner) {
+        String summaryJSON = ctx.getStub().getStringState(summaryKey(owner));
+
+        if (summaryJSON == null || summaryJSON.isEmpty()) {
+            return new OwnerSummary(owner, 0, 0);
+        }
+
+        return GENSON.deserialize(summaryJSON, OwnerSummary.class);
+    }
+
+    /**
+     * Reads the owners with the most valuable portfolios.
+     *
+     * @param ctx the transaction context
+     * @param n the number of owners to read
+     * @return up to n summaries, most valuable first
+     */
+    static List<OwnerSummary> top(final Context ctx, final int n) {
+        List<OwnerSummary> summaries = new ArrayList<>(n);
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(new CompositeKey(RANK_TYPE));
+        try {
+            for (KeyValue result : results) {
+                if (summaries.size() == n) {
+                    break;
+                }
+                summaries.add(GENSON.deserialize(result.getStringValue(), OwnerSummary.class));
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        return summaries;
+    }
+
+    static String countedKey(final String assetID) {
+        return new CompositeKey(COUNTED_TYPE, assetID).toString();
+    }
+
+    static String summaryKey(final String owner) {
+        return new CompositeKey(SUMMARY_TYPE, owner).toString();
+    }
+
+    static String rankKey(final OwnerSummary summary) {
+        return new CompositeKey(RANK_TYPE, OrderedKeys.descending(summary.getTotalValue()), summary.getOwner()).toString();
+    }
+}
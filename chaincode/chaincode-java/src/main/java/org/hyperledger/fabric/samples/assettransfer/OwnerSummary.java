@@ -0,0 +1,72 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class OwnerSummary {
+
+    @Property()
+    private final String owner;
+
+    @Property()
+    private final long assetCount;
+
+    @Property()
+    private final long totalValue;
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getAssetCount() {
+        return assetCount;
+    }
+
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    public OwnerSummary(@JsonProperty("owner") final String owner, @JsonProperty("assetCount") final long assetCount,
+            @JsonProperty("totalValue") final long totalValue) {
+        this.owner = owner;
+        this.assetCount = assetCount;
+        this.totalValue = totalValue;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        OwnerSummary other = (OwnerSummary) obj;
+
+        return Objects.equals(getOwner(), other.getOwner())
+                && getAssetCount() == other.getAssetCount()
+                && getTotalValue() == other.getTotalValue();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOwner(), getAssetCount(), getTotalValue());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [owner=" + owner
+                + ", assetCount=" + assetCount + ", totalValue=" + totalValue + "]";
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+import com.owlike.genson.Genson;
+
+/**
+ * Opt-in encodings for large evaluate results.
+ *
+ * <p>A client selects an encoding by passing its name in the {@value #TRANSIENT_KEY} transient field of the
+ * proposal. Without it, results are returned as plain JSON exactly as before. Encoded results are wrapped in an
+ * {@link EncodedResponse} that names the encoding and the length of the original JSON.</p>
+ */
+public enum ResponseEncoding {
+    IDENTITY,
+    GZIP;
+
+    /**
+     * Transient field used to request an encoding.
+     */
+    public static final String TRANSIENT_KEY = "responseEncoding";
+
+    private static final Genson GENSON = new Genson();
+
+    /**
+     * Determines the encoding requested by the client of the current transaction.
+     *
+     * @param ctx the transaction context
+     * @return the requested encoding, or IDENTITY if none was requested
+     */
+    public static ResponseEncoding fromContext(final Context ctx) {
+        Map<String, byte[]> transientData = ctx.getStub().getTransient();
+        if (transientData == null || !transientData.containsKey(TRANSIENT_KEY)) {
+            return IDENTITY;
+        }
+
+        String name = new String(transientData.get(TRANSIENT_KEY), StandardCharsets.UTF_8).trim();
+        for (ResponseEncoding encoding : values()) {
+            if (encoding.name().equalsIgnoreCase(name)) {
+                return encoding;
+            }
+        }
+
+        String errorMessage = String.format("Unsupported response encoding: %s", name);
+        System.out.println(errorMessage);
+        throw new ChaincodeException(errorMessage, "UNSUPPORTED_ENCODING");
+    }
+
+    /**
+     * Encodes a JSON result with the encoding requested by the client of the current transaction.
+     *
+     * @param ctx the transaction context
+     * @param json the plain JSON result
+     * @return the JSON unchanged, or an encoded response envelope
+     */
+    public static String encode(final Context ctx, final String json) {
+        return fromContext(ctx).encode(json);
+    }
+
+    /**
+     * Encodes a JSON result with this encoding.
+     *
+     * @param json the plain JSON result
+     * @return the JSON unchanged for IDENTITY, otherwise a serialized {@link EncodedResponse}
+     */
+    public String encode(final String json) {
+        if (this == IDENTITY) {
+            return json;
+        }
+
+        byte[] plain = json.getBytes(StandardCharsets.UTF_8);
+        String payload = Base64.getEncoder().encodeToString(gzip(plain));
+
+        return GENSON.serialize(new EncodedResponse(name().toLowerCase(), plain.length, payload));
+    }
+
+    private static byte[] gzip(final byte[] plain) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, plain.length / 8));
+
+        try (GZIPOutputStream out = new FastGZIPOutputStream(buffer)) {
+            out.write(plain);
+        } catch (IOException e) {
+            throw new ChaincodeException("Failed to compress response", e);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * GZIP stream that favours speed over ratio; JSON still compresses well at the lowest level.
+     */
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+
+        FastGZIPOutputStream(final ByteArrayOutputStream out) throws IOException {
+            super(out, 8192);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
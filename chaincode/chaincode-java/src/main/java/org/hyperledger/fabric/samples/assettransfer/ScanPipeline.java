@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+/**
+ * Decodes query results on a worker pool while the calling thread keeps pulling the next results from the peer.
+ *
+ * <p>The calling thread drains the iterator into fixed-size batches and hands each batch to the pool. At most
+ * {@link #MAX_IN_FLIGHT} batches are outstanding; once that limit is reached the caller waits for the oldest batch
+ * before fetching more, so the raw results held for decoding stay bounded however large the scan is. The decoded
+ * results are all collected into the returned list, so that list grows with the scan, and unbounded scans should be
+ * paginated by the caller. Batches are collected in submission order, so the output keeps the key order of the
+ * iterator.</p>
+ *
+ * <p>The iterator itself is only ever touched by the calling thread, as the shim's iterators are not thread-safe.
+ * Scans that fit in one batch, or hosts with a single core, are decoded inline.</p>
+ */
+final class ScanPipeline {
+
+    static final int BATCH_SIZE = 64;
+
+    static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    static final int MAX_IN_FLIGHT = 2 * PARALLELISM;
+
+    private static final ExecutorService DECODERS = Executors.newFixedThreadPool(PARALLELISM, new DaemonThreads());
+
+    private ScanPipeline() {
+    }
+
+    /**
+     * Decodes every result of a query, in iteration order.
+     *
+     * @param results the query results to drain
+     * @param decoder decodes one result, or returns null to leave it out of the output
+     * @param <T> the query result type
+     * @param <R> the decoded type
+     * @return the decoded results, in the order the iterator returned them
+     */
+    static <T, R> List<R> decode(final Iterable<T> results, final Function<? super T, ? extends R> decoder) {
+        List<R> decoded = new ArrayList<>();
+        Deque<Future<List<R>>> inFlight = new ArrayDeque<>();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+
+        try {
+            for (T result : results) {
+                batch.add(result);
+                if (batch.size() < BATCH_SIZE) {
+                    continue;
+                }
+                if (PARALLELISM == 1) {
+                    decoded.addAll(decodeBatch(batch, decoder));
+                } else {
+                    if (inFlight.size() >= MAX_IN_FLIGHT) {
+                        decoded.addAll(await(inFlight.removeFirst()));
+                    }
+                    List<T> submitted = batch;
+                    inFlight.addLast(DECODERS.submit(() -> decodeBatch(submitted, decoder)));
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+
+            while (!inFlight.isEmpty()) {
+                decoded.addAll(await(inFlight.removeFirst()));
+            }
+            decoded.addAll(decodeBatch(batch, decoder));
+            return decoded;
+        } finally {
+            for (Future<List<R>> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    private static <T, R> List<R> decodeBatch(final List<T> batch, final Function<? super T, ? extends R> decoder) {
+        List<R> decoded = new ArrayList<>(batch.size());
+        for (T result : batch) {
+            R value = decoder.apply(result);
+            if (value != null) {
+                decoded.add(value);
+            }
+        }
+        return decoded;
+    }
+
+    private static <R> List<R> await(final Future<List<R>> batch) {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChaincodeException("Interrupted while decoding query results", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ChaincodeException("Failed to decode query results", e.getCause());
+        }
+    }
+
+    private static final class DaemonThreads implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable task) {
+            Thread thread = new Thread(task, "scan-decoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class Settlement {
+
+    @Property()
+    private final List<TransferResult> results;
+
+    @Property()
+    private final List<Asset> assets;
+
+    /**
+     * @return the result of each intent, in the order of the batch
+     */
+    public List<TransferResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the assets written with their net final owner, once each
+     */
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    public Settlement(@JsonProperty("results") final List<TransferResult> results,
+            @JsonProperty("assets") final List<Asset> assets) {
+        this.results = results;
+        this.assets = assets;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        Settlement other = (Settlement) obj;
+
+        return Objects.equals(getResults(), other.getResults())
+                && Objects.equals(getAssets(), other.getAssets());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getResults(), getAssets());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [results=" + results
+                + ", assets=" + assets + "]";
+    }
+}
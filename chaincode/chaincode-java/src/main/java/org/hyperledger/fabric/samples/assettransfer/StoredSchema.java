@@ -0,0 +1,238 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * The versioned world state format of one record type.
+ *
+ * <p>Every value written through {@link #write(Object)} carries a {@value #VERSION_FIELD} field, appended after the
+ * record's own fields. Values written before versioning have no such field and are version 1. When the model changes,
+ * the change is registered with {@link #then(UnaryOperator)} as an upgrader from the previous version, and
+ * {@link #read(String)} runs the chain of upgraders over older values as they are read. Nothing is rewritten on read:
+ * a record moves to the current version when a submit transaction next writes it, or when {@link #migrate} reaches
+ * it and the upgrade changes it, so a model change never needs a ledger-wide rewrite in a single transaction.</p>
+ *
+ * @param <T> the record type
+ */
+final class StoredSchema<T> {
+
+    static final String VERSION_FIELD = "schemaVersion";
+
+    private static final String VERSION_TAG = ",\"" + VERSION_FIELD + "\":";
+
+    private static final Genson GENSON = new Genson();
+
+    private final Class<T> type;
+    private final String marker;
+    private final List<UnaryOperator<Map<String, Object>>> upgraders;
+
+    private StoredSchema(final Class<T> type, final String marker,
+            final List<UnaryOperator<Map<String, Object>>> upgraders) {
+        this.type = type;
+        this.marker = marker;
+        this.upgraders = upgraders;
+    }
+
+    /**
+     * Creates the version 1 schema of a record type.
+     *
+     * @param type the record type
+     * @param marker a property only this record type has, which tells its values from others in the key space
+     * @param <T> the record type
+     * @return the schema
+     */
+    static <T> StoredSchema<T> of(final Class<T> type, final String marker) {
+        return new StoredSchema<>(type, "\"" + marker + "\"", Collections.emptyList());
+    }
+
+    /**
+     * Registers the next version of the schema.
+     *
+     * @param upgrader turns the fields of a value in the current version into the fields of the next version
+     * @return the schema whose current version is the next version
+     */
+    StoredSchema<T> then(final UnaryOperator<Map<String, Object>> upgrader) {
+        List<UnaryOperator<Map<String, Object>>> chain = new ArrayList<>(upgraders);
+        chain.add(upgrader);
+        return new StoredSchema<>(type, marker, Collections.unmodifiableList(chain));
+    }
+
+    int getCurrentVersion() {
+        return upgraders.size() + 1;
+    }
+
+    /**
+     * @param json a world state value
+     * @return whether the value is a record of this type
+     */
+    boolean matches(final String json) {
+        return json != null && json.contains(marker);
+    }
+
+    /**
+     * Reads the version of a value. The tag is the last field, and in a string value its quotes would be escaped, so
+     * the last unescaped occurrence is the tag.
+     *
+     * @param json a value of this record type
+     * @return the version, or 0 if the value has no tag
+     */
+    static int taggedVersion(final String json) {
+        int tag = json.lastIndexOf(VERSION_TAG);
+        if (tag < 0) {
+            return 0;
+        }
+
+        int version = 0;
+        for (int i = tag + VERSION_TAG.length(); i < json.length() && Character.isDigit(json.charAt(i)); i++) {
+            version = version * 10 + json.charAt(i) - '0';
+        }
+        return version;
+    }
+
+    /**
+     * @param json a value of this record type
+     * @return whether the value is not tagged with the current version, so a migration would rewrite it
+     */
+    boolean isStale(final String json) {
+        return taggedVersion(json) != getCurrentVersion();
+    }
+
+    /**
+     * @param json a value of this record type
+     * @return whether the value was written in an older version, so reading it runs upgraders
+     */
+    boolean needsUpgrade(final String json) {
+        return Math.max(taggedVersion(json), 1) < getCurrentVersion();
+    }
+
+    /**
+     * Decodes a value, upgrading it from the version it was written in.
+     *
+     * @param json a value of this record type
+     * @return the record in the current model
+     */
+    T read(final String json) {
+        if (!needsUpgrade(json)) {
+            return GENSON.deserialize(json, type);
+        }
+
+        int version = Math.max(taggedVersion(json), 1);
+        Map<String, Object> fields = GENSON.deserialize(json, new GenericType<Map<String, Object>>() { });
+        fields.remove(VERSION_FIELD);
+        for (UnaryOperator<Map<String, Object>> upgrader : upgraders.subList(version - 1, upgraders.size())) {
+            fields = upgrader.apply(fields);
+        }
+        return GENSON.deserialize(GENSON.serialize(fields), type);
+    }
+
+    /**
+     * Encodes a record in the current version.
+     *
+     * @param record the record
+     * @return the value to write
+     */
+    String write(final T record) {
+        String json = GENSON.serialize(record);
+        return json.substring(0, json.length() - 1) + VERSION_TAG + getCurrentVersion() + "}";
+    }
+
+    /**
+     * Rewrites the values of this record type that an upgrade changes, in one bounded slice of the key space, in key
+     * order.
+     *
+     * <p>A value is only rewritten when it was written in an older version and reading it gives a different record
+     * than decoding it as it is, so values that differ from the current version by nothing but the tag are left alone.
+     * The writer is given the record as decoded without upgrading, as the previous record, so it can move whatever
+     * was derived from the old value. Start with an empty cursor and pass the returned cursor to the next call until
+     * the migration is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine
+     * @param writer writes an upgraded record through the contract's write path, given the previous and upgraded
+     *        records
+     * @return the progress of the migration after this call
+     */
+    MigrationProgress migrate(final Context ctx, final String cursor, final int limit,
+            final BiConsumer<T, T> writer) {
+        return sweep(ctx, cursor, limit, (key, json) -> {
+            if (!needsUpgrade(json)) {
+                return false;
+            }
+            T previous = GENSON.deserialize(json, type);
+            T upgraded = read(json);
+            if (previous.equals(upgraded)) {
+                return false;
+            }
+            writer.accept(previous, upgraded);
+            return true;
+        });
+    }
+
+    /**
+     * Visits the values of this record type in one bounded slice of the key space, in key order. The range query is
+     * closed before the first value is visited, so the visitor may read and write state.
+     *
+     * <p>Start with an empty cursor and pass the returned cursor to the next call until the sweep is done.</p>
+     *
+     * @param ctx the transaction context
+     * @param cursor the cursor returned by the previous call, or empty to start from the beginning
+     * @param limit the maximum number of keys to examine
+     * @param visitor called with the key and value of each record, returning whether it wrote anything for it
+     * @return the progress of the sweep after this call, counting the records the visitor wrote for as migrated
+     */
+    MigrationProgress sweep(final Context ctx, final String cursor, final int limit,
+            final BiPredicate<String, String> visitor) {
+        String startKey = cursor == null || cursor.isEmpty() ? "" : cursor + CompositeKey.NAMESPACE;
+
+        int scanned = 0;
+        int migrated = 0;
+        String lastKey = cursor == null ? "" : cursor;
+        boolean done = true;
+        List<KeyValue> records = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByRange(startKey, "");
+        try {
+            for (KeyValue result : results) {
+                if (scanned == limit) {
+                    done = false;
+                    break;
+                }
+
+                if (matches(result.getStringValue())) {
+                    records.add(result);
+                }
+                lastKey = result.getKey();
+                scanned++;
+            }
+        } finally {
+            LedgerQueries.close(results);
+        }
+
+        for (KeyValue result : records) {
+            if (visitor.test(result.getKey(), result.getStringValue())) {
+                migrated++;
+            }
+        }
+
+        return new MigrationProgress(lastKey, scanned, migrated, done);
+    }
+}
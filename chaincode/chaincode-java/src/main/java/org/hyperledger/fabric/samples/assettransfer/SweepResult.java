@@ -0,0 +1,68 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class SweepResult {
+
+    @Property()
+    private final List<String> ids;
+
+    @Property()
+    private final boolean more;
+
+    /**
+     * @return the IDs processed by this sweep
+     */
+    public List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * @return true if the sweep stopped at its limit and another call would find more work
+     */
+    public boolean isMore() {
+        return more;
+    }
+
+    public SweepResult(@JsonProperty("ids") final List<String> ids, @JsonProperty("more") final boolean more) {
+        this.ids = ids;
+        this.more = more;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        SweepResult other = (SweepResult) obj;
+
+        return Objects.equals(getIds(), other.getIds()) && isMore() == other.isMore();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getIds(), isMore());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [ids=" + ids
+                + ", more=" + more + "]";
+    }
+}
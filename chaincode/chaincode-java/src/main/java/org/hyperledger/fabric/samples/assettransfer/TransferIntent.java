@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class TransferIntent {
+
+    @Property()
+    private final String assetID;
+
+    @Property()
+    private final String from;
+
+    @Property()
+    private final String to;
+
+    public String getAssetID() {
+        return assetID;
+    }
+
+    /**
+     * @return the owner the asset is expected to have when this intent is applied
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public TransferIntent(@JsonProperty("assetID") final String assetID, @JsonProperty("from") final String from,
+            @JsonProperty("to") final String to) {
+        this.assetID = assetID;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        TransferIntent other = (TransferIntent) obj;
+
+        return Objects.equals(getAssetID(), other.getAssetID())
+                && Objects.equals(getFrom(), other.getFrom())
+                && Objects.equals(getTo(), other.getTo());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssetID(), getFrom(), getTo());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [assetID=" + assetID
+                + ", from=" + from + ", to=" + to + "]";
+    }
+}
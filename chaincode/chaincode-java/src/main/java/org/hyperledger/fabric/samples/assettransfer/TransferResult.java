@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class TransferResult {
+
+    @Property()
+    private final TransferIntent intent;
+
+    @Property()
+    private final boolean settled;
+
+    @Property()
+    private final String reason;
+
+    public TransferIntent getIntent() {
+        return intent;
+    }
+
+    public boolean isSettled() {
+        return settled;
+    }
+
+    /**
+     * @return why the intent was not settled, or empty if it was
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public TransferResult(@JsonProperty("intent") final TransferIntent intent,
+            @JsonProperty("settled") final boolean settled, @JsonProperty("reason") final String reason) {
+        this.intent = intent;
+        this.settled = settled;
+        this.reason = reason;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        TransferResult other = (TransferResult) obj;
+
+        return Objects.equals(getIntent(), other.getIntent())
+                && isSettled() == other.isSettled()
+                && Objects.equals(getReason(), other.getReason());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getIntent(), isSettled(), getReason());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [intent=" + intent
+                + ", settled=" + settled + ", reason=" + reason + "]";
+    }
+}
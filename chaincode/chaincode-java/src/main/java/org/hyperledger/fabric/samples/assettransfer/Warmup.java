@@ -0,0 +1,162 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.msp.SerializedIdentity;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Runs synthetic transactions through the contracts against a {@link WarmupLedger} before the chaincode starts
+ * serving, so Genson has built its converters and the JIT has compiled the hot paths by the time the first real
+ * transaction arrives.
+ *
+ * <p>Each iteration creates, reads, updates, transfers and deletes an asset and creates, reads and verifies a KYC
+ * record; every {@link #SCAN_INTERVAL} iterations it also runs the range, summary and export queries. The ledger is
+ * replaced every {@link #LEDGER_LIFETIME} iterations so the scans stay cheap, and is discarded afterwards; nothing
+ * reaches the peer.</p>
+ */
+final class Warmup {
+
+    static final int DEFAULT_ITERATIONS = 1000;
+
+    static final int SCAN_INTERVAL = 16;
+
+    static final int LEDGER_LIFETIME = 4 * SCAN_INTERVAL;
+
+    static final String MSP_ID = "WarmupMSP";
+
+    // Self-signed throwaway certificate, used only to build client identities for the warm-up transactions.
+    private static final String CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIB1jCCAX2gAwIBAgIUfhi82MznQOaD0wacxIVUD9Va7zQwCgYIKoZIzj0EAwIw\n"
+            + "QDELMAkGA1UEBhMCVVMxDzANBgNVBAoMBldhcm11cDEPMA0GA1UECwwGY2xpZW50\n"
+            + "MQ8wDQYDVQQDDAZ3YXJtdXAwIBcNMjYxMDE4MjIzMzIxWhgPMjEyNjA5MjQyMjMz\n"
+            + "MjFaMEAxCzAJBgNVBAYTAlVTMQ8wDQYDVQQKDAZXYXJtdXAxDzANBgNVBAsMBmNs\n"
+            + "aWVudDEPMA0GA1UEAwwGd2FybXVwMFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAE\n"
+            + "PaFONt24BT1z1tygX6O2mz6MRtchYEfF8+ycOaWsOhj1VHa9/4IR3htVjUqlVl2W\n"
+            + "F32ieLWbMQkVEHeWzzfq46NTMFEwHQYDVR0OBBYEFLpG0ve+vOSC60/z15BpRnNP\n"
+            + "BeKQMB8GA1UdIwQYMBaAFLpG0ve+vOSC60/z15BpRnNPBeKQMA8GA1UdEwEB/wQF\n"
+            + "MAMBAf8wCgYIKoZIzj0EAwIDRwAwRAIgTs56s+NMTcyFY5eiSYSauMxgzjYqK5mg\n"
+            + "ZdKHNpaXDHkCIDpgT2M3Mz5DESXUY/N6EwiWbkTsJVXghWaUL9NMwW8m\n"
+            + "-----END CERTIFICATE-----\n";
+
+    // The synthetic owners have no KYC records, so the warm-up never requires verified owners.
+    private final AssetTransfer assets = new AssetTransfer(false);
+    private final KYCContract kyc = new KYCContract();
+    private final byte[] creator = identity();
+    private WarmupLedger ledger;
+    private long transactions;
+
+    private Warmup() {
+    }
+
+    /**
+     * Runs the warm-up. Failures are logged rather than thrown, as a failed warm-up only costs latency.
+     *
+     * @param iterations the number of iterations to run
+     * @return the number of transactions run
+     */
+    static long run(final int iterations) {
+        return run(iterations, false);
+    }
+
+    /**
+     * Runs the warm-up and throws the first failure, for builds that check the contracts run in the packaged
+     * chaincode.
+     *
+     * @param iterations the number of iterations to run
+     * @return the number of transactions run
+     */
+    static long verify(final int iterations) {
+        return run(iterations, true);
+    }
+
+    private static long run(final int iterations, final boolean strict) {
+        Warmup warmup = new Warmup();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                warmup.iteration(i);
+            }
+        } catch (RuntimeException e) {
+            if (strict) {
+                throw e;
+            }
+            System.out.println("Warm-up stopped early: " + e);
+        }
+        System.out.println(String.format("Warm-up ran %d transactions in %d ms", warmup.transactions,
+                (System.nanoTime() - start) / 1_000_000));
+        return warmup.transactions;
+    }
+
+    /**
+     * Returns the serialized identity the warm-up transactions are submitted by.
+     *
+     * @return the identity, as returned by {@code ChaincodeStub.getCreator()}
+     */
+    static byte[] identity() {
+        return identity(MSP_ID);
+    }
+
+    /**
+     * Returns a serialized identity with the warm-up certificate in another MSP, for tools that run transactions on
+     * behalf of several organizations.
+     *
+     * @param mspId the MSP ID
+     * @return the identity, as returned by {@code ChaincodeStub.getCreator()}
+     */
+    static byte[] identity(final String mspId) {
+        return SerializedIdentity.newBuilder()
+                .setMspid(mspId)
+                .setIdBytes(ByteString.copyFrom(CERTIFICATE, StandardCharsets.UTF_8))
+                .build()
+                .toByteArray();
+    }
+
+    private Context next() {
+        return new Context(ledger.stub("warmup-" + transactions++));
+    }
+
+    private void iteration(final int i) {
+        if (i % LEDGER_LIFETIME == 0) {
+            ledger = new WarmupLedger(creator);
+        }
+
+        String assetID = "warmup-asset-" + i;
+        String owner = "warmup-owner-" + i % 8;
+        assets.CreateAsset(next(), assetID, "blue", i % 20, owner, i % 1000);
+        assets.ReadAsset(next(), assetID);
+        assets.UpdateAsset(next(), assetID, "red", i % 20 + 1, owner, i % 1000 + 1);
+        assets.TransferAsset(next(), assetID, "warmup-owner-" + (i + 1) % 8);
+        assets.ReadAssets(next(), new String[] {assetID, "warmup-asset-" + (i - 1)});
+
+        String kycID = "warmup-kyc-" + i;
+        kyc.CreateKYC(next(), kycID, "Warm Up", "1990-01-01", "RW", "Passport", "warmup-hash-" + i);
+        kyc.GetKYC(next(), kycID);
+        kyc.VerifyKYC(next(), kycID, i % 4 == 0 ? "REJECT" : "APPROVE");
+        kyc.GetKYCBatch(next(), new String[] {kycID, "warmup-kyc-" + (i - 1)});
+
+        if (i % SCAN_INTERVAL == 0) {
+            assets.GetAllAssets(next());
+            assets.GetOwnerSummary(next(), owner);
+            assets.GetTopOwners(next(), 5);
+            assets.GetAssetsByValueRange(next(), 0, 1000, 20, "");
+            assets.GetAssetsBySizeRange(next(), 0, 20, 20, "");
+            kyc.GetKYCStats(next());
+            kyc.ExportKYC(next(), "", 16 * 1024, "", "");
+            kyc.ExpireKYC(next(), kycID);
+            kyc.ExpireDueKYC(next(), Instant.now().getEpochSecond(), 10);
+        }
+
+        // Only the most recent assets are kept around for the scans.
+        if (i % LEDGER_LIFETIME >= SCAN_INTERVAL) {
+            assets.DeleteAsset(next(), "warmup-asset-" + (i - SCAN_INTERVAL));
+        }
+    }
+}
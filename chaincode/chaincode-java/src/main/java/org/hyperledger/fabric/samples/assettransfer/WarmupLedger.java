@@ -0,0 +1,180 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * The world state the {@link Warmup} transactions run against, which is discarded with them.
+ *
+ * <p>It implements only the stub calls the warm-up transactions make, for one transaction at a time: state reads and
+ * writes, events, range and partial composite key queries, and the transaction ID, timestamp and creator. Any other
+ * call fails the warm-up, which the Docker build runs with {@code --warmup-only} so such a failure stops the
+ * build.</p>
+ */
+final class WarmupLedger {
+
+    private static final String MAX_UNICODE_RUNE = "\uDBFF\uDFFF";
+
+    private final NavigableMap<String, String> state = new TreeMap<>();
+
+    private final byte[] creator;
+
+    /**
+     * Creates an empty ledger.
+     *
+     * @param creator the serialized identity every transaction is submitted by
+     */
+    WarmupLedger(final byte[] creator) {
+        this.creator = creator.clone();
+    }
+
+    /**
+     * Creates the stub for one transaction.
+     *
+     * @param txId the transaction ID
+     * @return a stub reading and writing this ledger
+     */
+    ChaincodeStub stub(final String txId) {
+        Instant timestamp = Instant.now();
+        return (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[] {ChaincodeStub.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTxId":
+                            return txId;
+                        case "getTxTimestamp":
+                            return timestamp;
+                        case "getCreator":
+                            return creator.clone();
+                        case "getTransient":
+                            return Collections.emptyMap();
+                        case "getStringState":
+                            return state.getOrDefault((String) args[0], "");
+                        case "putStringState":
+                            state.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "delState":
+                            state.remove((String) args[0]);
+                            return null;
+                        case "setEvent":
+                            return null;
+                        case "getStateByRange":
+                            return range((String) args[0], (String) args[1]);
+                        case "getStateByPartialCompositeKey":
+                            String prefix = args[0].toString();
+                            return results(state.subMap(prefix, true, prefix + MAX_UNICODE_RUNE, false));
+                        case "getStateByPartialCompositeKeyWithPagination":
+                            return page((CompositeKey) args[0], (Integer) args[1], (String) args[2]);
+                        case "toString":
+                            return "WarmupLedger.stub(" + txId + ")";
+                        default:
+                            throw new UnsupportedOperationException("Not used by the warm-up: " + method.getName());
+                    }
+                });
+    }
+
+    private QueryResultsIterator<KeyValue> range(final String startKey, final String endKey) {
+        // Like the peer, simple range queries never return composite keys.
+        NavigableMap<String, String> view = state.tailMap(startKey.isEmpty() ? "\u0001" : startKey, true);
+        if (!endKey.isEmpty()) {
+            view = view.headMap(endKey, false);
+        }
+        return results(view);
+    }
+
+    private QueryResultsIteratorWithMetadata<KeyValue> page(final CompositeKey partialKey, final int pageSize,
+            final String bookmark) {
+        String prefix = partialKey.toString();
+        List<KeyValue> results = new ArrayList<>(pageSize);
+        String next = "";
+        for (Map.Entry<String, String> entry : state.subMap(bookmark.isEmpty() ? prefix : bookmark, true,
+                prefix + MAX_UNICODE_RUNE, false).entrySet()) {
+            if (results.size() == pageSize) {
+                next = entry.getKey();
+                break;
+            }
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        QueryResponseMetadata metadata = QueryResponseMetadata.newBuilder()
+                .setFetchedRecordsCount(results.size())
+                .setBookmark(next)
+                .build();
+        return new QueryResultsIteratorWithMetadata<KeyValue>() {
+            @Override
+            public QueryResponseMetadata getMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return results.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static QueryResultsIterator<KeyValue> results(final Map<String, String> view) {
+        // Copied up front, as a transaction may write while it iterates.
+        List<KeyValue> results = new ArrayList<>(view.size());
+        for (Map.Entry<String, String> entry : view.entrySet()) {
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        return new QueryResultsIterator<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return results.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static final class Entry implements KeyValue {
+
+        private final String key;
+        private final String value;
+
+        Entry(final String key, final String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String getStringValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class AssetRangeIndexTest {
+
+    private static Context context() {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        return ctx;
+    }
+
+    @Test
+    public void keysSortInNumericOrder() {
+        AssetRangeIndex index = AssetRangeIndex.APPRAISED_VALUE;
+
+        assertThat(index.keyOf(-5, "a")).isLessThan(index.keyOf(0, "a"));
+        assertThat(index.keyOf(9, "a")).isLessThan(index.keyOf(10, "a"));
+        assertThat(index.keyOf(10, "a")).isLessThan(index.keyOf(Integer.MAX_VALUE, "a"));
+    }
+
+    @Nested
+    class UpdateAll {
+
+        @Test
+        public void movesOnlyTheEntriesThatChanged() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+
+            AssetRangeIndex.updateAll(ctx, new Asset("asset1", "blue", 5, "Ana", 300), new Asset("asset1", "blue", 5, "Bob", 450));
+
+            verify(stub).delState(AssetRangeIndex.APPRAISED_VALUE.keyOf(300, "asset1"));
+            verify(stub).putStringState(AssetRangeIndex.APPRAISED_VALUE.keyOf(450, "asset1"), "\u0000");
+            verify(stub, never()).delState(AssetRangeIndex.SIZE.keyOf(5, "asset1"));
+        }
+
+        @Test
+        public void removesEveryEntryOnDelete() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+
+            AssetRangeIndex.updateAll(ctx, new Asset("asset1", "blue", 5, "Ana", 300), null);
+
+            verify(stub).delState(AssetRangeIndex.SIZE.keyOf(5, "asset1"));
+            verify(stub).delState(AssetRangeIndex.APPRAISED_VALUE.keyOf(300, "asset1"));
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class Range {
+
+        @Test
+        public void startsAtTheLowerBoundAndStopsPastTheUpperBound() {
+            Context ctx = context();
+            AssetRangeIndex index = AssetRangeIndex.APPRAISED_VALUE;
+            String start = new CompositeKey("assetvalue", OrderedKeys.ascending(300)).toString();
+            when(ctx.getStub().getStateByPartialCompositeKeyWithPagination(any(CompositeKey.class), eq(10), eq(start)))
+                    .thenReturn(MockQueryResults.page("next",
+                            MockQueryResults.keyValue(index.keyOf(300, "asset1"), "\u0000"),
+                            MockQueryResults.keyValue(index.keyOf(400, "asset2"), "\u0000"),
+                            MockQueryResults.keyValue(index.keyOf(500, "asset3"), "\u0000")));
+            List<String> assetIDs = new ArrayList<>();
+
+            String bookmark = index.range(ctx, 300, 450, 10, "", assetIDs);
+
+            assertThat(assetIDs).containsExactly("asset1", "asset2");
+            assertThat(bookmark).isEmpty();
+        }
+
+        @Test
+        public void returnsThePeerBookmarkWhenThePageIsFull() {
+            Context ctx = context();
+            AssetRangeIndex index = AssetRangeIndex.SIZE;
+            String resume = index.keyOf(7, "asset1");
+            when(ctx.getStub().getStateByPartialCompositeKeyWithPagination(any(CompositeKey.class), eq(1), eq(resume)))
+                    .thenReturn(MockQueryResults.page("next",
+                            MockQueryResults.keyValue(index.keyOf(7, "asset1"), "\u0000")));
+            List<String> assetIDs = new ArrayList<>();
+
+            String bookmark = index.range(ctx, 0, 100, 1, resume, assetIDs);
+
+            assertThat(assetIDs).containsExactly("asset1");
+            assertThat(bookmark).isEqualTo("next");
+        }
+
+        @Test
+        public void rejectsABookmarkFromAnotherIndex() {
+            Context ctx = context();
+
+            Throwable thrown = catchThrowable(() -> {
+                AssetRangeIndex.SIZE.range(ctx, 0, 100, 10, AssetRangeIndex.APPRAISED_VALUE.keyOf(7, "asset1"),
+                        new ArrayList<>());
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Bookmark does not belong to this query");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+            verifyNoInteractions(ctx.getStub());
+        }
+    }
+}
@@ -6,8 +6,14 @@ package org.hyperledger.fabric.samples.assettransfer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -18,8 +24,10 @@ import java.util.List;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
@@ -140,6 +148,57 @@ public final class AssetTransferTest {
         }
     }
 
+    @Nested
+    class InvokeReadAssetsTransaction {
+
+        @Test
+        public void whenSomeAssetsAreMissing() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("asset1"))
+                    .thenReturn("{ \"assetID\": \"asset1\", \"color\": \"blue\", \"size\": 5, \"owner\": \"Tomoko\", \"appraisedValue\": 300 }");
+            when(stub.getStringState("asset2")).thenReturn("");
+
+            String batch = contract.ReadAssets(ctx, new String[] {"asset1", "asset2", "asset1"});
+
+            assertThat(batch).isEqualTo("{\"assets\":[{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}],"
+                    + "\"missingIDs\":[\"asset2\"]}");
+            verify(stub, times(1)).getStringState("asset1");
+        }
+
+        @Test
+        public void whenBatchIsTooLarge() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ReadAssets(ctx, new String[AssetTransfer.MAX_BATCH_SIZE + 1]);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Batch of 1001 IDs exceeds the limit of 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("BATCH_TOO_LARGE".getBytes());
+            verifyNoInteractions(ctx);
+        }
+
+        @Test
+        public void whenAnIDIsNull() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ReadAssets(ctx, new String[] {"asset1", null});
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Batch IDs must not be null");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+            verifyNoInteractions(ctx);
+        }
+    }
+
     @Test
     void invokeInitLedgerTransaction() {
         AssetTransfer contract = new AssetTransfer();
@@ -150,11 +209,11 @@ public final class AssetTransferTest {
         contract.InitLedger(ctx);
 
         InOrder inOrder = inOrder(stub);
-        inOrder.verify(stub).putStringState("asset1", "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}");
-        inOrder.verify(stub).putStringState("asset2", "{\"appraisedValue\":400,\"assetID\":\"asset2\",\"color\":\"red\",\"owner\":\"Brad\",\"size\":5}");
-        inOrder.verify(stub).putStringState("asset3", "{\"appraisedValue\":500,\"assetID\":\"asset3\",\"color\":\"green\",\"owner\":\"Jin Soo\",\"size\":10}");
-        inOrder.verify(stub).putStringState("asset4", "{\"appraisedValue\":600,\"assetID\":\"asset4\",\"color\":\"yellow\",\"owner\":\"Max\",\"size\":10}");
-        inOrder.verify(stub).putStringState("asset5", "{\"appraisedValue\":700,\"assetID\":\"asset5\",\"color\":\"black\",\"owner\":\"Adrian\",\"size\":15}");
+        inOrder.verify(stub).putStringState("asset1", "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5,\"schemaVersion\":1}");
+        inOrder.verify(stub).putStringState("asset2", "{\"appraisedValue\":400,\"assetID\":\"asset2\",\"color\":\"red\",\"owner\":\"Brad\",\"size\":5,\"schemaVersion\":1}");
+        inOrder.verify(stub).putStringState("asset3", "{\"appraisedValue\":500,\"assetID\":\"asset3\",\"color\":\"green\",\"owner\":\"Jin Soo\",\"size\":10,\"schemaVersion\":1}");
+        inOrder.verify(stub).putStringState("asset4", "{\"appraisedValue\":600,\"assetID\":\"asset4\",\"color\":\"yellow\",\"owner\":\"Max\",\"size\":10,\"schemaVersion\":1}");
+        inOrder.verify(stub).putStringState("asset5", "{\"appraisedValue\":700,\"assetID\":\"asset5\",\"color\":\"black\",\"owner\":\"Adrian\",\"size\":15,\"schemaVersion\":1}");
 
     }
 
@@ -193,6 +252,79 @@ public final class AssetTransferTest {
         }
     }
 
+    @Nested
+    class InvokeBulkLoadTransaction {
+
+        private static final String ASSET7 = "{\"appraisedValue\":900,\"assetID\":\"asset7\",\"color\":\"red\",\"owner\":\"Ana\",\"size\":3}";
+        private static final String ASSET8 = "{\"appraisedValue\":950,\"assetID\":\"asset8\",\"color\":\"blue\",\"owner\":\"Ana\",\"size\":4}";
+
+        private String stored(final String json) {
+            return json.substring(0, json.length() - 1) + ",\"schemaVersion\":1}";
+        }
+
+        @Test
+        public void whenChunkIsNext() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            BulkLoadCheckpoint checkpoint = contract.BulkLoad(ctx, "load1", 0, BulkLoaderTest.chunkOf(ASSET7, ASSET8));
+
+            assertThat(checkpoint).isEqualTo(new BulkLoadCheckpoint("load1", 1, 2));
+            verify(stub).putStringState("asset7", stored(ASSET7));
+            verify(stub).putStringState("asset8", stored(ASSET8));
+        }
+
+        @Test
+        public void whenChunkWasAlreadyApplied() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState(new CompositeKey("bulkload", "asset", "load1").toString()))
+                    .thenReturn("{\"loadId\":\"load1\",\"nextChunk\":1,\"recordsLoaded\":2}");
+
+            BulkLoadCheckpoint checkpoint = contract.BulkLoad(ctx, "load1", 0, BulkLoaderTest.chunkOf(ASSET7, ASSET8));
+
+            assertThat(checkpoint).isEqualTo(new BulkLoadCheckpoint("load1", 1, 2));
+            verify(stub, never()).putStringState("asset7", stored(ASSET7));
+        }
+
+        @Test
+        public void whenAssetAlreadyExists() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("asset8")).thenReturn(ASSET8);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.BulkLoad(ctx, "load1", 0, BulkLoaderTest.chunkOf(ASSET7, ASSET8));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Asset asset8 already exists");
+            verify(stub, never()).putStringState("asset7", stored(ASSET7));
+        }
+
+        @Test
+        public void whenRecordIsInvalid() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.BulkLoad(ctx, "load1", 0, BulkLoaderTest.chunkOf(ASSET7, "{\"assetID\":\"\"}"));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Invalid asset on line 2 of chunk");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_RECORD".getBytes());
+        }
+    }
+
     @Test
     void invokeGetAllAssetsTransaction() {
         AssetTransfer contract = new AssetTransfer();
@@ -212,6 +344,22 @@ public final class AssetTransferTest {
 
     }
 
+    @Test
+    void invokeGetAllAssetsTransactionClosesTheResults() {
+        AssetTransfer contract = new AssetTransfer();
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        MockQueryResults results = MockQueryResults.of(MockQueryResults.keyValue("asset1",
+                "{ \"assetID\": \"asset1\", \"color\": \"blue\", \"size\": 5, \"owner\": \"Tomoko\", "
+                        + "\"appraisedValue\": 300 }"));
+        when(stub.getStateByRange("", "")).thenReturn(results);
+
+        contract.GetAllAssets(ctx);
+
+        assertThat(results.isClosed()).isTrue();
+    }
+
     @Nested
     class TransferAssetTransaction {
 
@@ -227,6 +375,8 @@ public final class AssetTransferTest {
             String oldOwner = contract.TransferAsset(ctx, "asset1", "Dr Evil");
 
             assertThat(oldOwner).isEqualTo("Tomoko");
+            verify(stub).putStringState(OwnerPortfolios.summaryKey("Dr Evil"),
+                    "{\"assetCount\":1,\"owner\":\"Dr Evil\",\"totalValue\":300}");
         }
 
         @Test
@@ -247,6 +397,144 @@ public final class AssetTransferTest {
         }
     }
 
+    @Nested
+    class SettleTransfersTransaction {
+
+        private Context context(final ChaincodeStub stub) {
+            Context ctx = mock(Context.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("asset1")).thenReturn(
+                    "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}");
+            when(stub.getStringState("asset2")).thenReturn(
+                    "{\"appraisedValue\":400,\"assetID\":\"asset2\",\"color\":\"red\",\"owner\":\"Brad\",\"size\":5}");
+            when(stub.getStringState("asset9")).thenReturn("");
+            return ctx;
+        }
+
+        @Test
+        public void writesEachAssetOnceWithItsNetOwner() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = context(stub);
+
+            Settlement settlement = contract.SettleTransfers(ctx, "["
+                    + "{\"assetID\":\"asset1\",\"from\":\"Tomoko\",\"to\":\"Ana\"},"
+                    + "{\"assetID\":\"asset2\",\"from\":\"Brad\",\"to\":\"Ana\"},"
+                    + "{\"assetID\":\"asset1\",\"from\":\"Tomoko\",\"to\":\"Max\"},"
+                    + "{\"assetID\":\"asset1\",\"from\":\"Ana\",\"to\":\"Jin Soo\"},"
+                    + "{\"assetID\":\"asset9\",\"from\":\"Ana\",\"to\":\"Max\"},"
+                    + "{\"assetID\":\"asset2\",\"from\":\"Ana\",\"to\":\"Brad\"}]");
+
+            assertThat(settlement.getResults()).extracting(TransferResult::isSettled)
+                    .containsExactly(true, true, false, true, false, true);
+            assertThat(settlement.getResults().get(2).getReason()).isEqualTo("Asset asset1 is owned by Ana, not Tomoko");
+            assertThat(settlement.getResults().get(4).getReason()).isEqualTo("Asset asset9 does not exist");
+            assertThat(settlement.getAssets()).containsExactly(new Asset("asset1", "blue", 5, "Jin Soo", 300));
+
+            verify(stub, times(1)).getStringState("asset1");
+            verify(stub).putStringState("asset1", "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\","
+                    + "\"owner\":\"Jin Soo\",\"size\":5,\"schemaVersion\":1}");
+            verify(stub, never()).putStringState(eq("asset2"), anyString());
+            verify(stub, times(1)).setEvent(eq("AssetsSettled"), any());
+        }
+
+        @Test
+        public void whenIntentIsInvalid() {
+            AssetTransfer contract = new AssetTransfer();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            Context ctx = context(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.SettleTransfers(ctx, "[{\"assetID\":\"asset1\",\"from\":\"Tomoko\",\"to\":\"Ana\"},"
+                        + "{\"assetID\":\"asset2\",\"from\":\"Brad\"}]");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Invalid transfer intent 2 of batch");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_RECORD".getBytes());
+            verifyNoInteractions(stub);
+        }
+    }
+
+    @Nested
+    class RequireVerifiedOwners {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+        private final AssetTransfer contract = new AssetTransfer(true);
+        private final KYCContract kyc = new KYCContract();
+
+        @BeforeEach
+        public void createRecords() {
+            kyc.CreateKYC(ledger.next(), "kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash1");
+            kyc.CreateKYC(ledger.next(), "kyc2", "Jane Doe", "1991-02-16", "USA", "Passport", "QmHash2");
+            kyc.VerifyKYC(ledger.next(), "kyc1", "APPROVE");
+        }
+
+        @Test
+        public void allowsVerifiedOwners() {
+            contract.CreateAsset(ledger.next(), "asset1", "blue", 5, "kyc1", 300);
+
+            assertThat(contract.ReadAsset(ledger.next(), "asset1").getOwner()).isEqualTo("kyc1");
+        }
+
+        @Test
+        public void rejectsOwnersWithoutAVerifiedRecord() {
+            contract.CreateAsset(ledger.next(), "asset1", "blue", 5, "kyc1", 300);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.TransferAsset(ledger.next(), "asset1", "kyc2");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Owner kyc2 does not have a verified KYC record");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("UNVERIFIED_OWNER".getBytes());
+        }
+
+        @Test
+        public void rejectsOwnersWhoseRecordExpired() {
+            contract.CreateAsset(ledger.next(), "asset1", "blue", 5, "kyc1", 300);
+            kyc.VerifyKYC(ledger.next(), "kyc2", "APPROVE");
+            kyc.ExpireKYC(ledger.next(), "kyc2");
+
+            Settlement settlement = contract.SettleTransfers(ledger.next(),
+                    "[{\"assetID\":\"asset1\",\"from\":\"kyc1\",\"to\":\"kyc2\"}]");
+
+            assertThat(settlement.getResults().get(0).getReason())
+                    .isEqualTo("Owner kyc2 does not have a verified KYC record");
+            assertThat(settlement.getAssets()).isEmpty();
+        }
+
+        @Test
+        public void rejectsBulkLoadsWithAnOwnerWithoutAVerifiedRecord() {
+            String chunk = BulkLoaderTest.chunkOf(
+                    "{\"assetID\":\"asset1\",\"color\":\"blue\",\"size\":5,\"owner\":\"kyc1\",\"appraisedValue\":300}",
+                    "{\"assetID\":\"asset2\",\"color\":\"red\",\"size\":5,\"owner\":\"kyc2\",\"appraisedValue\":400}");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.BulkLoad(ledger.next(), "load1", 0, chunk);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Owner kyc2 does not have a verified KYC record");
+            assertThat(ledger.snapshot()).doesNotContainKeys("asset1", "asset2");
+        }
+
+        @Test
+        public void acceptsPartiesVerifiedBeforeTheMarkersOnceReindexed() {
+            ledger.next().getStub().delState(KYCVerifiedParties.keyOf("kyc1"));
+            assertThat(catchThrowable(() -> contract.CreateAsset(ledger.next(), "asset1", "blue", 5, "kyc1", 300)))
+                    .hasMessage("Owner kyc1 does not have a verified KYC record");
+
+            MigrationProgress progress = kyc.ReindexKYC(ledger.next(), "", 10);
+            contract.CreateAsset(ledger.next(), "asset1", "blue", 5, "kyc1", 300);
+
+            assertThat(progress.isDone()).isTrue();
+            assertThat(contract.ReadAsset(ledger.next(), "asset1").getOwner()).isEqualTo("kyc1");
+            assertThat(catchThrowable(() -> contract.CreateAsset(ledger.next(), "asset2", "red", 5, "kyc2", 400)))
+                    .hasMessage("Owner kyc2 does not have a verified KYC record");
+        }
+    }
+
     @Nested
     class UpdateAssetTransaction {
 
@@ -282,6 +570,42 @@ public final class AssetTransferTest {
         }
     }
 
+    @Nested
+    class GetTopOwnersTransaction {
+
+        @Test
+        public void whenCountIsInvalid() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetTopOwners(ctx, 0);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Owner count must be between 1 and 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
+    @Nested
+    class GetAssetsByValueRangeTransaction {
+
+        @Test
+        public void whenRangeIsEmpty() {
+            AssetTransfer contract = new AssetTransfer();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetAssetsByValueRange(ctx, 500, 100, 10, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Range must not be empty and page size must be between 1 and 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
     @Nested
     class DeleteAssetTransaction {
 
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class BulkLoaderTest {
+
+    static String chunkOf(final String... lines) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (java.util.zip.GZIPOutputStream out = new java.util.zip.GZIPOutputStream(buffer)) {
+            out.write(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(buffer.toByteArray());
+    }
+
+    @Nested
+    class DecodeChunk {
+
+        @Test
+        public void skipsBlankLines() {
+            assertThat(BulkLoader.decodeChunk(chunkOf("{\"a\":1}", "", "{\"a\":2}", "")))
+                    .containsExactly("{\"a\":1}", "{\"a\":2}");
+        }
+
+        @Test
+        public void rejectsInvalidBase64() {
+            Throwable thrown = catchThrowable(() -> {
+                BulkLoader.decodeChunk("not base64!");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasMessage("Chunk is not valid base64");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_CHUNK".getBytes());
+        }
+
+        @Test
+        public void rejectsTooManyRecords() {
+            String[] lines = new String[BulkLoader.MAX_CHUNK_RECORDS + 1];
+            java.util.Arrays.fill(lines, "{}");
+
+            Throwable thrown = catchThrowable(() -> {
+                BulkLoader.decodeChunk(chunkOf(lines));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class)
+                    .hasMessage("Chunk exceeds the limit of 5000 records");
+        }
+    }
+
+    @Nested
+    class Checkpoints {
+
+        @Test
+        public void startsAtChunkZero() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            BulkLoadCheckpoint checkpoint = BulkLoader.readCheckpoint(ctx, "asset", "load1");
+
+            assertThat(checkpoint).isEqualTo(new BulkLoadCheckpoint("load1", 0, 0));
+        }
+
+        @Test
+        public void skipsChunksAlreadyApplied() {
+            assertThat(BulkLoader.isNextChunk(new BulkLoadCheckpoint("load1", 3, 30), 2)).isFalse();
+            assertThat(BulkLoader.isNextChunk(new BulkLoadCheckpoint("load1", 3, 30), 3)).isTrue();
+        }
+
+        @Test
+        public void rejectsChunksFromTheFuture() {
+            Throwable thrown = catchThrowable(() -> {
+                BulkLoader.isNextChunk(new BulkLoadCheckpoint("load1", 3, 30), 5);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class)
+                    .hasMessage("Load load1 expects chunk 3 but received chunk 5");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("CHUNK_OUT_OF_ORDER".getBytes());
+        }
+
+        @Test
+        public void advancesAndStoresTheCheckpoint() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            BulkLoadCheckpoint next = BulkLoader.advance(ctx, "kyc", new BulkLoadCheckpoint("load1", 3, 30), 10);
+
+            assertThat(next).isEqualTo(new BulkLoadCheckpoint("load1", 4, 40));
+            verify(stub).putStringState(new CompositeKey("bulkload", "kyc", "load1").toString(),
+                    "{\"loadId\":\"load1\",\"nextChunk\":4,\"recordsLoaded\":40}");
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hyperledger.fabric.contract.ClientIdentity;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Drives many transactions at once into one {@link AssetTransfer} and one {@link KYCContract}, the way the shim
+ * dispatches concurrent invocations into a single chaincode JVM.
+ *
+ * <p>The consistency test always runs. The scaling benchmark only runs with {@code -Dbenchmark=true}:</p>
+ *
+ * <pre>mvn test -Dtest=ConcurrencyBenchmarkTest -Dbenchmark=true</pre>
+ *
+ * <p>It runs the workload at 1, 2, 4, ... threads up to twice the available cores and reports throughput, latency
+ * percentiles, and the JFR monitor and park events seen during each run, grouped by the class contended on. The stub
+ * is an {@link InMemoryLedger} rather than the peer, so the numbers measure the contract code, Genson and the JVM,
+ * not gRPC or the ledger.</p>
+ */
+public final class ConcurrencyBenchmarkTest {
+
+    private static final String MSP_ID = "Org1MSP";
+
+    private static final int TRANSACTIONS_PER_OPERATION = 6;
+
+    private final Genson genson = new Genson();
+
+    /**
+     * One worker thread's view of the contracts: its own context, pointed at a fresh stub for every transaction.
+     */
+    private static final class Worker {
+
+        private final AssetTransfer assets;
+        private final KYCContract kyc;
+        private final InMemoryLedger ledger;
+        private final int id;
+        private final Context ctx;
+        private ChaincodeStub stub;
+        private long transactions;
+
+        Worker(final AssetTransfer assets, final KYCContract kyc, final InMemoryLedger ledger, final int id) {
+            this.assets = assets;
+            this.kyc = kyc;
+            this.ledger = ledger;
+            this.id = id;
+
+            // Stub-only mocks do not record invocations, so they stay cheap and do not grow over a long run.
+            ctx = mock(Context.class, withSettings().stubOnly());
+            ClientIdentity clientIdentity = mock(ClientIdentity.class, withSettings().stubOnly());
+            when(clientIdentity.getMSPID()).thenReturn(MSP_ID);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(ctx.getStub()).thenAnswer(invocation -> stub);
+        }
+
+        private Context next() {
+            stub = ledger.stub(String.format("tx-%d-%d", id, transactions++));
+            return ctx;
+        }
+
+        /**
+         * Runs one operation: a mix of asset and KYC submits and reads on keys only this worker touches.
+         */
+        void operation(final int i) {
+            String assetID = String.format("asset-%d-%d", id, i);
+            String kycID = String.format("kyc-%d-%d", id, i);
+
+            assets.CreateAsset(next(), assetID, "blue", i % 20, owner(id), i);
+            assets.ReadAsset(next(), assetID);
+            if (i % 2 == 0) {
+                assets.TransferAsset(next(), assetID, buyer(id));
+            } else {
+                assets.AssetExists(next(), assetID);
+            }
+
+            kyc.CreateKYC(next(), kycID, "Jane Doe", "1990-01-01", "RW", "Passport", "hash-" + kycID);
+            if (i % 3 == 0) {
+                kyc.VerifyKYC(next(), kycID, "APPROVE");
+            } else {
+                kyc.KYCExists(next(), kycID);
+            }
+            kyc.GetKYC(next(), kycID);
+        }
+    }
+
+    private static String owner(final int worker) {
+        return "owner-" + worker;
+    }
+
+    private static String buyer(final int worker) {
+        return "buyer-" + worker;
+    }
+
+    /**
+     * Timings of one run.
+     */
+    private static final class Run {
+
+        private final int threads;
+        private final long operations;
+        private final long elapsedNanos;
+        private final long[] latencies;
+
+        Run(final int threads, final long operations, final long elapsedNanos, final long[] latencies) {
+            this.threads = threads;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        double transactionsPerSecond() {
+            return operations * TRANSACTIONS_PER_OPERATION / (elapsedNanos / 1e9);
+        }
+
+        double percentileMicros(final double percentile) {
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile / 100 * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e3;
+        }
+    }
+
+    private static Run run(final AssetTransfer assets, final KYCContract kyc, final InMemoryLedger ledger,
+            final int threads, final int operationsPerThread, final int firstWorker) throws Exception {
+        List<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Worker(assets, kyc, ledger, firstWorker + t));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (Worker worker : workers) {
+                tasks.add(() -> {
+                    long[] latencies = new long[operationsPerThread];
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        long start = System.nanoTime();
+                        worker.operation(i);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                });
+            }
+
+            long start = System.nanoTime();
+            List<Future<long[]>> results = pool.invokeAll(tasks);
+            long elapsed = System.nanoTime() - start;
+
+            long[] latencies = new long[threads * operationsPerThread];
+            int offset = 0;
+            for (Future<long[]> result : results) {
+                long[] workerLatencies = result.get();
+                System.arraycopy(workerLatencies, 0, latencies, offset, workerLatencies.length);
+                offset += workerLatencies.length;
+            }
+            Arrays.sort(latencies);
+            return new Run(threads, latencies.length, elapsed, latencies);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertConsistent(final AssetTransfer assets, final KYCContract kyc, final InMemoryLedger ledger,
+            final int threads, final int operationsPerThread, final int firstWorker) {
+        Worker reader = new Worker(assets, kyc, ledger, -1);
+        long approved = 0;
+
+        for (int t = firstWorker; t < firstWorker + threads; t++) {
+            long kept = 0;
+            long keptValue = 0;
+            long sold = 0;
+            long soldValue = 0;
+            for (int i = 0; i < operationsPerThread; i++) {
+                String assetID = String.format("asset-%d-%d", t, i);
+                Asset asset = assets.ReadAsset(reader.next(), assetID);
+                String expectedOwner = i % 2 == 0 ? buyer(t) : owner(t);
+                assertThat(asset).isEqualTo(new Asset(assetID, "blue", i % 20, expectedOwner, i));
+                if (i % 2 == 0) {
+                    sold++;
+                    soldValue += i;
+                } else {
+                    kept++;
+                    keptValue += i;
+                }
+
+                KYCRecord record = kyc.GetKYC(reader.next(), String.format("kyc-%d-%d", t, i));
+                assertThat(record.getStatus()).isEqualTo(i % 3 == 0 ? KYCStatus.VERIFIED : KYCStatus.PENDING);
+                if (i % 3 == 0) {
+                    approved++;
+                }
+            }
+
+            assertThat(assets.GetOwnerSummary(reader.next(), owner(t))).isEqualTo(new OwnerSummary(owner(t), kept,
+                    keptValue));
+            assertThat(assets.GetOwnerSummary(reader.next(), buyer(t))).isEqualTo(new OwnerSummary(buyer(t), sold,
+                    soldValue));
+        }
+
+        Map<String, Map<String, Long>> stats = genson.deserialize(kyc.GetKYCStats(reader.next()),
+                new GenericType<Map<String, Map<String, Long>>>() { });
+        Map<String, Long> expected = new HashMap<>();
+        long total = (long) threads * operationsPerThread;
+        expected.put(KYCStatus.VERIFIED.toString(), approved);
+        if (total > approved) {
+            expected.put(KYCStatus.PENDING.toString(), total - approved);
+        }
+        assertThat(stats).containsOnlyKeys(MSP_ID);
+        assertThat(stats.get(MSP_ID)).isEqualTo(expected);
+    }
+
+    @Test
+    public void concurrentTransactionsLeaveConsistentState() throws Exception {
+        AssetTransfer assets = new AssetTransfer();
+        KYCContract kyc = new KYCContract();
+        InMemoryLedger ledger = new InMemoryLedger();
+        int threads = Math.max(4, ScanPipeline.PARALLELISM);
+
+        run(assets, kyc, ledger, threads, 60, 0);
+
+        assertConsistent(assets, kyc, ledger, threads, 60, 0);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void scalesAcrossCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int operationsPerThread = Integer.getInteger("benchmark.operations", 2000);
+        AssetTransfer assets = new AssetTransfer();
+        KYCContract kyc = new KYCContract();
+
+        // Warm up the JIT and Genson's converter cache before anything is measured.
+        run(assets, kyc, new InMemoryLedger(), cores, operationsPerThread / 4, 0);
+
+        System.out.printf("%d cores, %d operations (%d transactions) per thread%n", cores, operationsPerThread,
+                operationsPerThread * TRANSACTIONS_PER_OPERATION);
+        System.out.printf("%8s %12s %8s %10s %10s %10s %10s%n", "threads", "tx/s", "speedup", "p50 us", "p90 us",
+                "p99 us", "max us");
+
+        double baseline = 0;
+        for (int threads = 1; threads <= 2 * cores; threads *= 2) {
+            InMemoryLedger ledger = new InMemoryLedger();
+            Path jfr = Files.createTempFile("chaincode-contention", ".jfr");
+            Run run;
+            try (Recording recording = startContentionRecording()) {
+                run = run(assets, kyc, ledger, threads, operationsPerThread, 0);
+                if (recording != null) {
+                    recording.stop();
+                    recording.dump(jfr);
+                }
+            }
+
+            if (baseline == 0) {
+                baseline = run.transactionsPerSecond();
+            }
+            System.out.printf("%8d %12.0f %8.2f %10.1f %10.1f %10.1f %10.1f%n", run.threads,
+                    run.transactionsPerSecond(), run.transactionsPerSecond() / baseline, run.percentileMicros(50),
+                    run.percentileMicros(90), run.percentileMicros(99), run.percentileMicros(100));
+            reportContention(jfr);
+            Files.deleteIfExists(jfr);
+
+            assertConsistent(assets, kyc, ledger, threads, operationsPerThread, 0);
+        }
+    }
+
+    private static Recording startContentionRecording() {
+        if (!FlightRecorder.isAvailable()) {
+            return null;
+        }
+        Recording recording = new Recording();
+        recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ofMillis(1)).withStackTrace();
+        recording.enable("jdk.JavaMonitorWait").withThreshold(Duration.ofMillis(1));
+        recording.enable("jdk.ThreadPark").withThreshold(Duration.ofMillis(1));
+        recording.start();
+        return recording;
+    }
+
+    private static void reportContention(final Path jfr) throws Exception {
+        if (Files.size(jfr) == 0) {
+            return;
+        }
+        Map<String, AtomicLong> blockedNanos = new HashMap<>();
+        Map<String, AtomicLong> events = new HashMap<>();
+        String coordinator = Thread.currentThread().getName();
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfr)) {
+            // Leave out the test thread waiting for the run to finish; only the workers' blocking is of interest.
+            if (event.getThread() != null && coordinator.equals(event.getThread().getJavaName())) {
+                continue;
+            }
+            String key = event.getEventType().getName().replace("jdk.", "") + " " + contendedOn(event);
+            blockedNanos.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(event.getDuration().toNanos());
+            events.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+        blockedNanos.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .limit(5)
+                .forEach(entry -> System.out.printf("         %-70s %6d events %10.1f ms%n", entry.getKey(),
+                        events.get(entry.getKey()).get(), entry.getValue().get() / 1e6));
+    }
+
+    private static String contendedOn(final RecordedEvent event) {
+        for (String field : new String[] {"monitorClass", "parkedClass"}) {
+            if (event.hasField(field)) {
+                RecordedClass contended = event.getValue(field);
+                return contended == null ? "?" : contended.getName();
+            }
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * Predicts which transactions of a workload the peer would invalidate with {@code MVCC_READ_CONFLICT} or
+ * {@code PHANTOM_READ_CONFLICT}, by running the contracts over a transaction trace and validating their recorded
+ * read-write sets block by block.
+ *
+ * <pre>
+ * mvn -Pconflicts test-compile exec:exec -Dconflicts.args="[--block-size 10] [--top 10] trace.jsonl"
+ * </pre>
+ *
+ * <p>The trace has one transaction per line, with the function and string arguments {@link DirectChaincode} takes, and
+ * optionally the submitting MSP (default {@value #DEFAULT_MSP_ID}), transient fields, and whether the client only
+ * evaluates the transaction rather than submitting it:</p>
+ *
+ * <pre>
+ * {"function":"TransferAsset","args":["asset1","Max"]}
+ * {"function":"kyc:VerifyKYC","args":["kyc1","APPROVE"],"mspId":"Org2MSP","transient":{"expiresAt":"1900000000"}}
+ * {"function":"ReadAsset","args":["asset1"],"evaluate":true}
+ * </pre>
+ *
+ * <p>Each window of {@code --block-size} trace lines stands for the transactions endorsed while one block is being
+ * cut: they are all simulated against the state committed by the previous blocks, then validated in trace order the
+ * way the committing peer does. A transaction is invalidated if a key it read, or a key in a range it iterated over,
+ * was written by an earlier valid transaction in the same block; the valid transactions' writes are then committed.
+ * Transactions that fail endorsement or are only evaluated never reach a block.</p>
+ *
+ * <p>The state starts empty, so a trace should begin with the transactions that create the records it works on. The
+ * contracts run against an {@link InMemoryLedger}, so transactions that need the ledger history fail endorsement.</p>
+ */
+public final class ConflictPredictor {
+
+    static final int DEFAULT_BLOCK_SIZE = 10;
+
+    static final int DEFAULT_TOP = 10;
+
+    static final String DEFAULT_MSP_ID = "Org1MSP";
+
+    private static final Genson GENSON = new Genson();
+
+    private final DirectChaincode chaincode = new DirectChaincode();
+    private final InMemoryLedger ledger = new InMemoryLedger();
+    private final Map<String, byte[]> identities = new HashMap<>();
+    private final ConflictReport report = new ConflictReport();
+    private final int blockSize;
+    private long transactions;
+
+    /**
+     * @param blockSize the number of trace lines simulated against the same state and validated as one block
+     */
+    ConflictPredictor(final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * One transaction of a trace.
+     */
+    static final class Invocation {
+
+        private final String function;
+        private final List<String> args;
+        private final String mspId;
+        private final Map<String, String> transientData;
+        private final boolean evaluate;
+
+        Invocation(final String function, final List<String> args, final String mspId,
+                final Map<String, String> transientData, final boolean evaluate) {
+            this.function = function;
+            this.args = args;
+            this.mspId = mspId;
+            this.transientData = transientData;
+            this.evaluate = evaluate;
+        }
+
+        /**
+         * Creates a transaction submitted by {@value #DEFAULT_MSP_ID} without transient data.
+         *
+         * @param function the function
+         * @param args the arguments
+         * @return the transaction
+         */
+        static Invocation submit(final String function, final String... args) {
+            return new Invocation(function, Arrays.asList(args), DEFAULT_MSP_ID, Collections.emptyMap(), false);
+        }
+
+        /**
+         * Parses one trace line.
+         *
+         * @param line the line, a JSON object
+         * @return the transaction
+         */
+        static Invocation parse(final String line) {
+            Map<String, Object> fields = GENSON.deserialize(line, new GenericType<Map<String, Object>>() { });
+            Object function = fields.get("function");
+            if (!(function instanceof String)) {
+                throw new IllegalArgumentException("Trace line has no function: " + line);
+            }
+
+            List<String> args = new ArrayList<>();
+            Object values = fields.get("args");
+            if (values instanceof List) {
+                for (Object value : (List<?>) values) {
+                    args.add(String.valueOf(value));
+                }
+            }
+            Map<String, String> transientData = new LinkedHashMap<>();
+            Object transientFields = fields.get("transient");
+            if (transientFields instanceof Map) {
+                ((Map<?, ?>) transientFields).forEach((key, value) ->
+                        transientData.put(String.valueOf(key), String.valueOf(value)));
+            }
+            Object mspId = fields.get("mspId");
+            return new Invocation((String) function, args, mspId instanceof String ? (String) mspId : DEFAULT_MSP_ID,
+                    transientData, Boolean.TRUE.equals(fields.get("evaluate")));
+        }
+
+        /**
+         * @return the function name, without the default contract's {@code basic:} prefix
+         */
+        String getName() {
+            return function.startsWith("basic:") ? function.substring("basic:".length()) : function;
+        }
+    }
+
+    /**
+     * A simulated transaction waiting for validation.
+     */
+    private static final class Endorsed {
+
+        private final Invocation invocation;
+        private final ReadWriteSet readWriteSet;
+
+        Endorsed(final Invocation invocation, final ReadWriteSet readWriteSet) {
+            this.invocation = invocation;
+            this.readWriteSet = readWriteSet;
+        }
+    }
+
+    /**
+     * Replays a trace.
+     *
+     * @param trace the transactions, in the order they are submitted
+     * @return the report, which accumulates over calls
+     */
+    ConflictReport run(final List<Invocation> trace) {
+        for (int start = 0; start < trace.size(); start += blockSize) {
+            block(trace.subList(start, Math.min(start + blockSize, trace.size())));
+        }
+        return report;
+    }
+
+    private void block(final List<Invocation> window) {
+        List<Endorsed> ordered = new ArrayList<>(window.size());
+        for (Invocation invocation : window) {
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+            if (!endorse(invocation, readWriteSet)) {
+                report.failed();
+            } else if (invocation.evaluate) {
+                report.evaluated();
+            } else {
+                ordered.add(new Endorsed(invocation, readWriteSet));
+            }
+        }
+        if (ordered.isEmpty()) {
+            return;
+        }
+        report.block();
+
+        // The transaction that last wrote each key in this block, among those found valid so far.
+        Map<String, Endorsed> written = new LinkedHashMap<>();
+        List<Endorsed> valid = new ArrayList<>(ordered.size());
+        for (Endorsed transaction : ordered) {
+            if (!invalidated(transaction, written)) {
+                report.committed(transaction.invocation.getName());
+                valid.add(transaction);
+                for (String key : transaction.readWriteSet.getWrites().keySet()) {
+                    written.put(key, transaction);
+                }
+            }
+        }
+
+        ChaincodeStub commit = ledger.stub("commit-" + report.getBlocks());
+        for (Endorsed transaction : valid) {
+            transaction.readWriteSet.getWrites().forEach((key, value) -> {
+                if (value == null) {
+                    commit.delState(key);
+                } else {
+                    commit.putStringState(key, value);
+                }
+            });
+        }
+    }
+
+    private boolean endorse(final Invocation invocation, final ReadWriteSet readWriteSet) {
+        Map<String, byte[]> transientData = new HashMap<>();
+        invocation.transientData.forEach((key, value) ->
+                transientData.put(key, value.getBytes(StandardCharsets.UTF_8)));
+        byte[] creator = identities.computeIfAbsent(invocation.mspId, Warmup::identity);
+
+        ChaincodeStub stub = ledger.stub("trace-" + transactions++, creator, transientData, invocation.function,
+                invocation.args.toArray(new String[0]));
+        try {
+            return chaincode.invoke(readWriteSet.record(stub)).getStatus() == Response.Status.SUCCESS;
+        } catch (RuntimeException e) {
+            // The shim turns anything but a ChaincodeException into an error response as well.
+            return false;
+        }
+    }
+
+    private boolean invalidated(final Endorsed transaction, final Map<String, Endorsed> written) {
+        String function = transaction.invocation.getName();
+        for (String key : transaction.readWriteSet.getReads()) {
+            Endorsed winner = written.get(key);
+            if (winner != null) {
+                report.conflict(ConflictReport.Conflict.MVCC_READ_CONFLICT, function, winner.invocation.getName(),
+                        key);
+                return true;
+            }
+        }
+        for (Map.Entry<String, Endorsed> write : written.entrySet()) {
+            if (transaction.readWriteSet.rangeContaining(write.getKey()) != null) {
+                report.conflict(ConflictReport.Conflict.PHANTOM_READ_CONFLICT, function,
+                        write.getValue().invocation.getName(), write.getKey());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int blockSize = DEFAULT_BLOCK_SIZE;
+        int top = DEFAULT_TOP;
+        String trace = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--block-size".equals(args[i]) && i + 1 < args.length) {
+                blockSize = Integer.parseInt(args[++i]);
+            } else if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if (trace == null && !args[i].startsWith("--")) {
+                trace = args[i];
+            } else {
+                trace = null;
+                break;
+            }
+        }
+        if (trace == null) {
+            System.out.println("Usage: ConflictPredictor [--block-size n] [--top n] <trace.jsonl>");
+            System.exit(2);
+        }
+
+        List<Invocation> invocations = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(trace), StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                invocations.add(Invocation.parse(line));
+            }
+        }
+        System.out.print(new ConflictPredictor(blockSize).run(invocations).format(top));
+    }
+}
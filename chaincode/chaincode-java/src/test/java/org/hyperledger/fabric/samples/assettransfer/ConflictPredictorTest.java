@@ -0,0 +1,191 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.samples.assettransfer.ConflictPredictor.Invocation;
+import org.hyperledger.fabric.samples.assettransfer.ConflictReport.Conflict;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class ConflictPredictorTest {
+
+    private static Invocation withExpiry(final long expiresAt, final String function, final String... args) {
+        return new Invocation(function, List.of(args), ConflictPredictor.DEFAULT_MSP_ID,
+                Map.of(KYCContract.EXPIRES_AT_TRANSIENT_KEY, Long.toString(expiresAt)), false);
+    }
+
+    private static Invocation createKYC(final String id) {
+        return Invocation.submit("kyc:CreateKYC", id, "Jane Doe", "1990-01-01", "RW", "Passport", "hash-" + id);
+    }
+
+    @Nested
+    class Recording {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        @Test
+        public void recordsReadsAndWritesWithoutApplyingTheWrites() {
+            ledger.stub("setup").putStringState("asset1", "v1");
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+            ChaincodeStub stub = readWriteSet.record(ledger.stub("tx1"));
+
+            assertThat(stub.getStringState("asset1")).isEqualTo("v1");
+            stub.putStringState("asset1", "v2");
+            stub.putState("asset2", "v1".getBytes(StandardCharsets.UTF_8));
+            stub.delState("asset3");
+
+            assertThat(stub.getStringState("asset1")).isEqualTo("v1");
+            assertThat(readWriteSet.getReads()).containsExactly("asset1");
+            assertThat(readWriteSet.getWrites()).containsExactly(entry("asset1", "v2"), entry("asset2", "v1"),
+                    entry("asset3", null));
+            assertThat(ledger.snapshot()).containsOnly(entry("asset1", "v1"));
+        }
+
+        @Test
+        public void recordsRangesUpToTheLastKeyRead() throws Exception {
+            ChaincodeStub setup = ledger.stub("setup");
+            for (String id : new String[] {"a", "b", "c"}) {
+                setup.putStringState(new CompositeKey("index", id).toString(), "x");
+            }
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+
+            ChaincodeStub stub = readWriteSet.record(ledger.stub("tx1"));
+            CompositeKey index = new CompositeKey("index");
+            try (QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(index)) {
+                results.iterator().next();
+            }
+
+            assertThat(readWriteSet.rangeContaining(new CompositeKey("index", "a").toString())).isNotNull();
+            assertThat(readWriteSet.rangeContaining(new CompositeKey("index", "b").toString())).isNull();
+            assertThat(readWriteSet.getRanges()).singleElement()
+                    .satisfies(range -> assertThat(range.isExhausted()).isFalse());
+        }
+
+        @Test
+        public void recordsExhaustedRangesToTheirEnd() throws Exception {
+            ledger.stub("setup").putStringState("asset1", "v1");
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+
+            ChaincodeStub stub = readWriteSet.record(ledger.stub("tx1"));
+            try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "")) {
+                results.forEach(result -> { });
+            }
+
+            assertThat(readWriteSet.rangeContaining("asset9")).isNotNull();
+            assertThat(readWriteSet.rangeContaining(new CompositeKey("index", "a").toString())).isNull();
+        }
+    }
+
+    @Nested
+    class Prediction {
+
+        private final ConflictPredictor predictor = new ConflictPredictor(ConflictPredictor.DEFAULT_BLOCK_SIZE);
+
+        @Test
+        public void invalidatesConcurrentTransfersOfOneAsset() {
+            predictor.run(List.of(Invocation.submit("CreateAsset", "asset1", "blue", "5", "Tomoko", "300")));
+
+            ConflictReport report = predictor.run(List.of(Invocation.submit("TransferAsset", "asset1", "Max"),
+                    Invocation.submit("basic:TransferAsset", "asset1", "Jin Soo")));
+
+            assertThat(report.getCommitted()).isEqualTo(2);
+            assertThat(report.getConflicts(Conflict.MVCC_READ_CONFLICT)).isEqualTo(1);
+            assertThat(report.getConflictRate("TransferAsset")).isEqualTo(0.5);
+            assertThat(report.getHottestKeys(1)).containsExactly(entry("asset1", 1L));
+            assertThat(report.getCollisions(1)).containsExactly(entry("TransferAsset after TransferAsset", 1L));
+        }
+
+        @Test
+        public void commitsTheSameTransfersInSeparateBlocks() {
+            ConflictPredictor oneTransactionPerBlock = new ConflictPredictor(1);
+
+            ConflictReport report = oneTransactionPerBlock.run(List.of(
+                    Invocation.submit("CreateAsset", "asset1", "blue", "5", "Tomoko", "300"),
+                    Invocation.submit("TransferAsset", "asset1", "Max"),
+                    Invocation.submit("TransferAsset", "asset1", "Jin Soo")));
+
+            assertThat(report.getBlocks()).isEqualTo(3);
+            assertThat(report.getCommitted()).isEqualTo(3);
+            assertThat(report.getConflictRate()).isZero();
+        }
+
+        @Test
+        public void invalidatesVerificationsRacingExpiry() {
+            predictor.run(List.of(createKYC("kyc1")));
+
+            ConflictReport report = predictor.run(List.of(Invocation.submit("kyc:ExpireKYC", "kyc1"),
+                    Invocation.submit("kyc:VerifyKYC", "kyc1", "APPROVE")));
+
+            assertThat(report.getConflicts(Conflict.MVCC_READ_CONFLICT)).isEqualTo(1);
+            assertThat(report.getCollisions(1)).containsExactly(entry("kyc:VerifyKYC after kyc:ExpireKYC", 1L));
+            assertThat(report.getHottestKeys(1)).containsExactly(entry("kyc1", 1L));
+        }
+
+        @Test
+        public void invalidatesSweepsThatMissAnExpiryIndexedInTheSameBlock() {
+            predictor.run(List.of(withExpiry(100, "kyc:CreateKYC", "kyc1", "A", "1990-01-01", "RW", "Passport", "h1"),
+                    withExpiry(4_000_000_000L, "kyc:CreateKYC", "kyc2", "B", "1990-01-01", "RW", "Passport", "h2")));
+
+            ConflictReport report = predictor.run(List.of(
+                    withExpiry(200, "kyc:CreateKYC", "kyc3", "C", "1990-01-01", "RW", "Passport", "h3"),
+                    Invocation.submit("kyc:ExpireDueKYC", "1000", "10")));
+
+            assertThat(report.getConflicts(Conflict.PHANTOM_READ_CONFLICT)).isEqualTo(1);
+            assertThat(report.getHottestKeyFamilies(1)).containsExactly(entry(KYCExpiryIndex.INDEX_TYPE, 1L));
+        }
+
+        @Test
+        public void commitsSweepsWhenTheNewExpiryIsPastWhatTheyRead() {
+            predictor.run(List.of(withExpiry(100, "kyc:CreateKYC", "kyc1", "A", "1990-01-01", "RW", "Passport", "h1"),
+                    withExpiry(4_000_000_000L, "kyc:CreateKYC", "kyc2", "B", "1990-01-01", "RW", "Passport", "h2")));
+
+            ConflictReport report = predictor.run(List.of(
+                    withExpiry(4_100_000_000L, "kyc:CreateKYC", "kyc3", "C", "1990-01-01", "RW", "Passport", "h3"),
+                    Invocation.submit("kyc:ExpireDueKYC", "1000", "10")));
+
+            assertThat(report.getConflicts(Conflict.PHANTOM_READ_CONFLICT)).isZero();
+            assertThat(report.getConflictRate()).isZero();
+        }
+
+        @Test
+        public void keepsEvaluationsAndEndorsementFailuresOutOfBlocks() {
+            // Both reads are simulated before the block creating the asset commits, so neither finds it.
+            ConflictReport report = predictor.run(List.of(
+                    Invocation.submit("CreateAsset", "asset1", "blue", "5", "Tomoko", "300"),
+                    Invocation.parse("{\"function\":\"ReadAsset\",\"args\":[\"asset1\"],\"evaluate\":true}"),
+                    Invocation.submit("ReadAsset", "asset2")));
+
+            assertThat(report.getOrdered()).isEqualTo(1);
+            assertThat(report.getFailed()).isEqualTo(2);
+            assertThat(report.getEvaluated()).isZero();
+
+            predictor.run(List.of(Invocation.parse(
+                    "{\"function\":\"ReadAsset\",\"args\":[\"asset1\"],\"evaluate\":true}")));
+            assertThat(report.getEvaluated()).isEqualTo(1);
+        }
+
+        @Test
+        public void parsesTraceLines() {
+            Invocation invocation = Invocation.parse("{\"function\":\"basic:UpdateAsset\","
+                    + "\"args\":[\"asset1\",\"red\",5,\"Max\",400],\"mspId\":\"Org2MSP\"}");
+
+            assertThat(invocation.getName()).isEqualTo("UpdateAsset");
+            ConflictReport report = predictor.run(List.of(invocation));
+            assertThat(report.getFailed()).isEqualTo(1);
+            assertThat(report.format(ConflictPredictor.DEFAULT_TOP)).contains("Predicted conflict rate: 0.0%");
+        }
+    }
+}
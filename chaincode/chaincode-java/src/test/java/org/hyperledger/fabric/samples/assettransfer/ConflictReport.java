@@ -0,0 +1,202 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+/**
+ * What {@link ConflictPredictor} found replaying a trace: how many transactions would commit or be invalidated, which
+ * keys the invalidated transactions lost on, and which functions they lost to.
+ */
+final class ConflictReport {
+
+    /**
+     * Why the peer would invalidate a transaction.
+     */
+    enum Conflict {
+        /** A key the transaction read was written by an earlier transaction in the block. */
+        MVCC_READ_CONFLICT,
+        /** A key written by an earlier transaction in the block falls in a range the transaction iterated over. */
+        PHANTOM_READ_CONFLICT
+    }
+
+    private static final String RECORD_KEYS = "(record keys)";
+
+    private long blocks;
+    private long evaluated;
+    private long failed;
+    private long committed;
+    private final Map<Conflict, Long> conflicts = new TreeMap<>();
+    private final Map<String, long[]> functions = new TreeMap<>();
+    private final Map<String, Long> keys = new HashMap<>();
+    private final Map<String, Long> keyFamilies = new HashMap<>();
+    private final Map<String, Long> collisions = new HashMap<>();
+
+    void block() {
+        blocks++;
+    }
+
+    void evaluated() {
+        evaluated++;
+    }
+
+    void failed() {
+        failed++;
+    }
+
+    void committed(final String function) {
+        committed++;
+        functions.computeIfAbsent(function, f -> new long[2])[0]++;
+    }
+
+    /**
+     * Records an invalidated transaction.
+     *
+     * @param conflict why it was invalidated
+     * @param function the invalidated transaction's function
+     * @param winner the function of the earlier transaction whose write invalidated it
+     * @param key the key written
+     */
+    void conflict(final Conflict conflict, final String function, final String winner, final String key) {
+        conflicts.merge(conflict, 1L, Long::sum);
+        long[] counts = functions.computeIfAbsent(function, f -> new long[2]);
+        counts[0]++;
+        counts[1]++;
+        keys.merge(key, 1L, Long::sum);
+        keyFamilies.merge(family(key), 1L, Long::sum);
+        collisions.merge(function + " after " + winner, 1L, Long::sum);
+    }
+
+    long getBlocks() {
+        return blocks;
+    }
+
+    long getEvaluated() {
+        return evaluated;
+    }
+
+    long getFailed() {
+        return failed;
+    }
+
+    long getCommitted() {
+        return committed;
+    }
+
+    long getConflicts(final Conflict conflict) {
+        return conflicts.getOrDefault(conflict, 0L);
+    }
+
+    /**
+     * @return the transactions that reached a block
+     */
+    long getOrdered() {
+        return committed + getConflicts(Conflict.MVCC_READ_CONFLICT) + getConflicts(Conflict.PHANTOM_READ_CONFLICT);
+    }
+
+    /**
+     * @return the fraction of ordered transactions the peer would invalidate
+     */
+    double getConflictRate() {
+        long ordered = getOrdered();
+        return ordered == 0 ? 0 : (double) (ordered - committed) / ordered;
+    }
+
+    /**
+     * @param top the most entries to return
+     * @return the keys invalidated transactions lost on, most often first, with composite keys spelled out
+     */
+    List<Map.Entry<String, Long>> getHottestKeys(final int top) {
+        return mostFrequent(keys, top).stream()
+                .map(entry -> Map.entry(readable(entry.getKey()), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param top the most entries to return
+     * @return the composite key object types invalidated transactions lost on, most often first
+     */
+    List<Map.Entry<String, Long>> getHottestKeyFamilies(final int top) {
+        return mostFrequent(keyFamilies, top);
+    }
+
+    /**
+     * @param top the most entries to return
+     * @return the pairs of invalidated function and the function that invalidated it, most often first
+     */
+    List<Map.Entry<String, Long>> getCollisions(final int top) {
+        return mostFrequent(collisions, top);
+    }
+
+    /**
+     * @param function the function
+     * @return the fraction of the function's ordered transactions the peer would invalidate
+     */
+    double getConflictRate(final String function) {
+        long[] counts = functions.get(function);
+        return counts == null ? 0 : (double) counts[1] / counts[0];
+    }
+
+    private static List<Map.Entry<String, Long>> mostFrequent(final Map<String, Long> counts, final int top) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(top)
+                .collect(Collectors.toList());
+    }
+
+    private static String family(final String key) {
+        return key.startsWith(CompositeKey.NAMESPACE) ? CompositeKey.parseCompositeKey(key).getObjectType()
+                : RECORD_KEYS;
+    }
+
+    private static String readable(final String key) {
+        if (!key.startsWith(CompositeKey.NAMESPACE)) {
+            return key;
+        }
+        CompositeKey compositeKey = CompositeKey.parseCompositeKey(key);
+        return compositeKey.getObjectType() + compositeKey.getAttributes();
+    }
+
+    /**
+     * Formats the report for a terminal.
+     *
+     * @param top the most keys and collisions to list
+     * @return the report
+     */
+    String format(final int top) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Blocks: %d%n", blocks));
+        out.append(String.format("Ordered: %d, committed: %d, evaluated only: %d, failed endorsement: %d%n",
+                getOrdered(), committed, evaluated, failed));
+        out.append(String.format("Predicted conflict rate: %.1f%% (%d MVCC, %d phantom read conflicts)%n",
+                100 * getConflictRate(), getConflicts(Conflict.MVCC_READ_CONFLICT),
+                getConflicts(Conflict.PHANTOM_READ_CONFLICT)));
+
+        out.append(String.format("%nConflict rate by function:%n"));
+        functions.forEach((function, counts) -> out.append(String.format("  %-28s %6.1f%% of %d%n", function,
+                100 * getConflictRate(function), counts[0])));
+
+        out.append(String.format("%nHottest keys:%n"));
+        getHottestKeys(top).forEach(entry -> out.append(String.format("  %6d  %s%n", entry.getValue(),
+                entry.getKey())));
+
+        out.append(String.format("%nHottest key families:%n"));
+        getHottestKeyFamilies(top).forEach(entry -> out.append(String.format("  %6d  %s%n", entry.getValue(),
+                entry.getKey())));
+
+        out.append(String.format("%nColliding functions (invalidated after winner):%n"));
+        getCollisions(top).forEach(entry -> out.append(String.format("  %6d  %s%n", entry.getValue(),
+                entry.getKey())));
+        return out.toString();
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeBase;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ResponseUtils;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.JsonStreamException;
+
+/**
+ * Low-level chaincode that calls the {@link AssetTransfer} and {@link KYCContract} transactions directly, without the
+ * contract API's annotation scanning, metadata and reflective parameter marshalling.
+ *
+ * <p>Function names are the same as under the contract API: {@code basic:CreateAsset} or plain {@code CreateAsset} for
+ * the default asset contract, and {@code kyc:CreateKYC} for the KYC contract. Arguments are decoded by hand: numbers
+ * from their decimal text and ID lists from a JSON array. Strings are returned as they are, numbers and booleans as
+ * text, and other results as JSON; failures carry the same message and error code payload as under the contract
+ * API.</p>
+ *
+ * <p>It is not part of the chaincode: {@link ConflictPredictor} replays traces through it, and
+ * {@code DispatchBenchmark} measures it against the contract router, which the chaincode keeps using unless the
+ * benchmark shows this dispatcher to be faster.</p>
+ */
+public final class DirectChaincode extends ChaincodeBase {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final AssetTransfer assets = new AssetTransfer();
+
+    private final KYCContract kyc = new KYCContract();
+
+    private final Genson genson = new Genson();
+
+    @Override
+    public Response init(final ChaincodeStub stub) {
+        return ResponseUtils.newSuccessResponse();
+    }
+
+    @Override
+    public Response invoke(final ChaincodeStub stub) {
+        try {
+            return ResponseUtils.newSuccessResponse(dispatch(new Context(stub), stub.getFunction(),
+                    new Arguments(stub.getParameters())));
+        } catch (ChaincodeException e) {
+            return ResponseUtils.newErrorResponse(e);
+        }
+    }
+
+    private byte[] dispatch(final Context ctx, final String function, final Arguments args) {
+        switch (function) {
+            case "InitLedger":
+            case "basic:InitLedger":
+                args.expect(0);
+                assets.InitLedger(ctx);
+                return EMPTY;
+            case "CreateAsset":
+            case "basic:CreateAsset":
+                args.expect(5);
+                return json(assets.CreateAsset(ctx, args.string(0), args.string(1), args.integer(2), args.string(3),
+                        args.integer(4)));
+            case "BulkLoad":
+            case "basic:BulkLoad":
+                args.expect(3);
+                return json(assets.BulkLoad(ctx, args.string(0), args.integer(1), args.string(2)));
+            case "ReadAsset":
+            case "basic:ReadAsset":
+                args.expect(1);
+                return json(assets.ReadAsset(ctx, args.string(0)));
+            case "ReadAssets":
+            case "basic:ReadAssets":
+                args.expect(1);
+                return text(assets.ReadAssets(ctx, args.strings(0)));
+            case "UpdateAsset":
+            case "basic:UpdateAsset":
+                args.expect(5);
+                return json(assets.UpdateAsset(ctx, args.string(0), args.string(1), args.integer(2), args.string(3),
+                        args.integer(4)));
+            case "DeleteAsset":
+            case "basic:DeleteAsset":
+                args.expect(1);
+                assets.DeleteAsset(ctx, args.string(0));
+                return EMPTY;
+            case "AssetExists":
+            case "basic:AssetExists":
+                args.expect(1);
+                return text(assets.AssetExists(ctx, args.string(0)));
+            case "TransferAsset":
+            case "basic:TransferAsset":
+                args.expect(2);
+                return text(assets.TransferAsset(ctx, args.string(0), args.string(1)));
+            case "SettleTransfers":
+            case "basic:SettleTransfers":
+                args.expect(1);
+                return json(assets.SettleTransfers(ctx, args.string(0)));
+            case "GetOwnerSummary":
+            case "basic:GetOwnerSummary":
+                args.expect(1);
+                return json(assets.GetOwnerSummary(ctx, args.string(0)));
+            case "GetTopOwners":
+            case "basic:GetTopOwners":
+                args.expect(1);
+                return text(assets.GetTopOwners(ctx, args.integer(0)));
+            case "GetAssetsBySizeRange":
+            case "basic:GetAssetsBySizeRange":
+                args.expect(4);
+                return text(assets.GetAssetsBySizeRange(ctx, args.integer(0), args.integer(1), args.integer(2),
+                        args.string(3)));
+            case "GetAssetsByValueRange":
+            case "basic:GetAssetsByValueRange":
+                args.expect(4);
+                return text(assets.GetAssetsByValueRange(ctx, args.integer(0), args.integer(1), args.integer(2),
+                        args.string(3)));
+            case "MigrateAssets":
+            case "basic:MigrateAssets":
+                args.expect(2);
+                return json(assets.MigrateAssets(ctx, args.string(0), args.integer(1)));
+            case "ReindexAssets":
+            case "basic:ReindexAssets":
+                args.expect(2);
+                return json(assets.ReindexAssets(ctx, args.string(0), args.integer(1)));
+            case "GetAllAssets":
+            case "basic:GetAllAssets":
+                args.expect(0);
+                return text(assets.GetAllAssets(ctx));
+
+            case "kyc:CreateKYC":
+                args.expect(6);
+                return json(kyc.CreateKYC(ctx, args.string(0), args.string(1), args.string(2), args.string(3),
+                        args.string(4), args.string(5)));
+            case "kyc:BulkLoad":
+                args.expect(3);
+                return json(kyc.BulkLoad(ctx, args.string(0), args.integer(1), args.string(2)));
+            case "kyc:VerifyKYC":
+                args.expect(2);
+                return json(kyc.VerifyKYC(ctx, args.string(0), args.string(1)));
+            case "kyc:GetKYC":
+                args.expect(1);
+                return json(kyc.GetKYC(ctx, args.string(0)));
+            case "kyc:GetKYCBatch":
+                args.expect(1);
+                return text(kyc.GetKYCBatch(ctx, args.strings(0)));
+            case "kyc:GetKYCHistory":
+                args.expect(1);
+                return text(kyc.GetKYCHistory(ctx, args.string(0)));
+            case "kyc:ExportKYC":
+                args.expect(4);
+                return text(kyc.ExportKYC(ctx, args.string(0), args.integer(1), args.string(2), args.string(3)));
+            case "kyc:ExpireKYC":
+                args.expect(1);
+                return json(kyc.ExpireKYC(ctx, args.string(0)));
+            case "kyc:ExpireDueKYC":
+                args.expect(2);
+                return json(kyc.ExpireDueKYC(ctx, args.longInteger(0), args.integer(1)));
+            case "kyc:ArchiveKYC":
+                args.expect(3);
+                return json(kyc.ArchiveKYC(ctx, args.string(0), args.longInteger(1), args.integer(2)));
+            case "kyc:RestoreKYC":
+                args.expect(1);
+                return json(kyc.RestoreKYC(ctx, args.string(0)));
+            case "kyc:FindKYCByDocumentHash":
+                args.expect(1);
+                return text(kyc.FindKYCByDocumentHash(ctx, args.string(0)));
+            case "kyc:GetDuplicateKYC":
+                args.expect(2);
+                return text(kyc.GetDuplicateKYC(ctx, args.integer(0), args.string(1)));
+            case "kyc:SearchKYC":
+                args.expect(6);
+                return text(kyc.SearchKYC(ctx, args.string(0), args.string(1), args.string(2), args.string(3),
+                        args.integer(4), args.string(5)));
+            case "kyc:MigrateKYC":
+                args.expect(2);
+                return json(kyc.MigrateKYC(ctx, args.string(0), args.integer(1)));
+            case "kyc:ReindexKYC":
+                args.expect(2);
+                return json(kyc.ReindexKYC(ctx, args.string(0), args.integer(1)));
+            case "kyc:GetKYCStats":
+                args.expect(0);
+                return text(kyc.GetKYCStats(ctx));
+            case "kyc:CompactKYCStats":
+                args.expect(2);
+                return text(kyc.CompactKYCStats(ctx, args.integer(0), args.integer(1)));
+            case "kyc:GetKYCDigest":
+                args.expect(2);
+                return json(kyc.GetKYCDigest(ctx, args.string(0), args.string(1)));
+            case "kyc:GetKYCDigestLeaves":
+                args.expect(1);
+                return text(kyc.GetKYCDigestLeaves(ctx, args.string(0)));
+            case "kyc:CompactKYCDigest":
+                args.expect(2);
+                return text(kyc.CompactKYCDigest(ctx, args.string(0), args.integer(1)));
+            case "kyc:KYCExists":
+                args.expect(1);
+                return text(kyc.KYCExists(ctx, args.string(0)));
+
+            default:
+                // Same failure as the contract API's unknownTransaction.
+                throw new ChaincodeException("Undefined contract method called");
+        }
+    }
+
+    private byte[] json(final Object result) {
+        return genson.serialize(result).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] text(final Object result) {
+        return String.valueOf(result).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The string parameters of one invocation, decoded on demand.
+     */
+    private final class Arguments {
+
+        private final List<String> values;
+
+        Arguments(final List<String> values) {
+            this.values = values;
+        }
+
+        void expect(final int count) {
+            if (values.size() != count) {
+                throw invalid(String.format("Expected %d arguments but got %d", count, values.size()));
+            }
+        }
+
+        String string(final int index) {
+            return values.get(index);
+        }
+
+        int integer(final int index) {
+            try {
+                return Integer.parseInt(values.get(index));
+            } catch (NumberFormatException e) {
+                throw invalid(String.format("Argument %d is not an integer: %s", index, values.get(index)));
+            }
+        }
+
+        long longInteger(final int index) {
+            try {
+                return Long.parseLong(values.get(index));
+            } catch (NumberFormatException e) {
+                throw invalid(String.format("Argument %d is not an integer: %s", index, values.get(index)));
+            }
+        }
+
+        String[] strings(final int index) {
+            try {
+                String[] decoded = genson.deserialize(values.get(index), String[].class);
+                if (decoded == null) {
+                    throw invalid(String.format("Argument %d is not a JSON array of strings", index));
+                }
+                return decoded;
+            } catch (JsonBindingException | JsonStreamException e) {
+                throw invalid(String.format("Argument %d is not a JSON array of strings", index));
+            }
+        }
+
+        private ChaincodeException invalid(final String errorMessage) {
+            System.out.println(errorMessage);
+            return new ChaincodeException(errorMessage, "INVALID_ARGUMENT");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class DirectChaincodeTest {
+
+    private final DirectChaincode chaincode = new DirectChaincode();
+
+    private final InMemoryLedger ledger = new InMemoryLedger(Duration.ZERO, Warmup.identity());
+
+    private int transactions;
+
+    private Response invoke(final String function, final String... parameters) {
+        return chaincode.invoke(ledger.stub("tx" + transactions++, function, parameters));
+    }
+
+    @Test
+    public void routesPlainAndQualifiedNamesToTheDefaultContract() {
+        Response created = invoke("CreateAsset", "asset1", "blue", "5", "Tomoko", "300");
+        Response read = invoke("basic:ReadAsset", "asset1");
+
+        assertThat(created.getStatus()).isEqualTo(Response.Status.SUCCESS);
+        assertThat(new Genson().deserialize(read.getStringPayload(), Asset.class))
+                .isEqualTo(new Asset("asset1", "blue", 5, "Tomoko", 300));
+        assertThat(invoke("AssetExists", "asset1").getStringPayload()).isEqualTo("true");
+        assertThat(invoke("basic:TransferAsset", "asset1", "Max").getStringPayload()).isEqualTo("Tomoko");
+    }
+
+    @Test
+    public void routesKYCTransactions() {
+        invoke("kyc:CreateKYC", "kyc1", "Jane Doe", "1990-01-01", "RW", "Passport", "hash1");
+
+        Response verified = invoke("kyc:VerifyKYC", "kyc1", "APPROVE");
+
+        KYCRecord record = new Genson().deserialize(verified.getStringPayload(), KYCRecord.class);
+        assertThat(record.getStatus()).isEqualTo(KYCStatus.VERIFIED);
+        assertThat(record.getIssuerMSP()).isEqualTo(Warmup.MSP_ID);
+        assertThat(invoke("kyc:KYCExists", "kyc1").getStringPayload()).isEqualTo("true");
+    }
+
+    @Test
+    public void decodesIDListsFromJSON() {
+        invoke("CreateAsset", "asset1", "blue", "5", "Tomoko", "300");
+
+        Response batch = invoke("ReadAssets", "[\"asset1\",\"asset2\"]");
+
+        assertThat(new Genson().deserialize(batch.getStringPayload(), AssetBatch.class).getMissingIDs())
+                .containsExactly("asset2");
+    }
+
+    @Nested
+    class Failures {
+
+        @Test
+        public void carryTheContractErrorCode() {
+            Response response = invoke("ReadAsset", "asset1");
+
+            assertThat(response.getStatus()).isEqualTo(Response.Status.INTERNAL_SERVER_ERROR);
+            assertThat(response.getMessage()).isEqualTo("Asset asset1 does not exist");
+            assertThat(response.getPayload()).isEqualTo("ASSET_NOT_FOUND".getBytes());
+        }
+
+        @Test
+        public void rejectTheWrongNumberOfArguments() {
+            Response response = invoke("ReadAsset");
+
+            assertThat(response.getMessage()).isEqualTo("Expected 1 arguments but got 0");
+            assertThat(response.getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+
+        @Test
+        public void rejectNonNumericArguments() {
+            Response response = invoke("CreateAsset", "asset1", "blue", "five", "Tomoko", "300");
+
+            assertThat(response.getMessage()).isEqualTo("Argument 2 is not an integer: five");
+            assertThat(response.getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+
+        @Test
+        public void rejectMalformedIDLists() {
+            Response response = invoke("kyc:GetKYCBatch", "kyc1");
+
+            assertThat(response.getMessage()).isEqualTo("Argument 0 is not a JSON array of strings");
+        }
+
+        @Test
+        public void rejectUnknownFunctions() {
+            Response response = invoke("kyc:ReadAsset", "asset1");
+
+            assertThat(response.getMessage()).isEqualTo("Undefined contract method called");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.contract.ClientIdentity;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares running each transaction on a platform thread from a fixed pool, as the shim does, with running each on its
+ * own virtual thread behind an admission limit, when every ledger read blocks on a round trip to the peer.
+ *
+ * <p>The shim builds its transaction pool internally and offers no hook for another executor, so the virtual-thread
+ * mode only exists here, to size what a shim change would gain.</p>
+ *
+ * <p>Only runs with {@code -Dbenchmark=true}, and the virtual-thread mode only on a JDK with virtual threads (21+):</p>
+ *
+ * <pre>mvn test -Dtest=ExecutionModeBenchmarkTest -Dbenchmark=true -Dbenchmark.poolSize=5</pre>
+ *
+ * <p>The platform mode mirrors the shim's {@code TP_*} settings: a pool of {@code benchmark.poolSize} threads and a
+ * queue of {@code benchmark.admission} transactions, beyond which transactions are rejected. The virtual-thread mode
+ * admits the same number of transactions at once and rejects the rest.</p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public final class ExecutionModeBenchmarkTest {
+
+    private static final int ASSETS = 200;
+
+    private final Duration readLatency = Duration.ofMillis(Long.getLong("benchmark.latencyMs", 2));
+    private final int transactions = Integer.getInteger("benchmark.transactions", 20000);
+    private final int poolSize = Integer.getInteger("benchmark.poolSize", 5);
+    private final int admission = Integer.getInteger("benchmark.admission", 5000);
+
+    private final ThreadLocal<ChaincodeStub> currentStub = new ThreadLocal<>();
+
+    /**
+     * A way of running transactions; returns null when a transaction is not admitted.
+     */
+    private interface ExecutionMode extends AutoCloseable {
+
+        CompletableFuture<Long> submit(Runnable transaction);
+
+        @Override
+        void close();
+    }
+
+    private static final class PlatformThreads implements ExecutionMode {
+
+        private final ThreadPoolExecutor pool;
+
+        PlatformThreads(final int poolSize, final int queueSize) {
+            pool = new ThreadPoolExecutor(poolSize, poolSize, 5, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Override
+        public CompletableFuture<Long> submit(final Runnable transaction) {
+            long submitted = System.nanoTime();
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    transaction.run();
+                    return System.nanoTime() - submitted;
+                }, pool);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {
+            pool.shutdownNow();
+        }
+    }
+
+    private static final class VirtualThreads implements ExecutionMode {
+
+        private final ExecutorService executor;
+        private final Semaphore admitted;
+
+        VirtualThreads(final ExecutorService executor, final int admission) {
+            this.executor = executor;
+            this.admitted = new Semaphore(admission);
+        }
+
+        @Override
+        public CompletableFuture<Long> submit(final Runnable transaction) {
+            if (!admitted.tryAcquire()) {
+                return null;
+            }
+            long submitted = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    transaction.run();
+                    return System.nanoTime() - submitted;
+                } finally {
+                    admitted.release();
+                }
+            }, executor);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+    }
+
+    private Context context() {
+        Context ctx = mock(Context.class, withSettings().stubOnly());
+        ClientIdentity clientIdentity = mock(ClientIdentity.class, withSettings().stubOnly());
+        when(clientIdentity.getMSPID()).thenReturn("Org1MSP");
+        when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+        when(ctx.getStub()).thenAnswer(invocation -> currentStub.get());
+        return ctx;
+    }
+
+    private void inTransaction(final InMemoryLedger ledger, final String txId, final Runnable body) {
+        currentStub.set(ledger.stub(txId));
+        try {
+            body.run();
+        } finally {
+            currentStub.remove();
+        }
+    }
+
+    private void measure(final String name, final Function<Integer, ExecutionMode> modes) throws Exception {
+        AssetTransfer contract = new AssetTransfer();
+        Context ctx = context();
+        InMemoryLedger ledger = new InMemoryLedger(readLatency);
+        for (int i = 0; i < ASSETS; i++) {
+            int asset = i;
+            inTransaction(ledger, "seed-" + i, () -> contract.CreateAsset(ctx, "asset" + asset, "blue", 5,
+                    "owner" + asset % 10, asset));
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        int rejected = 0;
+        List<CompletableFuture<Long>> inFlight = new ArrayList<>(transactions);
+        long start = System.nanoTime();
+        try (ExecutionMode mode = modes.apply(admission)) {
+            for (int i = 0; i < transactions; i++) {
+                int asset = i % ASSETS;
+                String txId = "tx" + i;
+                CompletableFuture<Long> latency = mode.submit(() -> inTransaction(ledger, txId, () -> {
+                    Asset read = contract.ReadAsset(ctx, "asset" + asset);
+                    contract.GetOwnerSummary(ctx, read.getOwner());
+                    completed.incrementAndGet();
+                }));
+                if (latency == null) {
+                    rejected++;
+                } else {
+                    inFlight.add(latency);
+                }
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] latencies = inFlight.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        System.out.printf("%-10s %10.0f tx/s %8d rejected %10.1f p50 ms %10.1f p99 ms%n", name,
+                completed.get() / (elapsed / 1e9), rejected, percentileMillis(latencies, 50),
+                percentileMillis(latencies, 99));
+        assertThat(completed.get() + rejected).isEqualTo(transactions);
+    }
+
+    private static double percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    @Test
+    public void platformThreadPool() throws Exception {
+        measure("platform", queueSize -> new PlatformThreads(poolSize, queueSize));
+    }
+
+    @Test
+    public void virtualThreadPerTransaction() throws Exception {
+        ExecutorService[] executor = new ExecutorService[1];
+        try {
+            executor[0] = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            assumeTrue(false, "Virtual threads need JDK 21 or later");
+        }
+        measure("virtual", limit -> new VirtualThreads(executor[0], limit));
+    }
+}
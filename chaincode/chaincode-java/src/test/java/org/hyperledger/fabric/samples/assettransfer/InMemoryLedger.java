@@ -0,0 +1,299 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * A thread-safe world state standing in for the peer, for tests and benchmarks that run transactions without one,
+ * including many at once.
+ *
+ * <p>Each call to {@link #stub(String)} returns a stub for one transaction. Writes are applied straight to the shared
+ * state rather than buffered until commit, and there is no MVCC validation, so concurrent transactions must work on
+ * disjoint keys for the results to match what a peer would commit. Stub methods the contracts do not use throw
+ * {@link UnsupportedOperationException}.</p>
+ *
+ * <p>Like the peer's transaction simulator, a stub refuses writes once its transaction has run a paginated query,
+ * and paginated queries once it has written, by throwing {@link IllegalStateException}.</p>
+ *
+ * <p>A read latency can be given to stand in for the round trip to the peer that every {@code getState} costs; the
+ * calling thread sleeps for it, blocking the way it would while waiting for the peer's response.</p>
+ */
+final class InMemoryLedger {
+
+    private static final String MAX_UNICODE_RUNE = "\uDBFF\uDFFF";
+
+    private final NavigableMap<String, String> state = new ConcurrentSkipListMap<>();
+
+    private final Duration readLatency;
+
+    private final byte[] creator;
+
+    InMemoryLedger() {
+        this(Duration.ZERO);
+    }
+
+    InMemoryLedger(final Duration readLatency) {
+        this(readLatency, null);
+    }
+
+    /**
+     * Creates an empty ledger.
+     *
+     * @param readLatency the time every ledger read blocks for
+     * @param creator the serialized identity every transaction is submitted by, or null if none is needed
+     */
+    InMemoryLedger(final Duration readLatency, final byte[] creator) {
+        this.readLatency = readLatency;
+        this.creator = creator == null ? null : creator.clone();
+    }
+
+    /**
+     * Creates the stub for one transaction.
+     *
+     * @param txId the transaction ID, which should be unique per transaction
+     * @return a stub reading and writing this ledger
+     */
+    ChaincodeStub stub(final String txId) {
+        return stub(txId, "");
+    }
+
+    /**
+     * Creates the stub for one invocation of a chaincode function.
+     *
+     * @param txId the transaction ID, which should be unique per transaction
+     * @param function the name of the function invoked
+     * @param parameters the function's parameters
+     * @return a stub reading and writing this ledger
+     */
+    ChaincodeStub stub(final String txId, final String function, final String... parameters) {
+        return stub(txId, creator, Collections.emptyMap(), function, parameters);
+    }
+
+    /**
+     * Creates the stub for one invocation of a chaincode function by a given client.
+     *
+     * @param txId the transaction ID, which should be unique per transaction
+     * @param submitter the serialized identity the transaction is submitted by, or null if none is needed
+     * @param transientData the transient data passed with the proposal
+     * @param function the name of the function invoked
+     * @param parameters the function's parameters
+     * @return a stub reading and writing this ledger
+     */
+    ChaincodeStub stub(final String txId, final byte[] submitter, final Map<String, byte[]> transientData,
+            final String function, final String... parameters) {
+        List<String> stringArgs = new ArrayList<>();
+        stringArgs.add(function);
+        stringArgs.addAll(Arrays.asList(parameters));
+        Instant timestamp = Instant.now();
+        AtomicBoolean paginated = new AtomicBoolean();
+        AtomicBoolean written = new AtomicBoolean();
+        return (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[] {ChaincodeStub.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTxId":
+                            return txId;
+                        case "getFunction":
+                            return function;
+                        case "getParameters":
+                            return stringArgs.subList(1, stringArgs.size());
+                        case "getStringArgs":
+                            return stringArgs;
+                        case "getArgs":
+                            List<byte[]> byteArgs = new ArrayList<>(stringArgs.size());
+                            for (String arg : stringArgs) {
+                                byteArgs.add(arg.getBytes(StandardCharsets.UTF_8));
+                            }
+                            return byteArgs;
+                        case "getTxTimestamp":
+                            return timestamp;
+                        case "getCreator":
+                            if (submitter == null) {
+                                throw new UnsupportedOperationException("getCreator");
+                            }
+                            return submitter.clone();
+                        case "getTransient":
+                            return transientData;
+                        case "getStringState":
+                            awaitPeer();
+                            return state.getOrDefault((String) args[0], "");
+                        case "getState":
+                            awaitPeer();
+                            return state.getOrDefault((String) args[0], "").getBytes(StandardCharsets.UTF_8);
+                        case "putStringState":
+                            beforeWrite(txId, paginated, written);
+                            state.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "putState":
+                            beforeWrite(txId, paginated, written);
+                            state.put((String) args[0], new String((byte[]) args[1], StandardCharsets.UTF_8));
+                            return null;
+                        case "delState":
+                            beforeWrite(txId, paginated, written);
+                            state.remove((String) args[0]);
+                            return null;
+                        case "setEvent":
+                            return null;
+                        case "getStateByRange":
+                            return range((String) args[0], (String) args[1]);
+                        case "getStateByPartialCompositeKey":
+                            return partial(args);
+                        case "getStateByPartialCompositeKeyWithPagination":
+                            if (written.get()) {
+                                throw new IllegalStateException(String.format(
+                                        "txid [%s]: Paginated queries are not allowed after a write", txId));
+                            }
+                            paginated.set(true);
+                            return page((CompositeKey) args[0], (Integer) args[1], (String) args[2]);
+                        case "toString":
+                            return "InMemoryLedger.stub(" + txId + ")";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Returns a snapshot of the world state.
+     *
+     * @return the current keys and values, in key order
+     */
+    NavigableMap<String, String> snapshot() {
+        return Collections.unmodifiableNavigableMap(new ConcurrentSkipListMap<>(state));
+    }
+
+    private static void beforeWrite(final String txId, final AtomicBoolean paginated, final AtomicBoolean written) {
+        if (paginated.get()) {
+            throw new IllegalStateException(String.format(
+                    "txid [%s]: Transaction has already performed a paginated query. Writes are not allowed", txId));
+        }
+        written.set(true);
+    }
+
+    private void awaitPeer() throws InterruptedException {
+        if (!readLatency.isZero()) {
+            Thread.sleep(readLatency.toMillis(), readLatency.getNano() % 1_000_000);
+        }
+    }
+
+    private QueryResultsIterator<KeyValue> range(final String startKey, final String endKey) {
+        // Like the peer, simple range queries never return composite keys.
+        NavigableMap<String, String> view = state.tailMap(startKey.isEmpty() ? "\u0001" : startKey, true);
+        if (!endKey.isEmpty()) {
+            view = view.headMap(endKey, false);
+        }
+        return results(view);
+    }
+
+    private QueryResultsIterator<KeyValue> partial(final Object[] args) {
+        String prefix;
+        if (args[0] instanceof CompositeKey) {
+            prefix = args[0].toString();
+        } else if (args.length > 1 && args[1] instanceof String[]) {
+            prefix = new CompositeKey((String) args[0], (String[]) args[1]).toString();
+        } else {
+            prefix = new CompositeKey((String) args[0]).toString();
+        }
+        return results(state.subMap(prefix, true, prefix + MAX_UNICODE_RUNE, false));
+    }
+
+    private QueryResultsIteratorWithMetadata<KeyValue> page(final CompositeKey partialKey, final int pageSize,
+            final String bookmark) {
+        String prefix = partialKey.toString();
+        NavigableMap<String, String> view = state.subMap(bookmark.isEmpty() ? prefix : bookmark, true,
+                prefix + MAX_UNICODE_RUNE, false);
+        List<KeyValue> results = new ArrayList<>(pageSize);
+        String next = "";
+        for (Map.Entry<String, String> entry : view.entrySet()) {
+            if (results.size() == pageSize) {
+                next = entry.getKey();
+                break;
+            }
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        QueryResponseMetadata metadata = QueryResponseMetadata.newBuilder()
+                .setFetchedRecordsCount(results.size())
+                .setBookmark(next)
+                .build();
+        return new QueryResultsIteratorWithMetadata<KeyValue>() {
+            @Override
+            public QueryResponseMetadata getMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return results.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static QueryResultsIterator<KeyValue> results(final Map<String, String> view) {
+        // Copied up front so the results are a stable snapshot, as they are from the peer.
+        List<KeyValue> results = new ArrayList<>(view.size());
+        for (Map.Entry<String, String> entry : view.entrySet()) {
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        return new QueryResultsIterator<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return results.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static final class Entry implements KeyValue {
+
+        private final String key;
+        private final String value;
+
+        Entry(final String key, final String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String getStringValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class KYCArchiveTest {
+
+    @Test
+    public void packsRoundTrip() {
+        List<String> lines = List.of("{\"id\":\"kyc1\"}", "{\"id\":\"kyc2\"}");
+
+        assertThat(KYCArchive.decompress(KYCArchive.compress(lines))).isEqualTo(lines);
+        assertThat(KYCArchive.decompress("")).isEmpty();
+    }
+
+    @Nested
+    class Index {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+
+        private KYCRecord record(final String id, final KYCStatus status, final long updatedAt) {
+            return new KYCRecord(id, "John Doe", "1990-01-15", "USA", "Passport", "QmHash" + id, status, "Org1MSP",
+                    updatedAt);
+        }
+
+        @BeforeEach
+        public void indexRecords() {
+            Context ctx = ledger.next();
+            KYCArchiveIndex.update(ctx, null, record("kyc1", KYCStatus.REJECTED, 300));
+            KYCArchiveIndex.update(ctx, null, record("kyc2", KYCStatus.REJECTED, 100));
+            KYCArchiveIndex.update(ctx, null, record("kyc3", KYCStatus.VERIFIED, 50));
+            KYCArchiveIndex.update(ctx, null, record("kyc4", KYCStatus.REJECTED, 200));
+            KYCArchiveIndex.update(ctx, null, record("kyc5", KYCStatus.EXPIRED, 10));
+            KYCArchiveIndex.update(ctx, null, record("kyc6", KYCStatus.REJECTED, 400));
+        }
+
+        @Test
+        public void collectsTheLeastRecentlyUpdatedRecordsFirst() {
+            assertThat(KYCArchiveIndex.due(ledger.next(), KYCStatus.REJECTED, 1000, 10))
+                    .containsExactly("kyc2", "kyc4", "kyc1", "kyc6");
+            assertThat(KYCArchiveIndex.due(ledger.next(), KYCStatus.REJECTED, 1000, 1))
+                    .containsExactly("kyc2", "kyc4");
+            assertThat(KYCArchiveIndex.due(ledger.next(), KYCStatus.EXPIRED, 1000, 10)).containsExactly("kyc5");
+        }
+
+        @Test
+        public void stopsReadingAtTheCutoff() {
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+            ChaincodeStub stub = readWriteSet.record(ledger.next().getStub());
+            Context ctx = mock(Context.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            assertThat(KYCArchiveIndex.due(ctx, KYCStatus.REJECTED, 300, 10)).containsExactly("kyc2", "kyc4");
+            assertThat(readWriteSet.rangeContaining(KYCArchiveIndex.keyOf(record("kyc6", KYCStatus.REJECTED, 400))))
+                    .isNull();
+        }
+
+        @Test
+        public void movesAnEntryWhenTheRecordIsUpdated() {
+            KYCArchiveIndex.update(ledger.next(), record("kyc2", KYCStatus.REJECTED, 100),
+                    record("kyc2", KYCStatus.PENDING, 500));
+            KYCArchiveIndex.update(ledger.next(), record("kyc4", KYCStatus.REJECTED, 200),
+                    record("kyc4", KYCStatus.EXPIRED, 600));
+
+            assertThat(KYCArchiveIndex.due(ledger.next(), KYCStatus.REJECTED, 1000, 10)).containsExactly("kyc1", "kyc6");
+            assertThat(KYCArchiveIndex.due(ledger.next(), KYCStatus.EXPIRED, 1000, 10)).containsExactly("kyc5", "kyc4");
+        }
+    }
+
+    @Nested
+    class ArchiveAndRestore {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+        private final KYCContract contract = new KYCContract();
+
+        @BeforeEach
+        public void createRecords() {
+            for (String id : new String[] {"kyc1", "kyc2", "kyc3", "kyc4"}) {
+                contract.CreateKYC(ledger.next(), id, "John Doe", "1990-01-15", "USA", "Passport", "QmHash" + id);
+            }
+            contract.VerifyKYC(ledger.next(), "kyc1", "REJECT");
+            contract.VerifyKYC(ledger.next(), "kyc2", "APPROVE");
+            contract.VerifyKYC(ledger.next(), "kyc3", "REJECT");
+            contract.VerifyKYC(ledger.next(), "kyc4", "REJECT");
+        }
+
+        @Test
+        public void movesTerminalRecordsOutOfTheActiveKeySpace() {
+            SweepResult first = contract.ArchiveKYC(ledger.next(), "rejected", Long.MAX_VALUE, 2);
+            assertThat(first).isEqualTo(new SweepResult(List.of("kyc1", "kyc3"), true));
+
+            SweepResult second = contract.ArchiveKYC(ledger.next(), "REJECTED", Long.MAX_VALUE, 2);
+            assertThat(second).isEqualTo(new SweepResult(List.of("kyc4"), false));
+
+            assertThat(ledger.snapshot()).doesNotContainKeys("kyc1", "kyc3", "kyc4").containsKey("kyc2");
+            assertThat(contract.GetKYC(ledger.next(), "kyc3").getStatus()).isEqualTo(KYCStatus.REJECTED);
+            assertThat(contract.KYCExists(ledger.next(), "kyc4")).isTrue();
+            assertThat(contract.FindKYCByDocumentHash(ledger.next(), "QmHashkyc1")).contains("\"id\":\"kyc1\"");
+            assertThat(contract.SearchKYC(ledger.next(), "REJECTED", "", "", "", 10, "")).contains("\"records\":[]");
+        }
+
+        @Test
+        public void leavesRecordsUpdatedAfterTheCutoff() {
+            SweepResult result = contract.ArchiveKYC(ledger.next(), "REJECTED", 0L, 10);
+
+            assertThat(result).isEqualTo(new SweepResult(List.of(), false));
+            assertThat(ledger.snapshot()).containsKeys("kyc1", "kyc3", "kyc4");
+        }
+
+        @Test
+        public void theLedgerRejectsWritesAfterAPaginatedQuery() {
+            // As the peer does, which is why ArchiveKYC must not find its candidates through SearchKYC's index walk.
+            contract.SearchKYC(ledger.next(), "REJECTED", "", "", "", 10, "");
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.VerifyKYC(ledger.current(), "kyc2", "REJECT");
+            });
+
+            assertThat(thrown).isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Writes are not allowed");
+        }
+
+        @Test
+        public void restoresARecordAndKeepsTheRestOfItsPack() {
+            contract.ArchiveKYC(ledger.next(), "REJECTED", Long.MAX_VALUE, 10);
+
+            KYCRecord restored = contract.RestoreKYC(ledger.next(), "kyc3");
+
+            assertThat(restored.getStatus()).isEqualTo(KYCStatus.REJECTED);
+            assertThat(ledger.snapshot()).containsKey("kyc3");
+            assertThat(contract.SearchKYC(ledger.next(), "REJECTED", "", "", "", 10, "")).contains("\"id\":\"kyc3\"")
+                    .doesNotContain("\"id\":\"kyc1\"");
+            assertThat(contract.GetKYC(ledger.next(), "kyc1").getId()).isEqualTo("kyc1");
+            assertThat(contract.GetKYCStats(ledger.next())).contains("\"REJECTED\":3");
+        }
+
+        @Test
+        public void restoringAnActiveRecordFails() {
+            Throwable thrown = catchThrowable(() -> {
+                contract.RestoreKYC(ledger.next(), "kyc2");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("KYC record kyc2 is not archived");
+        }
+
+        @Test
+        public void onlyTerminalRecordsCanBeArchived() {
+            Throwable thrown = catchThrowable(() -> {
+                contract.ArchiveKYC(ledger.next(), "VERIFIED", Long.MAX_VALUE, 10);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Only REJECTED or EXPIRED records can be archived, not VERIFIED");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+}
@@ -6,15 +6,23 @@ package org.hyperledger.fabric.samples.assettransfer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyModification;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 import org.hyperledger.fabric.contract.ClientIdentity;
@@ -23,6 +31,9 @@ import com.google.protobuf.Timestamp;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.owlike.genson.Genson;
 
 public final class KYCContractTest {
 
@@ -66,6 +77,54 @@ public final class KYCContractTest {
         }
     }
 
+    @Nested
+    class InvokeGetKYCBatchTransaction {
+
+        @Test
+        public void whenSomeRecordsAreMissing() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+            when(stub.getStringState("kyc2")).thenReturn(null);
+
+            String batch = contract.GetKYCBatch(ctx, new String[] {"kyc1", "kyc2"});
+
+            assertThat(batch).startsWith("{\"missingIds\":[\"kyc2\"],\"records\":[{")
+                    .contains("\"id\":\"kyc1\"");
+        }
+
+        @Test
+        public void whenBatchIsTooLarge() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetKYCBatch(ctx, new String[KYCContract.MAX_BATCH_SIZE + 1]);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Batch of 1001 IDs exceeds the limit of 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("BATCH_TOO_LARGE".getBytes());
+        }
+
+        @Test
+        public void whenAnIdIsNull() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetKYCBatch(ctx, new String[] {"kyc1", null});
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Batch IDs must not be null");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+            verifyNoInteractions(ctx);
+        }
+    }
+
     @Nested
     class InvokeCreateKYCTransaction {
 
@@ -99,6 +158,8 @@ public final class KYCContractTest {
             when(clientIdentity.getMSPID()).thenReturn("Org1MSP");
             when(stub.getStringState("kyc1")).thenReturn("");
             when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(stub.getTxId()).thenReturn("tx1");
+            when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of());
 
             KYCRecord record = contract.CreateKYC(ctx, "kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash123");
 
@@ -106,6 +167,233 @@ public final class KYCContractTest {
             assertThat(record.getFullName()).isEqualTo("John Doe");
             assertThat(record.getStatus()).isEqualTo(KYCStatus.PENDING);
             assertThat(record.getIssuerMSP()).isEqualTo("Org1MSP");
+            verify(stub).putStringState(KYCDocumentIndex.keyOf("QmHash123", "kyc1"), "\u0000");
+            verify(stub, never()).putStringState(eq(KYCDocumentIndex.duplicateKeyOf("kyc1")), any());
+        }
+
+        @Test
+        public void whenDocumentIsAlreadyRecordedItIsFlagged() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("Org1MSP");
+            when(stub.getStringState("kyc2")).thenReturn("");
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(stub.getTxId()).thenReturn("tx2");
+            when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                    MockQueryResults.keyValue(KYCDocumentIndex.keyOf("QmHash123", "kyc1"), "\u0000")));
+
+            KYCRecord record = contract.CreateKYC(ctx, "kyc2", "Jane Doe", "1990-01-15", "USA", "Passport",
+                    "QmHash123");
+
+            assertThat(record.getId()).isEqualTo("kyc2");
+            verify(stub).putStringState(KYCDocumentIndex.duplicateKeyOf("kyc2"), "QmHash123");
+        }
+
+        @Test
+        public void whenDocumentIsAlreadyRecordedAndDuplicatesAreRejected() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc2")).thenReturn("");
+            when(stub.getTransient()).thenReturn(Map.of(KYCContract.ON_DUPLICATE_TRANSIENT_KEY, "REJECT".getBytes()));
+            when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                    MockQueryResults.keyValue(KYCDocumentIndex.keyOf("QmHash123", "kyc1"), "\u0000")));
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreateKYC(ctx, "kyc2", "Jane Doe", "1990-01-15", "USA", "Passport", "QmHash123");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("KYC record kyc2 has the same document as kyc1");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("DUPLICATE_DOCUMENT".getBytes());
+            verify(stub, never()).putStringState(eq("kyc2"), any());
+        }
+
+        @Test
+        public void whenDuplicatePolicyIsInvalid() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc1")).thenReturn("");
+            when(stub.getTransient()).thenReturn(Map.of(KYCContract.ON_DUPLICATE_TRANSIENT_KEY, "IGNORE".getBytes()));
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreateKYC(ctx, "kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash123");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Invalid duplicate policy: IGNORE. Must be FLAG or REJECT");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeFindKYCByDocumentHashTransaction {
+
+        @Test
+        public void readsTheRecordsInTheIndex() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+            MockQueryResults results = MockQueryResults.of(
+                    MockQueryResults.keyValue(KYCDocumentIndex.keyOf("QmHash123", "kyc1"), "\u0000"));
+            when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(results);
+
+            String records = contract.FindKYCByDocumentHash(ctx, "QmHash123");
+
+            assertThat(records).startsWith("[{").contains("\"id\":\"kyc1\"");
+            assertThat(results.isClosed()).isTrue();
+        }
+
+        @Test
+        public void whenDocumentHashIsEmpty() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.FindKYCByDocumentHash(ctx, " ");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Document hash must not be empty");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeSearchKYCTransaction {
+
+        @Test
+        public void readsTheMatchingRecords() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+            when(stub.getStateByPartialCompositeKeyWithPagination(any(CompositeKey.class),
+                    eq(KYCSearchIndex.FETCH_SIZE), eq(""))).thenReturn(MockQueryResults.page("",
+                            MockQueryResults.keyValue(KYCSearchIndex.STATUS.keyOf("PENDING", "kyc1"), "\u0000")));
+
+            String page = contract.SearchKYC(ctx, "pending", "", "", "", 10, "");
+
+            assertThat(page).startsWith("{\"bookmark\":\"\",\"records\":[{").contains("\"id\":\"kyc1\"");
+        }
+
+        @Test
+        public void whenNoFilterIsSet() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.SearchKYC(ctx, "", " ", "", "", 10, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("At least one of status, issuer, nationality and document type must be set");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+
+        @Test
+        public void whenPageSizeIsTooLarge() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.SearchKYC(ctx, "VERIFIED", "", "", "", KYCContract.MAX_BATCH_SIZE + 1, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Page size must be between 1 and 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeBulkLoadTransaction {
+
+        @Test
+        public void fillsInMissingFields() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("Org1MSP");
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(stub.getTxId()).thenReturn("tx1");
+
+            BulkLoadCheckpoint checkpoint = contract.BulkLoad(ctx, "legacy", 0, BulkLoaderTest.chunkOf(
+                    "{\"id\":\"kyc7\",\"fullName\":\"Ana Lee\",\"documentHash\":\"QmHash7\"}",
+                    SAMPLE_KYC_JSON.replace("kyc1", "kyc8")));
+
+            assertThat(checkpoint).isEqualTo(new BulkLoadCheckpoint("legacy", 1, 2));
+            ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+            verify(stub).putStringState(eq("kyc7"), json.capture());
+            KYCRecord loaded = new Genson().deserialize(json.getValue(), KYCRecord.class);
+            assertThat(loaded.getStatus()).isEqualTo(KYCStatus.PENDING);
+            assertThat(loaded.getIssuerMSP()).isEqualTo("Org1MSP");
+            assertThat(loaded.getUpdatedAt()).isEqualTo(1700000000L);
+        }
+
+        @Test
+        public void loadsEveryRecordAsPendingUnderTheSubmitter() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("Org1MSP");
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(stub.getTxId()).thenReturn("tx1");
+
+            contract.BulkLoad(ctx, "legacy", 0, BulkLoaderTest.chunkOf(SAMPLE_KYC_JSON
+                    .replace("PENDING", "VERIFIED").replace("Org1MSP", "Org2MSP")
+                    .replace(" }", ", \"expiresAt\": 1900000000 }")));
+
+            ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+            verify(stub).putStringState(eq("kyc1"), json.capture());
+            KYCRecord loaded = new Genson().deserialize(json.getValue(), KYCRecord.class);
+            assertThat(loaded.getStatus()).isEqualTo(KYCStatus.PENDING);
+            assertThat(loaded.getIssuerMSP()).isEqualTo("Org1MSP");
+            assertThat(loaded.getExpiresAt()).isZero();
+            verify(stub, never()).putStringState(eq(KYCVerifiedParties.keyOf("kyc1")), anyString());
+        }
+
+        @Test
+        public void whenRecordAlreadyExists() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(stub.getTxId()).thenReturn("tx1");
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.BulkLoad(ctx, "legacy", 0, BulkLoaderTest.chunkOf(SAMPLE_KYC_JSON));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("KYC record kyc1 already exists");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("KYC_ALREADY_EXISTS".getBytes());
         }
     }
 
@@ -141,11 +429,35 @@ public final class KYCContractTest {
             when(clientIdentity.getMSPID()).thenReturn("AuditorMSP");
             when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
             when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000100L));
+            when(stub.getTxId()).thenReturn("tx1");
 
             KYCRecord record = contract.VerifyKYC(ctx, "kyc1", "APPROVE");
 
             assertThat(record.getStatus()).isEqualTo(KYCStatus.VERIFIED);
             assertThat(record.getIssuerMSP()).isEqualTo("AuditorMSP");
+            assertThat(record.getExpiresAt()).isEqualTo(1700000100L + KYCContract.DEFAULT_VALIDITY_SECONDS);
+            verify(stub).putStringState(KYCExpiryIndex.keyOf(record.getExpiresAt(), "kyc1"),
+                    Long.toString(record.getExpiresAt()));
+        }
+
+        @Test
+        public void whenExpiryIsSupplied() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("AuditorMSP");
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000100L));
+            when(stub.getTxId()).thenReturn("tx1");
+            when(stub.getTransient()).thenReturn(Map.of(KYCContract.EXPIRES_AT_TRANSIENT_KEY, "1800000000".getBytes()));
+
+            KYCRecord record = contract.VerifyKYC(ctx, "kyc1", "APPROVE");
+
+            assertThat(record.getExpiresAt()).isEqualTo(1800000000L);
         }
 
         @Test
@@ -160,6 +472,7 @@ public final class KYCContractTest {
             when(clientIdentity.getMSPID()).thenReturn("AuditorMSP");
             when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
             when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000100L));
+            when(stub.getTxId()).thenReturn("tx1");
 
             KYCRecord record = contract.VerifyKYC(ctx, "kyc1", "REJECT");
 
@@ -185,6 +498,79 @@ public final class KYCContractTest {
         }
     }
 
+    @Nested
+    class InvokeExportKYCTransaction {
+
+        private static final String ASSET_JSON = "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}";
+
+        private KYCExportChunk export(final MockQueryResults results, final String startKey, final String cursor,
+                final int maxBytes, final String status) {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRange(startKey, "")).thenReturn(results);
+
+            return new Genson().deserialize(contract.ExportKYC(ctx, cursor, maxBytes, status, ""), KYCExportChunk.class);
+        }
+
+        @Test
+        public void skipsAssetsAndFinishesAtTheEnd() {
+            MockQueryResults results = MockQueryResults.of(
+                    MockQueryResults.keyValue("asset1", ASSET_JSON),
+                    MockQueryResults.keyValue("kyc1", SAMPLE_KYC_JSON),
+                    MockQueryResults.keyValue("kyc2", SAMPLE_KYC_JSON.replace("kyc1", "kyc2")));
+
+            KYCExportChunk chunk = export(results, "", "", 1024, "");
+
+            assertThat(chunk.getCount()).isEqualTo(2);
+            assertThat(chunk.getRecords().split("\n")).hasSize(2);
+            assertThat(chunk.getCursor()).isEqualTo("kyc2");
+            assertThat(chunk.isDone()).isTrue();
+            assertThat(results.isClosed()).isTrue();
+        }
+
+        @Test
+        public void stopsAtTheSizeBudgetAndResumesAfterTheCursor() {
+            MockQueryResults results = MockQueryResults.of(
+                    MockQueryResults.keyValue("kyc2", SAMPLE_KYC_JSON.replace("kyc1", "kyc2")),
+                    MockQueryResults.keyValue("kyc3", SAMPLE_KYC_JSON.replace("kyc1", "kyc3")));
+
+            KYCExportChunk chunk = export(results, "kyc1\u0000", "kyc1", SAMPLE_KYC_JSON.length() + 10, "");
+
+            assertThat(chunk.getCount()).isEqualTo(1);
+            assertThat(chunk.getCursor()).isEqualTo("kyc2");
+            assertThat(chunk.isDone()).isFalse();
+        }
+
+        @Test
+        public void filtersByStatus() {
+            MockQueryResults results = MockQueryResults.of(
+                    MockQueryResults.keyValue("kyc1", SAMPLE_KYC_JSON),
+                    MockQueryResults.keyValue("kyc2", SAMPLE_KYC_JSON.replace("kyc1", "kyc2").replace("PENDING", "VERIFIED")));
+
+            KYCExportChunk chunk = export(results, "", "", 1024, "verified");
+
+            assertThat(chunk.getCount()).isEqualTo(1);
+            assertThat(chunk.getRecords()).contains("\"id\": \"kyc2\"");
+            assertThat(chunk.getCursor()).isEqualTo("kyc2");
+        }
+
+        @Test
+        public void whenBudgetIsInvalid() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ExportKYC(ctx, "", 0, "", "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Export budget must be between 1 and 4194304 bytes");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
     @Nested
     class InvokeExpireKYCTransaction {
 
@@ -217,6 +603,7 @@ public final class KYCContractTest {
             when(clientIdentity.getMSPID()).thenReturn("AdminMSP");
             when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
             when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000200L));
+            when(stub.getTxId()).thenReturn("tx1");
 
             KYCRecord record = contract.ExpireKYC(ctx, "kyc1");
 
@@ -225,6 +612,75 @@ public final class KYCContractTest {
         }
     }
 
+    @Nested
+    class InvokeExpireDueKYCTransaction {
+
+        @Test
+        public void expiresDueRecordsUpToTheLimit() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("AdminMSP");
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1700000200L));
+            when(stub.getTxId()).thenReturn("tx1");
+            when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                    MockQueryResults.keyValue(KYCExpiryIndex.keyOf(1600000000L, "kyc1"), "1600000000"),
+                    MockQueryResults.keyValue(KYCExpiryIndex.keyOf(1600000000L, "kyc2"), "1600000000")));
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON.replace("\"updatedAt\"", "\"expiresAt\": 1600000000, \"updatedAt\""));
+
+            SweepResult result = contract.ExpireDueKYC(ctx, Long.MAX_VALUE, 1);
+
+            assertThat(result.getIds()).containsExactly("kyc1");
+            assertThat(result.isMore()).isTrue();
+            verify(stub).delState(KYCExpiryIndex.keyOf(1600000000L, "kyc1"));
+            verify(stub, never()).getStringState("kyc2");
+        }
+
+        @Test
+        public void whenLimitIsInvalid() {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ExpireDueKYC(ctx, 1700000000L, KYCContract.MAX_SWEEP_SIZE + 1);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Sweep limit must be between 1 and 500");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeGetKYCHistoryTransaction {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void closesTheHistory() throws Exception {
+            KYCContract contract = new KYCContract();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState("kyc1")).thenReturn(SAMPLE_KYC_JSON);
+            KeyModification modification = mock(KeyModification.class);
+            when(modification.getTxId()).thenReturn("tx1");
+            when(modification.getTimestamp()).thenReturn(Instant.ofEpochSecond(1700000000L));
+            when(modification.getStringValue()).thenReturn(SAMPLE_KYC_JSON);
+            QueryResultsIterator<KeyModification> history = mock(QueryResultsIterator.class);
+            when(history.iterator()).thenAnswer(invocation -> List.of(modification).iterator());
+            when(stub.getHistoryForKey("kyc1")).thenReturn(history);
+
+            String historyJSON = contract.GetKYCHistory(ctx, "kyc1");
+
+            assertThat(historyJSON).contains("\"txId\":\"tx1\"");
+            verify(history).close();
+        }
+    }
+
     @Nested
     class InvokeKYCExistsTransaction {
 
@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class KYCDigestsTest {
+
+    private static final int RECORDS = 120;
+
+    private final LedgerTransactions ledger = new LedgerTransactions();
+    private final KYCContract contract = new KYCContract();
+
+    @BeforeEach
+    public void createRecords() {
+        for (int i = 0; i < RECORDS; i++) {
+            contract.CreateKYC(ledger.next(), "kyc" + i, "John Doe", "1990-01-15", "USA", "Passport", "QmHash" + i);
+        }
+        contract.VerifyKYC(ledger.next(), "kyc1", "APPROVE");
+        contract.VerifyKYC(ledger.next(), "kyc2", "REJECT");
+    }
+
+    private KYCDigest expected(final String startBucket, final String endBucket) {
+        long count = 0;
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < RECORDS; i++) {
+            String bucket = KYCDigests.bucketOf("kyc" + i);
+            if (bucket.compareTo(startBucket) >= 0 && bucket.compareTo(endBucket) <= 0) {
+                count++;
+                sum = sum.add(KYCDigests.digestOf(contract.GetKYC(ledger.next(), "kyc" + i)));
+            }
+        }
+        return new KYCDigest(startBucket, endBucket, count, KYCDigests.hex(sum.mod(BigInteger.ONE.shiftLeft(256))));
+    }
+
+    @Test
+    public void sumsTheDigestsOfTheCurrentRecords() {
+        assertThat(contract.GetKYCDigest(ledger.next(), "00", "ff")).isEqualTo(expected("00", "ff"));
+        assertThat(contract.GetKYCDigest(ledger.next(), "40", "7f")).isEqualTo(expected("40", "7f"));
+    }
+
+    @Test
+    public void compactionKeepsTheDigest() {
+        KYCDigest before = contract.GetKYCDigest(ledger.next(), "00", "ff");
+
+        for (int bucket = 0; bucket < 256; bucket++) {
+            assertThat(contract.CompactKYCDigest(ledger.next(), String.format("%02x", bucket), 10)).isLessThan(10);
+        }
+
+        assertThat(contract.GetKYCDigest(ledger.next(), "00", "ff")).isEqualTo(before);
+        assertThat(ledger.snapshot().keySet()).noneMatch(key -> key.contains("delta") && key.contains("kycdigest"));
+    }
+
+    @Test
+    public void bisectionFindsTheChangedRecord() {
+        KYCDigest upper = contract.GetKYCDigest(ledger.next(), "80", "ff");
+        KYCDigest lower = contract.GetKYCDigest(ledger.next(), "00", "7f");
+        String bucket = KYCDigests.bucketOf("kyc7");
+        String leaf = KYCDigests.hex(KYCDigests.digestOf(contract.GetKYC(ledger.next(), "kyc7")));
+
+        contract.ExpireKYC(ledger.next(), "kyc7");
+
+        boolean inUpper = bucket.compareTo("80") >= 0;
+        assertThat(contract.GetKYCDigest(ledger.next(), "80", "ff").equals(upper)).isNotEqualTo(inUpper);
+        assertThat(contract.GetKYCDigest(ledger.next(), "00", "7f").equals(lower)).isEqualTo(inUpper);
+        assertThat(contract.GetKYCDigestLeaves(ledger.next(), bucket)).contains("\"kyc7\":\"")
+                .doesNotContain(leaf);
+    }
+
+    @Nested
+    class RecordsWrittenBeforeTheDigests {
+
+        @BeforeEach
+        public void forgetTheDigestsOfSomeRecords() {
+            ChaincodeStub stub = ledger.next().getStub();
+            for (String key : ledger.snapshot().keySet()) {
+                if (key.startsWith("\u0000" + KYCDigests.DIGEST_TYPE)
+                        && (key.endsWith("\u0000kyc7\u0000") || key.endsWith("\u0000kyc8\u0000"))) {
+                    stub.delState(key);
+                }
+            }
+            assertThat(contract.GetKYCDigest(ledger.next(), "00", "ff")).isNotEqualTo(expected("00", "ff"));
+        }
+
+        @Test
+        public void countsARecordAsNewTheNextTimeItIsWritten() {
+            contract.ExpireKYC(ledger.next(), "kyc7");
+            contract.ExpireKYC(ledger.next(), "kyc8");
+
+            assertThat(contract.GetKYCDigest(ledger.next(), "00", "ff")).isEqualTo(expected("00", "ff"));
+        }
+
+        @Test
+        public void reindexingAddsThemOnce() {
+            MigrationProgress progress = contract.ReindexKYC(ledger.next(), "", 50);
+            while (!progress.isDone()) {
+                progress = contract.ReindexKYC(ledger.next(), progress.getCursor(), 50);
+            }
+            KYCDigest reindexed = contract.GetKYCDigest(ledger.next(), "00", "ff");
+            Map<String, String> state = ledger.snapshot();
+
+            contract.ReindexKYC(ledger.next(), "", KYCContract.MAX_SWEEP_SIZE);
+
+            assertThat(reindexed).isEqualTo(expected("00", "ff"));
+            assertThat(ledger.snapshot()).isEqualTo(state);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidRanges() {
+        Throwable thrown = catchThrowable(() -> {
+            contract.GetKYCDigest(ledger.next(), "80", "7f");
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                .hasMessage("Buckets must be between 00 and ff and the start must not be after the end");
+        assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_ARGUMENT".getBytes());
+    }
+}
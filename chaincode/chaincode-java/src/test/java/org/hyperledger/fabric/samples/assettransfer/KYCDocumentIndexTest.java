@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class KYCDocumentIndexTest {
+
+    private static KYCRecord recordWithDocument(final String id, final String documentHash) {
+        return new KYCRecord(id, "John Doe", "1990-01-15", "USA", "Passport", documentHash,
+                KYCStatus.PENDING, "Org1MSP", 1700000000L, 0L);
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        public void movesTheEntryWhenTheDocumentChanges() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            KYCDocumentIndex.update(ctx, recordWithDocument("kyc1", "QmHash123"),
+                    recordWithDocument("kyc1", "QmHash456"));
+
+            verify(stub).delState(KYCDocumentIndex.keyOf("QmHash123", "kyc1"));
+            verify(stub).putStringState(KYCDocumentIndex.keyOf("QmHash456", "kyc1"), "\u0000");
+        }
+
+        @Test
+        public void leavesTheIndexAloneWhenTheDocumentIsUnchanged() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            KYCDocumentIndex.update(ctx, recordWithDocument("kyc1", "QmHash123"),
+                    recordWithDocument("kyc1", "QmHash123"));
+
+            verify(stub, never()).delState(anyString());
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+
+        @Test
+        public void skipsRecordsWithoutADocument() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            KYCDocumentIndex.update(ctx, null, recordWithDocument("kyc1", ""));
+
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class Lookup {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private Context context(final String txId) {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = ledger.stub(txId);
+            when(ctx.getStub()).thenReturn(stub);
+            return ctx;
+        }
+
+        @Test
+        public void findsEveryRecordWithTheDocument() {
+            Context setup = context("setup");
+            KYCDocumentIndex.update(setup, null, recordWithDocument("kyc2", "QmHash123"));
+            KYCDocumentIndex.update(setup, null, recordWithDocument("kyc1", "QmHash123"));
+            KYCDocumentIndex.update(setup, null, recordWithDocument("kyc3", "QmHash1234"));
+
+            assertThat(KYCDocumentIndex.ids(context("tx1"), "QmHash123")).containsExactly("kyc1", "kyc2");
+            assertThat(KYCDocumentIndex.ids(context("tx2"), "QmOther")).isEmpty();
+        }
+
+        @Test
+        public void pagesThroughFlaggedDuplicates() {
+            Context setup = context("setup");
+            for (String id : new String[] {"kyc3", "kyc1", "kyc2"}) {
+                KYCDocumentIndex.flagDuplicate(setup, recordWithDocument(id, "QmHash123"));
+            }
+
+            List<String> ids = new ArrayList<>();
+            String bookmark = KYCDocumentIndex.duplicates(context("tx1"), 2, "", ids);
+            assertThat(ids).containsExactly("kyc1", "kyc2");
+
+            ids.clear();
+            KYCDocumentIndex.duplicates(context("tx2"), 2, bookmark, ids);
+            assertThat(ids).containsExactly("kyc3");
+        }
+
+        @Test
+        public void rejectsABookmarkFromAnotherIndex() {
+            Throwable thrown = catchThrowable(() -> {
+                KYCDocumentIndex.duplicates(context("tx1"), 2, KYCDocumentIndex.keyOf("QmHash123", "kyc1"),
+                        new ArrayList<>());
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Bookmark does not belong to this query");
+        }
+    }
+}
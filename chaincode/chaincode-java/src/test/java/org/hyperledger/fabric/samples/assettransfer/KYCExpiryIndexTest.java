@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class KYCExpiryIndexTest {
+
+    private static final long DAY = 24L * 60 * 60;
+
+    private static KYCRecord recordExpiringAt(final long expiresAt) {
+        return new KYCRecord("kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash123",
+                KYCStatus.VERIFIED, "Org1MSP", 1700000000L, expiresAt);
+    }
+
+    @Test
+    public void bucketsSortInTimeOrder() {
+        assertThat(KYCExpiryIndex.bucketOf(9 * DAY)).isLessThan(KYCExpiryIndex.bucketOf(10 * DAY));
+        assertThat(KYCExpiryIndex.bucketOf(10 * DAY)).isEqualTo(KYCExpiryIndex.bucketOf(10 * DAY + 5));
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        public void movesTheEntryWhenTheExpiryChanges() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            KYCExpiryIndex.update(ctx, recordExpiringAt(10 * DAY), recordExpiringAt(20 * DAY));
+
+            verify(stub).delState(KYCExpiryIndex.keyOf(10 * DAY, "kyc1"));
+            verify(stub).putStringState(KYCExpiryIndex.keyOf(20 * DAY, "kyc1"), Long.toString(20 * DAY));
+        }
+
+        @Test
+        public void leavesTheIndexAloneWhenTheExpiryIsUnchanged() {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            KYCExpiryIndex.update(ctx, recordExpiringAt(10 * DAY), recordExpiringAt(10 * DAY));
+
+            verify(stub, never()).delState(anyString());
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+    }
+
+    @Test
+    public void dueStopsAfterTheCutoffBucket() {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        MockQueryResults results = MockQueryResults.of(
+                MockQueryResults.keyValue(KYCExpiryIndex.keyOf(9 * DAY, "kyc1"), Long.toString(9 * DAY)),
+                MockQueryResults.keyValue(KYCExpiryIndex.keyOf(10 * DAY, "kyc2"), Long.toString(10 * DAY + 100)),
+                MockQueryResults.keyValue(KYCExpiryIndex.keyOf(10 * DAY, "kyc3"), Long.toString(10 * DAY + 10)),
+                MockQueryResults.keyValue(KYCExpiryIndex.keyOf(11 * DAY, "kyc4"), Long.toString(11 * DAY)));
+        when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(results);
+
+        assertThat(KYCExpiryIndex.due(ctx, 10 * DAY + 50, 10)).containsExactly("kyc1", "kyc3");
+        assertThat(results.isClosed()).isTrue();
+    }
+}
@@ -99,5 +99,17 @@ public final class KYCRecordTest {
         assertThat(record.getStatus()).isEqualTo(KYCStatus.VERIFIED);
         assertThat(record.getIssuerMSP()).isEqualTo("Org1MSP");
         assertThat(record.getUpdatedAt()).isEqualTo(1700000000L);
+        assertThat(record.getExpiresAt()).isEqualTo(0L);
+    }
+
+    @Test
+    public void withStatusKeepsIdentityFields() {
+        KYCRecord record = new KYCRecord("kyc1", "John Doe", "1990-01-15",
+                "USA", "Passport", "QmHash123", KYCStatus.PENDING, "Org1MSP", 1700000000L);
+
+        KYCRecord verified = record.withStatus(KYCStatus.VERIFIED, "Org2MSP", 1700000100L, 1731536100L);
+
+        assertThat(verified).isEqualTo(new KYCRecord("kyc1", "John Doe", "1990-01-15",
+                "USA", "Passport", "QmHash123", KYCStatus.VERIFIED, "Org2MSP", 1700000100L, 1731536100L));
     }
 }
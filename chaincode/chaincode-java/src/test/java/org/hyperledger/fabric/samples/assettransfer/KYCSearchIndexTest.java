@@ -0,0 +1,193 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class KYCSearchIndexTest {
+
+    private static KYCRecord record(final String id, final KYCStatus status, final String issuerMSP,
+            final String nationality) {
+        return new KYCRecord(id, "John Doe", "1990-01-15", nationality, "Passport", "QmHash" + id, status, issuerMSP,
+                1700000000L, 0L);
+    }
+
+    @Test
+    public void movesTheEntriesWhoseAttributeChanged() {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+
+        KYCSearchIndex.updateAll(ctx, record("kyc1", KYCStatus.PENDING, "Org1MSP", "USA"),
+                record("kyc1", KYCStatus.VERIFIED, "Org2MSP", "USA"));
+
+        verify(stub).delState(KYCSearchIndex.STATUS.keyOf("PENDING", "kyc1"));
+        verify(stub).putStringState(KYCSearchIndex.STATUS.keyOf("VERIFIED", "kyc1"), "\u0000");
+        verify(stub).delState(KYCSearchIndex.ISSUER.keyOf("Org1MSP", "kyc1"));
+        verify(stub).putStringState(KYCSearchIndex.ISSUER.keyOf("Org2MSP", "kyc1"), "\u0000");
+    }
+
+    @Nested
+    class Search {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private Context context(final ChaincodeStub stub) {
+            Context ctx = mock(Context.class);
+            when(ctx.getStub()).thenReturn(stub);
+            return ctx;
+        }
+
+        @BeforeEach
+        public void createRecords() {
+            Context setup = context(ledger.stub("setup"));
+            for (int i = 0; i < 300; i++) {
+                String id = String.format("kyc%03d", i);
+                KYCStatus status = i % 3 == 0 ? KYCStatus.PENDING : KYCStatus.VERIFIED;
+                String issuerMSP = i % 2 == 0 ? "Org1MSP" : "Org2MSP";
+                String nationality = i % 50 == 7 ? "RWA" : "USA";
+                KYCSearchIndex.updateAll(setup, null, record(id, status, issuerMSP, nationality));
+            }
+        }
+
+        private Map<KYCSearchIndex, String> filters(final String status, final String issuerMSP,
+                final String nationality) {
+            Map<KYCSearchIndex, String> filters = new EnumMap<>(KYCSearchIndex.class);
+            if (status != null) {
+                filters.put(KYCSearchIndex.STATUS, status);
+            }
+            if (issuerMSP != null) {
+                filters.put(KYCSearchIndex.ISSUER, issuerMSP);
+            }
+            if (nationality != null) {
+                filters.put(KYCSearchIndex.NATIONALITY, nationality);
+            }
+            return filters;
+        }
+
+        @Test
+        public void intersectsEveryFilter() {
+            List<String> ids = new ArrayList<>();
+
+            String bookmark = KYCSearchIndex.search(context(ledger.stub("tx1")), filters("VERIFIED", "Org2MSP", "RWA"),
+                    10, "", KYCContract.MAX_EXPORT_SCAN, ids);
+
+            // Nationality RWA: 7, 57, 107, 157, 207, 257; odd IDs are Org2MSP; multiples of 3 are PENDING.
+            assertThat(ids).containsExactly("kyc007", "kyc107", "kyc157", "kyc257");
+            assertThat(bookmark).isEmpty();
+        }
+
+        @Test
+        public void readsInProportionToTheSmallestCandidateSet() {
+            ReadWriteSet readWriteSet = new ReadWriteSet();
+            List<String> ids = new ArrayList<>();
+
+            KYCSearchIndex.search(context(readWriteSet.record(ledger.stub("tx1"))),
+                    filters("VERIFIED", "Org2MSP", "RWA"), 10, "", KYCContract.MAX_EXPORT_SCAN, ids);
+
+            // One probe per index, then a seek into each of the two larger indexes per candidate at most.
+            assertThat(readWriteSet.getRanges()).hasSizeLessThanOrEqualTo(3 + 2 * 6);
+            assertThat(ids).hasSize(4);
+        }
+
+        @Test
+        public void pagesFromTheBookmark() {
+            Map<KYCSearchIndex, String> filters = filters("PENDING", "Org1MSP", null);
+            List<String> all = new ArrayList<>();
+
+            String bookmark = "";
+            do {
+                List<String> ids = new ArrayList<>();
+                bookmark = KYCSearchIndex.search(context(ledger.stub("tx")), filters, 7, bookmark,
+                        KYCContract.MAX_EXPORT_SCAN, ids);
+                assertThat(ids).hasSizeLessThanOrEqualTo(7);
+                all.addAll(ids);
+            } while (!bookmark.isEmpty());
+
+            // Multiples of 6 below 300.
+            assertThat(all).hasSize(50).startsWith("kyc000", "kyc006").endsWith("kyc294").isSorted();
+        }
+
+        @Test
+        public void stopsAtTheCandidateLimit() {
+            List<String> ids = new ArrayList<>();
+
+            String bookmark = KYCSearchIndex.search(context(ledger.stub("tx1")), filters(null, null, "RWA"), 10, "",
+                    2, ids);
+
+            assertThat(ids).containsExactly("kyc007", "kyc057");
+            assertThat(bookmark).isEqualTo("kyc107");
+        }
+
+        @Test
+        public void rejectsABookmarkThatIsNotAnID() {
+            Throwable thrown = catchThrowable(() -> {
+                KYCSearchIndex.search(context(ledger.stub("tx1")), filters("VERIFIED", "Org2MSP", null), 10,
+                        "kyc007\u0000kycIssuer", KYCContract.MAX_EXPORT_SCAN, new ArrayList<>());
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("Bookmark does not belong to this query");
+        }
+
+        @Test
+        public void findsNothingForAnUnusedValue() {
+            List<String> ids = new ArrayList<>();
+
+            String bookmark = KYCSearchIndex.search(context(ledger.stub("tx1")), filters("EXPIRED", "Org1MSP", null),
+                    10, "", KYCContract.MAX_EXPORT_SCAN, ids);
+
+            assertThat(ids).isEmpty();
+            assertThat(bookmark).isEmpty();
+        }
+    }
+
+    @Nested
+    class RecordsWrittenBeforeTheIndexes {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+        private final KYCContract contract = new KYCContract();
+
+        @BeforeEach
+        public void writeRecordsWithoutIndexes() {
+            for (int i = 0; i < 3; i++) {
+                ledger.next().getStub().putStringState("kyc" + i, new Genson().serialize(
+                        record("kyc" + i, KYCStatus.REJECTED, "Org1MSP", "USA")));
+            }
+        }
+
+        @Test
+        public void reindexAddsThemToTheIndexesOnce() {
+            assertThat(contract.SearchKYC(ledger.next(), "REJECTED", "", "", "", 10, "")).contains("\"records\":[]");
+
+            contract.ReindexKYC(ledger.next(), "", 10);
+            Map<String, String> indexed = ledger.snapshot();
+            contract.ReindexKYC(ledger.next(), "", 10);
+
+            assertThat(ledger.snapshot()).isEqualTo(indexed);
+            assertThat(contract.SearchKYC(ledger.next(), "REJECTED", "Org1MSP", "", "", 10, ""))
+                    .contains("\"id\":\"kyc0\"", "\"id\":\"kyc1\"", "\"id\":\"kyc2\"");
+            assertThat(contract.FindKYCByDocumentHash(ledger.next(), "QmHashkyc1")).contains("\"id\":\"kyc1\"");
+        }
+    }
+}
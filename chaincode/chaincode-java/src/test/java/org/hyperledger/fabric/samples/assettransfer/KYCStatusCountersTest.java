@@ -0,0 +1,149 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class KYCStatusCountersTest {
+
+    private static KYCRecord record(final KYCStatus status, final String issuerMSP) {
+        return new KYCRecord("kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash123",
+                status, issuerMSP, 1700000000L);
+    }
+
+    private static Context contextWithTxId(final String txId) {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        when(stub.getTxId()).thenReturn(txId);
+        return ctx;
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        public void takesBackWhatWasCountedWithoutReadingCounters() {
+            Context ctx = contextWithTxId("tx1");
+            when(ctx.getStub().getStringState(KYCStatusCounters.countedKeyOf("kyc1")))
+                    .thenReturn("{\"Org1MSP\":{\"PENDING\":1}}");
+
+            KYCStatusCounters.update(ctx, record(KYCStatus.VERIFIED, "Org2MSP"));
+
+            String key = new CompositeKey("kycstats", "delta", KYCStatusCounters.shardOf("tx1"), "tx1", "kyc1").toString();
+            verify(ctx.getStub()).putStringState(key, "{\"Org1MSP\":{\"PENDING\":-1},\"Org2MSP\":{\"VERIFIED\":1}}");
+            verify(ctx.getStub()).putStringState(KYCStatusCounters.countedKeyOf("kyc1"),
+                    "{\"Org2MSP\":{\"VERIFIED\":1}}");
+            verify(ctx.getStub(), never()).getStateByPartialCompositeKey(any(CompositeKey.class));
+        }
+
+        @Test
+        public void skipsWritesThatKeepTheCounts() {
+            Context ctx = contextWithTxId("tx1");
+            when(ctx.getStub().getStringState(KYCStatusCounters.countedKeyOf("kyc1")))
+                    .thenReturn("{\"Org1MSP\":{\"PENDING\":1}}");
+
+            KYCStatusCounters.update(ctx, record(KYCStatus.PENDING, "Org1MSP"));
+
+            verify(ctx.getStub(), never()).putStringState(anyString(), anyString());
+        }
+
+        @Test
+        public void countsAnUncountedRecordWithoutTakingAnythingBack() {
+            Context ctx = contextWithTxId("tx1");
+
+            KYCStatusCounters.update(ctx, record(KYCStatus.VERIFIED, "Org2MSP"));
+
+            String key = new CompositeKey("kycstats", "delta", KYCStatusCounters.shardOf("tx1"), "tx1", "kyc1").toString();
+            verify(ctx.getStub()).putStringState(key, "{\"Org2MSP\":{\"VERIFIED\":1}}");
+        }
+    }
+
+    @Nested
+    class RecordsWrittenBeforeTheCounters {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+        private final KYCContract contract = new KYCContract();
+
+        @BeforeEach
+        public void writeRecordsWithoutIndexes() {
+            for (int i = 0; i < 3; i++) {
+                ledger.next().getStub().putStringState("kyc" + i, new Genson().serialize(new KYCRecord("kyc" + i,
+                        "John Doe", "1990-01-15", "USA", "Passport", "QmHash" + i, KYCStatus.PENDING, "Org1MSP",
+                        1700000000L)));
+            }
+        }
+
+        @Test
+        public void updatingOneNeverDrivesTheCountsNegative() {
+            contract.VerifyKYC(ledger.next(), "kyc0", "APPROVE");
+
+            assertThat(contract.GetKYCStats(ledger.next())).isEqualTo("{\"Org1MSP\":{\"VERIFIED\":1}}");
+        }
+
+        @Test
+        public void reindexCountsThemOnce() {
+            contract.VerifyKYC(ledger.next(), "kyc0", "APPROVE");
+
+            MigrationProgress first = contract.ReindexKYC(ledger.next(), "", 2);
+            MigrationProgress second = contract.ReindexKYC(ledger.next(), first.getCursor(), 2);
+            contract.ReindexKYC(ledger.next(), "", 10);
+
+            assertThat(first).isEqualTo(new MigrationProgress("kyc1", 2, 2, false));
+            assertThat(second).isEqualTo(new MigrationProgress("kyc2", 1, 1, true));
+            assertThat(contract.GetKYCStats(ledger.next())).isEqualTo("{\"Org1MSP\":{\"PENDING\":2,\"VERIFIED\":1}}");
+        }
+    }
+
+    @Test
+    public void readSumsBasesAndDeltas() {
+        Context ctx = contextWithTxId("tx9");
+        when(ctx.getStub().getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                MockQueryResults.keyValue("base00", "{\"Org1MSP\":{\"PENDING\":3,\"VERIFIED\":2}}"),
+                MockQueryResults.keyValue("delta00", "{\"Org1MSP\":{\"PENDING\":-1,\"VERIFIED\":1}}"),
+                MockQueryResults.keyValue("delta07", "{\"Org1MSP\":{\"PENDING\":-2},\"Org2MSP\":{\"REJECTED\":1}}")));
+
+        Map<String, Map<String, Long>> counts = KYCStatusCounters.read(ctx);
+
+        assertThat(counts).isEqualTo(Map.of("Org1MSP", Map.of("VERIFIED", 3L), "Org2MSP", Map.of("REJECTED", 1L)));
+    }
+
+    @Test
+    public void compactFoldsDeltasIntoTheBase() {
+        Context ctx = contextWithTxId("tx9");
+        ChaincodeStub stub = ctx.getStub();
+        String baseKey = new CompositeKey("kycstats", "base", "03").toString();
+        when(stub.getStringState(baseKey)).thenReturn("{\"Org1MSP\":{\"PENDING\":1}}");
+        when(stub.getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                MockQueryResults.keyValue("d1", "{\"Org1MSP\":{\"PENDING\":1}}"),
+                MockQueryResults.keyValue("d2", "{\"Org1MSP\":{\"PENDING\":-1,\"VERIFIED\":1}}"),
+                MockQueryResults.keyValue("d3", "{\"Org1MSP\":{\"PENDING\":1}}")));
+
+        int folded = KYCStatusCounters.compact(ctx, "03", 2);
+
+        assertThat(folded).isEqualTo(2);
+        verify(stub).putStringState(baseKey, "{\"Org1MSP\":{\"PENDING\":1,\"VERIFIED\":1}}");
+        verify(stub).delState("d1");
+        verify(stub).delState("d2");
+        verify(stub, never()).delState("d3");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class KYCVerifiedPartiesTest {
+
+    private static KYCRecord record(final KYCStatus status, final long expiresAt) {
+        return new KYCRecord("kyc1", "John Doe", "1990-01-15", "USA", "Passport", "QmHash123", status, "Org1MSP",
+                1700000000L, expiresAt);
+    }
+
+    @Nested
+    class Update {
+
+        private final Context ctx = mock(Context.class);
+        private final ChaincodeStub stub = mock(ChaincodeStub.class);
+
+        @BeforeEach
+        public void stubContext() {
+            when(ctx.getStub()).thenReturn(stub);
+        }
+
+        @Test
+        public void marksAPartyWhenItsRecordIsVerified() {
+            KYCVerifiedParties.update(ctx, record(KYCStatus.PENDING, 0L), record(KYCStatus.VERIFIED, 1800000000L));
+
+            verify(stub).putStringState(KYCVerifiedParties.keyOf("kyc1"), "1800000000");
+        }
+
+        @Test
+        public void unmarksAPartyWhenItsRecordExpires() {
+            KYCVerifiedParties.update(ctx, record(KYCStatus.VERIFIED, 1800000000L),
+                    record(KYCStatus.EXPIRED, 1800000000L));
+
+            verify(stub).delState(KYCVerifiedParties.keyOf("kyc1"));
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+
+        @Test
+        public void leavesUnverifiedRecordsUnmarked() {
+            KYCVerifiedParties.update(ctx, null, record(KYCStatus.PENDING, 0L));
+            KYCVerifiedParties.update(ctx, record(KYCStatus.PENDING, 0L), record(KYCStatus.REJECTED, 0L));
+
+            verify(stub, never()).putStringState(anyString(), anyString());
+            verify(stub, never()).delState(anyString());
+        }
+    }
+
+    @Nested
+    class Backfill {
+
+        private final Context ctx = mock(Context.class);
+        private final ChaincodeStub stub = mock(ChaincodeStub.class);
+
+        @BeforeEach
+        public void stubContext() {
+            when(ctx.getStub()).thenReturn(stub);
+        }
+
+        @Test
+        public void marksAVerifiedPartyWithoutAMarker() {
+            when(stub.getStringState(KYCVerifiedParties.keyOf("kyc1"))).thenReturn("");
+
+            KYCVerifiedParties.backfill(ctx, record(KYCStatus.VERIFIED, 1800000000L));
+
+            verify(stub).putStringState(KYCVerifiedParties.keyOf("kyc1"), "1800000000");
+        }
+
+        @Test
+        public void leavesExistingMarkersAndUnverifiedRecordsAlone() {
+            when(stub.getStringState(KYCVerifiedParties.keyOf("kyc1"))).thenReturn("1800000000");
+
+            KYCVerifiedParties.backfill(ctx, record(KYCStatus.VERIFIED, 1800000000L));
+            KYCVerifiedParties.backfill(ctx, record(KYCStatus.REJECTED, 0L));
+
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class IsVerified {
+
+        private Context context(final String marker) {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStringState(KYCVerifiedParties.keyOf("kyc1"))).thenReturn(marker);
+            when(stub.getTxTimestamp()).thenReturn(Instant.ofEpochSecond(1750000000L));
+            return ctx;
+        }
+
+        @Test
+        public void whenMarkerHasNotExpired() {
+            assertThat(KYCVerifiedParties.isVerified(context("1800000000"), "kyc1")).isTrue();
+            assertThat(KYCVerifiedParties.isVerified(context("0"), "kyc1")).isTrue();
+        }
+
+        @Test
+        public void whenMarkerHasExpired() {
+            assertThat(KYCVerifiedParties.isVerified(context("1700000000"), "kyc1")).isFalse();
+        }
+
+        @Test
+        public void whenThereIsNoMarker() {
+            assertThat(KYCVerifiedParties.isVerified(context(""), "kyc1")).isFalse();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.NavigableMap;
+
+import org.hyperledger.fabric.contract.ClientIdentity;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Runs transactions one after another against an {@link InMemoryLedger}, for tests that check the state a sequence of
+ * transactions leaves behind.
+ *
+ * <p>{@link #next()} starts a transaction and returns the context to call the contract with. The context is that of
+ * a client of {@value #MSP_ID}, and its stub is the stub of the current transaction.</p>
+ */
+final class LedgerTransactions {
+
+    static final String MSP_ID = "Org1MSP";
+
+    private final InMemoryLedger ledger = new InMemoryLedger();
+    private final Context ctx = mock(Context.class);
+    private ChaincodeStub stub;
+    private long transactions;
+
+    LedgerTransactions() {
+        ClientIdentity clientIdentity = mock(ClientIdentity.class);
+        when(clientIdentity.getMSPID()).thenReturn(MSP_ID);
+        when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+        when(ctx.getStub()).thenAnswer(invocation -> stub);
+    }
+
+    /**
+     * Starts a transaction.
+     *
+     * @return the context of the new transaction
+     */
+    Context next() {
+        stub = ledger.stub("tx" + transactions++);
+        return ctx;
+    }
+
+    /**
+     * @return the context of the transaction started last, to make several calls in one transaction
+     */
+    Context current() {
+        return ctx;
+    }
+
+    /**
+     * @return the current keys and values of the ledger, in key order
+     */
+    NavigableMap<String, String> snapshot() {
+        return ledger.snapshot();
+    }
+}
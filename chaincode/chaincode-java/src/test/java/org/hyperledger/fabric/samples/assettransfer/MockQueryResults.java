@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * Canned ledger query results for contract tests.
+ */
+final class MockQueryResults implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+    private final List<KeyValue> results;
+    private final String bookmark;
+    private boolean closed;
+
+    private MockQueryResults(final List<KeyValue> results, final String bookmark) {
+        this.results = results;
+        this.bookmark = bookmark;
+    }
+
+    static MockQueryResults of(final KeyValue... results) {
+        return new MockQueryResults(Arrays.asList(results), "");
+    }
+
+    static MockQueryResults page(final String bookmark, final KeyValue... results) {
+        return new MockQueryResults(Arrays.asList(results), bookmark);
+    }
+
+    static KeyValue keyValue(final String key, final String value) {
+        return new KeyValue() {
+            @Override
+            public String getKey() {
+                return key;
+            }
+
+            @Override
+            public String getStringValue() {
+                return value;
+            }
+
+            @Override
+            public byte[] getValue() {
+                return value.getBytes();
+            }
+        };
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public QueryResponseMetadata getMetadata() {
+        return QueryResponseMetadata.newBuilder()
+                .setFetchedRecordsCount(results.size())
+                .setBookmark(bookmark)
+                .build();
+    }
+
+    @Override
+    public Iterator<KeyValue> iterator() {
+        return results.iterator();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
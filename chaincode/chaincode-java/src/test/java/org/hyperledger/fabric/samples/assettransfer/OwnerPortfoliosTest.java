@@ -0,0 +1,161 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class OwnerPortfoliosTest {
+
+    private static Context context() {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        return ctx;
+    }
+
+    @Test
+    public void rankKeysSortMostValuableFirst() {
+        String richer = OwnerPortfolios.rankKey(new OwnerSummary("Ana", 1, 5000));
+        String poorer = OwnerPortfolios.rankKey(new OwnerSummary("Bob", 9, 100));
+
+        assertThat(richer).isLessThan(poorer);
+    }
+
+    @Nested
+    class Apply {
+
+        @Test
+        public void foldsSeveralChangesToOneOwner() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+            OwnerPortfolios portfolios = new OwnerPortfolios();
+
+            portfolios.put(new Asset("asset1", "blue", 5, "Ana", 300));
+            portfolios.put(new Asset("asset2", "red", 5, "Ana", 400));
+            portfolios.apply(ctx);
+
+            OwnerSummary expected = new OwnerSummary("Ana", 2, 700);
+            String json = "{\"assetCount\":2,\"owner\":\"Ana\",\"totalValue\":700}";
+            verify(stub).putStringState(OwnerPortfolios.summaryKey("Ana"), json);
+            verify(stub).putStringState(OwnerPortfolios.rankKey(expected), json);
+        }
+
+        @Test
+        public void movesValueBetweenOwnersOnTransfer() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+            when(stub.getStringState(OwnerPortfolios.summaryKey("Ana")))
+                    .thenReturn("{\"assetCount\":1,\"owner\":\"Ana\",\"totalValue\":300}");
+            when(stub.getStringState(OwnerPortfolios.countedKey("asset1")))
+                    .thenReturn("{\"assetCount\":1,\"owner\":\"Ana\",\"totalValue\":300}");
+            OwnerPortfolios portfolios = new OwnerPortfolios();
+
+            portfolios.put(new Asset("asset1", "blue", 5, "Bob", 300));
+            portfolios.apply(ctx);
+
+            verify(stub).delState(OwnerPortfolios.summaryKey("Ana"));
+            verify(stub).delState(OwnerPortfolios.rankKey(new OwnerSummary("Ana", 1, 300)));
+            verify(stub).putStringState(OwnerPortfolios.summaryKey("Bob"),
+                    "{\"assetCount\":1,\"owner\":\"Bob\",\"totalValue\":300}");
+            verify(stub).putStringState(OwnerPortfolios.countedKey("asset1"),
+                    "{\"assetCount\":1,\"owner\":\"Bob\",\"totalValue\":300}");
+        }
+
+        @Test
+        public void neverTakesAnUncountedAssetFromItsOwner() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+            when(stub.getStringState(OwnerPortfolios.summaryKey("Ana")))
+                    .thenReturn("{\"assetCount\":1,\"owner\":\"Ana\",\"totalValue\":300}");
+            OwnerPortfolios portfolios = new OwnerPortfolios();
+
+            portfolios.put(new Asset("asset0", "blue", 5, "Bob", 300));
+            portfolios.apply(ctx);
+
+            verify(stub, never()).delState(anyString());
+            verify(stub, never()).putStringState(eq(OwnerPortfolios.summaryKey("Ana")), anyString());
+            verify(stub).putStringState(OwnerPortfolios.summaryKey("Bob"),
+                    "{\"assetCount\":1,\"owner\":\"Bob\",\"totalValue\":300}");
+        }
+
+        @Test
+        public void skipsAssetsThatAreAlreadyCounted() {
+            Context ctx = context();
+            ChaincodeStub stub = ctx.getStub();
+            when(stub.getStringState(OwnerPortfolios.countedKey("asset1")))
+                    .thenReturn("{\"assetCount\":1,\"owner\":\"Ana\",\"totalValue\":300}");
+            OwnerPortfolios portfolios = new OwnerPortfolios();
+
+            portfolios.put(new Asset("asset1", "blue", 5, "Ana", 300));
+            portfolios.apply(ctx);
+
+            verify(stub, never()).putStringState(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class AssetsWrittenBeforeTheSummaries {
+
+        private final LedgerTransactions ledger = new LedgerTransactions();
+        private final AssetTransfer contract = new AssetTransfer(false);
+
+        @BeforeEach
+        public void writeAssetsWithoutSummaries() {
+            Genson genson = new Genson();
+            ledger.next().getStub().putStringState("asset1",
+                    genson.serialize(new Asset("asset1", "blue", 5, "Ana", 300)));
+            ledger.next().getStub().putStringState("asset2",
+                    genson.serialize(new Asset("asset2", "red", 5, "Ana", 400)));
+            contract.CreateAsset(ledger.next(), "asset3", "green", 10, "Ana", 500);
+        }
+
+        @Test
+        public void transferringOneKeepsTheOwnersCountedAssets() {
+            contract.TransferAsset(ledger.next(), "asset1", "Bob");
+
+            assertThat(contract.GetOwnerSummary(ledger.next(), "Ana")).isEqualTo(new OwnerSummary("Ana", 1, 500));
+            assertThat(contract.GetOwnerSummary(ledger.next(), "Bob")).isEqualTo(new OwnerSummary("Bob", 1, 300));
+        }
+
+        @Test
+        public void reindexCountsThemOnce() {
+            contract.TransferAsset(ledger.next(), "asset1", "Bob");
+
+            MigrationProgress progress = contract.ReindexAssets(ledger.next(), "", 10);
+            contract.ReindexAssets(ledger.next(), "", 10);
+
+            assertThat(progress).isEqualTo(new MigrationProgress("asset3", 3, 3, true));
+            assertThat(contract.GetOwnerSummary(ledger.next(), "Ana")).isEqualTo(new OwnerSummary("Ana", 2, 900));
+            assertThat(contract.GetOwnerSummary(ledger.next(), "Bob")).isEqualTo(new OwnerSummary("Bob", 1, 300));
+            assertThat(contract.GetTopOwners(ledger.next(), 2)).startsWith("[{\"assetCount\":2,\"owner\":\"Ana\"");
+        }
+    }
+
+    @Test
+    public void topReadsTheFirstEntries() {
+        Context ctx = context();
+        when(ctx.getStub().getStateByPartialCompositeKey(any(CompositeKey.class))).thenReturn(MockQueryResults.of(
+                MockQueryResults.keyValue("r1", "{\"assetCount\":1,\"owner\":\"Ana\",\"totalValue\":5000}"),
+                MockQueryResults.keyValue("r2", "{\"assetCount\":9,\"owner\":\"Bob\",\"totalValue\":100}")));
+
+        assertThat(OwnerPortfolios.top(ctx, 1)).containsExactly(new OwnerSummary("Ana", 1, 5000));
+    }
+}
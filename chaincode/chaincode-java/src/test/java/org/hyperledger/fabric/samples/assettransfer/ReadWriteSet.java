@@ -0,0 +1,240 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * The keys one simulated transaction read and wrote, recorded the way the peer builds a proposal's read-write set.
+ *
+ * <p>{@link #record(ChaincodeStub)} wraps a stub so that ledger reads go through to it and are recorded, while writes
+ * and deletions are only recorded: like the peer, the transaction reads the committed state and its own writes take
+ * effect when it commits. Range and partial composite key queries are recorded as key ranges up to the last key the
+ * transaction read, or to the end of the query's range if it read every result, which is the range the peer checks
+ * for phantom reads at commit.</p>
+ */
+final class ReadWriteSet {
+
+    private static final String MAX_UNICODE_RUNE = "\uDBFF\uDFFF";
+
+    private final Set<String> reads = new LinkedHashSet<>();
+
+    private final List<RangeRead> ranges = new ArrayList<>();
+
+    private final Map<String, String> writes = new LinkedHashMap<>();
+
+    /**
+     * A range of keys a transaction iterated over.
+     */
+    static final class RangeRead {
+
+        private final String startKey;
+        private final String endKey;
+        private String lastKey;
+        private boolean exhausted;
+
+        RangeRead(final String startKey, final String endKey) {
+            this.startKey = startKey;
+            this.endKey = endKey;
+        }
+
+        /**
+         * Returns whether a write to a key would change what the transaction read from this range.
+         *
+         * @param key the key written
+         * @return true if the key is inside the part of the range that was read
+         */
+        boolean contains(final String key) {
+            if (key.compareTo(startKey) < 0) {
+                return false;
+            }
+            if (exhausted) {
+                return endKey.isEmpty() || key.compareTo(endKey) < 0;
+            }
+            return lastKey != null && key.compareTo(lastKey) <= 0;
+        }
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+    }
+
+    /**
+     * @return the keys read individually, in the order first read
+     */
+    Set<String> getReads() {
+        return Collections.unmodifiableSet(reads);
+    }
+
+    /**
+     * @return the ranges iterated over
+     */
+    List<RangeRead> getRanges() {
+        return Collections.unmodifiableList(ranges);
+    }
+
+    /**
+     * @return the final value written to each key, or null for deleted keys, in the order first written
+     */
+    Map<String, String> getWrites() {
+        return Collections.unmodifiableMap(writes);
+    }
+
+    /**
+     * Returns whether any range this transaction read covers a key.
+     *
+     * @param key the key
+     * @return the range, or null if none covers it
+     */
+    RangeRead rangeContaining(final String key) {
+        for (RangeRead range : ranges) {
+            if (range.contains(key)) {
+                return range;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wraps a stub so the transaction run against it is recorded in this set.
+     *
+     * @param stub the stub for one transaction
+     * @return a stub that records into this set
+     */
+    @SuppressWarnings("unchecked")
+    ChaincodeStub record(final ChaincodeStub stub) {
+        return (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[] {ChaincodeStub.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "putStringState":
+                            writes.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "putState":
+                            writes.put((String) args[0], new String((byte[]) args[1], StandardCharsets.UTF_8));
+                            return null;
+                        case "delState":
+                            writes.put((String) args[0], null);
+                            return null;
+                        default:
+                            break;
+                    }
+
+                    Object result;
+                    try {
+                        result = method.invoke(stub, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+
+                    switch (method.getName()) {
+                        case "getState":
+                        case "getStringState":
+                            reads.add((String) args[0]);
+                            return result;
+                        case "getStateByRange":
+                            // Like the peer, an open start excludes the composite key namespace.
+                            String startKey = ((String) args[0]).isEmpty() ? "\u0001" : (String) args[0];
+                            return track((QueryResultsIterator<KeyValue>) result,
+                                    new RangeRead(startKey, (String) args[1]));
+                        case "getStateByPartialCompositeKey":
+                            String prefix = prefix(args);
+                            return track((QueryResultsIterator<KeyValue>) result,
+                                    new RangeRead(prefix, prefix + MAX_UNICODE_RUNE));
+                        case "getStateByPartialCompositeKeyWithPagination":
+                            return page((QueryResultsIteratorWithMetadata<KeyValue>) result, (CompositeKey) args[0],
+                                    (String) args[2]);
+                        default:
+                            return result;
+                    }
+                });
+    }
+
+    private static String prefix(final Object[] args) {
+        if (args[0] instanceof CompositeKey) {
+            return args[0].toString();
+        } else if (args.length > 1 && args[1] instanceof String[]) {
+            return new CompositeKey((String) args[0], (String[]) args[1]).toString();
+        }
+        return new CompositeKey((String) args[0]).toString();
+    }
+
+    private QueryResultsIterator<KeyValue> track(final QueryResultsIterator<KeyValue> results, final RangeRead range) {
+        ranges.add(range);
+        return new QueryResultsIterator<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return tracking(results.iterator(), range, true);
+            }
+
+            @Override
+            public void close() throws Exception {
+                results.close();
+            }
+        };
+    }
+
+    private QueryResultsIteratorWithMetadata<KeyValue> page(final QueryResultsIteratorWithMetadata<KeyValue> results,
+            final CompositeKey partialKey, final String bookmark) {
+        String prefix = partialKey.toString();
+        RangeRead range = new RangeRead(bookmark.isEmpty() ? prefix : bookmark, prefix + MAX_UNICODE_RUNE);
+        ranges.add(range);
+        // A page that stops before the end of the range has not exhausted it, however much of the page is read.
+        boolean lastPage = results.getMetadata().getBookmark().isEmpty();
+        return new QueryResultsIteratorWithMetadata<KeyValue>() {
+            @Override
+            public QueryResponseMetadata getMetadata() {
+                return results.getMetadata();
+            }
+
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return tracking(results.iterator(), range, lastPage);
+            }
+
+            @Override
+            public void close() throws Exception {
+                results.close();
+            }
+        };
+    }
+
+    private static Iterator<KeyValue> tracking(final Iterator<KeyValue> results, final RangeRead range,
+            final boolean canExhaust) {
+        return new Iterator<KeyValue>() {
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = results.hasNext();
+                if (!hasNext && canExhaust) {
+                    range.exhausted = true;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public KeyValue next() {
+                KeyValue next = results.next();
+                range.lastKey = next.getKey();
+                return next;
+            }
+        };
+    }
+}
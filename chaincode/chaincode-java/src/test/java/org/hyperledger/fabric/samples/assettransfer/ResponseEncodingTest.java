@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class ResponseEncodingTest {
+
+    private static final String JSON = "[{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}]";
+
+    private static Context contextWithTransient(final Map<String, byte[]> transientData) {
+        Context ctx = mock(Context.class);
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(ctx.getStub()).thenReturn(stub);
+        when(stub.getTransient()).thenReturn(transientData);
+        return ctx;
+    }
+
+    @Test
+    public void returnsPlainJsonByDefault() {
+        Context ctx = contextWithTransient(Map.of());
+
+        assertThat(ResponseEncoding.encode(ctx, JSON)).isEqualTo(JSON);
+    }
+
+    @Test
+    public void compressesWhenGzipIsRequested() throws IOException {
+        Context ctx = contextWithTransient(Map.of(ResponseEncoding.TRANSIENT_KEY, "gzip".getBytes()));
+
+        String encoded = ResponseEncoding.encode(ctx, JSON);
+        EncodedResponse response = new Genson().deserialize(encoded, EncodedResponse.class);
+
+        assertThat(response.getEncoding()).isEqualTo("gzip");
+        assertThat(response.getLength()).isEqualTo(JSON.length());
+
+        byte[] compressed = Base64.getDecoder().decode(response.getPayload());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(JSON);
+        }
+    }
+
+    @Test
+    public void rejectsUnknownEncodings() {
+        Context ctx = contextWithTransient(Map.of(ResponseEncoding.TRANSIENT_KEY, "brotli".getBytes()));
+
+        Throwable thrown = catchThrowable(() -> {
+            ResponseEncoding.encode(ctx, JSON);
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                .hasMessage("Unsupported response encoding: brotli");
+        assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("UNSUPPORTED_ENCODING".getBytes());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public final class ScanPipelineTest {
+
+    private static List<Integer> range(final int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void keepsIterationOrderAcrossBatches() {
+        int count = ScanPipeline.BATCH_SIZE * (ScanPipeline.MAX_IN_FLIGHT + 3) + 7;
+
+        List<String> decoded = ScanPipeline.decode(range(count), i -> "asset" + i);
+
+        assertThat(decoded).hasSize(count);
+        assertThat(decoded).isEqualTo(range(count).stream().map(i -> "asset" + i).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void dropsResultsTheDecoderFiltersOut() {
+        List<Integer> decoded = ScanPipeline.decode(range(500), i -> i % 3 == 0 ? i : null);
+
+        assertThat(decoded).hasSize(167).startsWith(0, 3, 6).endsWith(498);
+    }
+
+    @Test
+    public void handlesAnEmptyScan() {
+        assertThat(ScanPipeline.decode(range(0), i -> i)).isEmpty();
+    }
+
+    @Test
+    public void rethrowsDecodeFailures() {
+        Throwable thrown = catchThrowable(() -> {
+            ScanPipeline.decode(range(1000), i -> {
+                if (i == 700) {
+                    throw new IllegalStateException("bad record 700");
+                }
+                return i;
+            });
+        });
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("bad record 700");
+    }
+}
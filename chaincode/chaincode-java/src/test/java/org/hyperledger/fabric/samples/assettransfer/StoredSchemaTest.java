@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class StoredSchemaTest {
+
+    // Version 1 called the nationality "country"; version 2 renamed it; version 3 added the expiry.
+    private static final StoredSchema<KYCRecord> SCHEMA = StoredSchema.of(KYCRecord.class, "documentHash")
+            .then(fields -> {
+                fields.put("nationality", fields.remove("country"));
+                return fields;
+            })
+            .then(fields -> {
+                fields.putIfAbsent("expiresAt", 0L);
+                return fields;
+            });
+
+    private static final String VERSION_1 = "{\"country\":\"USA\",\"documentHash\":\"QmHash123\","
+            + "\"fullName\":\"John Doe\",\"id\":\"kyc1\",\"status\":\"PENDING\"}";
+
+    private static final String VERSION_2 = "{\"documentHash\":\"QmHash123\",\"fullName\":\"John Doe\",\"id\":\"kyc1\","
+            + "\"nationality\":\"RWA\",\"status\":\"VERIFIED\",\"schemaVersion\":2}";
+
+    private static KYCRecord record(final String id) {
+        return new KYCRecord(id, "John Doe", "1990-01-15", "USA", "Passport", "QmHash123", KYCStatus.PENDING, "Org1MSP",
+                1700000000L, 1800000000L);
+    }
+
+    @Test
+    public void tagsWrittenValuesWithTheCurrentVersion() {
+        String json = SCHEMA.write(record("kyc1"));
+
+        assertThat(json).endsWith(",\"schemaVersion\":3}");
+        assertThat(StoredSchema.taggedVersion(json)).isEqualTo(3);
+        assertThat(SCHEMA.isStale(json)).isFalse();
+        assertThat(SCHEMA.read(json)).isEqualTo(record("kyc1"));
+    }
+
+    @Test
+    public void ignoresTagsInsideStringValues() {
+        KYCRecord record = new KYCRecord("kyc1", "\",\"schemaVersion\":9", "1990-01-15", "USA", "Passport", "QmHash123",
+                KYCStatus.PENDING, "Org1MSP", 1700000000L, 0L);
+
+        assertThat(StoredSchema.taggedVersion(StoredSchema.of(KYCRecord.class, "documentHash").write(record)))
+                .isEqualTo(1);
+        assertThat(StoredSchema.taggedVersion(VERSION_1.replace("John Doe", "\\\",\\\"schemaVersion\\\":9")))
+                .isZero();
+    }
+
+    @Test
+    public void upgradesUntaggedValuesFromVersionOne() {
+        KYCRecord record = SCHEMA.read(VERSION_1);
+
+        assertThat(SCHEMA.needsUpgrade(VERSION_1)).isTrue();
+        assertThat(record.getNationality()).isEqualTo("USA");
+        assertThat(record.getStatus()).isEqualTo(KYCStatus.PENDING);
+    }
+
+    @Test
+    public void upgradesTaggedValuesFromTheirVersion() {
+        KYCRecord record = SCHEMA.read(VERSION_2);
+
+        assertThat(record.getNationality()).isEqualTo("RWA");
+        assertThat(record.getExpiresAt()).isZero();
+    }
+
+    @Nested
+    class Migrate {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private Context context(final String txId) {
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = ledger.stub(txId);
+            when(ctx.getStub()).thenReturn(stub);
+            return ctx;
+        }
+
+        @Test
+        public void rewritesRecordsTheUpgradeChangesOneSliceAtATime() {
+            ChaincodeStub setup = ledger.stub("setup");
+            setup.putStringState("asset1", "{\"assetID\":\"asset1\",\"owner\":\"Tomoko\"}");
+            setup.putStringState("kyc1", VERSION_1);
+            setup.putStringState("kyc2", VERSION_2.replace("kyc1", "kyc2"));
+            setup.putStringState("kyc3", SCHEMA.write(record("kyc3")));
+            Map<KYCRecord, KYCRecord> written = new LinkedHashMap<>();
+
+            MigrationProgress first = SCHEMA.migrate(context("tx1"), "", 2, written::put);
+            assertThat(first).isEqualTo(new MigrationProgress("kyc1", 2, 1, false));
+
+            MigrationProgress second = SCHEMA.migrate(context("tx2"), first.getCursor(), 2, written::put);
+            assertThat(second).isEqualTo(new MigrationProgress("kyc3", 2, 0, true));
+
+            // Version 2 only lacks the expiry, which reads as zero either way, so only version 1 is rewritten.
+            assertThat(written).hasSize(1);
+            Map.Entry<KYCRecord, KYCRecord> kyc1 = written.entrySet().iterator().next();
+            assertThat(kyc1.getKey().getNationality()).isNull();
+            assertThat(kyc1.getValue().getNationality()).isEqualTo("USA");
+        }
+
+        @Test
+        public void leavesUntaggedRecordsOfTheFirstVersionAlone() {
+            StoredSchema<KYCRecord> schema = StoredSchema.of(KYCRecord.class, "documentHash");
+            ledger.stub("setup").putStringState("kyc1", VERSION_1.replace("country", "nationality"));
+
+            MigrationProgress progress = schema.migrate(context("tx1"), "", 10, (previous, record) -> {
+                throw new AssertionError("Rewrote " + record.getId());
+            });
+
+            assertThat(progress).isEqualTo(new MigrationProgress("kyc1", 1, 0, true));
+        }
+    }
+}
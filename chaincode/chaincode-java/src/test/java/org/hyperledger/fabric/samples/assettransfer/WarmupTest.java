@@ -0,0 +1,38 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public final class WarmupTest {
+
+    @Test
+    public void runsEveryIterationWithoutFailing() {
+        PrintStream out = System.out;
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(log, true, StandardCharsets.UTF_8));
+        long transactions;
+        try {
+            transactions = Warmup.run(2 * Warmup.SCAN_INTERVAL + 1);
+        } finally {
+            System.setOut(out);
+        }
+
+        assertThat(log.toString(StandardCharsets.UTF_8)).doesNotContain("Warm-up stopped early");
+        // 9 transactions per iteration, 9 more per scan, and a delete once enough assets exist.
+        assertThat(transactions).isEqualTo(33 * 9 + 3 * 9 + 17);
+    }
+
+    @Test
+    public void skipsWhenNoIterationsAreConfigured() {
+        assertThat(Warmup.run(0)).isZero();
+    }
+}
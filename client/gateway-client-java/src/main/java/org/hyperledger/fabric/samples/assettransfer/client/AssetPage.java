@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * One page of a range query over the AssetTransfer contract's size or value index.
+ */
+public final class AssetPage {
+
+    private final List<Asset> assets;
+
+    private final String bookmark;
+
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    /**
+     * @return the bookmark to pass for the next page, or empty if there are no more pages
+     */
+    public String getBookmark() {
+        return bookmark;
+    }
+
+    public AssetPage(@JsonProperty("assets") final List<Asset> assets,
+            @JsonProperty("bookmark") final String bookmark) {
+        this.assets = assets;
+        this.bookmark = bookmark;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        AssetPage other = (AssetPage) obj;
+
+        return Objects.equals(getAssets(), other.getAssets())
+                && Objects.equals(getBookmark(), other.getBookmark());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssets(), getBookmark());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [assets=" + assets
+                + ", bookmark=" + bookmark + "]";
+    }
+}
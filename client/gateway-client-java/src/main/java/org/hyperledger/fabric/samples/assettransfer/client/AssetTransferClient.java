@@ -0,0 +1,107 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.hyperledger.fabric.client.GatewayException;
+
+import com.owlike.genson.GenericType;
+
+/**
+ * Typed client of the {@code basic} AssetTransfer contract.
+ *
+ * <p>Queries are evaluated on a peer and return their result directly. Updates are submitted through the client's
+ * {@link SubmitPipeline} and return a future of their result that completes once the transaction has committed; the
+ * calling thread only waits when the pipeline is full.</p>
+ */
+public final class AssetTransferClient {
+
+    static final String CONTRACT_NAME = "basic";
+
+    private static final GenericType<List<Asset>> ASSET_LIST = new GenericType<List<Asset>>() { };
+
+    private final ContractCalls calls;
+
+    AssetTransferClient(final ContractCalls calls) {
+        this.calls = calls;
+    }
+
+    public CompletableFuture<Asset> createAsset(final String assetID, final String color, final int size,
+            final String owner, final int appraisedValue) {
+        return calls.submit(Asset.class, "CreateAsset", assetID, color, Integer.toString(size), owner,
+                Integer.toString(appraisedValue));
+    }
+
+    public Asset readAsset(final String assetID) throws GatewayException {
+        return calls.evaluate(Asset.class, "ReadAsset", assetID);
+    }
+
+    public CompletableFuture<Asset> updateAsset(final String assetID, final String color, final int size,
+            final String owner, final int appraisedValue) {
+        return calls.submit(Asset.class, "UpdateAsset", assetID, color, Integer.toString(size), owner,
+                Integer.toString(appraisedValue));
+    }
+
+    public CompletableFuture<Void> deleteAsset(final String assetID) {
+        return calls.submit("DeleteAsset", assetID).thenApply(result -> null);
+    }
+
+    public boolean assetExists(final String assetID) throws GatewayException {
+        return Boolean.parseBoolean(ContractCalls.text(calls.evaluate("AssetExists", assetID)));
+    }
+
+    /**
+     * Transfers an asset to a new owner.
+     *
+     * @param assetID the ID of the asset
+     * @param newOwner the new owner
+     * @return the previous owner, once the transfer has committed
+     */
+    public CompletableFuture<String> transferAsset(final String assetID, final String newOwner) {
+        return calls.submit("TransferAsset", assetID, newOwner).thenApply(ContractCalls::text);
+    }
+
+    public OwnerSummary getOwnerSummary(final String owner) throws GatewayException {
+        return calls.evaluate(OwnerSummary.class, "GetOwnerSummary", owner);
+    }
+
+    /**
+     * Returns one page of the assets whose size is in a range, in ascending size order.
+     *
+     * @param minSize the smallest size, inclusive
+     * @param maxSize the largest size, inclusive
+     * @param pageSize the most assets to return
+     * @param bookmark the previous page's bookmark, or empty for the first page
+     * @return the page
+     * @throws GatewayException if the query fails
+     */
+    public AssetPage getAssetsBySizeRange(final int minSize, final int maxSize, final int pageSize,
+            final String bookmark) throws GatewayException {
+        return calls.evaluate(AssetPage.class, "GetAssetsBySizeRange", Integer.toString(minSize),
+                Integer.toString(maxSize), Integer.toString(pageSize), bookmark);
+    }
+
+    /**
+     * Returns one page of the assets whose appraised value is in a range, in ascending value order.
+     *
+     * @param minValue the lowest value, inclusive
+     * @param maxValue the highest value, inclusive
+     * @param pageSize the most assets to return
+     * @param bookmark the previous page's bookmark, or empty for the first page
+     * @return the page
+     * @throws GatewayException if the query fails
+     */
+    public AssetPage getAssetsByValueRange(final int minValue, final int maxValue, final int pageSize,
+            final String bookmark) throws GatewayException {
+        return calls.evaluate(AssetPage.class, "GetAssetsByValueRange", Integer.toString(minValue),
+                Integer.toString(maxValue), Integer.toString(pageSize), bookmark);
+    }
+
+    public List<Asset> getAllAssets() throws GatewayException {
+        return calls.evaluate(ASSET_LIST, "GetAllAssets");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.ChannelCredentials;
+import io.grpc.Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.TlsChannelCredentials;
+
+/**
+ * A fixed set of TLS gRPC connections to one gateway peer, shared by all the gateways and contracts of a client.
+ *
+ * <p>gRPC multiplexes calls over a connection, but each connection is one HTTP/2 stream window and one event loop on
+ * both ends, and the peer caps the concurrent streams per connection; spreading a pipelined client's calls over a few
+ * connections keeps them from queueing behind each other.</p>
+ */
+public final class ChannelPool implements AutoCloseable {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final List<ManagedChannel> channels;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    ChannelPool(final List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("A channel pool needs at least one channel");
+        }
+        this.channels = List.copyOf(channels);
+    }
+
+    /**
+     * Opens connections to a peer.
+     *
+     * @param target the peer's host and port
+     * @param overrideAuthority the host name in the peer's TLS certificate, or null to use the target's
+     * @param tlsCaCertificate the PEM-encoded certificate of the CA that issued the peer's TLS certificate
+     * @param size the number of connections
+     * @return the pool
+     * @throws IOException if the CA certificate cannot be read
+     */
+    public static ChannelPool open(final String target, final String overrideAuthority, final byte[] tlsCaCertificate,
+            final int size) throws IOException {
+        ChannelCredentials credentials = TlsChannelCredentials.newBuilder()
+                .trustManager(new ByteArrayInputStream(tlsCaCertificate))
+                .build();
+
+        List<ManagedChannel> channels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            channels.add(Grpc.newChannelBuilder(target, credentials)
+                    .overrideAuthority(overrideAuthority)
+                    .build());
+        }
+        return new ChannelPool(channels);
+    }
+
+    /**
+     * @return the next connection, in round-robin order
+     */
+    public ManagedChannel next() {
+        return channels.get(Math.floorMod(next.getAndIncrement(), channels.size()));
+    }
+
+    /**
+     * @return all the connections, in round-robin order
+     */
+    public List<ManagedChannel> channels() {
+        return channels;
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    /**
+     * Closes the connections, letting calls in progress finish for a few seconds.
+     */
+    @Override
+    public void close() {
+        for (ManagedChannel channel : channels) {
+            channel.shutdown();
+        }
+        for (ManagedChannel channel : channels) {
+            try {
+                if (!channel.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    channel.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                channel.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link FabricClient}. Start from {@link #defaults()} and override with the {@code with} methods, which
+ * return a modified copy.
+ */
+public final class ClientOptions {
+
+    private final String channelName;
+    private final String chaincodeName;
+    private final int connections;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final Duration retryBaseDelay;
+    private final Duration retryMaxDelay;
+    private final Duration evaluateTimeout;
+    private final Duration endorseTimeout;
+    private final Duration submitTimeout;
+    private final Duration commitStatusTimeout;
+
+    private ClientOptions(final String channelName, final String chaincodeName, final int connections,
+            final int maxInFlight, final int maxAttempts, final Duration retryBaseDelay, final Duration retryMaxDelay,
+            final Duration evaluateTimeout, final Duration endorseTimeout, final Duration submitTimeout,
+            final Duration commitStatusTimeout) {
+        this.channelName = channelName;
+        this.chaincodeName = chaincodeName;
+        this.connections = positive("connections", connections);
+        this.maxInFlight = positive("maxInFlight", maxInFlight);
+        this.maxAttempts = positive("maxAttempts", maxAttempts);
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.evaluateTimeout = evaluateTimeout;
+        this.endorseTimeout = endorseTimeout;
+        this.submitTimeout = submitTimeout;
+        this.commitStatusTimeout = commitStatusTimeout;
+    }
+
+    /**
+     * Returns the default settings: chaincode {@code basic} on {@code mychannel} over 2 connections, up to 64
+     * transactions in flight, and up to 5 attempts per transaction on read conflicts.
+     *
+     * @return the default settings
+     */
+    public static ClientOptions defaults() {
+        return new ClientOptions("mychannel", "basic", 2, 64, 5, Duration.ofMillis(50), Duration.ofSeconds(2),
+                Duration.ofSeconds(5), Duration.ofSeconds(15), Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    private static int positive(final String name, final int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(String.format("%s must be at least 1 but was %d", name, value));
+        }
+        return value;
+    }
+
+    public String getChannelName() {
+        return channelName;
+    }
+
+    public String getChaincodeName() {
+        return chaincodeName;
+    }
+
+    /**
+     * @return the number of gRPC connections to the gateway peer
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return the most submitted transactions that may be awaiting endorsement or commit at once
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return the most times a transaction is submitted when it fails with a read conflict
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the upper bound of the first retry's random delay, which doubles on every further retry
+     */
+    public Duration getRetryBaseDelay() {
+        return retryBaseDelay;
+    }
+
+    public Duration getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    public Duration getEvaluateTimeout() {
+        return evaluateTimeout;
+    }
+
+    public Duration getEndorseTimeout() {
+        return endorseTimeout;
+    }
+
+    public Duration getSubmitTimeout() {
+        return submitTimeout;
+    }
+
+    public Duration getCommitStatusTimeout() {
+        return commitStatusTimeout;
+    }
+
+    public ClientOptions withChannelName(final String newChannelName) {
+        return new ClientOptions(newChannelName, chaincodeName, connections, maxInFlight, maxAttempts, retryBaseDelay,
+                retryMaxDelay, evaluateTimeout, endorseTimeout, submitTimeout, commitStatusTimeout);
+    }
+
+    public ClientOptions withChaincodeName(final String newChaincodeName) {
+        return new ClientOptions(channelName, newChaincodeName, connections, maxInFlight, maxAttempts, retryBaseDelay,
+                retryMaxDelay, evaluateTimeout, endorseTimeout, submitTimeout, commitStatusTimeout);
+    }
+
+    public ClientOptions withConnections(final int newConnections) {
+        return new ClientOptions(channelName, chaincodeName, newConnections, maxInFlight, maxAttempts, retryBaseDelay,
+                retryMaxDelay, evaluateTimeout, endorseTimeout, submitTimeout, commitStatusTimeout);
+    }
+
+    public ClientOptions withMaxInFlight(final int newMaxInFlight) {
+        return new ClientOptions(channelName, chaincodeName, connections, newMaxInFlight, maxAttempts, retryBaseDelay,
+                retryMaxDelay, evaluateTimeout, endorseTimeout, submitTimeout, commitStatusTimeout);
+    }
+
+    public ClientOptions withRetries(final int newMaxAttempts, final Duration newBaseDelay, final Duration newMaxDelay) {
+        return new ClientOptions(channelName, chaincodeName, connections, maxInFlight, newMaxAttempts, newBaseDelay,
+                newMaxDelay, evaluateTimeout, endorseTimeout, submitTimeout, commitStatusTimeout);
+    }
+
+    public ClientOptions withTimeouts(final Duration newEvaluateTimeout, final Duration newEndorseTimeout,
+            final Duration newSubmitTimeout, final Duration newCommitStatusTimeout) {
+        return new ClientOptions(channelName, chaincodeName, connections, maxInFlight, maxAttempts, retryBaseDelay,
+                retryMaxDelay, newEvaluateTimeout, newEndorseTimeout, newSubmitTimeout, newCommitStatusTimeout);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import org.hyperledger.fabric.client.Status;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+/**
+ * Thrown when a transaction was ordered but the peer marked it invalid, after any retries were used up.
+ */
+public final class CommitFailedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String transactionId;
+
+    private final TxValidationCode code;
+
+    private final int attempts;
+
+    public CommitFailedException(final String transactionName, final Status status, final int attempts) {
+        super(String.format("Transaction %s (%s) failed to commit with status %s after %d attempt(s)",
+                transactionName, status.getTransactionId(), status.getCode(), attempts));
+        this.transactionId = status.getTransactionId();
+        this.code = status.getCode();
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return the ID of the last attempt
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public TxValidationCode getCode() {
+        return code;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
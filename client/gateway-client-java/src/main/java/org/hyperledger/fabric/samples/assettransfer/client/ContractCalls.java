@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Proposal;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * Evaluates and submits the transactions of one contract, spreading them over the pooled connections.
+ */
+final class ContractCalls {
+
+    private final Supplier<Contract> contracts;
+
+    private final SubmitPipeline pipeline;
+
+    private final Genson genson = new Genson();
+
+    /**
+     * @param contracts the contract, over the next pooled connection on each call
+     * @param pipeline the pipeline submitted transactions go through
+     */
+    ContractCalls(final Supplier<Contract> contracts, final SubmitPipeline pipeline) {
+        this.contracts = contracts;
+        this.pipeline = pipeline;
+    }
+
+    byte[] evaluate(final String name, final String... args) throws GatewayException {
+        return contracts.get().evaluateTransaction(name, args);
+    }
+
+    <T> T evaluate(final Class<T> type, final String name, final String... args) throws GatewayException {
+        return decode(evaluate(name, args), type);
+    }
+
+    <T> T evaluate(final GenericType<T> type, final String name, final String... args) throws GatewayException {
+        return genson.deserialize(text(evaluate(name, args)), type);
+    }
+
+    CompletableFuture<byte[]> submit(final String name, final Map<String, String> transientData,
+            final String... args) {
+        return pipeline.submit(name, () -> {
+            Proposal.Builder builder = contracts.get().newProposal(name).addArguments(args);
+            transientData.forEach(builder::putTransient);
+            return builder.build();
+        });
+    }
+
+    CompletableFuture<byte[]> submit(final String name, final String... args) {
+        return submit(name, Map.of(), args);
+    }
+
+    <T> CompletableFuture<T> submit(final Class<T> type, final String name, final String... args) {
+        return submit(name, args).thenApply(result -> decode(result, type));
+    }
+
+    <T> T decode(final byte[] result, final Class<T> type) {
+        return genson.deserialize(text(result), type);
+    }
+
+    String encode(final Object value) {
+        return genson.serialize(value);
+    }
+
+    static String text(final byte[] result) {
+        return new String(result, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+import org.hyperledger.fabric.client.identity.Identities;
+import org.hyperledger.fabric.client.identity.Identity;
+import org.hyperledger.fabric.client.identity.Signer;
+import org.hyperledger.fabric.client.identity.Signers;
+import org.hyperledger.fabric.client.identity.X509Identity;
+
+import com.owlike.genson.Genson;
+
+/**
+ * The identity, signing key and peer TLS material a client connects with, as handed out by the crypto service.
+ */
+public final class CryptoMaterial {
+
+    private final String mspId;
+    private final String certificate;
+    private final String privateKey;
+    private final String tlsCaCertificate;
+    private final String peerEndpoint;
+    private final String peerHostName;
+
+    /**
+     * @param mspId the MSP ID of the client's organization
+     * @param certificate the client's PEM-encoded X.509 certificate
+     * @param privateKey the client's PEM-encoded private key
+     * @param tlsCaCertificate the PEM-encoded certificate of the peer's TLS CA
+     * @param peerEndpoint the peer's host and port
+     * @param peerHostName the host name in the peer's TLS certificate
+     */
+    public CryptoMaterial(final String mspId, final String certificate, final String privateKey,
+            final String tlsCaCertificate, final String peerEndpoint, final String peerHostName) {
+        this.mspId = mspId;
+        this.certificate = certificate;
+        this.privateKey = privateKey;
+        this.tlsCaCertificate = tlsCaCertificate;
+        this.peerEndpoint = peerEndpoint;
+        this.peerHostName = peerHostName;
+    }
+
+    /**
+     * Fetches a user's material from the crypto service's {@code /api/crypto/gateway/:orgName/:userName/:peerName}.
+     *
+     * @param cryptoService the crypto service's base URL, such as {@code http://localhost:8080}
+     * @param orgName the organization's domain, such as {@code org1.example.com}
+     * @param userName the user, such as {@code User1}
+     * @param peerName the gateway peer, such as {@code peer0}
+     * @return the material
+     * @throws IOException if the service cannot be reached or returns an error
+     * @throws InterruptedException if interrupted while waiting for the service
+     */
+    @SuppressWarnings("unchecked")
+    public static CryptoMaterial fetch(final URI cryptoService, final String orgName, final String userName,
+            final String peerName) throws IOException, InterruptedException {
+        URI uri = cryptoService.resolve("/api/crypto/gateway/" + encode(orgName) + "/" + encode(userName) + "/"
+                + encode(peerName));
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(String.format("Crypto service returned %d for %s: %s", response.statusCode(), uri,
+                    response.body()));
+        }
+
+        Map<String, Object> body = new Genson().deserialize(response.body(), Map.class);
+        Map<String, Object> identity = (Map<String, Object>) body.get("identity");
+        Map<String, Object> tls = (Map<String, Object>) body.get("tls");
+        return new CryptoMaterial((String) identity.get("mspId"), (String) identity.get("certificate"),
+                (String) identity.get("privateKey"), (String) tls.get("caCert"), (String) tls.get("peerEndpoint"),
+                peerName + "." + orgName);
+    }
+
+    private static String encode(final String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    public String getMspId() {
+        return mspId;
+    }
+
+    public String getTlsCaCertificate() {
+        return tlsCaCertificate;
+    }
+
+    public String getPeerEndpoint() {
+        return peerEndpoint;
+    }
+
+    public String getPeerHostName() {
+        return peerHostName;
+    }
+
+    /**
+     * @return the client identity to transact as
+     * @throws IOException if the certificate cannot be read
+     * @throws GeneralSecurityException if the certificate is invalid
+     */
+    public Identity identity() throws IOException, GeneralSecurityException {
+        return new X509Identity(mspId, Identities.readX509Certificate(new StringReader(certificate)));
+    }
+
+    /**
+     * @return a signer using the client's private key
+     * @throws IOException if the key cannot be read
+     * @throws GeneralSecurityException if the key is invalid
+     */
+    public Signer signer() throws IOException, GeneralSecurityException {
+        return Signers.newPrivateKeySigner(Identities.readPrivateKey(new StringReader(privateKey)));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.client.Gateway;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.client.identity.Identity;
+import org.hyperledger.fabric.client.identity.Signer;
+
+import io.grpc.CallOptions;
+
+/**
+ * Client of the asset transfer chaincode over the Fabric Gateway.
+ *
+ * <p>One gateway is connected over each connection of a {@link ChannelPool}, and calls rotate over them. Submitted
+ * transactions go through a shared {@link SubmitPipeline}:</p>
+ *
+ * <pre>
+ * try (FabricClient client = FabricClient.connect(
+ *         CryptoMaterial.fetch(URI.create("http://localhost:8080"), "org1.example.com", "User1", "peer0"),
+ *         ClientOptions.defaults())) {
+ *     List&lt;CompletableFuture&lt;Asset&gt;&gt; created = new ArrayList&lt;&gt;();
+ *     for (int i = 0; i &lt; 10_000; i++) {
+ *         created.add(client.assets().createAsset("asset" + i, "blue", 5, "Tom", 100));
+ *     }
+ *     CompletableFuture.allOf(created.toArray(new CompletableFuture&lt;?&gt;[0])).join();
+ * }
+ * </pre>
+ */
+public final class FabricClient implements AutoCloseable {
+
+    private final ChannelPool channels;
+    private final List<Gateway> gateways;
+    private final SubmitPipeline pipeline;
+    private final AssetTransferClient assets;
+    private final KYCClient kyc;
+
+    FabricClient(final ChannelPool channels, final List<Gateway> gateways, final ClientOptions options) {
+        this.channels = channels;
+        this.gateways = gateways;
+        this.pipeline = new SubmitPipeline(options);
+
+        List<Network> networks = new ArrayList<>(gateways.size());
+        for (Gateway gateway : gateways) {
+            networks.add(gateway.getNetwork(options.getChannelName()));
+        }
+        this.assets = new AssetTransferClient(new ContractCalls(
+                contracts(networks, options.getChaincodeName(), AssetTransferClient.CONTRACT_NAME), pipeline));
+        this.kyc = new KYCClient(new ContractCalls(
+                contracts(networks, options.getChaincodeName(), KYCClient.CONTRACT_NAME), pipeline));
+    }
+
+    /**
+     * Connects to the gateway peer named in the material.
+     *
+     * @param material the client identity and peer TLS material
+     * @param options the client settings
+     * @return the connected client
+     * @throws IOException if the material cannot be read
+     * @throws GeneralSecurityException if the certificate or key is invalid
+     */
+    public static FabricClient connect(final CryptoMaterial material, final ClientOptions options)
+            throws IOException, GeneralSecurityException {
+        Identity identity = material.identity();
+        Signer signer = material.signer();
+        ChannelPool channels = ChannelPool.open(material.getPeerEndpoint(), material.getPeerHostName(),
+                material.getTlsCaCertificate().getBytes(StandardCharsets.UTF_8), options.getConnections());
+
+        List<Gateway> gateways = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            gateways.add(Gateway.newInstance()
+                    .identity(identity)
+                    .signer(signer)
+                    .connection(channels.next())
+                    .evaluateOptions(deadline(options.getEvaluateTimeout()))
+                    .endorseOptions(deadline(options.getEndorseTimeout()))
+                    .submitOptions(deadline(options.getSubmitTimeout()))
+                    .commitStatusOptions(deadline(options.getCommitStatusTimeout()))
+                    .connect());
+        }
+        return new FabricClient(channels, gateways, options);
+    }
+
+    private static UnaryOperator<CallOptions> deadline(final Duration timeout) {
+        return callOptions -> callOptions.withDeadlineAfter(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Supplier<Contract> contracts(final List<Network> networks, final String chaincodeName,
+            final String contractName) {
+        List<Contract> contracts = new ArrayList<>(networks.size());
+        for (Network network : networks) {
+            contracts.add(network.getContract(chaincodeName, contractName));
+        }
+        AtomicInteger next = new AtomicInteger();
+        return () -> contracts.get(Math.floorMod(next.getAndIncrement(), contracts.size()));
+    }
+
+    public AssetTransferClient assets() {
+        return assets;
+    }
+
+    public KYCClient kyc() {
+        return kyc;
+    }
+
+    /**
+     * Waits for the submitted transactions to complete, then closes the gateways and connections.
+     */
+    @Override
+    public void close() {
+        pipeline.close();
+        for (Gateway gateway : gateways) {
+            gateway.close();
+        }
+        channels.close();
+    }
+}
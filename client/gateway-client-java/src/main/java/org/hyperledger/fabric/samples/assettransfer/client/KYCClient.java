@@ -0,0 +1,92 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.hyperledger.fabric.client.GatewayException;
+
+/**
+ * Typed client of the {@code kyc} contract.
+ *
+ * <p>Queries are evaluated on a peer and return their result directly. Updates are submitted through the client's
+ * {@link SubmitPipeline} and return a future of their result that completes once the transaction has committed.</p>
+ */
+public final class KYCClient {
+
+    static final String CONTRACT_NAME = "kyc";
+
+    static final String EXPIRES_AT_TRANSIENT_KEY = "expiresAt";
+
+    private final ContractCalls calls;
+
+    KYCClient(final ContractCalls calls) {
+        this.calls = calls;
+    }
+
+    public CompletableFuture<KYCRecord> createKYC(final String id, final String fullName, final String dob,
+            final String nationality, final String documentType, final String documentHash) {
+        return calls.submit(KYCRecord.class, "CreateKYC", id, fullName, dob, nationality, documentType, documentHash);
+    }
+
+    /**
+     * Creates a KYC record that expires at the given time.
+     *
+     * @param id the ID of the record
+     * @param fullName legal name of the individual
+     * @param dob date of birth in ISO 8601 format
+     * @param nationality country of citizenship
+     * @param documentType type of document
+     * @param documentHash hash of the uploaded document
+     * @param expiresAt the epoch second at which the record falls due for expiry
+     * @return the created record, once the transaction has committed
+     */
+    public CompletableFuture<KYCRecord> createKYC(final String id, final String fullName, final String dob,
+            final String nationality, final String documentType, final String documentHash, final long expiresAt) {
+        return calls.submit("CreateKYC", expiry(expiresAt), id, fullName, dob, nationality, documentType,
+                documentHash).thenApply(result -> calls.decode(result, KYCRecord.class));
+    }
+
+    /**
+     * Verifies or rejects a KYC record; an approved record expires after the contract's default validity.
+     *
+     * @param id the ID of the record
+     * @param decision {@code APPROVE} or {@code REJECT}
+     * @return the updated record, once the transaction has committed
+     */
+    public CompletableFuture<KYCRecord> verifyKYC(final String id, final String decision) {
+        return calls.submit(KYCRecord.class, "VerifyKYC", id, decision);
+    }
+
+    /**
+     * Verifies or rejects a KYC record; an approved record expires at the given time.
+     *
+     * @param id the ID of the record
+     * @param decision {@code APPROVE} or {@code REJECT}
+     * @param expiresAt the epoch second at which an approved record falls due for expiry
+     * @return the updated record, once the transaction has committed
+     */
+    public CompletableFuture<KYCRecord> verifyKYC(final String id, final String decision, final long expiresAt) {
+        return calls.submit("VerifyKYC", expiry(expiresAt), id, decision)
+                .thenApply(result -> calls.decode(result, KYCRecord.class));
+    }
+
+    public KYCRecord getKYC(final String id) throws GatewayException {
+        return calls.evaluate(KYCRecord.class, "GetKYC", id);
+    }
+
+    public boolean kycExists(final String id) throws GatewayException {
+        return Boolean.parseBoolean(ContractCalls.text(calls.evaluate("KYCExists", id)));
+    }
+
+    public CompletableFuture<KYCRecord> expireKYC(final String id) {
+        return calls.submit(KYCRecord.class, "ExpireKYC", id);
+    }
+
+    private static Map<String, String> expiry(final long expiresAt) {
+        return Map.of(EXPIRES_AT_TRANSIENT_KEY, Long.toString(expiresAt));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.util.Objects;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * A KYC record, as returned by the KYC contract.
+ */
+public final class KYCRecord {
+
+    private final String id;
+
+    private final String fullName;
+
+    private final String dob;
+
+    private final String nationality;
+
+    private final String documentType;
+
+    private final String documentHash;
+
+    private final KYCStatus status;
+
+    private final String issuerMSP;
+
+    private final long updatedAt;
+
+    private final long expiresAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getDob() {
+        return dob;
+    }
+
+    public String getNationality() {
+        return nationality;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getDocumentHash() {
+        return documentHash;
+    }
+
+    public KYCStatus getStatus() {
+        return status;
+    }
+
+    public String getIssuerMSP() {
+        return issuerMSP;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * @return the epoch second at which the record falls due for expiry, or 0 if it never expires
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public KYCRecord(@JsonProperty("id") final String id,
+                     @JsonProperty("fullName") final String fullName,
+                     @JsonProperty("dob") final String dob,
+                     @JsonProperty("nationality") final String nationality,
+                     @JsonProperty("documentType") final String documentType,
+                     @JsonProperty("documentHash") final String documentHash,
+                     @JsonProperty("status") final KYCStatus status,
+                     @JsonProperty("issuerMSP") final String issuerMSP,
+                     @JsonProperty("updatedAt") final long updatedAt,
+                     @JsonProperty("expiresAt") final long expiresAt) {
+        this.id = id;
+        this.fullName = fullName;
+        this.dob = dob;
+        this.nationality = nationality;
+        this.documentType = documentType;
+        this.documentHash = documentHash;
+        this.status = status;
+        this.issuerMSP = issuerMSP;
+        this.updatedAt = updatedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        KYCRecord other = (KYCRecord) obj;
+
+        return Objects.deepEquals(
+                new String[] {getId(), getFullName(), getDob(), getNationality(),
+                        getDocumentType(), getDocumentHash(), getIssuerMSP()},
+                new String[] {other.getId(), other.getFullName(), other.getDob(), other.getNationality(),
+                        other.getDocumentType(), other.getDocumentHash(), other.getIssuerMSP()})
+                && Objects.equals(getStatus(), other.getStatus())
+                && getUpdatedAt() == other.getUpdatedAt()
+                && getExpiresAt() == other.getExpiresAt();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getFullName(), getDob(), getNationality(),
+                getDocumentType(), getDocumentHash(), getStatus(), getIssuerMSP(), getUpdatedAt(), getExpiresAt());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode())
+                + " [id=" + id
+                + ", fullName=" + fullName
+                + ", dob=" + dob
+                + ", nationality=" + nationality
+                + ", documentType=" + documentType
+                + ", documentHash=" + documentHash
+                + ", status=" + status
+                + ", issuerMSP=" + issuerMSP
+                + ", updatedAt=" + updatedAt
+                + ", expiresAt=" + expiresAt + "]";
+    }
+}
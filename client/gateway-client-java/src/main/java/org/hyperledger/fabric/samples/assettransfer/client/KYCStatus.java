@@ -0,0 +1,15 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+/**
+ * The verification status of a KYC record.
+ */
+public enum KYCStatus {
+    PENDING,
+    VERIFIED,
+    REJECTED,
+    EXPIRED
+}
@@ -0,0 +1,68 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.util.Objects;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+/**
+ * The number and total appraised value of the assets held by one owner.
+ */
+public final class OwnerSummary {
+
+    private final String owner;
+
+    private final long assetCount;
+
+    private final long totalValue;
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getAssetCount() {
+        return assetCount;
+    }
+
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    public OwnerSummary(@JsonProperty("owner") final String owner, @JsonProperty("assetCount") final long assetCount,
+            @JsonProperty("totalValue") final long totalValue) {
+        this.owner = owner;
+        this.assetCount = assetCount;
+        this.totalValue = totalValue;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        OwnerSummary other = (OwnerSummary) obj;
+
+        return Objects.equals(getOwner(), other.getOwner())
+                && getAssetCount() == other.getAssetCount()
+                && getTotalValue() == other.getTotalValue();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOwner(), getAssetCount(), getTotalValue());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [owner=" + owner
+                + ", assetCount=" + assetCount + ", totalValue=" + totalValue + "]";
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Proposal;
+import org.hyperledger.fabric.client.Status;
+import org.hyperledger.fabric.client.SubmittedTransaction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+/**
+ * Submits transactions without making the caller wait for them to commit, keeping a bounded number in flight.
+ *
+ * <p>{@link #submit(String, Supplier)} returns as soon as the transaction is admitted; endorsement, ordering and the
+ * wait for its commit status run on the pipeline's threads, so up to {@code maxInFlight} transactions are waiting on
+ * the peer at once instead of one per client thread. Once that many are in flight, {@code submit} blocks until one
+ * completes, which keeps a fast producer from queueing unbounded work.</p>
+ *
+ * <p>A transaction invalidated by a read conflict (another transaction in the same or an earlier block changed a key
+ * it read) is endorsed again from a fresh proposal after a random delay of up to {@code retryBaseDelay} doubled per
+ * retry and capped at {@code retryMaxDelay}, so conflicting clients do not retry in lockstep. It is given up after
+ * {@code maxAttempts} attempts. Other failures are not retried.</p>
+ */
+final class SubmitPipeline implements AutoCloseable {
+
+    static final Set<TxValidationCode> RETRYABLE = EnumSet.of(TxValidationCode.MVCC_READ_CONFLICT,
+            TxValidationCode.PHANTOM_READ_CONFLICT);
+
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long retryBaseNanos;
+    private final long retryMaxNanos;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final LongAdder retries = new LongAdder();
+    private volatile boolean closed;
+
+    SubmitPipeline(final int maxInFlight, final int maxAttempts, final Duration retryBaseDelay,
+            final Duration retryMaxDelay) {
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseNanos = retryBaseDelay.toNanos();
+        this.retryMaxNanos = retryMaxDelay.toNanos();
+        this.inFlight = new Semaphore(maxInFlight);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxInFlight, task -> {
+            Thread thread = new Thread(task, "fabric-submit-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    SubmitPipeline(final ClientOptions options) {
+        this(options.getMaxInFlight(), options.getMaxAttempts(), options.getRetryBaseDelay(),
+                options.getRetryMaxDelay());
+    }
+
+    /**
+     * Submits a transaction, blocking only while the pipeline is full.
+     *
+     * @param transactionName the transaction's name, for error messages
+     * @param proposals builds a new proposal for each attempt
+     * @return the transaction's result once it has committed; fails with {@link CommitFailedException} if it was
+     *         invalidated, with the gateway's exception if it could not be endorsed or submitted, or with
+     *         {@link IllegalStateException} if the pipeline is closed
+     */
+    CompletableFuture<byte[]> submit(final String transactionName, final Supplier<Proposal> proposals) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (closed) {
+            inFlight.release();
+            result.completeExceptionally(new IllegalStateException("Submit pipeline is closed"));
+            return result;
+        }
+
+        result.whenComplete((bytes, failure) -> inFlight.release());
+        dispatch(transactionName, proposals, 1, result);
+        return result;
+    }
+
+    private void dispatch(final String transactionName, final Supplier<Proposal> proposals, final int attempt,
+            final CompletableFuture<byte[]> result) {
+        try {
+            executor.execute(() -> attempt(transactionName, proposals, attempt, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void attempt(final String transactionName, final Supplier<Proposal> proposals, final int attempt,
+            final CompletableFuture<byte[]> result) {
+        try {
+            SubmittedTransaction submitted = proposals.get().endorse().submitAsync();
+            Status status = submitted.getStatus();
+
+            if (status.isSuccessful()) {
+                result.complete(submitted.getResult());
+            } else if (RETRYABLE.contains(status.getCode()) && attempt < maxAttempts) {
+                retries.increment();
+                // Wait off the pipeline's threads, so other transactions keep moving during the back-off.
+                CompletableFuture.delayedExecutor(backoff(attempt), TimeUnit.NANOSECONDS)
+                        .execute(() -> dispatch(transactionName, proposals, attempt + 1, result));
+            } else {
+                result.completeExceptionally(new CommitFailedException(transactionName, status, attempt));
+            }
+        } catch (GatewayException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Returns the delay before the given retry: uniformly random up to an exponentially growing bound.
+     *
+     * @param retry the number of attempts made so far
+     * @return the delay in nanoseconds
+     */
+    long backoff(final int retry) {
+        long bound = retryBaseNanos << Math.min(retry - 1, 30);
+        if (bound <= 0 || bound > retryMaxNanos) {
+            bound = retryMaxNanos;
+        }
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * @return the number of read-conflict retries since the pipeline was created
+     */
+    long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return the number of transactions currently in flight
+     */
+    int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Waits for the transactions in flight, including their retries, and stops the pipeline's threads. Transactions
+     * submitted after the pipeline is closed, or still waiting for room when it closes, fail straight away.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.acquireUninterruptibly(maxInFlight);
+        executor.shutdown();
+        // Hand the permits back so submitters blocked on a full pipeline wake up and see that it is closed.
+        inFlight.release(maxInFlight);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.grpc.ManagedChannel;
+import org.junit.jupiter.api.Test;
+
+public final class ChannelPoolTest {
+
+    @Test
+    public void handsOutChannelsInRoundRobinOrder() {
+        ManagedChannel first = mock(ManagedChannel.class);
+        ManagedChannel second = mock(ManagedChannel.class);
+        ChannelPool pool = new ChannelPool(List.of(first, second));
+
+        assertThat(List.of(pool.next(), pool.next(), pool.next())).containsExactly(first, second, first);
+        assertThat(pool.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void closesEveryChannelAndForcesThoseThatDoNotDrain() throws Exception {
+        ManagedChannel drains = mock(ManagedChannel.class);
+        ManagedChannel hangs = mock(ManagedChannel.class);
+        when(drains.awaitTermination(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(true);
+        when(hangs.awaitTermination(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(false);
+
+        new ChannelPool(List.of(drains, hangs)).close();
+
+        verify(drains).shutdown();
+        verify(drains, never()).shutdownNow();
+        verify(hangs).shutdown();
+        verify(hangs).shutdownNow();
+    }
+
+    @Test
+    public void needsAtLeastOneChannel() {
+        assertThat(catchThrowable(() -> new ChannelPool(List.of()))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rejectsInvalidOptions() {
+        assertThat(catchThrowable(() -> ClientOptions.defaults().withConnections(0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("connections must be at least 1 but was 0");
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class ContractClientsTest {
+
+    private static final String ASSET_JSON =
+            "{\"appraisedValue\":300,\"assetID\":\"asset1\",\"color\":\"blue\",\"owner\":\"Tomoko\",\"size\":5}";
+
+    private static final String KYC_JSON = "{\"documentHash\":\"hash1\",\"documentType\":\"Passport\","
+            + "\"dob\":\"1990-01-01\",\"expiresAt\":1900000000,\"fullName\":\"Jane Doe\",\"id\":\"kyc1\","
+            + "\"issuerMSP\":\"Org1MSP\",\"nationality\":\"RW\",\"status\":\"VERIFIED\",\"updatedAt\":1700000000}";
+
+    private final StandInGateway gateway = new StandInGateway();
+
+    private final SubmitPipeline pipeline = new SubmitPipeline(8, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+
+    private final ContractCalls calls = new ContractCalls(gateway::contract, pipeline);
+
+    @AfterEach
+    public void closePipeline() {
+        pipeline.close();
+    }
+
+    @Nested
+    class AssetTransfer {
+
+        private final AssetTransferClient assets = new AssetTransferClient(calls);
+
+        @Test
+        public void createsAssetsWithTheirArgumentsAsText() {
+            gateway.on("CreateAsset", args -> ASSET_JSON);
+
+            Asset asset = assets.createAsset("asset1", "blue", 5, "Tomoko", 300).join();
+
+            assertThat(asset).isEqualTo(new Asset("asset1", "blue", 5, "Tomoko", 300));
+            assertThat(gateway.endorsed).hasSize(1);
+            assertThat(gateway.endorsed.get(0).args).containsExactly("asset1", "blue", "5", "Tomoko", "300");
+        }
+
+        @Test
+        public void returnsThePreviousOwnerOfATransfer() {
+            gateway.on("TransferAsset", args -> "Tomoko");
+
+            assertThat(assets.transferAsset("asset1", "Max").join()).isEqualTo("Tomoko");
+            assertThat(gateway.endorsed.get(0).args).containsExactly("asset1", "Max");
+        }
+
+        @Test
+        public void completesDeletesWithoutAResult() {
+            gateway.on("DeleteAsset", args -> "");
+
+            assertThat(assets.deleteAsset("asset1").join()).isNull();
+        }
+
+        @Test
+        public void decodesQueryResults() throws Exception {
+            gateway.on("ReadAsset", args -> ASSET_JSON)
+                    .on("AssetExists", args -> "true")
+                    .on("GetAllAssets", args -> "[" + ASSET_JSON + "]")
+                    .on("GetOwnerSummary", args -> "{\"assetCount\":2,\"owner\":\"Tomoko\",\"totalValue\":600}")
+                    .on("GetAssetsByValueRange", args -> "{\"assets\":[" + ASSET_JSON + "],\"bookmark\":\"next\"}");
+            Asset expected = new Asset("asset1", "blue", 5, "Tomoko", 300);
+
+            assertThat(assets.readAsset("asset1")).isEqualTo(expected);
+            assertThat(assets.assetExists("asset1")).isTrue();
+            assertThat(assets.getAllAssets()).containsExactly(expected);
+            assertThat(assets.getOwnerSummary("Tomoko")).isEqualTo(new OwnerSummary("Tomoko", 2, 600));
+            assertThat(assets.getAssetsByValueRange(100, 500, 10, "")).isEqualTo(new AssetPage(List.of(expected), "next"));
+            assertThat(gateway.endorsed).isEmpty();
+        }
+    }
+
+    @Nested
+    class KYC {
+
+        private final KYCClient kyc = new KYCClient(calls);
+
+        @Test
+        public void passesTheExpiryAsTransientData() {
+            gateway.on("VerifyKYC", args -> KYC_JSON);
+
+            KYCRecord record = kyc.verifyKYC("kyc1", "APPROVE", 1900000000L).join();
+
+            assertThat(record.getStatus()).isEqualTo(KYCStatus.VERIFIED);
+            assertThat(record.getExpiresAt()).isEqualTo(1900000000L);
+            assertThat(gateway.endorsed.get(0).args).containsExactly("kyc1", "APPROVE");
+            assertThat(gateway.endorsed.get(0).transientData).isEqualTo(Map.of("expiresAt", "1900000000"));
+        }
+
+        @Test
+        public void sendsNoTransientDataByDefault() {
+            gateway.on("CreateKYC", args -> KYC_JSON);
+
+            assertThat(kyc.createKYC("kyc1", "Jane Doe", "1990-01-01", "RW", "Passport", "hash1").join().getId())
+                    .isEqualTo("kyc1");
+            assertThat(gateway.endorsed.get(0).args)
+                    .containsExactly("kyc1", "Jane Doe", "1990-01-01", "RW", "Passport", "hash1");
+            assertThat(gateway.endorsed.get(0).transientData).isEmpty();
+        }
+
+        @Test
+        public void retriesConflictingVerifications() {
+            gateway.on("VerifyKYC", args -> KYC_JSON).conflicts("VerifyKYC", 1);
+
+            assertThat(kyc.verifyKYC("kyc1", "APPROVE").join().getId()).isEqualTo("kyc1");
+            assertThat(gateway.endorsed).hasSize(2);
+            assertThat(pipeline.retries()).isEqualTo(1);
+        }
+
+        @Test
+        public void decodesQueryResults() throws Exception {
+            gateway.on("GetKYC", args -> KYC_JSON).on("KYCExists", args -> "false");
+
+            assertThat(kyc.getKYC("kyc1").getFullName()).isEqualTo("Jane Doe");
+            assertThat(kyc.kycExists("kyc2")).isFalse();
+        }
+    }
+}
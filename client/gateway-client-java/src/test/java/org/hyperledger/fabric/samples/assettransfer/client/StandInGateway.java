@@ -0,0 +1,208 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.client.Proposal;
+import org.hyperledger.fabric.client.Status;
+import org.hyperledger.fabric.client.SubmittedTransaction;
+import org.hyperledger.fabric.client.Transaction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+/**
+ * Stand-in for a gateway peer: answers evaluations and endorsements from per-transaction handlers, and reports commit
+ * statuses after an optional delay or gate, with scripted read conflicts and validation failures.
+ */
+final class StandInGateway {
+
+    /**
+     * A proposal as the gateway received it.
+     */
+    static final class Invocation {
+
+        final String transactionId;
+        final String name;
+        final List<String> args;
+        final Map<String, String> transientData;
+
+        Invocation(final String transactionId, final String name, final List<String> args,
+                final Map<String, String> transientData) {
+            this.transactionId = transactionId;
+            this.name = name;
+            this.args = args;
+            this.transientData = transientData;
+        }
+    }
+
+    private final Map<String, Function<List<String>, String>> handlers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> conflicts = new ConcurrentHashMap<>();
+    private final Map<String, TxValidationCode> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger transactionIds = new AtomicInteger();
+    private final AtomicInteger awaitingCommit = new AtomicInteger();
+    private final AtomicInteger maxAwaitingCommit = new AtomicInteger();
+
+    final List<Invocation> endorsed = new CopyOnWriteArrayList<>();
+
+    private volatile Duration commitLatency = Duration.ZERO;
+    private volatile CountDownLatch commitGate = new CountDownLatch(0);
+
+    StandInGateway on(final String name, final Function<List<String>, String> handler) {
+        handlers.put(name, handler);
+        return this;
+    }
+
+    /**
+     * Invalidates the next commits of a transaction with a read conflict.
+     */
+    StandInGateway conflicts(final String name, final int times) {
+        conflicts.put(name, new AtomicInteger(times));
+        return this;
+    }
+
+    /**
+     * Invalidates every commit of a transaction with the given code.
+     */
+    StandInGateway fails(final String name, final TxValidationCode code) {
+        failures.put(name, code);
+        return this;
+    }
+
+    StandInGateway commitLatency(final Duration latency) {
+        commitLatency = latency;
+        return this;
+    }
+
+    /**
+     * Holds commit statuses back until the returned latch is counted down.
+     */
+    CountDownLatch holdCommits() {
+        CountDownLatch gate = new CountDownLatch(1);
+        commitGate = gate;
+        return gate;
+    }
+
+    int maxAwaitingCommit() {
+        return maxAwaitingCommit.get();
+    }
+
+    Contract contract() {
+        Contract contract = mock(Contract.class);
+        try {
+            when(contract.evaluateTransaction(anyString(), any(String[].class))).thenAnswer(invocation -> {
+                Object[] arguments = invocation.getArguments();
+                return bytes(handle((String) arguments[0], strings(arguments, 1)));
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        when(contract.newProposal(anyString())).thenAnswer(invocation -> proposal(invocation.getArgument(0)));
+        return contract;
+    }
+
+    private Proposal.Builder proposal(final String name) {
+        Proposal.Builder builder = mock(Proposal.Builder.class);
+        AtomicReference<List<String>> args = new AtomicReference<>(List.of());
+        Map<String, String> transientData = new HashMap<>();
+        when(builder.addArguments(any(String[].class))).thenAnswer(invocation -> {
+            args.set(strings(invocation.getArguments(), 0));
+            return builder;
+        });
+        when(builder.putTransient(anyString(), anyString())).thenAnswer(invocation -> {
+            transientData.put(invocation.getArgument(0), invocation.getArgument(1));
+            return builder;
+        });
+        when(builder.build()).thenAnswer(invocation -> {
+            String transactionId = "tx" + transactionIds.incrementAndGet();
+            Proposal proposal = mock(Proposal.class);
+            when(proposal.getTransactionId()).thenReturn(transactionId);
+            when(proposal.endorse()).thenAnswer(endorse -> {
+                Invocation endorsement = new Invocation(transactionId, name, args.get(), Map.copyOf(transientData));
+                endorsed.add(endorsement);
+                return transaction(endorsement, handle(name, endorsement.args));
+            });
+            return proposal;
+        });
+        return builder;
+    }
+
+    private Transaction transaction(final Invocation endorsement, final String result) throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getTransactionId()).thenReturn(endorsement.transactionId);
+        when(transaction.getResult()).thenReturn(bytes(result));
+
+        SubmittedTransaction submitted = mock(SubmittedTransaction.class);
+        when(submitted.getTransactionId()).thenReturn(endorsement.transactionId);
+        when(submitted.getResult()).thenReturn(bytes(result));
+        when(submitted.getStatus()).thenAnswer(invocation -> commit(endorsement));
+        when(transaction.submitAsync()).thenReturn(submitted);
+        return transaction;
+    }
+
+    private Status commit(final Invocation endorsement) throws InterruptedException {
+        int waiting = awaitingCommit.incrementAndGet();
+        maxAwaitingCommit.accumulateAndGet(waiting, Math::max);
+        try {
+            commitGate.await();
+            Thread.sleep(commitLatency.toMillis());
+        } finally {
+            awaitingCommit.decrementAndGet();
+        }
+
+        TxValidationCode code = failures.getOrDefault(endorsement.name, TxValidationCode.VALID);
+        AtomicInteger remainingConflicts = conflicts.get(endorsement.name);
+        if (remainingConflicts != null && remainingConflicts.getAndDecrement() > 0) {
+            code = TxValidationCode.MVCC_READ_CONFLICT;
+        }
+
+        Status status = mock(Status.class);
+        when(status.getTransactionId()).thenReturn(endorsement.transactionId);
+        when(status.getCode()).thenReturn(code);
+        when(status.isSuccessful()).thenReturn(code == TxValidationCode.VALID);
+        return status;
+    }
+
+    private String handle(final String name, final List<String> args) {
+        Function<List<String>, String> handler = handlers.get(name);
+        if (handler == null) {
+            throw new IllegalStateException("No stand-in handler for " + name);
+        }
+        return handler.apply(args);
+    }
+
+    // Mockito may pass varargs either expanded or as the array itself.
+    private static List<String> strings(final Object[] arguments, final int from) {
+        List<String> strings = new ArrayList<>();
+        for (int i = from; i < arguments.length; i++) {
+            if (arguments[i] instanceof String[]) {
+                strings.addAll(List.of((String[]) arguments[i]));
+            } else {
+                strings.add((String) arguments[i]);
+            }
+        }
+        return strings;
+    }
+
+    private static byte[] bytes(final String result) {
+        return result.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class SubmitPipelineTest {
+
+    private final StandInGateway gateway = new StandInGateway()
+            .on("Echo", args -> String.join(",", args))
+            .on("Fail", args -> {
+                throw new IllegalStateException("endorsement failed");
+            });
+
+    private final Contract contract = gateway.contract();
+
+    private static SubmitPipeline pipeline(final int maxInFlight, final int maxAttempts) {
+        return new SubmitPipeline(maxInFlight, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    private CompletableFuture<String> submit(final SubmitPipeline pipeline, final String name, final String... args) {
+        return pipeline.submit(name, () -> contract.newProposal(name).addArguments(args).build())
+                .thenApply(result -> new String(result, StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    class Pipelining {
+
+        @Test
+        public void returnsBeforeTheTransactionCommits() throws Exception {
+            try (SubmitPipeline pipeline = pipeline(4, 1)) {
+                CountDownLatch commits = gateway.holdCommits();
+
+                CompletableFuture<String> result = submit(pipeline, "Echo", "asset1");
+
+                assertThat(result).isNotDone();
+                assertThat(pipeline.inFlight()).isEqualTo(1);
+
+                commits.countDown();
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("asset1");
+            }
+        }
+
+        @Test
+        public void waitsForSeveralCommitsAtOnceButNoMoreThanTheLimit() {
+            gateway.commitLatency(Duration.ofMillis(20));
+            List<CompletableFuture<String>> results = new ArrayList<>();
+
+            try (SubmitPipeline pipeline = pipeline(4, 1)) {
+                for (int i = 0; i < 40; i++) {
+                    results.add(submit(pipeline, "Echo", "asset" + i));
+                    assertThat(pipeline.inFlight()).isLessThanOrEqualTo(4);
+                }
+                CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+            }
+
+            assertThat(results.stream().map(CompletableFuture::join).collect(Collectors.toList()))
+                    .hasSize(40).startsWith("asset0", "asset1").endsWith("asset39");
+            assertThat(gateway.maxAwaitingCommit()).isBetween(2, 4);
+        }
+
+        @Test
+        public void closeWaitsForTransactionsInFlight() {
+            gateway.commitLatency(Duration.ofMillis(50));
+            CompletableFuture<String> result;
+
+            try (SubmitPipeline pipeline = pipeline(2, 1)) {
+                result = submit(pipeline, "Echo", "asset1");
+            }
+
+            assertThat(result).isCompletedWithValue("asset1");
+        }
+
+        @Test
+        public void failsSubmitsAfterClose() {
+            SubmitPipeline pipeline = pipeline(2, 1);
+            pipeline.close();
+
+            CompletableFuture<String> result = submit(pipeline, "Echo", "asset1");
+
+            Throwable thrown = catchThrowable(result::join);
+            assertThat(thrown).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(pipeline.inFlight()).isZero();
+        }
+
+        @Test
+        public void failsSubmitsWaitingForRoomWhenClosed() throws Exception {
+            CountDownLatch commits = gateway.holdCommits();
+            SubmitPipeline pipeline = pipeline(1, 1);
+            CompletableFuture<String> first = submit(pipeline, "Echo", "asset1");
+            CompletableFuture<CompletableFuture<String>> second = CompletableFuture.supplyAsync(
+                    () -> submit(pipeline, "Echo", "asset2"));
+
+            CompletableFuture<Void> closed = CompletableFuture.runAsync(pipeline::close);
+            // Give the close time to start before the first commit makes room in the pipeline.
+            Thread.sleep(100);
+            commits.countDown();
+            closed.get(5, TimeUnit.SECONDS);
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("asset1");
+            Throwable thrown = catchThrowable(() -> second.get(5, TimeUnit.SECONDS).join());
+            assertThat(thrown).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    class Retries {
+
+        @Test
+        public void retriesReadConflictsWithAFreshProposal() {
+            gateway.conflicts("Echo", 2);
+
+            try (SubmitPipeline pipeline = pipeline(4, 5)) {
+                assertThat(submit(pipeline, "Echo", "asset1").join()).isEqualTo("asset1");
+                assertThat(pipeline.retries()).isEqualTo(2);
+            }
+
+            Set<String> transactionIds = new HashSet<>();
+            gateway.endorsed.forEach(invocation -> transactionIds.add(invocation.transactionId));
+            assertThat(gateway.endorsed).hasSize(3);
+            assertThat(transactionIds).hasSize(3);
+        }
+
+        @Test
+        public void givesUpAfterTheLastAttempt() {
+            gateway.conflicts("Echo", 10);
+
+            Throwable thrown;
+            try (SubmitPipeline pipeline = pipeline(4, 3)) {
+                thrown = catchThrowable(() -> submit(pipeline, "Echo", "asset1").join());
+            }
+
+            assertThat(thrown).isInstanceOf(CompletionException.class);
+            assertThat(thrown.getCause()).isInstanceOf(CommitFailedException.class)
+                    .hasMessageContaining("MVCC_READ_CONFLICT after 3 attempt(s)");
+            CommitFailedException failure = (CommitFailedException) thrown.getCause();
+            assertThat(failure.getCode()).isEqualTo(TxValidationCode.MVCC_READ_CONFLICT);
+            assertThat(failure.getAttempts()).isEqualTo(3);
+            assertThat(failure.getTransactionId()).isEqualTo(gateway.endorsed.get(2).transactionId);
+        }
+
+        @Test
+        public void doesNotRetryOtherValidationFailures() {
+            gateway.fails("Echo", TxValidationCode.ENDORSEMENT_POLICY_FAILURE);
+
+            Throwable thrown;
+            try (SubmitPipeline pipeline = pipeline(4, 5)) {
+                thrown = catchThrowable(() -> submit(pipeline, "Echo", "asset1").join());
+                assertThat(pipeline.retries()).isZero();
+            }
+
+            assertThat(thrown.getCause()).isInstanceOf(CommitFailedException.class);
+            assertThat(((CommitFailedException) thrown.getCause()).getCode())
+                    .isEqualTo(TxValidationCode.ENDORSEMENT_POLICY_FAILURE);
+            assertThat(gateway.endorsed).hasSize(1);
+        }
+
+        @Test
+        public void doesNotRetryEndorsementFailures() {
+            Throwable thrown;
+            try (SubmitPipeline pipeline = pipeline(4, 5)) {
+                thrown = catchThrowable(() -> submit(pipeline, "Fail").join());
+                assertThat(pipeline.retries()).isZero();
+            }
+
+            assertThat(thrown.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("endorsement failed");
+        }
+
+        @Test
+        public void backsOffRandomlyUpToADoublingCap() {
+            SubmitPipeline pipeline = new SubmitPipeline(1, 10, Duration.ofMillis(10), Duration.ofMillis(100));
+
+            Set<Long> delays = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                assertThat(pipeline.backoff(1)).isBetween(0L, Duration.ofMillis(10).toNanos());
+                assertThat(pipeline.backoff(3)).isBetween(0L, Duration.ofMillis(40).toNanos());
+                assertThat(pipeline.backoff(40)).isBetween(0L, Duration.ofMillis(100).toNanos());
+                delays.add(pipeline.backoff(2));
+            }
+            assertThat(delays).hasSizeGreaterThan(1);
+            pipeline.close();
+        }
+    }
+}
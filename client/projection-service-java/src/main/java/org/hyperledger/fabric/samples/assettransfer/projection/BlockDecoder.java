@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Extracts a chaincode's key writes and events from a block.
+ *
+ * <p>The projection is built from the write sets rather than from the chaincode events alone: a transaction can set
+ * only one event, the asset transactions set none, and bulk loads write many records under a single summary event. The
+ * write sets hold every key a transaction changed. Transactions the peer marked invalid in the block's transaction
+ * filter are skipped, as their writes never reached the ledger.</p>
+ */
+final class BlockDecoder {
+
+    private BlockDecoder() {
+    }
+
+    /**
+     * Decodes the writes and events of one chaincode in a block.
+     *
+     * @param block the block, as delivered by the peer
+     * @param namespace the chaincode's name
+     * @return the block's changes in the chaincode's namespace
+     * @throws InvalidProtocolBufferException if the block is malformed
+     */
+    static ProjectedBlock decode(final Block block, final String namespace) throws InvalidProtocolBufferException {
+        List<StateWrite> writes = new ArrayList<>();
+        List<ContractEvent> events = new ArrayList<>();
+        ByteString validation = transactionFilter(block);
+
+        for (int i = 0; i < block.getData().getDataCount(); i++) {
+            if (i < validation.size() && validation.byteAt(i) != TxValidationCode.VALID_VALUE) {
+                continue;
+            }
+
+            Payload payload = Payload.parseFrom(Envelope.parseFrom(block.getData().getData(i)).getPayload());
+            ChannelHeader header = ChannelHeader.parseFrom(payload.getHeader().getChannelHeader());
+            if (header.getType() != HeaderType.ENDORSER_TRANSACTION_VALUE) {
+                continue;
+            }
+
+            for (TransactionAction action : Transaction.parseFrom(payload.getData()).getActionsList()) {
+                ChaincodeAction chaincodeAction = chaincodeAction(action);
+                if (!namespace.equals(chaincodeAction.getChaincodeId().getName())) {
+                    continue;
+                }
+
+                for (NsReadWriteSet set : TxReadWriteSet.parseFrom(chaincodeAction.getResults()).getNsRwsetList()) {
+                    if (!namespace.equals(set.getNamespace())) {
+                        continue;
+                    }
+                    for (KVWrite write : KVRWSet.parseFrom(set.getRwset()).getWritesList()) {
+                        writes.add(new StateWrite(header.getTxId(), write.getKey(),
+                                write.getIsDelete() ? null : write.getValue().toByteArray()));
+                    }
+                }
+
+                ChaincodeEvent event = ChaincodeEvent.parseFrom(chaincodeAction.getEvents());
+                if (!event.getEventName().isEmpty()) {
+                    events.add(new ContractEvent(header.getTxId(), event.getEventName(),
+                            event.getPayload().toByteArray()));
+                }
+            }
+        }
+
+        return new ProjectedBlock(block.getHeader().getNumber(), writes, events);
+    }
+
+    private static ByteString transactionFilter(final Block block) {
+        if (block.getMetadata().getMetadataCount() <= BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE) {
+            return ByteString.EMPTY;
+        }
+        return block.getMetadata().getMetadata(BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE);
+    }
+
+    private static ChaincodeAction chaincodeAction(final TransactionAction action)
+            throws InvalidProtocolBufferException {
+        ChaincodeActionPayload actionPayload = ChaincodeActionPayload.parseFrom(action.getPayload());
+        ProposalResponsePayload response = ProposalResponsePayload.parseFrom(
+                actionPayload.getAction().getProposalResponsePayload());
+        return ChaincodeAction.parseFrom(response.getExtension());
+    }
+}
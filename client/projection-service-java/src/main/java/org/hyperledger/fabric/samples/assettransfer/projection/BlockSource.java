@@ -0,0 +1,22 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+/**
+ * Where the projector reads blocks from: a peer's block event stream, or a recording of one.
+ */
+interface BlockSource {
+
+    /**
+     * Opens a stream of blocks in order, starting at the given block.
+     *
+     * @param startBlock the number of the first block wanted
+     * @return the blocks; a live source waits for new blocks rather than ending
+     */
+    CloseableIterator<Block> blocks(long startBlock);
+}
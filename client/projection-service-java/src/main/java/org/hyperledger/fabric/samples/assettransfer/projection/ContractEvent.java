@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+/**
+ * A chaincode event set by a valid transaction, such as {@code KYCCreated}.
+ */
+final class ContractEvent {
+
+    private final String transactionId;
+
+    private final String name;
+
+    private final byte[] payload;
+
+    ContractEvent(final String transactionId, final String name, final byte[] payload) {
+        this.transactionId = transactionId;
+        this.name = name;
+        this.payload = payload;
+    }
+
+    String getTransactionId() {
+        return transactionId;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.protos.common.Block;
+
+/**
+ * Block events from the gateway peer, which include each transaction's read-write sets and validation code.
+ */
+final class GatewayBlockSource implements BlockSource {
+
+    private final Network network;
+
+    GatewayBlockSource(final Network network) {
+        this.network = network;
+    }
+
+    @Override
+    public CloseableIterator<Block> blocks(final long startBlock) {
+        return network.newBlockEventsRequest()
+                .startBlock(startBlock)
+                .build()
+                .getEvents();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Durable home of the read model: an append-only log of record writes in a memory-mapped file, with the checkpoint of
+ * the next block to project in its header.
+ *
+ * <p>Writes are appended to the mapped region as blocks are projected, and the file grows by remapping it at double
+ * the size. The header is only advanced on {@link #sync()}, after the appended records have been forced to disk, so a
+ * crash never leaves a checkpoint ahead of the records it covers: records past the header's end are discarded on
+ * reopening and their blocks are projected again. Syncs happen at most every {@link #SYNC_INTERVAL_MILLIS}, so a
+ * catch-up from block zero is not limited by the disk's flush rate.</p>
+ *
+ * <p>On opening, the log is replayed to rebuild the in-memory model, and rewritten with only the latest value of each
+ * live key once superseded records make up most of it.</p>
+ *
+ * <pre>
+ * header:  int magic, int version, long end, long nextBlock
+ * record:  int keyLength, int valueLength (-1 for a deletion), key bytes, value bytes
+ * </pre>
+ */
+final class MappedStore implements AutoCloseable {
+
+    static final int MAGIC = 0x41545052;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 24;
+
+    static final int INITIAL_SIZE = 1 << 20;
+
+    static final long SYNC_INTERVAL_MILLIS = 1000;
+
+    private static final int END_OFFSET = 8;
+
+    private static final int NEXT_BLOCK_OFFSET = 16;
+
+    private static final int DELETED = -1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;
+    private volatile long nextBlock;
+    private long records;
+    private long lastSync = System.currentTimeMillis();
+
+    private MappedStore(final Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_SIZE));
+
+        if (created) {
+            buffer.putInt(0, MAGIC).putInt(4, VERSION);
+            end = HEADER_SIZE;
+            nextBlock = 0;
+            writeHeader();
+            buffer.force();
+        } else {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException(String.format("%s is not a version %d projection store", path, VERSION));
+            }
+            end = (int) buffer.getLong(END_OFFSET);
+            nextBlock = buffer.getLong(NEXT_BLOCK_OFFSET);
+        }
+    }
+
+    /**
+     * Opens a store, creating it empty if it does not exist, and replays its records.
+     *
+     * @param path the store's file
+     * @param records receives the latest value of each key, or null for deleted keys, in the order last written
+     * @return the open store
+     * @throws IOException if the file cannot be opened or is not a store
+     */
+    static MappedStore open(final Path path, final BiConsumer<String, byte[]> records) throws IOException {
+        MappedStore store = new MappedStore(path);
+        Map<String, byte[]> latest = store.latest();
+
+        long live = latest.values().stream().filter(value -> value != null).count();
+        if (store.records > 2 * live + 1024) {
+            long checkpoint = store.nextBlock;
+            store.close();
+            compact(path, latest, checkpoint);
+            store = new MappedStore(path);
+            latest = store.latest();
+        }
+
+        latest.forEach(records);
+        return store;
+    }
+
+    private Map<String, byte[]> latest() {
+        Map<String, byte[]> latest = new LinkedHashMap<>();
+        records = 0;
+        int position = HEADER_SIZE;
+        while (position < end) {
+            int keyLength = buffer.getInt(position);
+            int valueLength = buffer.getInt(position + 4);
+            String key = new String(bytes(position + 8, keyLength), StandardCharsets.UTF_8);
+            byte[] value = valueLength == DELETED ? null : bytes(position + 8 + keyLength, valueLength);
+
+            // Re-inserting moves the key to the end, keeping the map in the order keys were last written.
+            latest.remove(key);
+            latest.put(key, value);
+            records++;
+            position += 8 + keyLength + Math.max(valueLength, 0);
+        }
+        return latest;
+    }
+
+    private byte[] bytes(final int position, final int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static void compact(final Path path, final Map<String, byte[]> latest, final long checkpoint)
+            throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        try (MappedStore store = new MappedStore(compacted)) {
+            for (Map.Entry<String, byte[]> record : latest.entrySet()) {
+                if (record.getValue() != null) {
+                    store.append(record.getKey(), record.getValue());
+                }
+            }
+            store.commit(checkpoint);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes a store, so the next one opened at the path starts from block zero.
+     *
+     * @param path the store's file
+     * @throws IOException if the file cannot be deleted
+     */
+    static void delete(final Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * @return the number of the next block to project
+     */
+    long nextBlock() {
+        return nextBlock;
+    }
+
+    /**
+     * Appends the record writes of a block; they become durable with the checkpoint that follows them.
+     *
+     * @param writes the block's writes
+     * @throws IOException if the file cannot grow
+     */
+    void append(final List<StateWrite> writes) throws IOException {
+        for (StateWrite write : writes) {
+            if (ReadModel.isRecordKey(write.getKey())) {
+                append(write.getKey(), write.getValue());
+            }
+        }
+    }
+
+    private void append(final String key, final byte[] value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value == null ? DELETED : value.length;
+        ensureCapacity(8L + keyBytes.length + Math.max(valueLength, 0));
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(end);
+        view.putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            view.put(value);
+        }
+        end += 8 + keyBytes.length + Math.max(valueLength, 0);
+    }
+
+    private void ensureCapacity(final long length) throws IOException {
+        long required = end + length;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Projection store %s is full", path));
+        }
+        long size = Math.min(Integer.MAX_VALUE, Math.max(required, 2L * buffer.capacity()));
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Records that every block before {@code next} has been appended, syncing if the last sync is old enough.
+     *
+     * @param next the number of the next block to project
+     */
+    void commit(final long next) {
+        nextBlock = next;
+        if (System.currentTimeMillis() - lastSync >= SYNC_INTERVAL_MILLIS) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the appended records to disk, then advances the header's checkpoint over them.
+     */
+    void sync() {
+        buffer.force();
+        writeHeader();
+        buffer.force();
+        lastSync = System.currentTimeMillis();
+    }
+
+    private void writeHeader() {
+        buffer.putLong(END_OFFSET, end).putLong(NEXT_BLOCK_OFFSET, nextBlock);
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+}
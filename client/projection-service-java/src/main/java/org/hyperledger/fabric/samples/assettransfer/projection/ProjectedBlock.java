@@ -0,0 +1,37 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.util.List;
+
+/**
+ * What one block changed in the chaincode's namespace, in transaction order.
+ */
+final class ProjectedBlock {
+
+    private final long number;
+
+    private final List<StateWrite> writes;
+
+    private final List<ContractEvent> events;
+
+    ProjectedBlock(final long number, final List<StateWrite> writes, final List<ContractEvent> events) {
+        this.number = number;
+        this.writes = writes;
+        this.events = events;
+    }
+
+    long getNumber() {
+        return number;
+    }
+
+    List<StateWrite> getWrites() {
+        return writes;
+    }
+
+    List<ContractEvent> getEvents() {
+        return events;
+    }
+}
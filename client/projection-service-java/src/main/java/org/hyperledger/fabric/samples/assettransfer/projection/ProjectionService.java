@@ -0,0 +1,125 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.client.Gateway;
+import org.hyperledger.fabric.samples.assettransfer.client.ChannelPool;
+import org.hyperledger.fabric.samples.assettransfer.client.CryptoMaterial;
+
+/**
+ * Off-chain read model of the asset transfer chaincode: follows the channel's blocks, keeps the assets and KYC records
+ * in an indexed in-memory model backed by a memory-mapped store, and serves queries over HTTP so dashboards do not
+ * compete with endorsement for the peers' CPU.
+ *
+ * <pre>
+ * java -jar projection-service.jar              # resume from the store's checkpoint
+ * java -jar projection-service.jar --rebuild    # discard the store and project again from block zero
+ * java -jar projection-service.jar --replay blocks.bin   # project a recorded block stream instead of a peer
+ * </pre>
+ *
+ * <p>Configured through the environment: {@code CRYPTO_SERVICE_URL}, {@code FABRIC_ORG}, {@code FABRIC_USER} and
+ * {@code FABRIC_PEER} select the identity and gateway peer from the crypto service; {@code CHANNEL_NAME},
+ * {@code CHAINCODE_NAME}, {@code PROJECTION_STORE} and {@code PROJECTION_PORT} default to {@code mychannel},
+ * {@code basic}, {@code projection.store} and 8090.</p>
+ */
+public final class ProjectionService {
+
+    private ProjectionService() {
+    }
+
+    private static String env(final String name, final String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        boolean rebuild = false;
+        Path replay = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--rebuild".equals(args[i])) {
+                rebuild = true;
+            } else if ("--replay".equals(args[i]) && i + 1 < args.length) {
+                replay = Paths.get(args[++i]);
+            } else {
+                System.out.println("Usage: projection-service [--rebuild] [--replay <recording>]");
+                System.exit(2);
+            }
+        }
+
+        Path storePath = Paths.get(env("PROJECTION_STORE", "projection.store"));
+        if (rebuild || replay != null) {
+            MappedStore.delete(storePath);
+        }
+
+        ReadModel model = new ReadModel();
+        MappedStore store = MappedStore.open(storePath, model::restore);
+        System.out.println(String.format("Restored %d assets and %d KYC records; resuming at block %d",
+                model.assetCount(), model.kycCount(), store.nextBlock()));
+
+        ChannelPool channels = null;
+        Gateway gateway = null;
+        BlockSource source;
+        if (replay != null) {
+            source = new RecordedBlockSource(replay);
+        } else {
+            String org = env("FABRIC_ORG", "org1.example.com");
+            String peer = env("FABRIC_PEER", "peer0");
+            URI cryptoService = URI.create(env("CRYPTO_SERVICE_URL", "http://localhost:8080"));
+            CryptoMaterial material = CryptoMaterial.fetch(cryptoService, org, env("FABRIC_USER", "User1"), peer);
+            channels = ChannelPool.open(material.getPeerEndpoint(), material.getPeerHostName(),
+                    material.getTlsCaCertificate().getBytes(StandardCharsets.UTF_8), 1);
+            gateway = Gateway.newInstance()
+                    .identity(material.identity())
+                    .signer(material.signer())
+                    .connection(channels.next())
+                    .connect();
+            source = new GatewayBlockSource(gateway.getNetwork(env("CHANNEL_NAME", "mychannel")));
+        }
+
+        Projector projector = new Projector(source, env("CHAINCODE_NAME", "basic"), store, model, replay == null);
+        QueryServer server = new QueryServer(Integer.parseInt(env("PROJECTION_PORT", "8090")), model, () -> {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("nextBlock", store.nextBlock());
+            status.put("assets", model.assetCount());
+            status.put("kycRecords", model.kycCount());
+            status.put("events", projector.eventCounts());
+            return status;
+        });
+        System.out.println("Serving queries on port " + server.getPort());
+
+        Thread projection = new Thread(projector, "projector");
+        ChannelPool openChannels = channels;
+        Gateway openGateway = gateway;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            projector.stop();
+            try {
+                projection.join();
+                store.close();
+            } catch (Exception e) {
+                System.out.println("Failed to close the projection store: " + e);
+            }
+            server.close();
+            if (openGateway != null) {
+                openGateway.close();
+                openChannels.close();
+            }
+        }));
+
+        projection.start();
+        projection.join();
+        if (replay != null) {
+            store.sync();
+            System.out.println(String.format("Replayed %s up to block %d; still serving queries", replay,
+                    store.nextBlock() - 1));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Projects blocks into the read model and its store, resuming from the store's checkpoint.
+ *
+ * <p>Each block's record writes are appended to the store before they are applied to the model, and the checkpoint
+ * then moves past the block. Blocks before the checkpoint are skipped, so a source that repeats blocks after a
+ * reconnect does not apply them twice.</p>
+ */
+final class Projector implements Runnable {
+
+    static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final BlockSource source;
+    private final String namespace;
+    private final MappedStore store;
+    private final ReadModel model;
+    private final boolean follow;
+    private final Map<String, LongAdder> events = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private volatile CloseableIterator<Block> blocks;
+
+    /**
+     * @param source the blocks to project
+     * @param namespace the chaincode's name
+     * @param store the store, which holds the checkpoint
+     * @param model the model, already restored from the store
+     * @param follow whether to reopen the source after it fails, as for a live peer, rather than stop
+     */
+    Projector(final BlockSource source, final String namespace, final MappedStore store, final ReadModel model,
+            final boolean follow) {
+        this.source = source;
+        this.namespace = namespace;
+        this.store = store;
+        this.model = model;
+        this.follow = follow;
+    }
+
+    /**
+     * Projects blocks until the source ends or {@link #stop()} is called.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try (CloseableIterator<Block> stream = source.blocks(store.nextBlock())) {
+                blocks = stream;
+                while (running && stream.hasNext()) {
+                    project(stream.next());
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (!running || !follow) {
+                    throw e;
+                }
+                System.out.println(String.format("Block stream failed at block %d, reconnecting: %s",
+                        store.nextBlock(), e));
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Projects one block, unless it is before the checkpoint.
+     *
+     * @param block the block
+     */
+    void project(final Block block) {
+        long number = block.getHeader().getNumber();
+        if (number < store.nextBlock()) {
+            return;
+        }
+
+        try {
+            ProjectedBlock projected = BlockDecoder.decode(block, namespace);
+            store.append(projected.getWrites());
+            model.apply(projected.getWrites());
+            for (ContractEvent event : projected.getEvents()) {
+                events.computeIfAbsent(event.getName(), name -> new LongAdder()).increment();
+            }
+            store.commit(number + 1);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(String.format("Block %d is malformed", number), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Stops projecting and closes the block stream.
+     */
+    void stop() {
+        running = false;
+        CloseableIterator<Block> stream = blocks;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return the number of chaincode events seen since the projector started, by event name
+     */
+    Map<String, Long> eventCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        events.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+}
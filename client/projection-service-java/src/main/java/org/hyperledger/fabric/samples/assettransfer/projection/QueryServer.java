@@ -0,0 +1,227 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.hyperledger.fabric.samples.assettransfer.client.KYCStatus;
+
+import com.owlike.genson.Genson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves read model queries as JSON over HTTP.
+ *
+ * <pre>
+ * GET /kyc/{id}
+ * GET /kyc?status=VERIFIED[&amp;after=id][&amp;limit=n]
+ * GET /kyc?issuer=Org1MSP[&amp;after=id][&amp;limit=n]
+ * GET /assets/{id}
+ * GET /assets?owner=Tomoko[&amp;after=id][&amp;limit=n]
+ * GET /assets?minValue=100&amp;maxValue=500[&amp;limit=n]
+ * GET /status
+ * </pre>
+ *
+ * <p>Lists are returned in ID order, or value and then ID order for value ranges, {@value #DEFAULT_LIMIT} at a time
+ * unless a limit up to {@value #MAX_LIMIT} is given; pass the last ID returned as {@code after} for the next page.</p>
+ */
+final class QueryServer implements AutoCloseable {
+
+    static final int DEFAULT_LIMIT = 100;
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ReadModel model;
+    private final Supplier<Map<String, Object>> status;
+    private final Genson genson = new Genson();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts serving.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param model the read model
+     * @param status supplies the projection status for {@code /status}
+     * @throws IOException if the port cannot be bound
+     */
+    QueryServer(final int port, final ReadModel model, final Supplier<Map<String, Object>> status)
+            throws IOException {
+        this.model = model;
+        this.status = status;
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/kyc", exchange -> handle(exchange, this::kyc));
+        server.createContext("/assets", exchange -> handle(exchange, this::assets));
+        server.createContext("/status", exchange -> handle(exchange, request -> status.get()));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * A query that could not be answered, with the HTTP status to answer it with.
+     */
+    private static final class QueryException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        QueryException(final int status, final String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * The parts of a request the queries need.
+     */
+    private static final class Request {
+
+        private final String id;
+        private final Map<String, String> parameters;
+
+        Request(final String id, final Map<String, String> parameters) {
+            this.id = id;
+            this.parameters = parameters;
+        }
+
+        String parameter(final String name) {
+            return parameters.get(name);
+        }
+
+        String after() {
+            return parameters.getOrDefault("after", "");
+        }
+
+        int integer(final String name, final int defaultValue) {
+            String value = parameters.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new QueryException(400, String.format("%s is not an integer: %s", name, value));
+            }
+        }
+
+        int limit() {
+            int limit = integer("limit", DEFAULT_LIMIT);
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new QueryException(400, String.format("limit must be between 1 and %d", MAX_LIMIT));
+            }
+            return limit;
+        }
+    }
+
+    private Object kyc(final Request request) {
+        if (!request.id.isEmpty()) {
+            return found(model.getKYC(request.id), "KYC record " + request.id);
+        }
+        if (request.parameter("status") != null) {
+            KYCStatus kycStatus;
+            try {
+                kycStatus = KYCStatus.valueOf(request.parameter("status"));
+            } catch (IllegalArgumentException e) {
+                throw new QueryException(400, "Unknown status " + request.parameter("status"));
+            }
+            return model.getKYCByStatus(kycStatus, request.after(), request.limit());
+        }
+        if (request.parameter("issuer") != null) {
+            return model.getKYCByIssuer(request.parameter("issuer"), request.after(), request.limit());
+        }
+        throw new QueryException(400, "Query KYC records by id, status or issuer");
+    }
+
+    private Object assets(final Request request) {
+        if (!request.id.isEmpty()) {
+            return found(model.getAsset(request.id), "Asset " + request.id);
+        }
+        if (request.parameter("owner") != null) {
+            return model.getAssetsByOwner(request.parameter("owner"), request.after(), request.limit());
+        }
+        if (request.parameter("minValue") != null || request.parameter("maxValue") != null) {
+            return model.getAssetsByValueRange(request.integer("minValue", Integer.MIN_VALUE),
+                    request.integer("maxValue", Integer.MAX_VALUE), request.limit());
+        }
+        throw new QueryException(400, "Query assets by id, owner or value range");
+    }
+
+    private static Object found(final Object record, final String description) {
+        if (record == null) {
+            throw new QueryException(404, description + " does not exist");
+        }
+        return record;
+    }
+
+    private void handle(final HttpExchange exchange, final Function<Request, Object> query) throws IOException {
+        int code = 200;
+        Object body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                throw new QueryException(405, "Only GET is supported");
+            }
+            body = query.apply(request(exchange));
+        } catch (QueryException e) {
+            code = e.status;
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            body = error;
+        }
+
+        byte[] json = genson.serialize(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static Request request(final HttpExchange exchange) {
+        String context = exchange.getHttpContext().getPath();
+        String path = exchange.getRequestURI().getRawPath().substring(context.length());
+        String id = path.startsWith("/") ? decode(path.substring(1)) : "";
+
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    String name = decode(parameter.substring(0, separator));
+                    parameters.put(name, decode(parameter.substring(separator + 1)));
+                }
+            }
+        }
+        return new Request(id, parameters);
+    }
+
+    private static String decode(final String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
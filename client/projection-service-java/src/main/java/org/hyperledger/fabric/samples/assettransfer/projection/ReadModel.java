@@ -0,0 +1,277 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.hyperledger.fabric.samples.assettransfer.client.Asset;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCRecord;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCStatus;
+
+import com.owlike.genson.Genson;
+
+/**
+ * In-memory, indexed copy of the chaincode's assets and KYC records.
+ *
+ * <p>Records are kept by ID, with secondary indexes of KYC records by status and by issuer, and of assets by owner and
+ * by appraised value. Index entries are ordered by ID (within a value, for the value index), so every query is a
+ * bounded walk of a sorted set and paging resumes after the last ID returned.</p>
+ *
+ * <p>A block's writes are applied under a write lock, so readers see whole blocks.</p>
+ */
+final class ReadModel {
+
+    // Keys starting with this character are the chaincode's composite index keys, not records.
+    private static final char COMPOSITE_KEY_NAMESPACE = '\u0000';
+
+    private final Genson genson = new Genson();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, KYCRecord> kycRecords = new HashMap<>();
+    private final Map<KYCStatus, NavigableSet<String>> kycByStatus = new EnumMap<>(KYCStatus.class);
+    private final Map<String, NavigableSet<String>> kycByIssuer = new HashMap<>();
+
+    private final Map<String, Asset> assets = new HashMap<>();
+    private final Map<String, NavigableSet<String>> assetsByOwner = new HashMap<>();
+    private final TreeMap<Integer, NavigableSet<String>> assetsByValue = new TreeMap<>();
+
+    /**
+     * Applies the writes of one block.
+     *
+     * @param writes the writes, in transaction order
+     */
+    void apply(final List<StateWrite> writes) {
+        lock.writeLock().lock();
+        try {
+            for (StateWrite write : writes) {
+                apply(write.getKey(), write.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the latest value of one key, as read back from the store.
+     *
+     * @param key the key
+     * @param value the value, or null if the key was deleted
+     */
+    void restore(final String key, final byte[] value) {
+        lock.writeLock().lock();
+        try {
+            apply(key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether a key holds a record this model keeps, rather than an index entry.
+     *
+     * @param key the ledger key
+     * @return true for asset and KYC record keys
+     */
+    static boolean isRecordKey(final String key) {
+        return !key.isEmpty() && key.charAt(0) != COMPOSITE_KEY_NAMESPACE;
+    }
+
+    private void apply(final String key, final byte[] value) {
+        if (!isRecordKey(key)) {
+            return;
+        }
+
+        removeKYC(key, kycRecords.remove(key));
+        removeAsset(key, assets.remove(key));
+        if (value == null || value.length == 0) {
+            return;
+        }
+
+        String json = new String(value, StandardCharsets.UTF_8);
+        if (json.contains("\"assetID\"")) {
+            Asset asset = genson.deserialize(json, Asset.class);
+            assets.put(key, asset);
+            index(assetsByOwner, asset.getOwner(), key);
+            index(assetsByValue, asset.getAppraisedValue(), key);
+        } else if (json.contains("\"documentHash\"")) {
+            KYCRecord record = genson.deserialize(json, KYCRecord.class);
+            kycRecords.put(key, record);
+            index(kycByStatus, record.getStatus(), key);
+            index(kycByIssuer, record.getIssuerMSP(), key);
+        }
+    }
+
+    private void removeKYC(final String key, final KYCRecord previous) {
+        if (previous != null) {
+            unindex(kycByStatus, previous.getStatus(), key);
+            unindex(kycByIssuer, previous.getIssuerMSP(), key);
+        }
+    }
+
+    private void removeAsset(final String key, final Asset previous) {
+        if (previous != null) {
+            unindex(assetsByOwner, previous.getOwner(), key);
+            unindex(assetsByValue, previous.getAppraisedValue(), key);
+        }
+    }
+
+    private static <K> void index(final Map<K, NavigableSet<String>> index, final K value, final String key) {
+        if (value != null) {
+            index.computeIfAbsent(value, v -> new TreeSet<>()).add(key);
+        }
+    }
+
+    private static <K> void unindex(final Map<K, NavigableSet<String>> index, final K value, final String key) {
+        if (value == null) {
+            return;
+        }
+        NavigableSet<String> keys = index.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    KYCRecord getKYC(final String id) {
+        lock.readLock().lock();
+        try {
+            return kycRecords.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns KYC records with a status, in ID order.
+     *
+     * @param status the status
+     * @param after the last ID of the previous page, or empty for the first page
+     * @param limit the most records to return
+     * @return the records
+     */
+    List<KYCRecord> getKYCByStatus(final KYCStatus status, final String after, final int limit) {
+        lock.readLock().lock();
+        try {
+            return page(kycByStatus.get(status), after, limit, kycRecords);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns KYC records last updated by an MSP, in ID order.
+     *
+     * @param issuerMSP the MSP ID
+     * @param after the last ID of the previous page, or empty for the first page
+     * @param limit the most records to return
+     * @return the records
+     */
+    List<KYCRecord> getKYCByIssuer(final String issuerMSP, final String after, final int limit) {
+        lock.readLock().lock();
+        try {
+            return page(kycByIssuer.get(issuerMSP), after, limit, kycRecords);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Asset getAsset(final String assetID) {
+        lock.readLock().lock();
+        try {
+            return assets.get(assetID);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the assets held by an owner, in ID order.
+     *
+     * @param owner the owner
+     * @param after the last ID of the previous page, or empty for the first page
+     * @param limit the most assets to return
+     * @return the assets
+     */
+    List<Asset> getAssetsByOwner(final String owner, final String after, final int limit) {
+        lock.readLock().lock();
+        try {
+            return page(assetsByOwner.get(owner), after, limit, assets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the assets whose appraised value is in a range, in ascending value and then ID order.
+     *
+     * @param minValue the lowest value, inclusive
+     * @param maxValue the highest value, inclusive
+     * @param limit the most assets to return
+     * @return the assets
+     */
+    List<Asset> getAssetsByValueRange(final int minValue, final int maxValue, final int limit) {
+        lock.readLock().lock();
+        try {
+            List<Asset> page = new ArrayList<>();
+            if (minValue > maxValue) {
+                return page;
+            }
+            for (Collection<String> keys : assetsByValue.subMap(minValue, true, maxValue, true).values()) {
+                for (String key : keys) {
+                    if (page.size() >= limit) {
+                        return page;
+                    }
+                    page.add(assets.get(key));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int kycCount() {
+        lock.readLock().lock();
+        try {
+            return kycRecords.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int assetCount() {
+        lock.readLock().lock();
+        try {
+            return assets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <T> List<T> page(final NavigableSet<String> keys, final String after, final int limit,
+            final Map<String, T> records) {
+        List<T> page = new ArrayList<>();
+        if (keys == null) {
+            return page;
+        }
+        for (String key : after.isEmpty() ? keys : keys.tailSet(after, false)) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(records.get(key));
+        }
+        return page;
+    }
+}
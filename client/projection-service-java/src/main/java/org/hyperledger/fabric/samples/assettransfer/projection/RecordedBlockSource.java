@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+/**
+ * Blocks recorded to a file as length-delimited protobuf messages, as written by {@link #record(OutputStream, Block)}.
+ *
+ * <p>Used to replay a captured event stream into a fresh read model without a peer, and by the tests. The stream ends
+ * at the end of the file.</p>
+ */
+final class RecordedBlockSource implements BlockSource {
+
+    private final Path recording;
+
+    RecordedBlockSource(final Path recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Appends a block to a recording.
+     *
+     * @param out the recording
+     * @param block the block
+     * @throws IOException if the block cannot be written
+     */
+    static void record(final OutputStream out, final Block block) throws IOException {
+        block.writeDelimitedTo(out);
+    }
+
+    @Override
+    public CloseableIterator<Block> blocks(final long startBlock) {
+        InputStream in;
+        try {
+            in = new BufferedInputStream(Files.newInputStream(recording));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new CloseableIterator<Block>() {
+            private Block next = read();
+
+            private Block read() {
+                try {
+                    Block block = Block.parseDelimitedFrom(in);
+                    while (block != null && block.getHeader().getNumber() < startBlock) {
+                        block = Block.parseDelimitedFrom(in);
+                    }
+                    return block;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Block next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Block block = next;
+                next = read();
+                return block;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
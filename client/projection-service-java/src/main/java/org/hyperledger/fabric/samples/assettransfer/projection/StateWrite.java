@@ -0,0 +1,42 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+/**
+ * One key written by a valid transaction: its new value, or a deletion.
+ */
+final class StateWrite {
+
+    private final String transactionId;
+
+    private final String key;
+
+    private final byte[] value;
+
+    StateWrite(final String transactionId, final String key, final byte[] value) {
+        this.transactionId = transactionId;
+        this.key = key;
+        this.value = value;
+    }
+
+    String getTransactionId() {
+        return transactionId;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the new value, or null if the key was deleted
+     */
+    byte[] getValue() {
+        return value;
+    }
+
+    boolean isDelete() {
+        return value == null;
+    }
+}
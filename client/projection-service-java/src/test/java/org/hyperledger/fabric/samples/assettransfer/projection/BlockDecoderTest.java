@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.charset.StandardCharsets;
+
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.junit.jupiter.api.Test;
+
+public final class BlockDecoderTest {
+
+    @Test
+    public void decodesWritesAndEventsOfValidTransactions() throws Exception {
+        ProjectedBlock block = BlockDecoder.decode(TestBlocks.block(7)
+                .transaction("tx1").put("kyc1", TestBlocks.kyc("kyc1", "PENDING", "Org1MSP"))
+                        .put("\u0000kyc~status\u0000PENDING\u0000kyc1\u0000", "\u0000")
+                        .event("KYCCreated", "{\"id\":\"kyc1\"}").end()
+                .transaction("tx2").delete("asset1").end()
+                .build(), TestBlocks.NAMESPACE);
+
+        assertThat(block.getNumber()).isEqualTo(7);
+        assertThat(block.getWrites())
+                .extracting(StateWrite::getTransactionId, StateWrite::getKey, StateWrite::isDelete)
+                .containsExactly(
+                        tuple("tx1", "kyc1", false),
+                        tuple("tx1", "\u0000kyc~status\u0000PENDING\u0000kyc1\u0000", false),
+                        tuple("tx2", "asset1", true));
+        assertThat(block.getEvents()).singleElement().satisfies(event -> {
+            assertThat(event.getTransactionId()).isEqualTo("tx1");
+            assertThat(event.getName()).isEqualTo("KYCCreated");
+            assertThat(new String(event.getPayload(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"kyc1\"}");
+        });
+    }
+
+    @Test
+    public void skipsTransactionsThePeerInvalidated() throws Exception {
+        ProjectedBlock block = BlockDecoder.decode(TestBlocks.block(1)
+                .transaction("conflicted").put("asset1", TestBlocks.asset("asset1", "blue", 5, "Tomoko", 300))
+                        .invalid(TxValidationCode.MVCC_READ_CONFLICT).end()
+                .transaction("valid").put("asset2", TestBlocks.asset("asset2", "red", 5, "Brad", 400)).end()
+                .build(), TestBlocks.NAMESPACE);
+
+        assertThat(block.getWrites()).extracting(StateWrite::getTransactionId).containsExactly("valid");
+    }
+
+    @Test
+    public void skipsOtherChaincodesAndConfigTransactions() throws Exception {
+        ProjectedBlock block = BlockDecoder.decode(TestBlocks.block(2)
+                .config()
+                .transaction("other").namespace("_lifecycle").put("namespaces/fields/basic", "x").end()
+                .build(), TestBlocks.NAMESPACE);
+
+        assertThat(block.getWrites()).isEmpty();
+        assertThat(block.getEvents()).isEmpty();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class MappedStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static StateWrite put(final String key, final String value) {
+        return new StateWrite("tx", key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> restored(final Map<String, byte[]> records) {
+        Map<String, String> values = new LinkedHashMap<>();
+        records.forEach((key, value) ->
+                values.put(key, value == null ? null : new String(value, StandardCharsets.UTF_8)));
+        return values;
+    }
+
+    @Test
+    public void restoresTheLatestValuesAndCheckpointOnReopening() throws IOException {
+        Path path = directory.resolve("projection.store");
+        try (MappedStore store = MappedStore.open(path, (key, value) -> { })) {
+            store.append(List.of(put("asset1", "v1"), put("asset2", "v1"), put("\u0000index\u0000asset1\u0000", "x")));
+            store.commit(5);
+            store.append(List.of(put("asset1", "v2"), new StateWrite("tx", "asset2", null)));
+            store.commit(6);
+        }
+
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        try (MappedStore store = MappedStore.open(path, records::put)) {
+            assertThat(store.nextBlock()).isEqualTo(6);
+        }
+        assertThat(restored(records)).containsOnlyKeys("asset1", "asset2").containsEntry("asset1", "v2")
+                .containsEntry("asset2", null);
+    }
+
+    @Test
+    public void discardsRecordsPastTheLastSync() throws IOException {
+        Path path = directory.resolve("projection.store");
+        try (MappedStore store = MappedStore.open(path, (key, value) -> { })) {
+            store.append(List.of(put("asset1", "v1")));
+            store.commit(1);
+            store.sync();
+            store.append(List.of(put("asset2", "v1")));
+            store.commit(2);
+
+            // A second mapping sees what a restart after a crash at this point would see.
+            Map<String, byte[]> records = new LinkedHashMap<>();
+            try (MappedStore reopened = MappedStore.open(path, records::put)) {
+                assertThat(reopened.nextBlock()).isEqualTo(1);
+            }
+            assertThat(records).containsOnlyKeys("asset1");
+        }
+    }
+
+    @Test
+    public void growsPastItsInitialSize() throws IOException {
+        Path path = directory.resolve("projection.store");
+        String value = "x".repeat(1000);
+        try (MappedStore store = MappedStore.open(path, (key, v) -> { })) {
+            for (int i = 0; i < 3000; i++) {
+                store.append(List.of(put("asset" + i, value)));
+            }
+            store.commit(1);
+        }
+
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        MappedStore.open(path, records::put).close();
+        assertThat(Files.size(path)).isGreaterThan(MappedStore.INITIAL_SIZE);
+        assertThat(records).hasSize(3000);
+    }
+
+    @Test
+    public void compactsSupersededRecords() throws IOException {
+        Path path = directory.resolve("projection.store");
+        String value = "x".repeat(100);
+        try (MappedStore store = MappedStore.open(path, (key, v) -> { })) {
+            for (int i = 0; i < 30000; i++) {
+                store.append(List.of(put("asset" + i % 10, value + i)));
+            }
+            store.commit(42);
+        }
+        assertThat(Files.size(path)).isGreaterThan(MappedStore.INITIAL_SIZE);
+
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        try (MappedStore store = MappedStore.open(path, records::put)) {
+            assertThat(store.nextBlock()).isEqualTo(42);
+        }
+        assertThat(Files.size(path)).isEqualTo(MappedStore.INITIAL_SIZE);
+        assertThat(restored(records)).hasSize(10).containsEntry("asset9", value + 29999);
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotStores() throws IOException {
+        Path path = directory.resolve("projection.store");
+        Files.write(path, "not a store".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(catchThrowable(() -> MappedStore.open(path, (key, value) -> { })))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a version 1 projection store");
+    }
+}
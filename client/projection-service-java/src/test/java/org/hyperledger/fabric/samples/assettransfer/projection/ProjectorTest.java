@@ -0,0 +1,116 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.samples.assettransfer.client.Asset;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCRecord;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class ProjectorTest {
+
+    @TempDir
+    Path directory;
+
+    private static final Block GENESIS = TestBlocks.block(0).config().build();
+
+    private static final Block CREATES = TestBlocks.block(1)
+            .transaction("tx1").put("asset1", TestBlocks.asset("asset1", "blue", 5, "Tomoko", 300)).end()
+            .transaction("tx2").put("kyc1", TestBlocks.kyc("kyc1", "PENDING", "Org1MSP"))
+                    .event("KYCCreated", "{}").end()
+            .build();
+
+    private static final Block UPDATES = TestBlocks.block(2)
+            .transaction("tx3").put("asset1", TestBlocks.asset("asset1", "blue", 5, "Brad", 300)).end()
+            .transaction("tx4").put("kyc1", TestBlocks.kyc("kyc1", "VERIFIED", "Org2MSP"))
+                    .event("KYCVerified", "{}").end()
+            .build();
+
+    private Path record(final String name, final Block... blocks) throws IOException {
+        Path recording = directory.resolve(name);
+        try (OutputStream out = Files.newOutputStream(recording, StandardOpenOption.CREATE_NEW)) {
+            for (Block block : blocks) {
+                RecordedBlockSource.record(out, block);
+            }
+        }
+        return recording;
+    }
+
+    private static ReadModel project(final Path recording, final Path storePath, final Projector[] projector)
+            throws IOException {
+        ReadModel model = new ReadModel();
+        try (MappedStore store = MappedStore.open(storePath, model::restore)) {
+            projector[0] = new Projector(new RecordedBlockSource(recording), TestBlocks.NAMESPACE, store, model, false);
+            projector[0].run();
+        }
+        return model;
+    }
+
+    @Test
+    public void projectsARecordedStream() throws IOException {
+        Projector[] projector = new Projector[1];
+        ReadModel model = project(record("blocks.bin", GENESIS, CREATES, UPDATES), directory.resolve("store"),
+                projector);
+
+        assertThat(model.getAsset("asset1").getOwner()).isEqualTo("Brad");
+        assertThat(model.getKYCByStatus(KYCStatus.VERIFIED, "", 10)).extracting(KYCRecord::getId)
+                .containsExactly("kyc1");
+        assertThat(projector[0].eventCounts()).containsEntry("KYCCreated", 1L).containsEntry("KYCVerified", 1L);
+    }
+
+    @Test
+    public void resumesFromTheCheckpointWithoutReapplyingBlocks() throws IOException {
+        Path store = directory.resolve("store");
+        Projector[] projector = new Projector[1];
+        project(record("first.bin", GENESIS, CREATES), store, projector);
+
+        // The second stream repeats block 1, as a peer does when asked to start before the checkpoint.
+        ReadModel model = project(record("second.bin", CREATES, UPDATES), store, projector);
+
+        assertThat(projector[0].eventCounts()).containsOnlyKeys("KYCVerified");
+        assertThat(model.getAssetsByOwner("Brad", "", 10)).extracting(Asset::getAssetID).containsExactly("asset1");
+        assertThat(model.getAssetsByOwner("Tomoko", "", 10)).isEmpty();
+        try (MappedStore reopened = MappedStore.open(store, (key, value) -> { })) {
+            assertThat(reopened.nextBlock()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void rebuildsTheSameModelFromBlockZero() throws IOException {
+        Path recording = record("blocks.bin", GENESIS, CREATES, UPDATES);
+        Path store = directory.resolve("store");
+        Projector[] projector = new Projector[1];
+        ReadModel original = project(recording, store, projector);
+
+        MappedStore.delete(store);
+        ReadModel rebuilt = project(recording, store, projector);
+
+        assertThat(rebuilt.assetCount()).isEqualTo(original.assetCount());
+        assertThat(rebuilt.getKYC("kyc1").getStatus()).isEqualTo(original.getKYC("kyc1").getStatus());
+        assertThat(projector[0].eventCounts()).containsEntry("KYCCreated", 1L);
+    }
+
+    @Test
+    public void restoresTheModelFromTheStoreAlone() throws IOException {
+        Path store = directory.resolve("store");
+        project(record("blocks.bin", GENESIS, CREATES, UPDATES), store, new Projector[1]);
+
+        ReadModel model = new ReadModel();
+        MappedStore.open(store, model::restore).close();
+
+        assertThat(model.getAsset("asset1").getOwner()).isEqualTo("Brad");
+        assertThat(model.getKYC("kyc1").getIssuerMSP()).isEqualTo("Org2MSP");
+    }
+}
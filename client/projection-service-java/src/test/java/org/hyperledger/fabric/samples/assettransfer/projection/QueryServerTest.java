@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class QueryServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private QueryServer server;
+
+    @BeforeEach
+    public void start() throws Exception {
+        ReadModel model = new ReadModel();
+        model.apply(List.of(
+                new StateWrite("tx", "asset1", bytes(TestBlocks.asset("asset1", "blue", 5, "Tomoko", 300))),
+                new StateWrite("tx", "asset2", bytes(TestBlocks.asset("asset2", "red", 5, "Tomoko", 700))),
+                new StateWrite("tx", "kyc1", bytes(TestBlocks.kyc("kyc1", "VERIFIED", "Org1MSP")))));
+        server = new QueryServer(0, model, () -> Map.of("nextBlock", 3L));
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private HttpResponse<String> get(final String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void servesRecordsById() throws Exception {
+        HttpResponse<String> response = get("/kyc/kyc1");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(response.body()).contains("\"id\":\"kyc1\"", "\"status\":\"VERIFIED\"");
+    }
+
+    @Test
+    public void servesIndexQueries() throws Exception {
+        assertThat(get("/assets?owner=Tomoko&limit=1").body()).contains("asset1").doesNotContain("asset2");
+        assertThat(get("/assets?owner=Tomoko&after=asset1").body()).contains("asset2").doesNotContain("asset1");
+        assertThat(get("/assets?minValue=500").body()).contains("asset2").doesNotContain("asset1");
+        assertThat(get("/kyc?status=VERIFIED").body()).contains("kyc1");
+        assertThat(get("/kyc?issuer=Org2MSP").body()).isEqualTo("[]");
+        assertThat(get("/status").body()).isEqualTo("{\"nextBlock\":3}");
+    }
+
+    @Test
+    public void answersBadQueriesWithErrors() throws Exception {
+        HttpResponse<String> missing = get("/assets/asset9");
+        assertThat(missing.statusCode()).isEqualTo(404);
+        assertThat(missing.body()).isEqualTo("{\"error\":\"Asset asset9 does not exist\"}");
+
+        assertThat(get("/kyc?status=UNKNOWN").statusCode()).isEqualTo(400);
+        assertThat(get("/kyc?status=VERIFIED&limit=0").statusCode()).isEqualTo(400);
+        assertThat(get("/assets?minValue=cheap").statusCode()).isEqualTo(400);
+        assertThat(get("/assets").statusCode()).isEqualTo(400);
+    }
+}
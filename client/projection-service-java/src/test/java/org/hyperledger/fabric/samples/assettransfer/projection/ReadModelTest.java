@@ -0,0 +1,112 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.hyperledger.fabric.samples.assettransfer.client.Asset;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCRecord;
+import org.hyperledger.fabric.samples.assettransfer.client.KYCStatus;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class ReadModelTest {
+
+    private static StateWrite put(final String key, final String value) {
+        return new StateWrite("tx", key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StateWrite delete(final String key) {
+        return new StateWrite("tx", key, null);
+    }
+
+    @Nested
+    class KYCRecords {
+
+        @Test
+        public void movesRecordsBetweenStatusIndexes() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("kyc1", TestBlocks.kyc("kyc1", "PENDING", "Org1MSP")),
+                    put("kyc2", TestBlocks.kyc("kyc2", "PENDING", "Org1MSP"))));
+            model.apply(List.of(put("kyc1", TestBlocks.kyc("kyc1", "VERIFIED", "Org2MSP"))));
+
+            assertThat(model.getKYCByStatus(KYCStatus.PENDING, "", 10)).extracting(KYCRecord::getId)
+                    .containsExactly("kyc2");
+            assertThat(model.getKYCByStatus(KYCStatus.VERIFIED, "", 10)).extracting(KYCRecord::getId)
+                    .containsExactly("kyc1");
+            assertThat(model.getKYCByIssuer("Org1MSP", "", 10)).extracting(KYCRecord::getId)
+                    .containsExactly("kyc2");
+            assertThat(model.getKYC("kyc1").getStatus()).isEqualTo(KYCStatus.VERIFIED);
+        }
+
+        @Test
+        public void pagesInIdOrder() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("kyc3", TestBlocks.kyc("kyc3", "PENDING", "Org1MSP")),
+                    put("kyc1", TestBlocks.kyc("kyc1", "PENDING", "Org1MSP")),
+                    put("kyc2", TestBlocks.kyc("kyc2", "PENDING", "Org1MSP"))));
+
+            assertThat(model.getKYCByStatus(KYCStatus.PENDING, "", 2)).extracting(KYCRecord::getId)
+                    .containsExactly("kyc1", "kyc2");
+            assertThat(model.getKYCByStatus(KYCStatus.PENDING, "kyc2", 2)).extracting(KYCRecord::getId)
+                    .containsExactly("kyc3");
+        }
+
+        @Test
+        public void ignoresCompositeIndexKeys() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("\u0000kyc~status\u0000PENDING\u0000kyc1\u0000", "\u0000")));
+
+            assertThat(model.kycCount()).isZero();
+            assertThat(ReadModel.isRecordKey("\u0000kyc~status\u0000PENDING\u0000kyc1\u0000")).isFalse();
+            assertThat(ReadModel.isRecordKey("kyc1")).isTrue();
+        }
+    }
+
+    @Nested
+    class Assets {
+
+        @Test
+        public void followsTransfersBetweenOwners() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("asset1", TestBlocks.asset("asset1", "blue", 5, "Tomoko", 300))));
+            model.apply(List.of(put("asset1", TestBlocks.asset("asset1", "blue", 5, "Brad", 300))));
+
+            assertThat(model.getAssetsByOwner("Tomoko", "", 10)).isEmpty();
+            assertThat(model.getAssetsByOwner("Brad", "", 10)).extracting(Asset::getAssetID)
+                    .containsExactly("asset1");
+        }
+
+        @Test
+        public void returnsValueRangesInValueOrder() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("asset1", TestBlocks.asset("asset1", "blue", 5, "Tomoko", 500)),
+                    put("asset2", TestBlocks.asset("asset2", "red", 5, "Brad", 100)),
+                    put("asset3", TestBlocks.asset("asset3", "green", 5, "Jin Soo", 300)),
+                    put("asset4", TestBlocks.asset("asset4", "yellow", 5, "Max", 900))));
+
+            assertThat(model.getAssetsByValueRange(100, 500, 10)).extracting(Asset::getAssetID)
+                    .containsExactly("asset2", "asset3", "asset1");
+            assertThat(model.getAssetsByValueRange(100, 500, 2)).extracting(Asset::getAssetID)
+                    .containsExactly("asset2", "asset3");
+            assertThat(model.getAssetsByValueRange(500, 100, 10)).isEmpty();
+        }
+
+        @Test
+        public void removesDeletedAssetsFromEveryIndex() {
+            ReadModel model = new ReadModel();
+            model.apply(List.of(put("asset1", TestBlocks.asset("asset1", "blue", 5, "Tomoko", 300))));
+            model.apply(List.of(delete("asset1")));
+
+            assertThat(model.getAsset("asset1")).isNull();
+            assertThat(model.getAssetsByOwner("Tomoko", "", 10)).isEmpty();
+            assertThat(model.getAssetsByValueRange(0, 1000, 10)).isEmpty();
+            assertThat(model.assetCount()).isZero();
+        }
+    }
+}
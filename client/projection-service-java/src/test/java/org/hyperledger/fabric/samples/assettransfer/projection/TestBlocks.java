@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer.projection;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockData;
+import org.hyperledger.fabric.protos.common.BlockHeader;
+import org.hyperledger.fabric.protos.common.BlockMetadata;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ChaincodeEndorsedAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.ChaincodeID;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Builds blocks shaped like the ones a peer delivers, with read-write sets, chaincode events and a transaction filter.
+ */
+final class TestBlocks {
+
+    static final String NAMESPACE = "basic";
+
+    private TestBlocks() {
+    }
+
+    static BlockBuilder block(final long number) {
+        return new BlockBuilder(number);
+    }
+
+    static String asset(final String id, final String color, final int size, final String owner, final int value) {
+        return String.format("{\"appraisedValue\":%d,\"assetID\":\"%s\",\"color\":\"%s\",\"owner\":\"%s\",\"size\":%d}",
+                value, id, color, owner, size);
+    }
+
+    static String kyc(final String id, final String status, final String issuerMSP) {
+        return String.format("{\"documentHash\":\"hash-%s\",\"documentType\":\"Passport\",\"dob\":\"1990-01-01\","
+                + "\"expiresAt\":0,\"fullName\":\"Person %s\",\"id\":\"%s\",\"issuerMSP\":\"%s\","
+                + "\"nationality\":\"RW\",\"status\":\"%s\",\"updatedAt\":1700000000}", id, id, id, issuerMSP, status);
+    }
+
+    static final class BlockBuilder {
+
+        private final long number;
+        private final List<ByteString> envelopes = new ArrayList<>();
+        private final ByteArrayOutputStream filter = new ByteArrayOutputStream();
+
+        private BlockBuilder(final long number) {
+            this.number = number;
+        }
+
+        TransactionBuilder transaction(final String txId) {
+            return new TransactionBuilder(this, txId);
+        }
+
+        BlockBuilder config() {
+            ChannelHeader header = ChannelHeader.newBuilder().setType(HeaderType.CONFIG_VALUE).build();
+            envelopes.add(envelope(header, ByteString.EMPTY));
+            filter.write(TxValidationCode.VALID_VALUE);
+            return this;
+        }
+
+        Block build() {
+            return Block.newBuilder()
+                    .setHeader(BlockHeader.newBuilder().setNumber(number))
+                    .setData(BlockData.newBuilder().addAllData(envelopes))
+                    .setMetadata(BlockMetadata.newBuilder()
+                            .addMetadata(ByteString.EMPTY)
+                            .addMetadata(ByteString.EMPTY)
+                            .addMetadata(ByteString.copyFrom(filter.toByteArray())))
+                    .build();
+        }
+
+        private static ByteString envelope(final ChannelHeader header, final ByteString data) {
+            Payload payload = Payload.newBuilder()
+                    .setHeader(Header.newBuilder().setChannelHeader(header.toByteString()))
+                    .setData(data)
+                    .build();
+            return Envelope.newBuilder().setPayload(payload.toByteString()).build().toByteString();
+        }
+    }
+
+    static final class TransactionBuilder {
+
+        private final BlockBuilder block;
+        private final String txId;
+        private final KVRWSet.Builder writes = KVRWSet.newBuilder();
+        private final ChaincodeEvent.Builder event = ChaincodeEvent.newBuilder();
+        private String namespace = NAMESPACE;
+        private TxValidationCode code = TxValidationCode.VALID;
+
+        private TransactionBuilder(final BlockBuilder block, final String txId) {
+            this.block = block;
+            this.txId = txId;
+        }
+
+        TransactionBuilder namespace(final String chaincodeName) {
+            namespace = chaincodeName;
+            return this;
+        }
+
+        TransactionBuilder put(final String key, final String value) {
+            writes.addWrites(KVWrite.newBuilder().setKey(key).setValue(ByteString.copyFromUtf8(value)));
+            return this;
+        }
+
+        TransactionBuilder delete(final String key) {
+            writes.addWrites(KVWrite.newBuilder().setKey(key).setIsDelete(true));
+            return this;
+        }
+
+        TransactionBuilder event(final String name, final String payload) {
+            event.setEventName(name).setPayload(ByteString.copyFromUtf8(payload)).setTxId(txId);
+            return this;
+        }
+
+        TransactionBuilder invalid(final TxValidationCode validationCode) {
+            code = validationCode;
+            return this;
+        }
+
+        BlockBuilder end() {
+            NsReadWriteSet namespaceWrites = NsReadWriteSet.newBuilder()
+                    .setNamespace(namespace)
+                    .setRwset(writes.build().toByteString())
+                    .build();
+            TxReadWriteSet results = TxReadWriteSet.newBuilder()
+                    .setDataModel(TxReadWriteSet.DataModel.KV)
+                    .addNsRwset(namespaceWrites)
+                    .build();
+            ChaincodeAction action = ChaincodeAction.newBuilder()
+                    .setChaincodeId(ChaincodeID.newBuilder().setName(namespace))
+                    .setResults(results.toByteString())
+                    .setEvents(event.build().toByteString())
+                    .build();
+            ProposalResponsePayload response = ProposalResponsePayload.newBuilder()
+                    .setExtension(action.toByteString())
+                    .build();
+            ChaincodeActionPayload actionPayload = ChaincodeActionPayload.newBuilder()
+                    .setAction(ChaincodeEndorsedAction.newBuilder().setProposalResponsePayload(response.toByteString()))
+                    .build();
+            Transaction transaction = Transaction.newBuilder()
+                    .addActions(TransactionAction.newBuilder().setPayload(actionPayload.toByteString()))
+                    .build();
+
+            ChannelHeader header = ChannelHeader.newBuilder()
+                    .setType(HeaderType.ENDORSER_TRANSACTION_VALUE)
+                    .setTxId(txId)
+                    .build();
+            block.envelopes.add(BlockBuilder.envelope(header, transaction.toByteString()));
+            block.filter.write(code.getNumber());
+            return block;
+        }
+    }
+}